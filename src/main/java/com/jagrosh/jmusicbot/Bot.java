@@ -27,11 +27,20 @@ import com.jagrosh.jmusicbot.audio.YouTubeChapterManager;
 import com.jagrosh.jmusicbot.gui.GUI;
 import com.jagrosh.jmusicbot.playlist.PlaylistLoader;
 import com.jagrosh.jmusicbot.settings.SettingsManager;
+import com.jagrosh.jmusicbot.utils.OtherUtil;
+import dev.cosgy.jmusicbot.audionode.AudioNodePool;
+import dev.cosgy.jmusicbot.lyrics.LyricsService;
 import dev.cosgy.jmusicbot.playlist.CacheLoader;
 import dev.cosgy.jmusicbot.playlist.MylistLoader;
 import dev.cosgy.jmusicbot.playlist.PubliclistLoader;
+import dev.cosgy.jmusicbot.resume.PlayerResume;
+import dev.cosgy.jmusicbot.shard.Shards;
+import dev.cosgy.jmusicbot.spotify.SpotifyImporter;
+import dev.cosgy.jmusicbot.spotify.SpotifyManager;
+import dev.cosgy.jmusicbot.stats.PlaybackCounters;
 import dev.cosgy.jmusicbot.util.LocalAudioMetadata;
-import net.dv8tion.jda.api.JDA;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.Guild;
@@ -42,8 +51,7 @@ import java.io.File;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.swing.SwingUtilities;
 
 /**
@@ -52,7 +60,7 @@ import javax.swing.SwingUtilities;
 public class Bot {
     public static Bot INSTANCE;
     private final EventWaiter waiter;
-    private final ScheduledExecutorService threadpool;
+    private final Scheduler scheduler;
     private final BotConfig config;
     private final SettingsManager settings;
     private final PlayerManager players;
@@ -64,14 +72,20 @@ public class Bot {
     private final AloneInVoiceHandler aloneInVoiceHandler;
     private final IcyMetadataHandler icyMetadataHandler;
     private final YouTubeChapterManager youtubeChapterManager;
+    private final SpotifyManager spotifyManager;
+    private final LyricsService lyricsService;
+    private final SpotifyImporter spotifyImporter;
     
     // Map to store local audio file metadata (LocalTrackInfo now contains artwork path)
     private final Map<String, LocalAudioMetadata.LocalTrackInfo> localMetadataCache;
     
     private boolean shuttingDown = false;
-    private JDA jda;
+    private Shards shards;
     private GUI gui;
     private final MusicHistory musicHistory;
+    private final PlaybackCounters playbackCounters;
+    private final AudioNodePool audioNodes;
+    private final PlayerResume playerResume;
 
     public Bot(EventWaiter waiter, BotConfig config, SettingsManager settings) {
         this.waiter = waiter;
@@ -81,7 +95,12 @@ public class Bot {
         this.mylists = new MylistLoader(config);
         this.publist = new PubliclistLoader(config);
         this.cache = new CacheLoader(config);
-        this.threadpool = Executors.newSingleThreadScheduledExecutor();
+        HttpService.get().configure(config.getHttpMaxPerHost(), config.getHttpRequestsPerSecond());
+        this.scheduler = new Scheduler();
+        this.audioNodes = config.getAudioNodes().isEmpty() ? null : new AudioNodePool(config.getAudioNodes(), config.getAudioNodeSecret());
+        if (audioNodes != null) {
+            audioNodes.start();
+        }
         this.players = new PlayerManager(this);
         this.players.init();
         this.nowplaying = new NowplayingHandler(this);
@@ -89,12 +108,29 @@ public class Bot {
         this.aloneInVoiceHandler = new AloneInVoiceHandler(this);
         this.aloneInVoiceHandler.init();
         this.icyMetadataHandler = new IcyMetadataHandler(this);
-        this.youtubeChapterManager = new YouTubeChapterManager();
+        this.youtubeChapterManager = new YouTubeChapterManager(config);
+        this.spotifyManager = new SpotifyManager(config);
+        this.spotifyManager.init();
+        this.spotifyImporter = new SpotifyImporter(this, spotifyManager);
+        this.lyricsService = new LyricsService(config);
+        this.lyricsService.init();
         
         // Initialize local metadata cache
         this.localMetadataCache = new ConcurrentHashMap<>();
         
         this.musicHistory = new MusicHistory(this);
+
+        this.playbackCounters = new PlaybackCounters(OtherUtil.getPath("playback_counters.bin"));
+        if (!this.playbackCounters.init()) {
+            // First start with the counter store: carry over the stats kept in serversettings.json
+            settings.forEach((guildId, s) -> {
+                playbackCounters.add(guildId, PlaybackCounters.Counter.PLAYS, s.getSongsPlayed());
+                playbackCounters.add(guildId, PlaybackCounters.Counter.PLAY_TIME_MS, s.getPlayTimeMillis());
+            });
+        }
+
+        this.playerResume = new PlayerResume(this, OtherUtil.getPath("player_snapshot.bin"));
+        this.playerResume.load();
     }
 
     public static void updatePlayStatus(Guild guild, Member selfMember, PlayStatus status) {
@@ -133,8 +169,16 @@ public class Bot {
         return waiter;
     }
 
-    public ScheduledExecutorService getThreadpool() {
-        return threadpool;
+    /**
+     * @return the audio nodes tracks are played on, or {@code null} when tracks are played
+     *         in this process
+     */
+    public AudioNodePool getAudioNodes() {
+        return audioNodes;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
     }
 
     public PlayerManager getPlayerManager() {
@@ -173,18 +217,35 @@ public class Bot {
         return youtubeChapterManager;
     }
 
-    public JDA getJDA() {
-        return jda;
+    public SpotifyManager getSpotifyManager() {
+        return spotifyManager;
+    }
+
+    public SpotifyImporter getSpotifyImporter() {
+        return spotifyImporter;
+    }
+
+    public LyricsService getLyricsService() {
+        return lyricsService;
+    }
+
+    /**
+     * @return the gateway shards, null until they were started
+     */
+    public Shards getShards() {
+        return shards;
     }
 
-    public void setJDA(JDA jda) {
-        this.jda = jda;
+    public void setShards(Shards shards) {
+        this.shards = shards;
+        scheduler.scheduleAtFixedRate(Scheduler.Lane.UI, "shard-event-rates", shards::sampleEventRates,
+                10, 10, TimeUnit.SECONDS);
     }
 
     public void closeAudioConnection(long guildId) {
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = shards.getGuildById(guildId);
         if (guild != null)
-            threadpool.submit(() -> {
+            scheduler.execute(Scheduler.Lane.VOICE, "close-audio-connection", () -> {
                 nowplaying.clearVoiceChannelStatus(guildId, false);
                 guild.getAudioManager().closeAudioConnection();
             });
@@ -192,8 +253,8 @@ public class Bot {
 
     public void resetGame() {
         Activity game = config.getGame() == null || config.getGame().getName().toLowerCase().matches("(none)") ? null : config.getGame();
-        if (!Objects.equals(jda.getPresence().getActivity(), game))
-            jda.getPresence().setActivity(game);
+        if (!Objects.equals(shards.getActivity(), game))
+            shards.setActivity(game);
     }
 
     /**
@@ -285,11 +346,20 @@ public class Bot {
         if (shuttingDown)
             return;
         shuttingDown = true;
+
+        // Save what is playing before anything below stops it
+        playerResume.save();
         
         // Shutdown executor services first
-        threadpool.shutdownNow();
+        scheduler.shutdown();
         icyMetadataHandler.shutdown();
         youtubeChapterManager.shutdown();
+        spotifyManager.shutdown();
+        lyricsService.shutdown();
+        musicHistory.shutdown();
+        if (audioNodes != null) {
+            audioNodes.close();
+        }
         
         // Stop GensokyoInfoAgent if it's running
         dev.cosgy.agent.GensokyoInfoAgent.stopAgent();
@@ -300,8 +370,8 @@ public class Bot {
         }
         
         // Then close audio connections and cleanup audio resources
-        if (jda != null && jda.getStatus() != JDA.Status.SHUTTING_DOWN) {
-            jda.getGuilds().forEach((g) -> {
+        if (shards != null && !shards.isShuttingDown()) {
+            shards.getGuilds().forEach((g) -> {
                 nowplaying.clearVoiceChannelStatus(g.getIdLong(), true);
                 g.getAudioManager().closeAudioConnection();
                 AudioHandler ah = (AudioHandler) g.getAudioManager().getSendingHandler();
@@ -312,10 +382,16 @@ public class Bot {
                 }
             });
             
-            // Finally shutdown JDA
-            jda.shutdown();
+            // Finally shutdown every shard
+            shards.shutdown();
         }
         
+        // Write the settings and counters changed by the cleanup above
+        settings.shutdown();
+        playbackCounters.shutdown();
+        // Nothing sends requests any more, and the client is shared by the whole process
+        HttpService.get().shutdown();
+
         // Clean up local audio files (temporary downloads, artwork is permanent)
         cleanupLocalAudioFiles(); // This call remains, but its scope is reduced.
         
@@ -345,6 +421,14 @@ public class Bot {
      * Gets the music history manager
      * @return The music history manager
      */
+    public PlaybackCounters getPlaybackCounters() {
+        return playbackCounters;
+    }
+
+    public PlayerResume getPlayerResume() {
+        return playerResume;
+    }
+
     public MusicHistory getMusicHistory() {
         return musicHistory;
     }
@@ -30,6 +30,7 @@ import org.apache.commons.io.FileUtils;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * @author John Grosh (jagrosh)
@@ -74,6 +75,28 @@ public class BotConfig {
     private String ipv6RotationBlock;
     // WebPanel settings
     private int webPanelPort;
+    // Shared outbound HTTP limits
+    private int httpMaxPerHost;
+    private double httpRequestsPerSecond;
+    private int shardsTotal, shardMin, shardMax;
+    private boolean resumeEnabled;
+    private int resumeMaxAgeSeconds, resumeConcurrency;
+    private List<String> audioNodes;
+    private String audioNodeSecret;
+    private int spotifyCacheSize;
+    private String spotifyCacheFile;
+    private int spotifyImportParallelism;
+    private int chapterCacheSize;
+    private String chapterCacheDir;
+    private int lyricsCacheSize;
+    private int lyricsHitTtl;
+    private int lyricsMissTtl;
+    private String lyricsCacheFile;
+    private boolean lyricsPrefetch;
+    private int historyHotRecords;
+    private int historyHotDays;
+    private int historyWarmDays;
+    private int historyMaxDays;
     // [JMusicBot-JP] added useNicoNico, changeNickName, pauseNoUsers, resumeJoined, stopNoUsers, cosgyDevHost, helpToDm, officialInvite
     private boolean useNicoNico, changeNickName, stayInChannel, pauseNoUsers, resumeJoined, stopNoUsers, songInGame, npImages, updatealerts, useEval, dbots, cosgyDevHost, helpToDm, autoStopQueueSave, auditCommands, officialInvite, useinvitecommand, webPanelEnabled, enableHistory;
     private long owner, maxSeconds, aloneTimeUntilStop;
@@ -162,7 +185,21 @@ public class BotConfig {
         ytRefreshToken = config.hasPath("ytrefreshtoken") ? config.getString("ytrefreshtoken") : null;
         spClientId = config.getString("spclient");
         spClientSecret = config.getString("spsecret");
+        spotifyCacheSize = config.hasPath("spotify.cachesize") ? config.getInt("spotify.cachesize") : 2000;
+        spotifyCacheFile = config.hasPath("spotify.cachefile") ? config.getString("spotify.cachefile") : "";
+        spotifyImportParallelism = config.hasPath("spotify.importparallelism") ? config.getInt("spotify.importparallelism") : 4;
+        chapterCacheSize = config.hasPath("chapters.cachesize") ? config.getInt("chapters.cachesize") : 500;
+        chapterCacheDir = config.hasPath("chapters.cachedir") ? config.getString("chapters.cachedir") : "chapter_cache";
+        lyricsCacheSize = config.hasPath("lyrics.cachesize") ? config.getInt("lyrics.cachesize") : 500;
+        lyricsHitTtl = config.hasPath("lyrics.hitttl") ? config.getInt("lyrics.hitttl") : 10080;
+        lyricsMissTtl = config.hasPath("lyrics.missttl") ? config.getInt("lyrics.missttl") : 30;
+        lyricsCacheFile = config.hasPath("lyrics.cachefile") ? config.getString("lyrics.cachefile") : "";
+        lyricsPrefetch = !config.hasPath("lyrics.prefetch") || config.getBoolean("lyrics.prefetch");
         enableHistory = config.hasPath("enablehistory") ? config.getBoolean("enablehistory") : true;
+        historyHotRecords = config.hasPath("history.hotrecords") ? config.getInt("history.hotrecords") : 50000;
+        historyHotDays = config.hasPath("history.hotdays") ? config.getInt("history.hotdays") : 0;
+        historyWarmDays = config.hasPath("history.warmdays") ? config.getInt("history.warmdays") : 30;
+        historyMaxDays = config.hasPath("history.maxdays") ? config.getInt("history.maxdays") : 0;
 
         ytCipherUrl = config.hasPath("ytcipher.url") ? config.getString("ytcipher.url") : null;
         ytCipherPassword = config.hasPath("ytcipher.password") ? config.getString("ytcipher.password") : null;
@@ -174,9 +211,36 @@ public class BotConfig {
         ipv6RotationBlock = config.hasPath("ipv6rotation.block") ? config.getString("ipv6rotation.block") : "";
         webPanelEnabled = config.hasPath("webpanelenabled") ? config.getBoolean("webpanelenabled") : false;
         webPanelPort = config.hasPath("webpanelport") ? config.getInt("webpanelport") : 8080;
+        httpMaxPerHost = config.hasPath("http.maxperhost") ? config.getInt("http.maxperhost") : 8;
+        httpRequestsPerSecond = config.hasPath("http.ratelimit") ? config.getDouble("http.ratelimit") : 10;
+        shardsTotal = config.hasPath("shards.total") ? config.getInt("shards.total") : 1;
+        parseShardRange(config.hasPath("shards.range") ? config.getString("shards.range").trim() : "");
+        audioNodes = config.hasPath("audionode.nodes") ? List.copyOf(config.getStringList("audionode.nodes")) : List.of();
+        audioNodeSecret = config.hasPath("audionode.secret") ? config.getString("audionode.secret") : "";
+        resumeEnabled = config.hasPath("resume.enabled") ? config.getBoolean("resume.enabled") : true;
+        resumeMaxAgeSeconds = config.hasPath("resume.maxage") ? config.getInt("resume.maxage") : 300;
+        resumeConcurrency = config.hasPath("resume.concurrency") ? Math.max(1, config.getInt("resume.concurrency")) : 4;
         cosgyDevHost = false;
     }
 
+    private void parseShardRange(String range) {
+        shardMin = -1;
+        shardMax = -1;
+        if (range.isEmpty()) {
+            return;
+        }
+        String[] bounds = range.split("-", 2);
+        try {
+            shardMin = Integer.parseInt(bounds[0].trim());
+            shardMax = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : shardMin;
+        } catch (NumberFormatException e) {
+            throw new ConfigException.BadValue("shards.range", "must look like \"0-3\", not \"" + range + "\"");
+        }
+        if (shardMin < 0 || shardMax < shardMin || (shardsTotal > 0 && shardMax >= shardsTotal)) {
+            throw new ConfigException.BadValue("shards.range", range + " does not fit shards.total = " + shardsTotal);
+        }
+    }
+
     private ValidationResult ensureTokenAndOwner() {
         boolean write = false;
         if (token == null || token.isEmpty() || token.matches("(BOT_TOKEN_HERE|Paste the bot token here)")) {
@@ -425,6 +489,76 @@ public class BotConfig {
 
     public String getSpotifyClientSecret(){return spClientSecret;}
 
+    /**
+     * Maximum number of Spotify tracks whose metadata is kept in memory.
+     */
+    public int getSpotifyCacheSize() {
+        return spotifyCacheSize;
+    }
+
+    /**
+     * File the Spotify metadata cache is persisted to, empty to keep it in memory only.
+     */
+    public String getSpotifyCacheFile() {
+        return spotifyCacheFile;
+    }
+
+    /**
+     * Number of tracks searched at the same time when importing a Spotify playlist or album.
+     */
+    public int getSpotifyImportParallelism() {
+        return spotifyImportParallelism;
+    }
+
+    /**
+     * Maximum number of videos whose YouTube chapters are kept in memory.
+     */
+    public int getChapterCacheSize() {
+        return chapterCacheSize;
+    }
+
+    /**
+     * Directory YouTube chapters are persisted to, empty to keep them in memory only.
+     */
+    public String getChapterCacheDir() {
+        return chapterCacheDir;
+    }
+
+    /**
+     * Maximum number of songs whose lyrics lookup result is kept in memory.
+     */
+    public int getLyricsCacheSize() {
+        return lyricsCacheSize;
+    }
+
+    /**
+     * Minutes found lyrics stay cached.
+     */
+    public int getLyricsHitTtl() {
+        return lyricsHitTtl;
+    }
+
+    /**
+     * Minutes a song without lyrics is remembered before it is looked up again.
+     */
+    public int getLyricsMissTtl() {
+        return lyricsMissTtl;
+    }
+
+    /**
+     * Gzip file found lyrics are persisted to, empty to keep them in memory only.
+     */
+    public String getLyricsCacheFile() {
+        return lyricsCacheFile;
+    }
+
+    /**
+     * Whether lyrics of the playing and next queued track are fetched in advance.
+     */
+    public boolean isLyricsPrefetch() {
+        return lyricsPrefetch;
+    }
+
     // [JMusicBot-JP] End
 
     /**
@@ -487,10 +621,102 @@ public class BotConfig {
         return webPanelPort;
     }
 
+    /**
+     * Maximum number of concurrent outbound requests to a single host.
+     */
+    public int getHttpMaxPerHost() {
+        return httpMaxPerHost;
+    }
+
+    /**
+     * Sustained outbound request rate per host, {@code 0} disables rate limiting.
+     */
+    public double getHttpRequestsPerSecond() {
+        return httpRequestsPerSecond;
+    }
+
+    /**
+     * Total number of shards of the bot, {@code 0} or less to use Discord's recommendation.
+     */
+    public int getShardsTotal() {
+        return shardsTotal;
+    }
+
+    /**
+     * First shard run by this process, {@code -1} to run them all.
+     */
+    public int getShardMin() {
+        return shardMin;
+    }
+
+    /**
+     * Last shard run by this process, {@code -1} to run them all.
+     */
+    public int getShardMax() {
+        return shardMax;
+    }
+
+    public List<String> getAudioNodes() {
+        return audioNodes;
+    }
+
+    public String getAudioNodeSecret() {
+        return audioNodeSecret;
+    }
+
+    /**
+     * Whether the players are saved on shutdown and resumed on the next start.
+     */
+    public boolean isResumeEnabled() {
+        return resumeEnabled;
+    }
+
+    /**
+     * Age in seconds past which saved players are not resumed.
+     */
+    public int getResumeMaxAgeSeconds() {
+        return resumeMaxAgeSeconds;
+    }
+
+    /**
+     * Number of guilds of a shard that reconnect to voice at the same time when resuming.
+     */
+    public int getResumeConcurrency() {
+        return resumeConcurrency;
+    }
+
     public boolean isHistoryEnabled() {
         return enableHistory;
     }
 
+    /**
+     * Maximum number of history records kept in memory.
+     */
+    public int getHistoryHotRecords() {
+        return historyHotRecords;
+    }
+
+    /**
+     * Days after which history records are only kept on disk, 0 for no age limit.
+     */
+    public int getHistoryHotDays() {
+        return historyHotDays;
+    }
+
+    /**
+     * Days after which history files are compressed, 0 to never compress them.
+     */
+    public int getHistoryWarmDays() {
+        return historyWarmDays;
+    }
+
+    /**
+     * Days after which history records are deleted, 0 to keep them forever.
+     */
+    public int getHistoryMaxDays() {
+        return historyMaxDays;
+    }
+
     public boolean isIPv6RotationEnabled() {
         return ipv6RotationEnabled;
     }
@@ -17,7 +17,10 @@
 package com.jagrosh.jmusicbot;
 
 import com.github.lalyos.jfiglet.FigletFont;
+import com.typesafe.config.ConfigFactory;
+import dev.cosgy.jmusicbot.audionode.AudioNodeServer;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.Command;
+import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandClient;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandClientBuilder;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommand;
 import dev.cosgy.jmusicbot.framework.jdautilities.commons.waiter.EventWaiter;
@@ -26,20 +29,24 @@ import com.jagrosh.jmusicbot.gui.DelegatingPrintStream;
 import com.jagrosh.jmusicbot.gui.GUI;
 import com.jagrosh.jmusicbot.settings.SettingsManager;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
+import dev.cosgy.jmusicbot.shard.ShardEventCounter;
+import dev.cosgy.jmusicbot.shard.Shards;
 import dev.cosgy.jmusicbot.slashcommands.admin.*;
 import dev.cosgy.jmusicbot.slashcommands.dj.*;
 import dev.cosgy.jmusicbot.slashcommands.general.*;
 import dev.cosgy.jmusicbot.slashcommands.listeners.CommandAudit;
 import dev.cosgy.jmusicbot.slashcommands.music.*;
 import dev.cosgy.jmusicbot.slashcommands.owner.*;
-import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
+import dev.cosgy.jmusicbot.startup.StartupGraph;
+import dev.cosgy.jmusicbot.startup.TrainingRun;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.audio.AudioModuleConfig;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.exceptions.InvalidTokenException;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.slf4j.Logger;
 
@@ -72,6 +79,8 @@ public class JMusicBot {
     public final static GatewayIntent[] INTENTS = {GatewayIntent.DIRECT_MESSAGES, GatewayIntent.GUILD_MESSAGES, GatewayIntent.GUILD_MESSAGE_REACTIONS, GatewayIntent.GUILD_VOICE_STATES, GatewayIntent.MESSAGE_CONTENT}; // , GatewayIntent.MESSAGE_CONTENT
     public static boolean CHECK_UPDATE = true;
     public static boolean COMMAND_AUDIT_ENABLED = false;
+    public static boolean AUDIO_NODE = false;
+    public static boolean TRAINING_RUN = false;
     
     // Delegating PrintStream for OAuth2 logs - can be updated when GUI is initialized
     private static DelegatingPrintStream originalOut;
@@ -124,20 +133,29 @@ public class JMusicBot {
         printBanner();
         Prompt prompt = new Prompt("JMusicBot", "Switching to nogui mode. You can manually start in nogui mode by including the flag -Dnogui=true.");
         parseStartupArgs(args, prompt, log);
-
-        String version = OtherUtil.checkVersion(prompt);
-        if (version != null && !version.isEmpty()) {
-            log.debug("Version check result: {}", version);
+        if (AUDIO_NODE) {
+            runAudioNode(log);
+            return;
+        }
+        if (TRAINING_RUN) {
+            runTrainingRun(prompt, log);
+            return;
         }
 
+        // Independent steps run at the same time; the update and tool checks finish in the background
+        StartupGraph startup = new StartupGraph();
+        startup.background("update check", () -> {
+            String checked = OtherUtil.checkVersion(prompt);
+            log.debug("Version check result: {}", checked);
+        });
+        startup.background("python check", () -> checkPythonAvailability(prompt, log));
+
         if (!System.getProperty("java.vm.name").contains("64")) {
             prompt.alert(Prompt.Level.WARNING, "Java Version", "You are using an unsupported Java version. Please use the 64-bit version of Java.");
         }
 
-        checkPythonAvailability(prompt, log);
-
-        BotConfig config = new BotConfig(prompt);
-        config.load();
+        StartupGraph.Step<SettingsManager> settingsStep = startup.critical("server settings", SettingsManager::new);
+        BotConfig config = startup.critical("config", () -> loadConfig(prompt)).join();
         if (!config.isValid()) {
             return;
         }
@@ -148,18 +166,42 @@ public class JMusicBot {
 
         // set up the listener
         EventWaiter waiter = new EventWaiter();
-        SettingsManager settings = new SettingsManager();
+        SettingsManager settings = settingsStep.join();
 
-        Bot bot = new Bot(waiter, config, settings);
+        StartupGraph.Step<Bot> botStep = startup.critical("bot", () -> new Bot(waiter, config, settings), settingsStep);
+        Bot bot = botStep.join();
         Bot.INSTANCE = bot;
 
-        initializeGui(bot, prompt, log);
+        startup.background("gui", () -> initializeGui(bot, prompt, log), botStep);
+        startup.background("yt-dlp", bot.getPlayerManager()::initYtDlpFallback, botStep);
+        startup.background("ffmpeg check", bot.getPlayerManager()::verifyFfmpegAvailability, botStep);
 
+        StartupGraph.Step<CommandClientBuilder> commandsStep = startup.critical("commands",
+                () -> createCommandClient(bot, config, settings), botStep);
+
+        log.info("Loaded settings from {}", config.getConfigLocation());
+
+        StartupGraph.Step<Shards> gatewayStep = startup.critical("gateway", () -> {
+            CommandClientBuilder cb = commandsStep.join();
+            boolean nogame = configureCommandClientPresence(cb, config);
+            return startShardsOrExit(config, cb, waiter, bot, prompt, log, nogame);
+        }, commandsStep);
+        Shards shards = gatewayStep.join();
+        bot.setShards(shards);
+        registerShutdownHook(shards, config, bot, log);
+
+        startup.background("web panel", () -> startWebPanelIfEnabled(config, bot, log), gatewayStep);
+        startup.report();
+    }
+
+    private static CommandClientBuilder createCommandClient(Bot bot, BotConfig config, SettingsManager settings) {
+        String version = OtherUtil.getCurrentVersion();
         AboutCommand aboutCommand = new AboutCommand(Color.BLUE.brighter(),
                 "[JMusicBot (v" + version + ")](https://github.com/THOMZY/JMusicBot-JPtoEN)",
                 new String[]{"High-quality music playback", "FairQueue™ Technology", "Easily host it yourself"},
                 RECOMMENDED_PERMS);
         aboutCommand.setIsAuthor(false);
+        aboutCommand.setPlaybackCounters(bot.getPlaybackCounters());
         aboutCommand.setReplacementCharacter("\uD83C\uDFB6"); // 
 
         // set up the command client
@@ -181,17 +223,7 @@ public class JMusicBot {
 
         if (config.useEval())
             cb.addCommand(new EvalCmd(bot));
-        boolean nogame = configureCommandClientPresence(cb, config);
-
-        log.info("Loaded settings from {}", config.getConfigLocation());
-
-        final JDA[] jdaRef = new JDA[1];
-        JDA jda = startJdaOrExit(config, cb, waiter, bot, prompt, log, nogame);
-        jdaRef[0] = jda;
-        bot.setJDA(jda);
-
-        startWebPanelIfEnabled(config, bot, log);
-        registerShutdownHook(jdaRef, config, log);
+        return cb;
     }
 
     private static void enableCommandAuditIfConfigured(BotConfig config, Logger log) {
@@ -202,10 +234,10 @@ public class JMusicBot {
         log.info("Command execution logging has been enabled.");
     }
 
-    private static JDA startJdaOrExit(BotConfig config, CommandClientBuilder cb, EventWaiter waiter, Bot bot,
-                                      Prompt prompt, Logger log, boolean nogame) {
+    private static Shards startShardsOrExit(BotConfig config, CommandClientBuilder cb, EventWaiter waiter, Bot bot,
+                                            Prompt prompt, Logger log, boolean nogame) {
         try {
-            return startJda(config, cb, waiter, bot, prompt, log, nogame);
+            return startShards(config, cb, waiter, bot, prompt, log, nogame);
         } catch (InvalidTokenException ex) {
             prompt.alert(Prompt.Level.ERROR, "JMusicBot", ex + "\n"
                     + "Please ensure you are editing the correct configuration file. Failed to log in with the bot token."
@@ -236,12 +268,16 @@ public class JMusicBot {
         }
     }
 
-    private static void registerShutdownHook(JDA[] jdaRef, BotConfig config, Logger log) {
+    private static void registerShutdownHook(Shards shards, BotConfig config, Bot bot, Logger log) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            if (jdaRef[0] == null) {
+            // A restart by the service manager stops the process without going through Bot.shutdown
+            bot.getPlayerResume().save();
+            bot.getSettingsManager().shutdown();
+            bot.getPlaybackCounters().shutdown();
+            if (shards == null) {
                 return;
             }
-            jdaRef[0].shutdown();
+            shards.shutdown();
             if (config.isWebPanelEnabled()) {
                 log.info("Stopping Web Panel");
                 com.jagrosh.jmusicbot.webpanel.WebPanelApplication.stop();
@@ -327,6 +363,7 @@ public class JMusicBot {
         slashCommandList.add(new ServerListCmd(bot));
 
         slashCommandList.add(new DebugCmd(bot));
+        slashCommandList.add(new ExportHistoryCmd(bot));
         slashCommandList.add(new SetavatarCmd(bot));
         slashCommandList.add(new SetgameCmd(bot));
         slashCommandList.add(new SetnameCmd(bot));
@@ -354,36 +391,46 @@ public class JMusicBot {
         return nogame;
     }
 
-    private static JDA startJda(BotConfig config, CommandClientBuilder cb, EventWaiter waiter, Bot bot,
-                                Prompt prompt, Logger log, boolean nogame) {
-        JDABuilder jdaBuilder = JDABuilder.create(config.getToken(), Arrays.asList(INTENTS))
+    private static Shards startShards(BotConfig config, CommandClientBuilder cb, EventWaiter waiter, Bot bot,
+                                      Prompt prompt, Logger log, boolean nogame) {
+        DefaultShardManagerBuilder shardBuilder = DefaultShardManagerBuilder.create(config.getToken(), Arrays.asList(INTENTS))
                 .enableCache(CacheFlag.MEMBER_OVERRIDES, CacheFlag.VOICE_STATE)
                 .disableCache(CacheFlag.ACTIVITY, CacheFlag.CLIENT_STATUS, CacheFlag.EMOJI, CacheFlag.ONLINE_STATUS,
                         CacheFlag.STICKER, CacheFlag.SCHEDULED_EVENTS)
                 .setActivity(nogame ? null : Activity.playing("Loading..."))
                 .setStatus(config.getStatus() == OnlineStatus.INVISIBLE || config.getStatus() == OnlineStatus.OFFLINE
-                        ? OnlineStatus.INVISIBLE : OnlineStatus.DO_NOT_DISTURB);
+                        ? OnlineStatus.INVISIBLE : OnlineStatus.DO_NOT_DISTURB)
+                .setShardsTotal(config.getShardsTotal() > 0 ? config.getShardsTotal() : -1)
+                // Our shutdown hook saves the players before it shuts the shards down; JDA's own hook
+                // would run alongside it and could close the voice connections first
+                .setEnableShutdownHook(false);
+        if (config.getShardMin() >= 0) {
+            shardBuilder.setShards(config.getShardMin(), config.getShardMax());
+        }
 
         AudioModuleConfig daveConfig = createDaveAudioModuleConfig(log, prompt);
         if (daveConfig != null) {
-            jdaBuilder.setAudioModuleConfig(daveConfig);
+            shardBuilder.setAudioModuleConfig(daveConfig);
         }
 
-        JDA jda = jdaBuilder
-                .addEventListeners(cb.build(), waiter, new Listener(bot))
+        ShardEventCounter eventCounter = new ShardEventCounter();
+        ShardManager manager = shardBuilder
+                .addEventListeners(cb.build(), waiter, new Listener(bot), eventCounter)
                 .setBulkDeleteSplittingEnabled(true)
                 .build();
+        Shards shards = new Shards(manager, eventCounter);
+        log.info("Starting {} of {} shards", manager.getShardsQueued() + manager.getShardCache().size(), manager.getShardsTotal());
 
-        String unsupportedReason = OtherUtil.getUnsupportedBotReason(jda);
+        String unsupportedReason = OtherUtil.getUnsupportedBotReason(shards.anyShard());
         if (unsupportedReason != null)
         {
             prompt.alert(Prompt.Level.ERROR, "JMusicBot", "JMusicBot cannot be run with this Discord bot user: " + unsupportedReason);
             try{ Thread.sleep(5000);}catch(InterruptedException ignored){} // this is awful but until we have a better way...
-            jda.shutdown();
+            shards.shutdown();
             System.exit(1);
         }
 
-        return jda;
+        return shards;
     }
 
     private static void printBanner() {
@@ -405,10 +452,73 @@ public class JMusicBot {
             } else if ("-auditcommands".equalsIgnoreCase(arg)) {
                 COMMAND_AUDIT_ENABLED = true;
                 log.info("Enabled command audit logging.");
+            } else if ("-audionode".equalsIgnoreCase(arg)) {
+                AUDIO_NODE = true;
+            } else if ("--training-run".equalsIgnoreCase(arg)) {
+                TRAINING_RUN = true;
             }
         }
     }
 
+    private static void runAudioNode(Logger log) {
+        log.info("Starting as an audio node");
+        try {
+            AudioNodeServer.run(ConfigFactory.load());
+        } catch (IOException e) {
+            log.error("Could not start the audio node: {}", e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Boots the bot without connecting to Discord, runs the {@link TrainingRun} and exits.
+     * Run with {@code -XX:AOTCacheOutput=<file>} to produce an AOT cache for later starts.
+     */
+    private static void runTrainingRun(Prompt prompt, Logger log) {
+        log.info("Starting a training run");
+        TrainingRun.useStandInConfig();
+        StartupGraph startup = new StartupGraph();
+        try {
+            StartupGraph.Step<SettingsManager> settingsStep = startup.critical("server settings", SettingsManager::new);
+            BotConfig config = startup.critical("config", () -> loadConfig(prompt)).join();
+            if (!config.isValid()) {
+                System.exit(1);
+            }
+            SettingsManager settings = settingsStep.join();
+            Bot bot = startup.critical("bot", () -> new Bot(new EventWaiter(), config, settings), settingsStep).join();
+            Bot.INSTANCE = bot;
+            CommandClient client = startup.critical("commands",
+                    () -> createCommandClient(bot, config, settings).build()).join();
+            List<StartupGraph.Step<Void>> steps = new TrainingRun(bot, client).exercise(startup);
+            startup.report().join();
+            boolean failed = false;
+            for (StartupGraph.Step<Void> step : steps) {
+                try {
+                    step.join();
+                } catch (RuntimeException e) {
+                    log.error("Training step '{}' failed", step.getName(), e);
+                    failed = true;
+                }
+            }
+            if (failed) {
+                System.exit(1);
+            }
+            log.info("Training run finished");
+            System.exit(0);
+        } catch (RuntimeException e) {
+            log.error("Training run failed", e);
+            System.exit(1);
+        }
+    }
+
+    private static BotConfig loadConfig(Prompt prompt) {
+        BotConfig config = new BotConfig(prompt);
+        config.load();
+        return config;
+    }
+
     private static void checkPythonAvailability(Prompt prompt, Logger log) {
         try {
             Process checkPython3 = Runtime.getRuntime().exec(new String[]{"python3", "--version"});
@@ -17,6 +17,7 @@ package com.jagrosh.jmusicbot;
 
 import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
@@ -31,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -45,13 +47,20 @@ public class Listener extends ListenerAdapter {
 
     @Override
     public void onReady(ReadyEvent event) {
-        if (event.getJDA().getGuilds().isEmpty()) {
+        // Each shard gets its own ready event; the process-wide work is done by its first shard
+        int shardId = event.getJDA().getShardInfo().getShardId();
+        boolean firstShard = shardId == Math.max(bot.getConfig().getShardMin(), 0);
+        if (event.getJDA().getShardInfo().getShardTotal() == 1 && event.getJDA().getGuilds().isEmpty()) {
             Logger log = LoggerFactory.getLogger("MusicBot");
             log.warn("This bot is not in the group! Use the link below to add the bot to your group.");
             log.warn(event.getJDA().getInviteUrl(JMusicBot.RECOMMENDED_PERMS));
         }
+        Set<Long> resuming = bot.getPlayerResume().resume(event.getJDA());
         event.getJDA().getGuilds().forEach((guild) ->
         {
+            if (resuming.contains(guild.getIdLong())) {
+                return;
+            }
             try {
                 String defpl = Objects.requireNonNull(bot.getSettingsManager().getSettings(guild)).getDefaultPlaylist();
                 VoiceChannel vc = Objects.requireNonNull(bot.getSettingsManager().getSettings(guild)).getVoiceChannel(guild);
@@ -61,10 +70,10 @@ public class Listener extends ListenerAdapter {
             } catch (Exception ignore) {
             }
         });
-        if (bot.getConfig().useUpdateAlerts()) {
-            bot.getThreadpool().scheduleWithFixedDelay(() ->
+        if (firstShard && bot.getConfig().useUpdateAlerts()) {
+            bot.getScheduler().scheduleWithFixedDelay(Scheduler.Lane.NETWORK, "update-check", () ->
             {
-                User owner = bot.getJDA().getUserById(bot.getConfig().getOwnerId());
+                User owner = bot.getShards().getUserById(bot.getConfig().getOwnerId());
                 if (owner != null) {
                     String currentVersion = OtherUtil.getCurrentVersion();
                     String latestVersion = OtherUtil.getLatestVersion();
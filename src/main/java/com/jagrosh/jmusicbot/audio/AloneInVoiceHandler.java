@@ -18,25 +18,31 @@ package com.jagrosh.jmusicbot.audio;
 import com.jagrosh.jmusicbot.Bot;
 import dev.cosgy.jmusicbot.playlist.CacheLoader;
 import dev.cosgy.jmusicbot.util.LastSendTextChannel;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
+import dev.cosgy.jmusicbot.util.scheduler.TimingWheel;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Leaves the voice channel once the bot has been alone in it for
+ * {@code alonetimeuntilstop} seconds.
+ * <p>
+ * Each guild where the bot is alone gets a deadline on a timing wheel, armed and
+ * cancelled by voice updates, so nothing is scanned while nobody leaves or joins.
+ *
  * @author Michaili K (mysteriouscursor+git@protonmail.com)
  */
 public class AloneInVoiceHandler {
+    private static final long TICK_MILLIS = 500;
+    private static final int WHEEL_SLOTS = 512;
+
     private final Bot bot;
-    private final HashMap<Long, Instant> aloneSince = new HashMap<>();
+    private TimingWheel<Long> deadlines;
     Logger log = LoggerFactory.getLogger("AloneInVoiceHandler");
     private long aloneTimeUntilStop = 0;
 
@@ -46,22 +52,28 @@ public class AloneInVoiceHandler {
 
     public void init() {
         aloneTimeUntilStop = bot.getConfig().getAloneTimeUntilStop();
-        if (aloneTimeUntilStop > 0)
-            bot.getThreadpool().scheduleWithFixedDelay(this::check, 0, 5, TimeUnit.SECONDS);
+        if (aloneTimeUntilStop > 0) {
+            deadlines = new TimingWheel<>(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SLOTS, System.nanoTime());
+            bot.getScheduler().scheduleAtFixedRate(Scheduler.Lane.VOICE, "alone-in-voice",
+                    () -> deadlines.advance(System.nanoTime()), TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
-    private void check() {
-        Set<Long> toRemove = new HashSet<>();
-        for (Map.Entry<Long, Instant> entrySet : aloneSince.entrySet()) {
-            if (entrySet.getValue().getEpochSecond() > Instant.now().getEpochSecond() - aloneTimeUntilStop) continue;
-
-            Guild guild = bot.getJDA().getGuildById(entrySet.getKey());
-
-            if (guild == null) {
-                toRemove.add(entrySet.getKey());
-                continue;
+    /**
+     * Saves or drops the queue and leaves. Runs off the timer thread, as saving the
+     * queue writes to disk.
+     */
+    private void leave(long guildId) {
+        bot.getScheduler().execute(Scheduler.Lane.NETWORK, "alone-in-voice-leave", () -> {
+            Guild guild = bot.getShards().getGuildById(guildId);
+            // Already left, e.g. disconnected or stopped while alone
+            if (guild == null || guild.getAudioManager().getConnectedChannel() == null) {
+                return;
             }
             AudioHandler handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
+            if (handler == null) {
+                return;
+            }
 
             if (bot.getConfig().getAutoStopQueueSave()) {
                 // Cache storage process
@@ -77,10 +89,7 @@ public class AloneInVoiceHandler {
 
             handler.stopAndClear();
             bot.closeAudioConnection(guild.getIdLong());
-
-            toRemove.add(entrySet.getKey());
-        }
-        toRemove.forEach(aloneSince::remove);
+        });
     }
 
     public void onVoiceUpdate(GuildVoiceUpdateEvent event) {
@@ -93,15 +102,12 @@ public class AloneInVoiceHandler {
             if (guild.getAudioManager().getConnectedChannel().getType() == ChannelType.STAGE) return;
         }
 
-        boolean alone = isAlone(guild);
-        boolean inList = aloneSince.containsKey(guild.getIdLong());
-
-        if (!alone && inList)
-            aloneSince.remove(guild.getIdLong());
-        else if (alone && !inList)
-            aloneSince.put(guild.getIdLong(), Instant.now());
+        long guildId = guild.getIdLong();
+        if (!isAlone(guild))
+            deadlines.cancel(guildId);
+        else if (!deadlines.isArmed(guildId))
+            deadlines.arm(guildId, System.nanoTime() + TimeUnit.SECONDS.toNanos(aloneTimeUntilStop), () -> leave(guildId));
     }
-
     private boolean isAlone(Guild guild) {
         if (guild.getAudioManager().getConnectedChannel() == null) return false;
         return guild.getAudioManager().getConnectedChannel().getMembers().stream()
@@ -33,7 +33,8 @@ import dev.cosgy.jmusicbot.util.YtDlpManager.FallbackPlatform;
 import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
 import dev.cosgy.jmusicbot.settings.RepeatMode;
 import dev.cosgy.jmusicbot.slashcommands.music.RadioCmd;
-import dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd;
+import dev.cosgy.jmusicbot.spotify.SpotifyTrackInfo;
+import dev.cosgy.jmusicbot.stats.PlaybackCounters;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
@@ -94,7 +95,12 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         return PlayerManager.getDisplayInfo(track);
     }
 
-    private static RequestMetadata extractRequestMetadata(AudioTrack track) {
+    /**
+     * Gets the request metadata a track carries, directly or under the yt-dlp fallback's context
+     * @param track The track
+     * @return The RequestMetadata or EMPTY if the track has none
+     */
+    public static RequestMetadata extractRequestMetadata(AudioTrack track) {
         if (track == null) return RequestMetadata.EMPTY;
         Object ud = track.getUserData();
         if (ud instanceof RequestMetadata) {
@@ -334,18 +340,18 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
             // This track has Spotify data directly attached to it
             String spotifyTrackId = rm.getSpotifyTrackId();
             if (spotifyTrackId != null && !spotifyTrackId.isEmpty()) {
-                // Make sure the SpotifyCmd knows about this track
-                SpotifyCmd.lastTrackIds.put(stringGuildId, spotifyTrackId);
+                // Make sure the Spotify manager knows about this track
+                manager.getBot().getSpotifyManager().setGuildTrack(stringGuildId, spotifyTrackId);
                 return true;
             }
         }
         
-        // Fallback: check if this guild has an active Spotify track in the SpotifyCmd map
-        String trackId = SpotifyCmd.lastTrackIds.get(stringGuildId);
+        // Fallback: check if this guild has an active Spotify track
+        String trackId = manager.getBot().getSpotifyManager().getGuildTrackId(stringGuildId);
         if (trackId == null) return false;
         
         // Get the Spotify track info to compare with the current track
-        SpotifyCmd.SpotifyTrackInfo trackInfo = SpotifyCmd.getTrackInfo(stringGuildId);
+        SpotifyTrackInfo trackInfo = manager.getBot().getSpotifyManager().getGuildTrackInfo(stringGuildId);
         if (trackInfo != null) {
             // Clean up the title for comparison (remove things like " (Official Video)")
             String cleanTitle = track.getInfo().title;
@@ -373,20 +379,20 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
      * Gets detailed information about the currently playing Spotify track
      * @return SpotifyTrackInfo object or null if not a Spotify track
      */
-    public SpotifyCmd.SpotifyTrackInfo getSpotifyTrackInfo() {
+    public SpotifyTrackInfo getSpotifyTrackInfo() {
         if (!isSpotifyTrack(audioPlayer.getPlayingTrack())) {
             return null;
         }
         
-        // If we have Spotify data in RequestMetadata, ensure it's in the SpotifyCmd maps
+        // If we have Spotify data in RequestMetadata, ensure the guild points at it
         RequestMetadata rm = extractRequestMetadata(audioPlayer.getPlayingTrack());
         if (rm != null && rm.hasSpotifyData()) {
             String spotifyTrackId = rm.getSpotifyTrackId();
-            SpotifyCmd.lastTrackIds.put(stringGuildId, spotifyTrackId);
+            manager.getBot().getSpotifyManager().setGuildTrack(stringGuildId, spotifyTrackId);
         }
         
-        // Get the track info from SpotifyCmd
-        return SpotifyCmd.getTrackInfo(stringGuildId);
+        // Get the cached track info
+        return manager.getBot().getSpotifyManager().getGuildTrackInfo(stringGuildId);
     }
 
     /**
@@ -567,7 +573,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         defaultQueue.clear();
         votes.clear();
         
-        Guild guild = guild(manager.getBot().getJDA());
+        Guild guild = guild();
         Bot.updatePlayStatus(guild, guild.getSelfMember(), PlayStatus.STOPPED);
         
         // Check if the current track was a Gensokyo Radio stream and stop the agent
@@ -658,7 +664,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         // the new factory reference on the next process() call and rebuild
         // the filter chain automatically — no seek needed.
         audioPlayer.setFilterFactory(filterChain.isAnyEnabled()
-                ? (track, format, output) -> filterChain.buildChain(format, output)
+                ? new FilterChainConfig.Factory(filterChain)
                 : null);
     }
 
@@ -675,24 +681,11 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     }
 
     /**
-     * Update statistics when a track is skipped
+     * Update statistics when a track is skipped; its play time is counted when it ends
      */
     public void updateStatsOnSkip() {
-        AudioTrack track = audioPlayer.getPlayingTrack();
-        if (track == null) return;
-        
-            Settings settings = manager.getBot().getSettingsManager().getSettings(guildId);
-            settings.incrementSongsPlayed();
-        
-        // Calculate the actual play time based on track type
-            if (track.getInfo().isStream) {
-            // For streams, calculate time from start to skip
-                long streamDuration = System.currentTimeMillis() - streamStartTime;
-                settings.addPlayTime(streamDuration);
-            } else {
-            // For normal tracks, add the time played before skip
-                settings.addPlayTime(track.getPosition());
-        }
+        if (audioPlayer.getPlayingTrack() == null) return;
+        manager.getBot().getPlaybackCounters().increment(guildId, PlaybackCounters.Counter.SKIPS);
     }
 
     /**
@@ -747,7 +740,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         RepeatMode repeatMode = manager.getBot().getSettingsManager().getSettings(guildId).getRepeatMode();
 
         // Track statistics update
-        updateTrackStatistics(track);
+        updateTrackStatistics(track, endReason);
         
         // If this was a stream, stop ICY metadata monitoring
         if (track != null && track.getInfo().isStream) {
@@ -797,26 +790,24 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     }
 
     /**
-     * Updates statistics when a track finishes playing
+     * Adds the time a track was listened to when it ends; plays are counted when it starts
      * @param track The track that just finished
+     * @param endReason Why it ended, to tell a full play from a skip or a stop
      */
-    private void updateTrackStatistics(AudioTrack track) {
+    private void updateTrackStatistics(AudioTrack track, AudioTrackEndReason endReason) {
         if (track == null) return;
-        
-                Settings settings = manager.getBot().getSettingsManager().getSettings(guildId);
-                settings.incrementSongsPlayed();
-        
-        // Add play time based on the track type
-                if (track.getInfo().isStream) {
+
+        long listened;
+        if (track.getInfo().isStream) {
             // For streams, calculate actual listening time
-                    long streamDuration = System.currentTimeMillis() - streamStartTime;
-                    settings.addPlayTime(streamDuration);
-                } else {
-            // For normal tracks, add the full duration
-                    settings.addPlayTime(track.getDuration());
-                }
-            }
-            
+            listened = System.currentTimeMillis() - streamStartTime;
+        } else {
+            // Tracks that did not finish only count the part played
+            listened = endReason == AudioTrackEndReason.FINISHED ? track.getDuration() : track.getPosition();
+        }
+        manager.getBot().getPlaybackCounters().add(guildId, PlaybackCounters.Counter.PLAY_TIME_MS, listened);
+    }
+
     /**
      * Handles track repetition based on the repeat mode
      * @param track The track that just finished playing
@@ -855,7 +846,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
 
                 player.setPaused(false);
 
-                Guild guild = guild(manager.getBot().getJDA());
+                Guild guild = guild();
                 Bot.updatePlayStatus(guild, guild.getSelfMember(), PlayStatus.STOPPED);
     }
 
@@ -870,7 +861,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         }
         
         // Update guild-specific settings and process any metadata
-        Guild guild = guild(manager.getBot().getJDA());
+        Guild guild = guild();
         handleTrackTypeData(track);
         
         // For Gensokyo Radio tracks, set up the Bot instance and register this track
@@ -886,19 +877,28 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         // Update play status (for nickname display)
         Bot.updatePlayStatus(guild, guild.getSelfMember(), PlayStatus.PLAYING);
         
-        // Increment number of songs played in settings
-        Settings settings = manager.getBot().getSettingsManager().getSettings(guildId);
-        settings.incrementSongsPlayed();
+        manager.getBot().getPlaybackCounters().increment(guildId, PlaybackCounters.Counter.PLAYS);
         
         // Add the track to music history if enabled
         // Note: Gensokyo Radio tracks have special handling in the MusicHistory class
         if (manager.getBot().getConfig().isHistoryEnabled()) {
             manager.getBot().getMusicHistory().addTrack(track, this);
         }
+
+        // Warm the chapter cache for the tracks that play next
+        manager.getBot().getYoutubeChapterManager().prefetchUpcoming(queue);
+
+        // Have lyrics ready for this track and the next one
+        manager.getBot().getLyricsService().prefetch(track);
+        for (QueuedTrack next : queue.getUpcoming(1)) {
+            manager.getBot().getLyricsService().prefetch(next.getTrack());
+        }
     }
     
     @Override
     public void onTrackException(AudioPlayer player, AudioTrack track, com.sedmelluq.discord.lavaplayer.tools.FriendlyException exception) {
+        manager.getBot().getPlaybackCounters().increment(guildId, PlaybackCounters.Counter.ERRORS);
+
         // Handle exceptions during playback of YouTube streams
         // This allows for faster recovery than waiting for onTrackEnd
         if (track != null && track.getInfo().isStream && track.getInfo().uri.contains("youtube.com")) {
@@ -964,7 +964,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         RadioCmd.lastStationLogos.remove(stringGuildId);
         
         // Clear Spotify data
-        SpotifyCmd.lastTrackIds.remove(stringGuildId);
+        manager.getBot().getSpotifyManager().clearGuildTrack(stringGuildId);
     }
     
     /**
@@ -976,7 +976,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
             // Make sure the global map is updated with this track's Spotify ID
             RequestMetadata rm = extractRequestMetadata(track);
             if (rm != null && rm.hasSpotifyData()) {
-                SpotifyCmd.lastTrackIds.put(stringGuildId, rm.getSpotifyTrackId());
+                manager.getBot().getSpotifyManager().setGuildTrack(stringGuildId, rm.getSpotifyTrackId());
             }
         }
     }
@@ -1186,7 +1186,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         eb.setTitle("~ Now playing Spotify track :");
         
         // Get detailed Spotify track info
-        SpotifyCmd.SpotifyTrackInfo trackInfo = getSpotifyTrackInfo();
+        SpotifyTrackInfo trackInfo = getSpotifyTrackInfo();
         
         if (trackInfo != null) {
             // Rich description with track details
@@ -1924,7 +1924,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     }
 
     private String buildSpotifyTopic(long userId, AudioTrack track) {
-        SpotifyCmd.SpotifyTrackInfo spotifyInfo = getSpotifyTrackInfo();
+        SpotifyTrackInfo spotifyInfo = getSpotifyTrackInfo();
         if (spotifyInfo == null) {
             return null;
         }
@@ -2013,6 +2013,10 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         return jda.getGuildById(guildId);
     }
 
+    private Guild guild() {
+        return manager.getBot().getShards().getGuildById(guildId);
+    }
+
     /**
      * Builds an embed for local audio files uploaded through Discord
      * @param eb The EmbedBuilder to populate
@@ -16,7 +16,10 @@ import com.jagrosh.jmusicbot.audio.filter.EqualizerPcmAudioFilter;
 import com.jagrosh.jmusicbot.audio.filter.ReverbPcmAudioFilter;
 import com.sedmelluq.discord.lavaplayer.filter.AudioFilter;
 import com.sedmelluq.discord.lavaplayer.filter.FloatPcmAudioFilter;
+import com.sedmelluq.discord.lavaplayer.filter.PcmFilterFactory;
+import com.sedmelluq.discord.lavaplayer.filter.UniversalPcmAudioFilter;
 import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 
 import java.util.*;
 
@@ -39,6 +42,29 @@ public class FilterChainConfig {
                 || reverb.enabled || equalizer.enabled;
     }
 
+    /**
+     * Filter factory building this chain. The factory keeps a reference to this config
+     * rather than a lambda so an audio node can be sent the settings it was built from.
+     * It is not a record: hot-swapping compares factories by identity, and every
+     * {@code applyFilters} must hand over a new one.
+     */
+    public static final class Factory implements PcmFilterFactory {
+        private final FilterChainConfig config;
+
+        public Factory(FilterChainConfig config) {
+            this.config = config;
+        }
+
+        public FilterChainConfig config() {
+            return config;
+        }
+
+        @Override
+        public List<AudioFilter> buildChain(AudioTrack track, AudioDataFormat format, UniversalPcmAudioFilter output) {
+            return config.buildChain(format, output);
+        }
+    }
+
     public List<AudioFilter> buildChain(AudioDataFormat format, FloatPcmAudioFilter output) {
         List<AudioFilter> filters = new ArrayList<>();
         FloatPcmAudioFilter current = output;
@@ -7,23 +7,29 @@ package com.jagrosh.jmusicbot.audio;
 import com.jagrosh.jmusicbot.Bot;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import dev.cosgy.jmusicbot.util.YtDlpManager.FallbackPlatform;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,10 +43,12 @@ import java.util.regex.Pattern;
 public class IcyMetadataHandler {
     
     private final Bot bot;
-    private final ScheduledExecutorService scheduler;
+    private final Scheduler scheduler;
     private final Map<String, StreamMetadata> metadataCache; // guildId -> metadata
     private final Map<String, ScheduledFuture<?>> updateTasks; // guildId -> update task
     
+    // Deadline of a whole ICY fetch, headers and the first metadata block
+    private static final long ICY_TIMEOUT_MILLIS = 5000;
     // Regex patterns for extracting data from ICY metadata
     private static final Pattern STREAM_TITLE_PATTERN = Pattern.compile("StreamTitle='([^']*)';");
     private static final Pattern ARTIST_TITLE_PATTERN = Pattern.compile("(.*?)\\s*[-–—]\\s*(.*)");
@@ -51,7 +59,7 @@ public class IcyMetadataHandler {
      */
     public IcyMetadataHandler(Bot bot) {
         this.bot = bot;
-        this.scheduler = bot.getThreadpool();
+        this.scheduler = bot.getScheduler();
         this.metadataCache = new ConcurrentHashMap<>();
         this.updateTasks = new ConcurrentHashMap<>();
     }
@@ -232,7 +240,7 @@ public class IcyMetadataHandler {
         fetchMetadata(guildId, track);
         
         // Schedule periodic updates (every 30 seconds)
-        ScheduledFuture<?> task = scheduler.scheduleAtFixedRate(
+        ScheduledFuture<?> task = scheduler.scheduleAtFixedRate(Scheduler.Lane.NETWORK, "icy-metadata",
             () -> fetchMetadata(guildId, track),
             30, 30, TimeUnit.SECONDS
         );
@@ -417,100 +425,90 @@ public class IcyMetadataHandler {
      * @param metadata The metadata object to update
      */
     private boolean fetchIcyMetadata(String streamUrl, StreamMetadata metadata) {
-        HttpURLConnection connection = null;
-        InputStream in = null;
+        HttpRequest request = HttpService.get().request(streamUrl)
+                .header("Icy-MetaData", "1")
+                .header("User-Agent", "JMusicBot ICY Client/1.0")
+                .timeout(Duration.ofMillis(ICY_TIMEOUT_MILLIS))
+                .GET()
+                .build();
+        // The request timeout only covers the headers; a stream that stops sending would
+        // block the read forever, so the whole fetch has a deadline and the body is closed
+        // when it passes, which fails the blocked read
+        CompletableFuture<HttpResponse<InputStream>> response = HttpService.get()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<Void> fetch = response
+                .thenAccept(r -> {
+                    try (InputStream in = r.body()) {
+                        // Extract ICY headers for station information
+                        extractIcyHeaders(r.headers(), metadata);
 
-        try {
-            connection = openIcyConnection(streamUrl);
-            connection.connect();
-
-            // Read content-type once to force header parsing on some streams.
-            connection.getContentType();
-            // Extract ICY headers for station information
-            extractIcyHeaders(connection, metadata);
-
-            String icyMetaInt = connection.getHeaderField("icy-metaint");
-            if (icyMetaInt != null) {
-                int metaInt = Integer.parseInt(icyMetaInt);
-                in = connection.getInputStream();
-                readIcyMetadataBlock(in, metaInt, metadata);
-            } else {
-                // If no ICY metadata, check if we received a redirect
-                String location = connection.getHeaderField("Location");
-                if (location != null && !location.equals(streamUrl)) {
-                    // Follow the redirect
-                    return false;
-                }
+                        String icyMetaInt = r.headers().firstValue("icy-metaint").orElse(null);
+                        if (icyMetaInt != null) {
+                            readIcyMetadataBlock(in, Integer.parseInt(icyMetaInt), metadata);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .orTimeout(ICY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        fetch.whenComplete((ignored, error) -> {
+            if (error instanceof TimeoutException) {
+                // Also closes a body that only arrives after the deadline
+                response.thenAccept(r -> closeQuietly(r.body()));
             }
-            
+        });
+        try {
+            fetch.join();
             return true;
-        } catch (Exception e) {
+        } catch (CompletionException e) {
             metadata.setFailed(true);
             return false;
-        } finally {
-            closeConnection(in, connection);
         }
     }
 
-    private HttpURLConnection openIcyConnection(String streamUrl) throws IOException {
-        URL url = URI.create(streamUrl).toURL();
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestProperty("Icy-MetaData", "1");
-        connection.setRequestProperty("User-Agent", "JMusicBot ICY Client/1.0");
-        connection.setConnectTimeout(5000);
-        connection.setReadTimeout(5000);
-        return connection;
+    private static void closeQuietly(InputStream in) {
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
     }
 
     private void readIcyMetadataBlock(InputStream in, int metaInt, StreamMetadata metadata) throws IOException {
-        in.skip(metaInt);
+        in.skipNBytes(metaInt);
         int metaLength = in.read() * 16;
         if (metaLength <= 0) {
             return;
         }
 
-        byte[] metaData = new byte[metaLength];
-        in.read(metaData);
+        byte[] metaData = in.readNBytes(metaLength);
         String metaString = new String(metaData, StandardCharsets.UTF_8).trim();
         Matcher matcher = STREAM_TITLE_PATTERN.matcher(metaString);
         if (matcher.find()) {
             metadata.updateFromStreamTitle(matcher.group(1));
         }
     }
-
-    private void closeConnection(InputStream in, HttpURLConnection connection) {
-        try {
-            if (in != null) {
-                in.close();
-            }
-            if (connection != null) {
-                connection.disconnect();
-            }
-        } catch (IOException e) {
-            // Ignore close errors
-        }
-    }
     
     /**
-     * Extract ICY headers from a connection to get station information
-     * @param connection The HTTP connection
+     * Extract ICY headers from a response to get station information
+     * @param headers The response headers
      * @param metadata The metadata to update
      */
-    private void extractIcyHeaders(HttpURLConnection connection, StreamMetadata metadata) {
+    private void extractIcyHeaders(HttpHeaders headers, StreamMetadata metadata) {
         // Get station name from icy-name
-        String icyName = connection.getHeaderField("icy-name");
+        String icyName = headers.firstValue("icy-name").orElse(null);
         if (icyName != null && !icyName.isEmpty()) {
             metadata.setStationName(icyName);
         }
         
         // Get station genre from icy-genre
-        String icyGenre = connection.getHeaderField("icy-genre");
+        String icyGenre = headers.firstValue("icy-genre").orElse(null);
         if (icyGenre != null && !icyGenre.isEmpty()) {
             metadata.setStationGenre(icyGenre);
         }
         
         // Get station URL which might contain logo
-        String icyUrl = connection.getHeaderField("icy-url");
+        String icyUrl = headers.firstValue("icy-url").orElse(null);
         if (icyUrl != null && !icyUrl.isEmpty() && metadata.getStationLogo().isEmpty()) {
             // Try to get favicon from the URL
             try {
@@ -667,41 +665,13 @@ public class IcyMetadataHandler {
      * @return A JSONObject or null if failed
      */
     private JSONObject fetchJson(String urlString) {
-        HttpURLConnection connection = null;
-        BufferedReader reader = null;
-        
         try {
-            URL url = URI.create(urlString).toURL();
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "JMusicBot/1.0");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-            
-            int responseCode = connection.getResponseCode();
-            if (responseCode != 200) {
-                return null;
-            }
-            
-            reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            
-            return new JSONObject(response.toString());
-            
+            return new JSONObject(HttpService.get().getString(urlString, "User-Agent", "JMusicBot/1.0"));
         } catch (IOException | JSONException e) {
             return null;
-        } finally {
-            try {
-                if (reader != null) reader.close();
-                if (connection != null) connection.disconnect();
-            } catch (IOException e) {
-                // Ignore close errors
-            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
     }
     
@@ -776,7 +746,7 @@ public class IcyMetadataHandler {
         try {
             // Get the guild from the ID
             long guildIdLong = Long.parseLong(guildId);
-            net.dv8tion.jda.api.entities.Guild guild = bot.getJDA().getGuildById(guildIdLong);
+            net.dv8tion.jda.api.entities.Guild guild = bot.getShards().getGuildById(guildIdLong);
             if (guild == null) return;
             
             // Get the audio handler
@@ -15,39 +15,53 @@
  */
 package com.jagrosh.jmusicbot.audio;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.BotConfig;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
-import dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd;
+import dev.cosgy.jmusicbot.history.HistoryExport;
+import dev.cosgy.jmusicbot.history.HistoryPage;
+import dev.cosgy.jmusicbot.history.HistoryQuery;
+import dev.cosgy.jmusicbot.history.HistoryRetention;
+import dev.cosgy.jmusicbot.history.HistorySearchPage;
+import dev.cosgy.jmusicbot.history.HistoryStats;
+import dev.cosgy.jmusicbot.history.HistoryStore;
 import dev.cosgy.jmusicbot.slashcommands.music.RadioCmd;
+import dev.cosgy.jmusicbot.spotify.SpotifyTrackInfo;
 import dev.cosgy.jmusicbot.util.LocalAudioMetadata;
 import dev.cosgy.jmusicbot.util.YtDlpManager.FallbackPlatform;
 import dev.cosgy.jmusicbot.util.YtDlpManager.YtDlpMetadata;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
 import net.dv8tion.jda.api.entities.User;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
 
 /**
  * Class that manages the music playback history
+ * <p>
+ * Records are kept by a tiered {@link HistoryStore}: the newest in memory, older ones
+ * in log segments on disk, compressed and finally deleted as they age. Lookups,
+ * searches and exports span the tiers. The legacy {@code music_history.json} is
+ * migrated into the store on first start. Play counters are kept by a
+ * {@link HistoryStats}, counted from the stored history in the background at startup.
  */
 public class MusicHistory {
     private static final String HISTORY_FILENAME = "music_history.json";
+    private static final String HISTORY_DIR = "history";
     private final Bot bot;
-    private final Path historyFile;
-    private final ObjectMapper objectMapper;
-    private final List<PlayRecord> history;
+    private final HistoryStore store;
+    private final Object statsLock = new Object();
+    // Replaced once the stored history has been counted in the background
+    private volatile HistoryStats stats = new HistoryStats();
+    // Plays added while the stored history is being counted, null once it is done
+    private List<PlayRecord> addedWhileLoading = new ArrayList<>();
     private boolean enabled;
     
     // Track the last added Gensokyo Radio song and timestamp to prevent duplicates
@@ -61,22 +75,36 @@ public class MusicHistory {
      */
     public MusicHistory(Bot bot) {
         this.bot = bot;
-        this.historyFile = Paths.get(HISTORY_FILENAME);
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        this.history = new CopyOnWriteArrayList<>();
-        this.enabled = bot.getConfig().isHistoryEnabled();
-        
-        // Create history file if it doesn't exist
-        if (!Files.exists(historyFile)) {
-            try {
-                writeEmptyHistoryFile();
-            } catch (IOException e) {
-                System.err.println("Error creating history file: " + e.getMessage());
+        BotConfig config = bot.getConfig();
+        this.store = new HistoryStore(Paths.get(HISTORY_DIR), HistoryRetention.ofDays(config.getHistoryHotRecords(),
+                config.getHistoryHotDays(), config.getHistoryWarmDays(), config.getHistoryMaxDays()));
+        this.enabled = config.isHistoryEnabled();
+
+        // Load existing history, migrating the old JSON file if needed
+        try {
+            store.open(Paths.get(HISTORY_FILENAME));
+        } catch (IOException e) {
+            System.err.println("Error loading history: " + e.getMessage());
+        }
+        // Counting reads the whole history, so it does not hold up startup
+        bot.getScheduler().execute(Scheduler.Lane.NETWORK, "history-stats", this::loadStats);
+    }
+
+    /**
+     * Counts the stored history into fresh statistics, adds the plays that came in
+     * meanwhile and swaps them in. Until then the statistics only hold those plays.
+     */
+    private void loadStats() {
+        HistoryStats loaded = new HistoryStats();
+        store.replay(loaded::add);
+        synchronized (statsLock) {
+            if (addedWhileLoading == null) {
+                // Cleared in the meantime
+                return;
             }
-        } else {
-            // Load existing history
-            loadHistory();
+            loaded.addAll(addedWhileLoading);
+            addedWhileLoading = null;
+            stats = loaded;
         }
     }
 
@@ -113,11 +141,11 @@ public class MusicHistory {
 
             RequestMetadata rm = getRequestMetadata(track);
             User requester = rm != null && rm.getOwner() != 0
-                    ? bot.getJDA().getUserById(rm.getOwner())
+                    ? bot.getShards().getUserById(rm.getOwner())
                     : null;
 
             String guildId = String.valueOf(handler.getGuildId());
-            String guildName = bot.getJDA().getGuildById(handler.getGuildId()).getName();
+            String guildName = bot.getShards().getGuildById(handler.getGuildId()).getName();
             TrackText trackText = resolveTrackText(info, handler, track);
 
             PlayRecord record = new PlayRecord(
@@ -126,8 +154,8 @@ public class MusicHistory {
                 track.getDuration(),
                 info.uri,
                 System.currentTimeMillis(),
-                requester != null ? requester.getId() : bot.getJDA().getSelfUser().getId(),
-                requester != null ? requester.getName() : bot.getJDA().getSelfUser().getName(),
+                requester != null ? requester.getId() : bot.getShards().getSelfUser().getId(),
+                requester != null ? requester.getName() : bot.getShards().getSelfUser().getName(),
                 guildName,
                 guildId
             );
@@ -135,14 +163,20 @@ public class MusicHistory {
             applyTrackTypeMetadata(record, handler, track, info, rm);
             applyGensokyoOrStreamMetadata(record, handler, track, info);
 
-            history.add(0, record);
-            saveHistory();
+            store.add(record);
+            synchronized (statsLock) {
+                stats.add(record);
+                if (addedWhileLoading != null) {
+                    addedWhileLoading.add(record);
+                }
+            }
         } catch (Exception e) {
             System.err.println("Error adding track to history: " + e.getMessage());
         }
     }
 
     private boolean shouldSkipRecentDuplicate(AudioTrackInfo info, AudioHandler handler, AudioTrack track) {
+        List<PlayRecord> history = store.recent();
         if (history.isEmpty()) {
             return false;
         }
@@ -288,7 +322,7 @@ public class MusicHistory {
     private void applyTrackTypeMetadata(PlayRecord record, AudioHandler handler, AudioTrack track, AudioTrackInfo info, RequestMetadata rm) {
         AudioHandler.TrackType type = handler.getTrackType(track);
         if (type == AudioHandler.TrackType.SPOTIFY) {
-            SpotifyCmd.SpotifyTrackInfo spotifyInfo = handler.getSpotifyTrackInfo();
+            SpotifyTrackInfo spotifyInfo = handler.getSpotifyTrackInfo();
             if (spotifyInfo != null) {
                 record.setSpotifyData(spotifyInfo.trackId, spotifyInfo.albumName, spotifyInfo.albumImageUrl, spotifyInfo.artistName, spotifyInfo.releaseYear);
             }
@@ -398,11 +432,11 @@ public class MusicHistory {
     }
 
     /**
-     * Gets the playback history
+     * Gets the playback history kept in memory; older records are reached through {@link #query}
      * @return The list of play records
      */
     public List<PlayRecord> getHistory() {
-        return history;
+        return store.recent();
     }
 
     /**
@@ -411,199 +445,46 @@ public class MusicHistory {
      * @return Limited history list
      */
     public List<PlayRecord> getHistory(int limit) {
-        int size = Math.min(limit, history.size());
-        return history.subList(0, size);
+        List<PlayRecord> history = store.recent();
+        return history.subList(0, Math.min(limit, history.size()));
     }
 
     /**
-     * Loads the history from the JSON file
+     * Looks up history records through the secondary indexes, then the older records on disk
+     * @param query Filters and paging
+     * @return The matching page, newest first
      */
-    private void loadHistory() {
-        try {
-            if (Files.exists(historyFile)) {
-                var jsonNode = objectMapper.readTree(historyFile.toFile());
-                
-                // Check if the JSON node is a valid ObjectNode
-                if (jsonNode == null || jsonNode.isMissingNode() || !jsonNode.isObject()) {
-                    System.out.println("Invalid or empty history file, creating new one");
-                    writeEmptyHistoryFile();
-                    return;
-                }
-                
-                ObjectNode root = (ObjectNode) jsonNode;
-                ArrayNode records = (ArrayNode) root.get("history");
-                
-                if (records != null) {
-                    history.clear();
-                    for (int i = 0; i < records.size(); i++) {
-                        ObjectNode recordNode = (ObjectNode) records.get(i);
-                        
-                        // Get the guildId if available, otherwise use "unknown"
-                        String guildId = recordNode.has("guildId") 
-                            ? recordNode.get("guildId").asText() 
-                            : "unknown";
-                        
-                        PlayRecord record = new PlayRecord(
-                            recordNode.get("title").asText(),
-                            recordNode.get("artist").asText(),
-                            recordNode.get("duration").asLong(),
-                            recordNode.get("url").asText(),
-                            recordNode.get("playedAt").asLong(),
-                            recordNode.get("requesterId").asText(),
-                            recordNode.get("requesterName").asText(),
-                            recordNode.get("guildName").asText(),
-                            guildId
-                        );
-                        
-                        // Load metadata based on type
-                        if (recordNode.has("spotifyData")) {
-                            ObjectNode spotifyData = (ObjectNode) recordNode.get("spotifyData");
-                            record.setSpotifyData(
-                                spotifyData.path("trackId").asText(null),
-                                spotifyData.path("albumName").asText(null),
-                                spotifyData.path("albumImageUrl").asText(null),
-                                spotifyData.path("artistName").asText(null),
-                                spotifyData.path("releaseYear").asText(null)
-                            );
-                        } else if (recordNode.has("radioData")) {
-                            ObjectNode radioData = (ObjectNode) recordNode.get("radioData");
-                            record.setRadioData(
-                                radioData.path("stationName").asText(null),
-                                radioData.path("songImageUrl").asText(null),
-                                radioData.path("logoUrl").asText(null)
-                            );
-                        } else if (recordNode.has("soundcloudData")) {
-                            ObjectNode soundcloudData = (ObjectNode) recordNode.get("soundcloudData");
-                            record.setSoundCloudData(
-                                soundcloudData.path("artworkUrl").asText(null)
-                            );
-                        } else if (recordNode.has("ytDlpData")) {
-                            ObjectNode ytDlpData = (ObjectNode) recordNode.get("ytDlpData");
-                            record.setYtDlpData(
-                                ytDlpData.path("sourceType").asText(null),
-                                ytDlpData.path("thumbnailUrl").asText(null),
-                                ytDlpData.path("sourceIconUrl").asText(null)
-                            );
-                        } else if (recordNode.has("youtubeData")) {
-                            ObjectNode ytData = (ObjectNode) recordNode.get("youtubeData");
-                            record.setYoutubeData(ytData.path("videoId").asText(null));
-                        } else if (recordNode.has("localData")) {
-                            ObjectNode localData = (ObjectNode) recordNode.get("localData");
-                            record.setLocalData(
-                                localData.path("album").asText(""),
-                                localData.path("genre").asText(""),
-                                localData.path("year").asText(""),
-                                localData.path("artworkHash").asText("")
-                            );
-                        } else if (recordNode.has("gensokyoData")) {
-                            ObjectNode gensokyoData = (ObjectNode) recordNode.get("gensokyoData");
-                            record.setGensokyoData(
-                                gensokyoData.path("title").asText(null),
-                                gensokyoData.path("artist").asText(null),
-                                gensokyoData.path("album").asText(null),
-                                gensokyoData.path("circle").asText(null),
-                                gensokyoData.path("year").asText(null),
-                                gensokyoData.path("albumArtUrl").asText(null)
-                            );
-                        } else if (recordNode.has("streamData")) {
-                            ObjectNode streamData = (ObjectNode) recordNode.get("streamData");
-                            record.setStreamData(
-                                streamData.path("streamName").asText(null),
-                                streamData.path("streamGenre").asText(null),
-                                streamData.path("streamLogo").asText(null),
-                                streamData.path("isLive").asBoolean(false)
-                            );
-                        }
-                        
-                        history.add(record);
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error loading history: " + e.getMessage());
-        }
+    public HistoryPage query(HistoryQuery query) {
+        return store.query(query);
     }
 
     /**
-     * Saves the history to the JSON file
+     * Searches titles, artists and album details of the records kept in memory through the full-text index
+     * @param query Filters and paging (offset only)
+     * @param text Search terms, all of which must match
+     * @return The matching page, best match first
      */
-    private void saveHistory() {
-        try {
-            ObjectNode root = objectMapper.createObjectNode();
-            ArrayNode records = root.putArray("history");
-            
-            for (PlayRecord record : history) {
-                ObjectNode recordNode = records.addObject();
-                recordNode.put("title", record.getTitle());
-                recordNode.put("artist", record.getArtist());
-                recordNode.put("duration", record.getDuration());
-                recordNode.put("url", record.getUrl());
-                recordNode.put("playedAt", record.getPlayedAt());
-                recordNode.put("requesterId", record.getRequesterId());
-                recordNode.put("requesterName", record.getRequesterName());
-                recordNode.put("guildName", record.getGuildName());
-                recordNode.put("guildId", record.getGuildId());
-                
-                // Save metadata based on type
-                if (record.hasSpotifyData()) {
-                    ObjectNode spotifyData = recordNode.putObject("spotifyData");
-                    spotifyData.put("trackId", record.getSpotifyTrackId());
-                    spotifyData.put("albumName", record.getSpotifyAlbumName());
-                    spotifyData.put("albumImageUrl", record.getSpotifyAlbumImageUrl());
-                    spotifyData.put("artistName", record.getSpotifyArtistName());
-                    spotifyData.put("releaseYear", record.getSpotifyReleaseYear());
-                } else if (record.hasRadioData()) {
-                    ObjectNode radioData = recordNode.putObject("radioData");
-                    radioData.put("stationName", record.getRadioStationName());
-                    radioData.put("songImageUrl", record.getRadioSongImageUrl());
-                    radioData.put("logoUrl", record.getRadioLogoUrl());
-                } else if (record.hasSoundCloudData()) {
-                    ObjectNode soundcloudData = recordNode.putObject("soundcloudData");
-                    soundcloudData.put("artworkUrl", record.getSoundCloudArtworkUrl());
-                } else if (record.hasYtDlpData()) {
-                    ObjectNode ytDlpData = recordNode.putObject("ytDlpData");
-                    ytDlpData.put("sourceType", record.getYtDlpSourceType());
-                    ytDlpData.put("thumbnailUrl", record.getYtDlpThumbnailUrl());
-                    ytDlpData.put("sourceIconUrl", record.getYtDlpSourceIconUrl());
-                } else if (record.hasYoutubeData()) {
-                    ObjectNode ytData = recordNode.putObject("youtubeData");
-                    ytData.put("videoId", record.getYoutubeVideoId());
-                } else if (record.hasLocalData()) {
-                    ObjectNode localData = recordNode.putObject("localData");
-                    localData.put("album", record.getLocalAlbum());
-                    localData.put("genre", record.getLocalGenre());
-                    localData.put("year", record.getLocalYear());
-                    localData.put("artworkHash", record.getLocalArtworkHash());
-                } else if (record.hasGensokyoData()) {
-                    ObjectNode gensokyoData = recordNode.putObject("gensokyoData");
-                    gensokyoData.put("title", record.getGensokyoTitle());
-                    gensokyoData.put("artist", record.getGensokyoArtist());
-                    gensokyoData.put("album", record.getGensokyoAlbum());
-                    gensokyoData.put("circle", record.getGensokyoCircle());
-                    gensokyoData.put("year", record.getGensokyoYear());
-                    gensokyoData.put("albumArtUrl", record.getGensokyoAlbumArtUrl());
-                } else if (record.hasStreamData()) {
-                    ObjectNode streamData = recordNode.putObject("streamData");
-                    streamData.put("streamName", record.getStreamName());
-                    streamData.put("streamGenre", record.getStreamGenre());
-                    streamData.put("streamLogo", record.getStreamLogo());
-                    streamData.put("isLive", record.isLiveStream());
-                }
-            }
-            
-            objectMapper.writeValue(historyFile.toFile(), root);
-        } catch (IOException e) {
-            System.err.println("Error saving history: " + e.getMessage());
-        }
+    public HistorySearchPage search(HistoryQuery query, String text) {
+        return store.search(query, text);
     }
 
     /**
-     * Creates an empty history file
+     * Streams every matching record, in memory and on disk, to an export
+     * @param query Filters; paging is ignored
+     * @param export Destination of the records
+     * @return Number of records written
      */
-    private void writeEmptyHistoryFile() throws IOException {
-        ObjectNode root = objectMapper.createObjectNode();
-        root.putArray("history");
-        objectMapper.writeValue(historyFile.toFile(), root);
+    public long export(HistoryQuery query, HistoryExport export) throws IOException {
+        return store.export(query, export);
+    }
+
+    /**
+     * Gets the requesters found in the history
+     * @param guildId Guild to restrict to, or null for all guilds
+     * @return Requester names mapped to the user ID of their latest play
+     */
+    public Map<String, String> getRequesters(String guildId) {
+        return store.getRequesters(guildId);
     }
 
     /**
@@ -626,14 +507,35 @@ public class MusicHistory {
      * Clear the history
      */
     public void clearHistory() {
-        history.clear();
-        try {
-            writeEmptyHistoryFile();
-        } catch (IOException e) {
-            System.err.println("Error clearing history: " + e.getMessage());
+        store.clear();
+        synchronized (statsLock) {
+            stats.clear();
+            addedWhileLoading = null;
         }
     }
 
+    /**
+     * Writes pending records and closes the history log
+     */
+    public void shutdown() {
+        store.close();
+    }
+
+    /**
+     * Gets the play counters and leaderboards, kept up to date as tracks are added
+     * @return The history statistics
+     */
+    public HistoryStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return counters of the history log
+     */
+    public String getLogStats() {
+        return store.toString();
+    }
+
     /**
      * Class representing a record in the play history
      */
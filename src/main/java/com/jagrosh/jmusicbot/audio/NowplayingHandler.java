@@ -17,97 +17,148 @@
 package com.jagrosh.jmusicbot.audio;
 
 import com.jagrosh.jmusicbot.Bot;
-import com.jagrosh.jmusicbot.entities.Pair;
 import com.jagrosh.jmusicbot.settings.Settings;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import net.dv8tion.jda.api.exceptions.PermissionException;
 import net.dv8tion.jda.api.exceptions.RateLimitedException;
+import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import net.dv8tion.jda.api.utils.messages.MessageEditData;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
 
 /**
  * @author John Grosh <john.a.grosh@gmail.com>
  */
 public class NowplayingHandler {
     private final Bot bot;
-    private final ConcurrentHashMap<Long, Pair<Long, Long>> lastNP; // guild -> channel,message
+    private static final long REFRESH_INTERVAL_SECONDS = 10;
+    private static final long REFRESH_TICK_SECONDS = 1;
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final NowplayingRefresher refresher = new NowplayingRefresher(
+            REFRESH_INTERVAL_SECONDS, REFRESH_TICK_SECONDS, MAX_BACKOFF_SECONDS, TimeUnit.SECONDS);
     private final HashMap<Long, ScheduledFuture<?>> gensokyoUpdateTasks = new HashMap<>();
 
     public NowplayingHandler(Bot bot) {
         this.bot = bot;
-        this.lastNP = new ConcurrentHashMap<>();
     }
 
     public void init() {
         if (!bot.getConfig().useNPImages())
-            bot.getThreadpool().scheduleWithFixedDelay(this::updateAll, 0, 10, TimeUnit.SECONDS);
+            bot.getScheduler().scheduleWithFixedDelay(Scheduler.Lane.UI, "nowplaying-refresh", this::refreshDue,
+                    REFRESH_TICK_SECONDS, REFRESH_TICK_SECONDS, TimeUnit.SECONDS);
     }
 
     public void setLastNPMessage(Message m) {
-        lastNP.put(m.getGuild().getIdLong(), new Pair<>(m.getChannel().getIdLong(), m.getIdLong()));
+        refresher.track(m.getGuild().getIdLong(), m.getChannel().getIdLong(), m.getIdLong());
     }
 
     public void clearLastNPMessage(Guild guild) {
-        lastNP.remove(guild.getIdLong());
+        refresher.untrack(guild.getIdLong());
     }
 
-    private void updateAll() {
-        Set<Long> toRemove = new HashSet<>();
-        for (long guildId : lastNP.keySet()) {
-            Guild guild = bot.getJDA().getGuildById(guildId);
-            if (guild == null) {
-                toRemove.add(guildId);
-                continue;
-            }
-            Pair<Long, Long> pair = lastNP.get(guildId);
-            TextChannel tc = guild.getTextChannelById(pair.getKey());
-            if (tc == null) {
-                toRemove.add(guildId);
-                continue;
-            }
-            AudioHandler handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
-            if (handler == null) {
-                toRemove.add(guildId);
-                continue;
-            }
-            MessageEditData msg = null;
-            try {
-                msg = MessageEditData.fromCreateData(handler.getNowPlaying(bot.getJDA()));
-            } catch (Exception e) {
-                toRemove.add(guildId);
-                continue;
-            }
-            if (msg == null) {
-                msg = MessageEditData.fromCreateData(handler.getNoMusicPlaying(bot.getJDA()));
-                toRemove.add(guildId);
-            }
-            try {
-                tc.editMessageById(pair.getValue(), msg).queue(m -> {
-                }, t -> lastNP.remove(guildId));
-            } catch (Exception e) {
-                toRemove.add(guildId);
+    /**
+     * @return statistics of the now playing message refreshes
+     */
+    public NowplayingRefresher getRefresher() {
+        return refresher;
+    }
+
+    private void refreshDue() {
+        for (NowplayingRefresher.Target target : refresher.due()) {
+            refresh(target);
+        }
+    }
+
+    private void refresh(NowplayingRefresher.Target target) {
+        Guild guild = bot.getShards().getGuildById(target.getGuildId());
+        TextChannel tc = guild == null ? null : guild.getTextChannelById(target.getChannelId());
+        AudioHandler handler = guild == null ? null : (AudioHandler) guild.getAudioManager().getSendingHandler();
+        if (tc == null || handler == null) {
+            refresher.unchanged(target);
+            refresher.untrack(target);
+            return;
+        }
+        MessageCreateData data;
+        boolean playing = true;
+        try {
+            data = handler.getNowPlaying(guild.getJDA());
+            if (data == null) {
+                data = handler.getNoMusicPlaying(guild.getJDA());
+                playing = false;
             }
+        } catch (Exception e) {
+            refresher.unchanged(target);
+            refresher.untrack(target);
+            return;
+        }
+        if (!playing) {
+            // The "no music" message is final, it is not refreshed any further
+            refresher.untrack(target);
+        }
+
+        long fingerprint = fingerprint(data);
+        if (!refresher.changed(target, fingerprint)) {
+            return;
+        }
+        try {
+            // An edit still waiting in JDA's rate limit queue by the next refresh is
+            // dropped, rather than sent late and followed by a stale pile of edits
+            tc.editMessageById(target.getMessageId(), MessageEditData.fromCreateData(data))
+                    .deadline(System.currentTimeMillis() + REFRESH_INTERVAL_SECONDS * 1000)
+                    .queue(m -> refresher.edited(target, fingerprint),
+                            t -> refresher.failed(target, isRateLimit(t)));
+        } catch (Exception e) {
+            refresher.failed(target, false);
         }
-        toRemove.forEach(lastNP::remove);
+    }
+
+    /**
+     * Hash of what the message shows, so an edit that would change nothing is skipped.
+     */
+    private static long fingerprint(MessageCreateData data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.getContent().getBytes(StandardCharsets.UTF_8));
+        for (MessageEmbed embed : data.getEmbeds()) {
+            crc.update(0);
+            crc.update(embed.toData().toJson());
+        }
+        for (FileUpload file : data.getFiles()) {
+            crc.update(1);
+            crc.update(file.getName().getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    private static boolean isRateLimit(Throwable t) {
+        if (t instanceof RateLimitedException || t instanceof TimeoutException) {
+            return true;
+        }
+        return t instanceof ErrorResponseException e && e.getResponse() != null && e.getResponse().code == 429;
     }
 
     public void updateTopic(long guildId, AudioHandler handler, boolean wait) {
-        Guild guild = bot.getJDA().getGuildById(guildId);
+        Guild guild = bot.getShards().getGuildById(guildId);
         if (guild == null) {
             return;
         }
@@ -142,7 +193,7 @@ public class NowplayingHandler {
             otherText = "\u200B\n " + topic;
         }
 
-        String text = handler.getTopicFormat(bot.getJDA()) + otherText;
+        String text = handler.getTopicFormat(guild.getJDA()) + otherText;
         if (text.equals(tchan.getTopic())) {
             return;
         }
@@ -166,7 +217,7 @@ public class NowplayingHandler {
     }
 
     private void updateVoiceChannelStatus(VoiceChannel voiceChannel, AudioHandler handler, boolean wait) {
-        String text = handler.getTopicFormat(bot.getJDA());
+        String text = handler.getTopicFormat(voiceChannel.getJDA());
         if (text.equals(voiceChannel.getStatus())) {
             return;
         }
@@ -178,7 +229,7 @@ public class NowplayingHandler {
     }
 
     public void clearVoiceChannelStatus(long guildId, boolean wait) {
-        Guild guild = bot.getJDA().getGuildById(guildId);
+        Guild guild = bot.getShards().getGuildById(guildId);
         if (guild == null) {
             return;
         }
@@ -239,11 +290,11 @@ public class NowplayingHandler {
         }
 
         String title = resolvePresenceTitle(guildId, track);
-        bot.getJDA().getPresence().setActivity(Activity.listening(trimToDiscordLimit(title)));
+        bot.getShards().setActivity(Activity.listening(trimToDiscordLimit(title)));
     }
 
     private boolean shouldUseTrackInStatus(AudioTrack track) {
-        return track != null && bot.getJDA().getGuilds().stream()
+        return track != null && bot.getShards().getGuilds().stream()
                 .filter(g -> {
                     GuildVoiceState vs = g.getSelfMember().getVoiceState();
                     return vs != null && vs.inAudioChannel();
@@ -263,7 +314,7 @@ public class NowplayingHandler {
             }
 
             String artistTitle = info.getSonginfo().getArtist() + " - " + info.getSonginfo().getTitle();
-            bot.getJDA().getPresence().setActivity(Activity.listening(trimToDiscordLimit(artistTitle)));
+            bot.getShards().setActivity(Activity.listening(trimToDiscordLimit(artistTitle)));
             applyTitleToTrack(track, artistTitle);
             setupGensokyoTrackUpdateListener(guildId, track, handler);
             updateTopic(guildId, handler, false);
@@ -341,11 +392,7 @@ public class NowplayingHandler {
     }
 
     public void onMessageDelete(Guild guild, long messageId) {
-        Pair<Long, Long> pair = lastNP.get(guild.getIdLong());
-        if (pair == null)
-            return;
-        if (pair.getValue() == messageId)
-            lastNP.remove(guild.getIdLong());
+        refresher.untrack(guild.getIdLong(), messageId);
     }
 
     /**
@@ -398,7 +445,7 @@ public class NowplayingHandler {
                         if(statusTitle.length() > 128) {
                             statusTitle = statusTitle.substring(0, 128);
                         }
-                        bot.getJDA().getPresence().setActivity(Activity.listening(statusTitle));
+                        bot.getShards().setActivity(Activity.listening(statusTitle));
                     }
                     
                     // Update topics
@@ -415,7 +462,7 @@ public class NowplayingHandler {
         dev.cosgy.agent.GensokyoInfoAgent.addTrackChangeListener(listener);
         
         // Create a task to periodically check if the track is still playing
-        ScheduledFuture<?> task = bot.getThreadpool().scheduleAtFixedRate(() -> {
+        ScheduledFuture<?> task = bot.getScheduler().scheduleAtFixedRate(Scheduler.Lane.UI, "gensokyo-track-check", () -> {
             try {
                 // Make sure the track is still playing
                 AudioTrack currentTrack = handler.getPlayer().getPlayingTrack();
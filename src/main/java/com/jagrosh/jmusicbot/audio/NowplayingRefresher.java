@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package com.jagrosh.jmusicbot.audio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which now playing messages are edited on each tick of the refresh job.
+ * <p>
+ * Every message is refreshed once per interval, but the refreshes are spread over the
+ * ticks of that interval instead of all firing on the same one: a message is due one
+ * interval after its last refresh, and a tick only takes its share of the tracked
+ * messages. An edit is skipped when the fingerprint of the rendered message matches the
+ * one of the last successful edit. A channel that hit a rate limit is left alone for an
+ * exponentially growing delay, reset by its next successful edit.
+ * <p>
+ * Only the bookkeeping lives here; rendering and editing are done by
+ * {@link NowplayingHandler}.
+ */
+public class NowplayingRefresher {
+    private final long intervalNanos;
+    private final long tickNanos;
+    private final long maxBackoffNanos;
+    private final LongSupplier clock;
+
+    private final Map<Long, Target> targets = new HashMap<>(); // guild -> message
+    private final Map<Long, Backoff> backoffs = new HashMap<>(); // channel -> backoff
+
+    private final LongAdder edits = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    /**
+     * A now playing message and its refresh state.
+     */
+    public static final class Target {
+        private final long guildId;
+        private final long channelId;
+        private final long messageId;
+        private long dueNanos;
+        private long fingerprint;
+        private boolean fingerprinted;
+        private boolean inFlight;
+
+        private Target(long guildId, long channelId, long messageId, long dueNanos) {
+            this.guildId = guildId;
+            this.channelId = channelId;
+            this.messageId = messageId;
+            this.dueNanos = dueNanos;
+        }
+
+        public long getGuildId() {
+            return guildId;
+        }
+
+        public long getChannelId() {
+            return channelId;
+        }
+
+        public long getMessageId() {
+            return messageId;
+        }
+    }
+
+    private static final class Backoff {
+        private int strikes;
+        private long untilNanos;
+    }
+
+    public NowplayingRefresher(long interval, long tick, long maxBackoff, TimeUnit unit) {
+        this(interval, tick, maxBackoff, unit, System::nanoTime);
+    }
+
+    NowplayingRefresher(long interval, long tick, long maxBackoff, TimeUnit unit, LongSupplier clock) {
+        this.intervalNanos = unit.toNanos(interval);
+        this.tickNanos = unit.toNanos(tick);
+        this.maxBackoffNanos = unit.toNanos(maxBackoff);
+        this.clock = clock;
+    }
+
+    /**
+     * Starts refreshing a message, replacing the previous one of the guild. The message
+     * was just rendered, so its first refresh is one interval away.
+     */
+    public synchronized void track(long guildId, long channelId, long messageId) {
+        targets.put(guildId, new Target(guildId, channelId, messageId, clock.getAsLong() + intervalNanos));
+    }
+
+    public synchronized void untrack(long guildId) {
+        targets.remove(guildId);
+    }
+
+    /**
+     * Stops refreshing the message of the guild if it is {@code messageId}.
+     */
+    public synchronized void untrack(long guildId, long messageId) {
+        Target target = targets.get(guildId);
+        if (target != null && target.messageId == messageId) {
+            targets.remove(guildId);
+        }
+    }
+
+    /**
+     * Stops refreshing {@code target} unless it was replaced by a newer message meanwhile.
+     */
+    public synchronized void untrack(Target target) {
+        targets.remove(target.guildId, target);
+    }
+
+    /**
+     * @return the messages to refresh on this tick, oldest due first; each of them must
+     *         be answered with {@link #unchanged}, {@link #edited} or {@link #failed}
+     */
+    public synchronized List<Target> due() {
+        long now = clock.getAsLong();
+        // Channels that stayed quiet long after their backoff ended start over
+        backoffs.values().removeIf(backoff -> now - backoff.untilNanos > maxBackoffNanos);
+        List<Target> due = new ArrayList<>();
+        for (Target target : targets.values()) {
+            if (target.inFlight || target.dueNanos - now > 0) {
+                continue;
+            }
+            Backoff backoff = backoffs.get(target.channelId);
+            if (backoff != null && backoff.untilNanos - now > 0) {
+                continue;
+            }
+            due.add(target);
+        }
+        due.sort((a, b) -> Long.compare(a.dueNanos - now, b.dueNanos - now));
+
+        // The share of one tick, so a burst of due messages drains over the interval
+        int budget = (int) Math.max(1, Math.ceilDiv(targets.size() * tickNanos, intervalNanos));
+        if (due.size() > budget) {
+            deferred.add(due.size() - budget);
+            due = new ArrayList<>(due.subList(0, budget));
+        }
+        for (Target target : due) {
+            target.inFlight = true;
+            target.dueNanos = now + intervalNanos;
+        }
+        return due;
+    }
+
+    /**
+     * Checks the rendered message against the last successful edit. When it did not
+     * change, the refresh is over and no edit must be sent.
+     *
+     * @return whether the message must be edited
+     */
+    public synchronized boolean changed(Target target, long fingerprint) {
+        if (target.fingerprinted && target.fingerprint == fingerprint) {
+            target.inFlight = false;
+            unchanged.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ends a refresh that did not send an edit, e.g. because rendering failed.
+     */
+    public synchronized void unchanged(Target target) {
+        target.inFlight = false;
+    }
+
+    public synchronized void edited(Target target, long fingerprint) {
+        target.inFlight = false;
+        target.fingerprint = fingerprint;
+        target.fingerprinted = true;
+        edits.increment();
+        backoffs.remove(target.channelId);
+    }
+
+    /**
+     * Ends a refresh whose edit failed. A rate limited channel backs off; any other
+     * failure means the message is gone or unreachable, and it is no longer refreshed.
+     */
+    public synchronized void failed(Target target, boolean rateLimit) {
+        target.inFlight = false;
+        if (!rateLimit) {
+            targets.remove(target.guildId, target);
+            return;
+        }
+        rateLimited.increment();
+        Backoff backoff = backoffs.computeIfAbsent(target.channelId, id -> new Backoff());
+        backoff.strikes = Math.min(backoff.strikes + 1, 16);
+        long delay = Math.min(maxBackoffNanos, intervalNanos << (backoff.strikes - 1));
+        backoff.untilNanos = clock.getAsLong() + delay;
+    }
+
+    public synchronized int size() {
+        return targets.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "messages=" + targets.size()
+                + ", edits=" + edits.sum()
+                + ", unchanged=" + unchanged.sum()
+                + ", deferred=" + deferred.sum()
+                + ", rateLimited=" + rateLimited.sum()
+                + ", backingOff=" + backoffs.size();
+    }
+}
@@ -19,6 +19,7 @@ import com.jagrosh.jmusicbot.Bot;
 import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
 import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerOptions;
 import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
@@ -26,12 +27,17 @@ import com.sedmelluq.discord.lavaplayer.source.http.HttpAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.nico.NicoAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.container.MediaContainerRegistry;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.TrackStateListener;
 import com.sedmelluq.lava.extensions.youtuberotator.planner.AbstractRoutePlanner;
 import com.sedmelluq.lava.extensions.youtuberotator.planner.NanoIpRoutePlanner;
 import com.sedmelluq.lava.extensions.youtuberotator.tools.ip.Ipv6Block;
+import dev.cosgy.jmusicbot.audionode.AudioNodePool;
+import dev.cosgy.jmusicbot.audionode.RemoteTrackExecutor;
 import dev.cosgy.jmusicbot.util.YtDlpManager;
 import dev.cosgy.jmusicbot.util.YtDlpManager.FallbackPlatform;
 import dev.cosgy.jmusicbot.util.YtDlpManager.YtDlpMetadata;
@@ -45,6 +51,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
@@ -55,7 +62,9 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -71,13 +80,16 @@ import java.util.stream.Stream;
 public class PlayerManager extends DefaultAudioPlayerManager {
     private final Bot bot;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
-    private Path ytDlpPath;
+    // Set by the background startup steps, see initYtDlpFallback and verifyFfmpegAvailability
+    private volatile Path ytDlpPath;
     private volatile String ytDlpVersion;
     private volatile boolean ffmpegAvailable;
     private volatile boolean ffprobeAvailable;
-    private YtDlpManager ytDlpManager;
-    private ExecutorService ytDlpFallbackExecutor;
+    private volatile YtDlpManager ytDlpManager;
+    private volatile ExecutorService ytDlpFallbackExecutor;
     private AbstractRoutePlanner ipv6RoutePlanner;
+    // Guild of each player, to place its tracks on an audio node
+    private final Map<AudioPlayer, Long> playerGuilds = Collections.synchronizedMap(new WeakHashMap<>());
 
     public PlayerManager(Bot bot) {
         this.bot = bot;
@@ -89,8 +101,6 @@ public class PlayerManager extends DefaultAudioPlayerManager {
 
     private void initInternal() {
         initIpv6Rotation();
-        initYtDlpFallback();
-        verifyFfmpegAvailability();
 
         if (bot.getConfig().isNicoNicoEnabled()) {
             registerSourceManager(
@@ -194,24 +204,30 @@ public class PlayerManager extends DefaultAudioPlayerManager {
         }
     }
 
-    private void initYtDlpFallback() {
+    /**
+     * Prepares the yt-dlp fallback, which may download yt-dlp. Until it is done tracks get
+     * no fallback, so it can run in the background while the bot connects.
+     */
+    public void initYtDlpFallback() {
         try {
             Path botDir = Paths.get("").toAbsolutePath();
-            this.ytDlpManager = new YtDlpManager(
+            YtDlpManager manager = new YtDlpManager(
                     botDir,
                     bot.getConfig().getYtDlpDenoPath(),
                     bot.getConfig().getYtDlpCookiesPath(),
                     bot.getConfig().getYouTubeEmailAddress(),
                     bot.getConfig().getYouTubePassword()
             );
-            this.ytDlpPath = ytDlpManager.prepare();
+            this.ytDlpPath = manager.prepare();
             this.ytDlpVersion = probeYtDlpVersion();
-            ytDlpManager.startAutoUpdate(Duration.ofHours(6));
+            manager.startAutoUpdate(Duration.ofHours(6));
             this.ytDlpFallbackExecutor = Executors.newFixedThreadPool(3, r -> {
                 Thread t = new Thread(r, "yt-dlp-fallback");
                 t.setDaemon(true);
                 return t;
             });
+            // Published last: the fallback is used as soon as the manager is set
+            this.ytDlpManager = manager;
             logger.info("yt-dlp ready at {}", ytDlpPath);
             if (ytDlpVersion != null) {
                 logger.info("yt-dlp version detected: {}", ytDlpVersion);
@@ -225,7 +241,10 @@ public class PlayerManager extends DefaultAudioPlayerManager {
         }
     }
 
-    private void verifyFfmpegAvailability() {
+    /**
+     * Checks for ffmpeg and ffprobe on the PATH, by running them.
+     */
+    public void verifyFfmpegAvailability() {
         boolean ffmpegOk = isCommandAvailable("ffmpeg");
         boolean ffprobeOk = isCommandAvailable("ffprobe");
         this.ffmpegAvailable = ffmpegOk;
@@ -363,6 +382,7 @@ public class PlayerManager extends DefaultAudioPlayerManager {
         if (guild.getAudioManager().getSendingHandler() == null) {
             AudioPlayer player = createPlayer();
             player.setVolume(bot.getSettingsManager().getSettings(guild).getVolume());
+            playerGuilds.put(player, guild.getIdLong());
             handler = new AudioHandler(this, guild, player);
             player.addListener(handler);
             player.addListener(new YtDlpExceptionListener(this, player, handler));
@@ -372,6 +392,40 @@ public class PlayerManager extends DefaultAudioPlayerManager {
         return handler;
     }
 
+    /**
+     * Plays tracks on an audio node when nodes are configured and one of them can decode
+     * the track, in this process otherwise.
+     */
+    @Override
+    public void executeTrack(TrackStateListener listener, InternalAudioTrack track, AudioConfiguration configuration,
+                             AudioPlayerOptions playerOptions) {
+        AudioNodePool nodes = bot.getAudioNodes();
+        Long guildId = nodes != null && listener instanceof AudioPlayer player ? playerGuilds.get(player) : null;
+        String sourceName = track.getSourceManager() == null ? null : track.getSourceManager().getSourceName();
+        if (guildId != null && nodes.canPlay(sourceName)) {
+            byte[] encoded = encodeForNode(track);
+            if (encoded != null) {
+                RemoteTrackExecutor executor = new RemoteTrackExecutor(track, encoded, sourceName, guildId, nodes,
+                        configuration.getOutputFormat(), playerOptions);
+                track.assignExecutor(executor, true);
+                executor.execute(listener);
+                return;
+            }
+        }
+        super.executeTrack(listener, track, configuration, playerOptions);
+    }
+
+    private byte[] encodeForNode(AudioTrack track) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            encodeTrack(new MessageOutput(bytes), track);
+            return bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Playing {} locally, it cannot be sent to an audio node: {}", track.getIdentifier(), e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public Future<Void> loadItemOrdered(Object orderingKey, String identifier, AudioLoadResultHandler handler) {
         return super.loadItemOrdered(orderingKey, identifier, new AudioLoadResultHandler() {
@@ -41,6 +41,14 @@ public class RequestMetadata {
         this.localFileInfo = null;
     }
 
+    /**
+     * Creates a new RequestMetadata instance for a requester known only by its stored details,
+     * such as the requester of a track resumed after a restart
+     */
+    public RequestMetadata(long userId, String username, String discrim, String avatar) {
+        this.user = new UserInfo(userId, username, discrim, avatar);
+    }
+
     /**
      * Gets the ID of the user who requested the track
      * @return The user ID or 0 if not set
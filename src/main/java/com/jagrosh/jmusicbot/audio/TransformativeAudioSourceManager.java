@@ -21,6 +21,7 @@ import com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioSourceManager
 import com.sedmelluq.discord.lavaplayer.track.AudioItem;
 import com.sedmelluq.discord.lavaplayer.track.AudioReference;
 import com.typesafe.config.Config;
+import dev.cosgy.jmusicbot.util.http.HttpService;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
@@ -71,7 +72,7 @@ public class TransformativeAudioSourceManager extends YoutubeAudioSourceManager
             return null;
         try {
             String url = ar.identifier.replaceAll(regex, replacement);
-            Document doc = Jsoup.connect(url).get();
+            Document doc = Jsoup.parse(HttpService.get().getString(url), url);
             String value = doc.selectFirst(selector).ownText();
             String formattedValue = String.format(format, value);
             return super.loadItem(apm, new AudioReference(formattedValue, null));
@@ -79,6 +80,8 @@ public class TransformativeAudioSourceManager extends YoutubeAudioSourceManager
             log.info(String.format("Invalid pattern syntax '%s' for source '%s'", regex, name));
         } catch (IOException ex) {
             log.warn(String.format("Could not resolve URL for source '%s': ", name), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         } catch (Exception ex) {
             log.warn(String.format("Exception for source '%s'", name), ex);
         }
@@ -4,12 +4,25 @@
 
 package com.jagrosh.jmusicbot.audio;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jagrosh.jmusicbot.BotConfig;
 import com.jagrosh.jmusicbot.utils.YouTubeChapterExtractor;
 import com.jagrosh.jmusicbot.audio.PlayerManager.TrackContext;
+import com.jagrosh.jmusicbot.queue.FairQueue;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.cosgy.jmusicbot.util.LruCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,21 +30,48 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Class to manage YouTube chapters for tracks.
- * Provides caching to avoid repeated API calls.
+ * <p>
+ * Results are kept in a bounded LRU backed by one small JSON file per video on disk,
+ * so chapters survive restarts without re-scraping. Videos without chapters are
+ * remembered too, for {@link #NEGATIVE_TTL_MS}, so they are not fetched again on
+ * every now-playing refresh; their files carry a {@code "negative"} marker. Failed
+ * fetches (network errors, yt-dlp timeouts) are not cached at all.
  */
 public class YouTubeChapterManager {
     private static final Logger log = LoggerFactory.getLogger(YouTubeChapterManager.class);
-    
-    private final Map<String, List<YouTubeChapterExtractor.Chapter>> chapterCache = new ConcurrentHashMap<>();
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Pattern VIDEO_ID = Pattern.compile("[A-Za-z0-9_-]{6,20}");
+    static final long NEGATIVE_TTL_MS = TimeUnit.HOURS.toMillis(6);
+    private static final long DISK_MAX_AGE_MS = TimeUnit.DAYS.toMillis(90);
+    private static final int PREFETCH_AHEAD = 2;
+
+    private final LruCache<String, CacheEntry> chapterCache;
+    private final Path cacheDir;
     private final Map<String, Boolean> chapterFetchInFlight = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
-    
-    public YouTubeChapterManager() {
-        // Schedule periodic cleanup of the chapter cache
-        cleanupExecutor.scheduleAtFixedRate(this::cleanupCache, 1, 1, TimeUnit.HOURS);
+    private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "chapter-cache");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public YouTubeChapterManager(BotConfig config) {
+        this.chapterCache = new LruCache<>(config.getChapterCacheSize());
+        String dir = config.getChapterCacheDir();
+        this.cacheDir = dir == null || dir.isBlank() ? null : Paths.get(dir);
+        if (cacheDir != null) {
+            try {
+                Files.createDirectories(cacheDir);
+            } catch (IOException e) {
+                log.warn("Failed to create chapter cache directory {}: {}", cacheDir, e.getMessage());
+            }
+        }
+        // Schedule periodic cleanup of stale chapter files
+        cleanupExecutor.scheduleWithFixedDelay(this::cleanupCache, 1, 24, TimeUnit.HOURS);
     }
 
     /**
@@ -46,15 +86,16 @@ public class YouTubeChapterManager {
         }
 
         // Check cache first
-        if (chapterCache.containsKey(lookup.cacheKey)) {
-            return chapterCache.get(lookup.cacheKey);
+        CacheEntry cached = lookupCached(lookup);
+        if (cached != null) {
+            return cached.chapters;
         }
 
         List<YouTubeChapterExtractor.Chapter> chapters = fetchChapters(lookup.videoId, lookup.youtubeUrl);
-        if (!chapters.isEmpty()) {
-            chapterCache.put(lookup.cacheKey, chapters);
+        if (chapters == null) {
+            return List.of();
         }
-
+        store(lookup, new CacheEntry(chapters, System.currentTimeMillis()));
         return chapters;
     }
 
@@ -67,9 +108,9 @@ public class YouTubeChapterManager {
             return List.of();
         }
 
-        List<YouTubeChapterExtractor.Chapter> cached = chapterCache.get(lookup.cacheKey);
+        CacheEntry cached = lookupCached(lookup);
         if (cached != null) {
-            return cached;
+            return cached.chapters;
         }
 
         prefetchChapters(track);
@@ -78,30 +119,123 @@ public class YouTubeChapterManager {
 
     public void prefetchChapters(AudioTrack track) {
         ChapterLookup lookup = buildChapterLookup(track);
-        if (lookup == null || chapterCache.containsKey(lookup.cacheKey)) {
+        if (lookup == null) {
             return;
         }
+        CompletableFuture.runAsync(() -> fetchIfMissing(lookup));
+    }
+
+    /**
+     * Fetches chapters of the next queued YouTube tracks in the background, one at a time,
+     * so they are ready by the time the tracks start.
+     */
+    public void prefetchUpcoming(FairQueue<QueuedTrack> queue) {
+        for (QueuedTrack next : queue.getUpcoming(PREFETCH_AHEAD)) {
+            ChapterLookup lookup = buildChapterLookup(next.getTrack());
+            if (lookup != null && lookup.videoId != null) {
+                cleanupExecutor.execute(() -> fetchIfMissing(lookup));
+            }
+        }
+    }
 
+    private void fetchIfMissing(ChapterLookup lookup) {
+        if (lookupCached(lookup) != null) {
+            return;
+        }
         if (chapterFetchInFlight.putIfAbsent(lookup.cacheKey, Boolean.TRUE) != null) {
             return;
         }
+        try {
+            List<YouTubeChapterExtractor.Chapter> chapters = fetchChapters(lookup.videoId, lookup.youtubeUrl);
+            if (chapters != null) {
+                store(lookup, new CacheEntry(chapters, System.currentTimeMillis()));
+            }
+        } catch (Exception e) {
+            log.debug("Async chapter prefetch failed for key {}: {}", lookup.cacheKey, e.toString());
+        } finally {
+            chapterFetchInFlight.remove(lookup.cacheKey);
+        }
+    }
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                List<YouTubeChapterExtractor.Chapter> chapters = fetchChapters(lookup.videoId, lookup.youtubeUrl);
-                if (!chapters.isEmpty()) {
-                    chapterCache.put(lookup.cacheKey, chapters);
-                }
-            } catch (Exception e) {
-                log.debug("Async chapter prefetch failed for key {}: {}", lookup.cacheKey, e.toString());
-            } finally {
-                chapterFetchInFlight.remove(lookup.cacheKey);
+    /**
+     * Memory first, then the file of the video. Expired "no chapters" entries count as missing.
+     */
+    private CacheEntry lookupCached(ChapterLookup lookup) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = chapterCache.get(lookup.cacheKey);
+        if (entry == null) {
+            entry = readFromDisk(lookup);
+            if (entry != null) {
+                chapterCache.put(lookup.cacheKey, entry);
+            }
+        }
+        if (entry != null && entry.isExpired(now)) {
+            chapterCache.remove(lookup.cacheKey);
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(ChapterLookup lookup, CacheEntry entry) {
+        chapterCache.put(lookup.cacheKey, entry);
+        Path file = diskFile(lookup);
+        if (file == null) {
+            return;
+        }
+        ObjectNode root = mapper.createObjectNode();
+        root.put("fetchedAt", entry.fetchedAt);
+        root.put("negative", entry.isNegative());
+        ArrayNode list = root.putArray("chapters");
+        for (YouTubeChapterExtractor.Chapter chapter : entry.chapters) {
+            list.addObject()
+                    .put("name", chapter.getName())
+                    .put("start", chapter.getStartTimeMs())
+                    .put("end", chapter.getEndTimeMs());
+        }
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            mapper.writeValue(tmp.toFile(), root);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.debug("Failed to write chapter cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private CacheEntry readFromDisk(ChapterLookup lookup) {
+        Path file = diskFile(lookup);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JsonNode root = mapper.readTree(file.toFile());
+            List<YouTubeChapterExtractor.Chapter> chapters = new ArrayList<>();
+            for (JsonNode node : root.path("chapters")) {
+                YouTubeChapterExtractor.Chapter chapter = new YouTubeChapterExtractor.Chapter(node.path("name").asText(), node.path("start").asLong());
+                chapter.setEndTimeMs(node.path("end").asLong());
+                chapters.add(chapter);
             }
-        });
+            return new CacheEntry(chapters, root.path("fetchedAt").asLong());
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable chapter cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Only canonical video ids are stored on disk; URL-only lookups stay in memory.
+     */
+    private Path diskFile(ChapterLookup lookup) {
+        if (cacheDir == null || lookup.videoId == null || !VIDEO_ID.matcher(lookup.videoId).matches()) {
+            return null;
+        }
+        return cacheDir.resolve(lookup.videoId + ".json");
     }
 
+    /**
+     * @return the chapters, an empty list if the video has none, or null if no source could be read
+     */
     private List<YouTubeChapterExtractor.Chapter> fetchChapters(String videoId, String youtubeUrl) {
-        List<YouTubeChapterExtractor.Chapter> chapters = List.of();
+        List<YouTubeChapterExtractor.Chapter> chapters = null;
 
         // 1) Try built-in HTML scraper
         if (videoId != null) {
@@ -109,11 +243,14 @@ public class YouTubeChapterManager {
         }
 
         // 2) Fallback to yt-dlp JSON when HTML scraping fails or when only a URL is known
-        if (chapters.isEmpty() && youtubeUrl != null) {
-            chapters = YouTubeChapterExtractor.extractChaptersWithYtDlp(youtubeUrl);
+        if ((chapters == null || chapters.isEmpty()) && youtubeUrl != null) {
+            List<YouTubeChapterExtractor.Chapter> viaYtDlp = YouTubeChapterExtractor.extractChaptersWithYtDlp(youtubeUrl);
+            if (viaYtDlp != null) {
+                chapters = viaYtDlp;
+            }
         }
 
-        return chapters;
+        return chapters == null ? null : YouTubeChapterExtractor.sortByStart(chapters);
     }
 
     private ChapterLookup buildChapterLookup(AudioTrack track) {
@@ -131,6 +268,24 @@ public class YouTubeChapterManager {
         return new ChapterLookup(cacheKey, videoId, youtubeUrl);
     }
 
+    private static final class CacheEntry {
+        private final List<YouTubeChapterExtractor.Chapter> chapters;
+        private final long fetchedAt;
+
+        private CacheEntry(List<YouTubeChapterExtractor.Chapter> chapters, long fetchedAt) {
+            this.chapters = chapters;
+            this.fetchedAt = fetchedAt;
+        }
+
+        private boolean isNegative() {
+            return chapters.isEmpty();
+        }
+
+        private boolean isExpired(long now) {
+            return isNegative() && now - fetchedAt > NEGATIVE_TTL_MS;
+        }
+    }
+
     private static final class ChapterLookup {
         private final String cacheKey;
         private final String videoId;
@@ -239,19 +394,47 @@ public class YouTubeChapterManager {
     }
 
     /**
-     * Clean up old entries from the chapter cache
+     * Deletes chapter files that are too old, and "no chapters" files past their TTL.
      */
     private void cleanupCache() {
         try {
-            // We'll simply clear the entire cache periodically
-            // A more sophisticated approach would track usage time
-            log.debug("Clearing YouTube chapter cache");
-            chapterCache.clear();
+            if (cacheDir == null || !Files.isDirectory(cacheDir)) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int removed = 0;
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    long age = now - Files.getLastModifiedTime(file).toMillis();
+                    boolean stale = age > DISK_MAX_AGE_MS
+                            || (age > NEGATIVE_TTL_MS && isNegativeFile(file));
+                    if (stale) {
+                        Files.deleteIfExists(file);
+                        removed++;
+                    }
+                }
+            }
+            log.debug("Removed {} stale chapter cache files", removed);
         } catch (Exception e) {
             log.error("Error during chapter cache cleanup", e);
         }
     }
 
+    /**
+     * Unreadable files count as negative so that leftovers from interrupted writes are removed too.
+     */
+    private static boolean isNegativeFile(Path file) {
+        try {
+            return mapper.readTree(file.toFile()).path("negative").asBoolean(false);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    public LruCache<String, ?> getCache() {
+        return chapterCache;
+    }
+
     /**
      * Shutdown the executor service
      */
@@ -24,7 +24,7 @@ import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
-import net.dv8tion.jda.api.JDA;
+import dev.cosgy.jmusicbot.shard.Shards;
 import net.dv8tion.jda.api.entities.Guild;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -528,7 +528,7 @@ public class GUI extends JFrame {
     }
 
     private void runPlayerAction(String successMessage, GuildAction action) {
-        if (bot == null || bot.getJDA() == null) {
+        if (bot == null || bot.getShards() == null) {
             setActionFeedback("Bot is not ready yet", false);
             return;
         }
@@ -555,7 +555,7 @@ public class GUI extends JFrame {
             setActionFeedback("Paste a URL or search query first", false);
             return;
         }
-        if (bot == null || bot.getJDA() == null) {
+        if (bot == null || bot.getShards() == null) {
             setActionFeedback("Bot is not ready yet", false);
             return;
         }
@@ -581,7 +581,7 @@ public class GUI extends JFrame {
         bot.getPlayerManager().loadItemOrdered(guild, identifier, new AudioLoadResultHandler() {
             @Override
             public void trackLoaded(AudioTrack track) {
-                int pos = handler.addTrack(new QueuedTrack(track, bot.getJDA().getSelfUser())) + 1;
+                int pos = handler.addTrack(new QueuedTrack(track, bot.getShards().getSelfUser())) + 1;
                 String msg = pos == 0
                         ? "Now playing: " + ellipsize(track.getInfo().title, 48)
                         : "Added to queue (#" + pos + "): " + ellipsize(track.getInfo().title, 48);
@@ -601,7 +601,7 @@ public class GUI extends JFrame {
                 AudioTrack track = playlist.getSelectedTrack() != null
                         ? playlist.getSelectedTrack()
                         : playlist.getTracks().get(0);
-                int pos = handler.addTrack(new QueuedTrack(track, bot.getJDA().getSelfUser())) + 1;
+                int pos = handler.addTrack(new QueuedTrack(track, bot.getShards().getSelfUser())) + 1;
                 String msg = pos == 0
                         ? "Now playing: " + ellipsize(track.getInfo().title, 48)
                         : "Added to queue (#" + pos + "): " + ellipsize(track.getInfo().title, 48);
@@ -629,7 +629,7 @@ public class GUI extends JFrame {
         refreshGuildSelector();
 
         Guild guild = getSelectedGuild();
-        if (guild == null || bot == null || bot.getJDA() == null) {
+        if (guild == null || bot == null || bot.getShards() == null) {
             selectedGuildStatusValue.setText("No server");
             selectedGuildStatusValue.setBackground(new Color(238, 238, 238));
             selectedGuildStatusValue.setForeground(new Color(90, 90, 90));
@@ -724,7 +724,7 @@ public class GUI extends JFrame {
     }
 
     private void handleQueueAction(int row, int col) {
-        if (bot == null || bot.getJDA() == null) {
+        if (bot == null || bot.getShards() == null) {
             setActionFeedback("Bot is not ready yet", false);
             return;
         }
@@ -783,7 +783,7 @@ public class GUI extends JFrame {
     }
 
     private void refreshGuildSelector() {
-        if (bot == null || bot.getJDA() == null) {
+        if (bot == null || bot.getShards() == null) {
             updatingGuildSelector = true;
             guildSelector.removeAllItems();
             updatingGuildSelector = false;
@@ -791,7 +791,7 @@ public class GUI extends JFrame {
             return;
         }
 
-        String snapshot = bot.getJDA().getGuilds().stream()
+        String snapshot = bot.getShards().getGuilds().stream()
                 .map(guild -> guild.getId() + ":" + guild.getName())
                 .collect(Collectors.joining("|"));
         if (snapshot.equals(guildSelectorSnapshot)) {
@@ -806,7 +806,7 @@ public class GUI extends JFrame {
 
         updatingGuildSelector = true;
         guildSelector.removeAllItems();
-        for (Guild guild : bot.getJDA().getGuilds()) {
+        for (Guild guild : bot.getShards().getGuilds()) {
             guildSelector.addItem(new GuildSelectionItem(guild.getId(), guild.getName()));
         }
 
@@ -831,14 +831,14 @@ public class GUI extends JFrame {
     }
 
     private Guild getSelectedGuild() {
-        if (bot == null || bot.getJDA() == null) {
+        if (bot == null || bot.getShards() == null) {
             return null;
         }
         GuildSelectionItem selected = (GuildSelectionItem) guildSelector.getSelectedItem();
         if (selected == null) {
             return null;
         }
-        return bot.getJDA().getGuildById(selected.id);
+        return bot.getShards().getGuildById(selected.id);
     }
 
     private AudioHandler getAudioHandler(Guild guild) {
@@ -899,8 +899,8 @@ public class GUI extends JFrame {
         @Override
         public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
             super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-            if (value instanceof GuildSelectionItem item && bot != null && bot.getJDA() != null) {
-                Guild guild = bot.getJDA().getGuildById(item.id);
+            if (value instanceof GuildSelectionItem item && bot != null && bot.getShards() != null) {
+                Guild guild = bot.getShards().getGuildById(item.id);
                 String prefix = (guild != null && isGuildVoiceConnected(guild)) ? "[LIVE] " : "[IDLE] ";
                 setText(prefix + item.name);
             }
@@ -935,9 +935,9 @@ public class GUI extends JFrame {
                 return;
             }
 
-            JDA jda = bot.getJDA();
+            Shards shards = bot.getShards();
 
-            if (jda == null) {
+            if (shards == null) {
                 botStatusValue.setText("Starting");
                 guildCountValue.setText("0");
                 pingValue.setText("-");
@@ -948,7 +948,7 @@ public class GUI extends JFrame {
                 cachedConnected = false;
                 listTargetsLoadedAfterConnect = false;
             } else {
-                requestJdaSnapshotIfNeeded(jda);
+                requestJdaSnapshotIfNeeded(shards);
                 botStatusValue.setText(cachedJdaStatus);
                 guildCountValue.setText(cachedGuildCount);
                 pingValue.setText(cachedPing);
@@ -989,7 +989,7 @@ public class GUI extends JFrame {
         }
     }
 
-    private void requestJdaSnapshotIfNeeded(JDA jda) {
+    private void requestJdaSnapshotIfNeeded(Shards shards) {
         long now = System.currentTimeMillis();
         if (jdaSnapshotInFlight || now - lastJdaSnapshotRequestAt < JDA_SNAPSHOT_INTERVAL_MS) {
             return;
@@ -1000,10 +1000,10 @@ public class GUI extends JFrame {
         CompletableFuture.supplyAsync(() -> {
             JdaSnapshot snapshot = new JdaSnapshot();
             try {
-                snapshot.status = jda.getStatus().name();
-                snapshot.guildCount = String.valueOf(jda.getGuilds().size());
-                snapshot.ping = jda.getGatewayPing() + " ms";
-                snapshot.connected = jda.getStatus() == JDA.Status.CONNECTED;
+                snapshot.status = shards.getStatusSummary();
+                snapshot.guildCount = String.valueOf(shards.getGuildCount());
+                snapshot.ping = shards.getAverageGatewayPing() + " ms";
+                snapshot.connected = shards.getConnectedShardCount() == shards.getShardCount();
             } catch (Throwable t) {
                 snapshot.status = "Waiting";
                 snapshot.guildCount = cachedGuildCount;
@@ -290,8 +290,8 @@ public class PlaylistManagerPanel extends JPanel {
 
         private void refreshGuildCandidates() {
             List<TargetOption> candidates = new ArrayList<>();
-            if (bot.getJDA() != null) {
-                for (Guild guild : bot.getJDA().getGuilds()) {
+            if (bot.getShards() != null) {
+                for (Guild guild : bot.getShards().getGuilds()) {
                     candidates.add(new TargetOption(guild.getId(), guild.getName(), false));
                 }
             }
@@ -360,8 +360,8 @@ public class PlaylistManagerPanel extends JPanel {
                 optionsById.put(userId, new TargetOption(userId, formatUserLabel(userId, null, true), true));
             }
 
-            if (bot.getJDA() != null) {
-                for (User user : bot.getJDA().getUsers()) {
+            if (bot.getShards() != null) {
+                for (User user : bot.getShards().getUsers()) {
                     boolean hasMylist = mylistOwnerIds.contains(user.getId());
                     resolvedUserNameCache.put(user.getId(), user.getName());
                     optionsById.put(user.getId(), new TargetOption(
@@ -375,12 +375,12 @@ public class PlaylistManagerPanel extends JPanel {
             Set<String> unresolvedIds = new HashSet<>(mylistOwnerIds);
             unresolvedIds.add(ownerId);
             unresolvedIds.removeIf(optionsById::containsKey);
-            if (bot.getJDA() != null) {
+            if (bot.getShards() != null) {
                 for (String unresolvedId : unresolvedIds) {
                     String resolved = resolvedUserNameCache.get(unresolvedId);
                     if (resolved == null) {
                         try {
-                            User user = bot.getJDA().retrieveUserById(unresolvedId).complete();
+                            User user = bot.getShards().retrieveUserById(unresolvedId).complete();
                             if (user != null) {
                                 resolved = user.getName();
                                 resolvedUserNameCache.put(unresolvedId, resolved);
@@ -22,6 +22,9 @@ import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
+ * The methods of the queue are synchronized, as the player thread reads it while
+ * commands and the web panel change it. The list of {@link #getList()} is not.
+ *
  * @param <T>
  * @author John Grosh (jagrosh)
  */
@@ -34,7 +37,7 @@ public class FairQueue<T extends Queueable> {
      * @return What song did you add it to?
      */
     @Deprecated
-    public int add(T item) {
+    public synchronized int add(T item) {
         return add(item, false);
     }
 
@@ -44,7 +47,7 @@ public class FairQueue<T extends Queueable> {
      * @param forceToEnd Force adding to the end of the queue?
      * @return What number was added?
      */
-    public int add(T item, boolean forceToEnd) {
+    public synchronized int add(T item, boolean forceToEnd) {
         if (forceToEnd) {
             list.add(item);
             return list.size() - 1;
@@ -65,22 +68,22 @@ public class FairQueue<T extends Queueable> {
         return lastIndex;
     }
 
-    public void addAt(int index, T item) {
+    public synchronized void addAt(int index, T item) {
         if (index >= list.size())
             list.add(item);
         else
             list.add(index, item);
     }
 
-    public int size() {
+    public synchronized int size() {
         return list.size();
     }
 
-    public T pull() {
+    public synchronized T pull() {
         return list.remove(0);
     }
 
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return list.isEmpty();
     }
 
@@ -88,15 +91,25 @@ public class FairQueue<T extends Queueable> {
         return list;
     }
 
-    public T get(int index) {
+    /**
+     * Copies the first entries of the queue, for readers on other threads than the
+     * commands changing it.
+     *
+     * @return up to {@code count} entries from the head of the queue
+     */
+    public synchronized List<T> getUpcoming(int count) {
+        return List.copyOf(list.subList(0, Math.min(count, list.size())));
+    }
+
+    public synchronized T get(int index) {
         return list.get(index);
     }
 
-    public T remove(int index) {
+    public synchronized T remove(int index) {
         return list.remove(index);
     }
 
-    public int removeAll(long identifier) {
+    public synchronized int removeAll(long identifier) {
         int count = 0;
         for (int i = list.size() - 1; i >= 0; i--) {
             if (list.get(i).getIdentifier() == identifier) {
@@ -107,11 +120,11 @@ public class FairQueue<T extends Queueable> {
         return count;
     }
 
-    public void clear() {
+    public synchronized void clear() {
         list.clear();
     }
 
-    public int shuffle(long identifier) {
+    public synchronized int shuffle(long identifier) {
         List<Integer> iset = new ArrayList<>();
         for (int i = 0; i < list.size(); i++) {
             if (list.get(i).getIdentifier() == identifier)
@@ -127,7 +140,7 @@ public class FairQueue<T extends Queueable> {
         return iset.size();
     }
 
-    public int shuffleAll() {
+    public synchronized int shuffleAll() {
         int size = list.size();
         if (size <= 1)
             return size;
@@ -142,7 +155,7 @@ public class FairQueue<T extends Queueable> {
         return size;
     }
 
-    public void skip(int number) {
+    public synchronized void skip(int number) {
         if (number > 0) {
             list.subList(0, number).clear();
         }
@@ -155,7 +168,7 @@ public class FairQueue<T extends Queueable> {
      * @param to new position of item
      * @return the moved item
      */
-    public T moveItem(int from, int to) {
+    public synchronized T moveItem(int from, int to) {
         T item = list.remove(from);
         list.add(to, item);
         return item;
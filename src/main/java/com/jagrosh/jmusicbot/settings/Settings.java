@@ -44,7 +44,7 @@ public class Settings implements GuildSettingsProvider {
     private boolean vcStatus;
     private boolean topicStatus;
     private boolean ForceToEndQue;
-    // Stats tracking
+    // Stats tracking, superseded by PlaybackCounters
     private int songsPlayed;
     private long playTimeMillis;
 
@@ -150,7 +150,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setVolume(int volume) {
         this.volume = volume;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public String getDefaultPlaylist() {
@@ -159,7 +159,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setDefaultPlaylist(String defaultPlaylist) {
         this.defaultPlaylist = defaultPlaylist;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public RepeatMode getRepeatMode() {
@@ -168,7 +168,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setRepeatMode(RepeatMode mode) {
         this.repeatMode = mode;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public String getPrefix() {
@@ -177,7 +177,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setPrefix(String prefix) {
         this.prefix = prefix;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public double getSkipRatio() {
@@ -186,7 +186,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setSkipRatio(double skipRatio) {
         this.skipRatio = skipRatio;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public int getAnnounce() {
@@ -195,7 +195,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setAnnounce(int announce) {
         this.announce = announce;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public boolean getVCStatus() {
@@ -204,7 +204,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setVCStatus(boolean vcStatus) {
         this.vcStatus = vcStatus;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public boolean getTopicStatus() {
@@ -213,7 +213,7 @@ public class Settings implements GuildSettingsProvider {
 
     public void setTopicStatus(boolean topicStatus) {
         this.topicStatus = topicStatus;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public boolean isBitrateWarningReaded() {
@@ -232,44 +232,34 @@ public class Settings implements GuildSettingsProvider {
     // Setters
     public void setTextChannel(TextChannel tc) {
         this.textId = tc == null ? 0 : tc.getIdLong();
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public void setVoiceChannel(AudioChannel vc) {
         this.voiceId = vc == null ? 0 : vc.getIdLong();
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public void setDJRole(Role role) {
         this.roleId = role == null ? 0 : role.getIdLong();
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public void setForceToEndQue(boolean forceToEndQue) {
         this.ForceToEndQue = forceToEndQue;
-        this.manager.writeSettings();
+        this.manager.writeSettings(this);
     }
 
     public boolean isForceToEndQue() {
         return ForceToEndQue;
     }
     
-    // Stats getters and setters
+    // Stats saved before the counters moved to PlaybackCounters; only read to migrate them
     public int getSongsPlayed() {
         return songsPlayed;
     }
     
-    public void incrementSongsPlayed() {
-        this.songsPlayed++;
-        this.manager.writeSettings();
-    }
-    
     public long getPlayTimeMillis() {
         return playTimeMillis;
     }
-    
-    public void addPlayTime(long millis) {
-        this.playTimeMillis += millis;
-        this.manager.writeSettings();
-    }
 }
\ No newline at end of file
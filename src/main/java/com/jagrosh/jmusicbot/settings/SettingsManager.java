@@ -25,16 +25,46 @@ import org.json.JSONObject;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * @author John Grosh (john.a.grosh@gmail.com)
  */
 public class SettingsManager implements GuildSettingsManager {
     private final static double SKIP_RATIO = .55;
+    private final static long WRITE_DELAY_MS = 2000;
     private final ConcurrentHashMap<Long, Settings> settings;
+    // Settings changed since the last write; the JSON of the others is reused
+    private final Set<Settings> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Settings, String> serialized = new IdentityHashMap<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "settings-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong maxWriteNanos = new AtomicLong();
 
     public SettingsManager() {
         this.settings = new ConcurrentHashMap<>();
@@ -51,7 +81,7 @@ public class SettingsManager implements GuildSettingsManager {
     }
 
     private void loadSavedSettings() throws IOException {
-        JSONObject loadedSettings = new JSONObject(new String(Files.readAllBytes(OtherUtil.getPath("serversettings.json"))));
+        JSONObject loadedSettings = new JSONObject(new String(Files.readAllBytes(OtherUtil.getPath("serversettings.json")), StandardCharsets.UTF_8));
         loadedSettings.keySet().forEach((id) -> {
             JSONObject o = loadedSettings.getJSONObject(id);
             migrateLegacyValues(o);
@@ -119,49 +149,124 @@ public class SettingsManager implements GuildSettingsManager {
         return settings.computeIfAbsent(guildId, id -> createDefaultSettings());
     }
 
+    /**
+     * Visits the settings of every known guild
+     */
+    public void forEach(BiConsumer<Long, Settings> action) {
+        settings.forEach(action);
+    }
+
     private Settings createDefaultSettings() {
         return new Settings(this, 0, 0, 0, 10, null, RepeatMode.OFF, null, false, 0, SKIP_RATIO, false, false, false, 0, 0);
     }
 
-    protected void writeSettings() {
-        var obj = new JSONObject();
-        for (Long key : settings.keySet()) {
-            var o = new JSONObject();
-            Settings s = settings.get(key);
-            if (s.textId != 0)
-                o.put("text_channel_id", Long.toString(s.textId));
-            if (s.voiceId != 0)
-                o.put("voice_channel_id", Long.toString(s.voiceId));
-            if (s.roleId != 0)
-                o.put("dj_role_id", Long.toString(s.roleId));
-            if (s.getVolume() != 50)
-                o.put("volume", s.getVolume());
-            if (s.getDefaultPlaylist() != null)
-                o.put("default_playlist", s.getDefaultPlaylist());
-            if (s.getRepeatMode() != RepeatMode.OFF)
-                o.put("repeat", s.getRepeatMode());
-            if (s.getPrefix() != null)
-                o.put("prefix", s.getPrefix());
-            if (s.getAnnounce() != 0)
-                o.put("announce", s.getAnnounce());
-            if (s.getSkipRatio() != SKIP_RATIO)
-                o.put("skip_ratio", s.getSkipRatio());
-            o.put("vc_status", s.getVCStatus());
-            o.put("topic_status", s.getTopicStatus());
-            if(s.isForceToEndQue())
-                o.put("force_to_end_que", s.isForceToEndQue());
-            // Save stats
-            if(s.getSongsPlayed() > 0)
-                o.put("songs_played", s.getSongsPlayed());
-            if(s.getPlayTimeMillis() > 0)
-                o.put("playtime_millis", s.getPlayTimeMillis());
-
-            obj.put(Long.toString(key), o);
+    /**
+     * Marks the settings of a guild as changed. Changes are written together by a
+     * background thread, at most {@link #WRITE_DELAY_MS} after the first one, so
+     * per-track statistics do not rewrite the file on the player thread.
+     */
+    protected void writeSettings(Settings changed) {
+        dirty.add(changed);
+        changes.incrementAndGet();
+        if (closed) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            writer.schedule(this::flush, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes pending changes now and stops the background writer. Safe to call more
+     * than once.
+     */
+    public void shutdown() {
+        closed = true;
+        writer.shutdown();
+        flush();
+    }
+
+    /**
+     * @return write counters of serversettings.json
+     */
+    public String getWriteStats() {
+        long count = writes.get();
+        return String.format("%d writes for %d changes, %d pending, %d failed, avg %.1f ms, max %.1f ms",
+                count, changes.get(), dirty.size(), failures.get(),
+                count == 0 ? 0.0 : writeNanos.get() / 1e6 / count, maxWriteNanos.get() / 1e6);
+    }
+
+    /**
+     * Serializes the changed guilds, reuses the cached JSON of the others and replaces
+     * the file through a temporary file, so a crash mid-write never truncates it.
+     */
+    private synchronized void flush() {
+        flushScheduled.set(false);
+        if (dirty.isEmpty()) {
+            return;
         }
+        long start = System.nanoTime();
+        List<Settings> drained = new ArrayList<>(dirty.size());
+        for (Settings s : dirty) {
+            // Removed before serializing, so a change made meanwhile marks it again
+            dirty.remove(s);
+            drained.add(s);
+            serialized.put(s, toJson(s).toString());
+        }
+
+        StringBuilder file = new StringBuilder("{");
+        for (Map.Entry<Long, Settings> entry : settings.entrySet()) {
+            String json = serialized.computeIfAbsent(entry.getValue(), s -> toJson(s).toString());
+            file.append(file.length() == 1 ? "\n" : ",\n")
+                    .append(JSONObject.quote(Long.toString(entry.getKey()))).append(": ").append(json);
+        }
+        file.append("\n}\n");
+
+        Path target = OtherUtil.getPath("serversettings.json");
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
         try {
-            Files.write(OtherUtil.getPath("serversettings.json"), obj.toString(4).getBytes());
+            Files.write(tmp, file.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long elapsed = System.nanoTime() - start;
+            writes.incrementAndGet();
+            writeNanos.addAndGet(elapsed);
+            maxWriteNanos.accumulateAndGet(elapsed, Math::max);
         } catch (IOException ex) {
+            failures.incrementAndGet();
             LoggerFactory.getLogger("Settings").warn("Failed to write to file: " + ex);
+            // Retried with the next change, or on shutdown
+            dirty.addAll(drained);
         }
     }
+
+    private JSONObject toJson(Settings s) {
+        var o = new JSONObject();
+        if (s.textId != 0)
+            o.put("text_channel_id", Long.toString(s.textId));
+        if (s.voiceId != 0)
+            o.put("voice_channel_id", Long.toString(s.voiceId));
+        if (s.roleId != 0)
+            o.put("dj_role_id", Long.toString(s.roleId));
+        if (s.getVolume() != 50)
+            o.put("volume", s.getVolume());
+        if (s.getDefaultPlaylist() != null)
+            o.put("default_playlist", s.getDefaultPlaylist());
+        if (s.getRepeatMode() != RepeatMode.OFF)
+            o.put("repeat", s.getRepeatMode());
+        if (s.getPrefix() != null)
+            o.put("prefix", s.getPrefix());
+        if (s.getAnnounce() != 0)
+            o.put("announce", s.getAnnounce());
+        if (s.getSkipRatio() != SKIP_RATIO)
+            o.put("skip_ratio", s.getSkipRatio());
+        o.put("vc_status", s.getVCStatus());
+        o.put("topic_status", s.getTopicStatus());
+        if(s.isForceToEndQue())
+            o.put("force_to_end_que", s.isForceToEndQue());
+        // Save stats
+        if(s.getSongsPlayed() > 0)
+            o.put("songs_played", s.getSongsPlayed());
+        if(s.getPlayTimeMillis() > 0)
+            o.put("playtime_millis", s.getPlayTimeMillis());
+        return o;
+    }
 }
@@ -6,19 +6,19 @@ package com.jagrosh.jmusicbot.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.cosgy.jmusicbot.util.http.HttpService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -78,7 +78,7 @@ public class YouTubeChapterExtractor {
     /**
      * Extract chapters from a YouTube video using its ID
      * @param videoId The YouTube video ID
-     * @return A list of chapters, or an empty list if none were found or an error occurred
+     * @return A list of chapters, an empty list if the video has none, or null if the page could not be read
      */
     public static List<Chapter> extractChapters(String videoId) {
         if (videoId == null || videoId.trim().isEmpty()) {
@@ -89,7 +89,7 @@ public class YouTubeChapterExtractor {
             String videoUrl = "https://www.youtube.com/watch?v=" + videoId;
             String pageContent = fetchPage(videoUrl);
             if (pageContent == null) {
-                return Collections.emptyList();
+                return null;
             }
 
             List<Chapter> chapters = parseChapters(pageContent);
@@ -119,14 +119,14 @@ public class YouTubeChapterExtractor {
             return chapters;
         } catch (Exception e) {
             log.error("Error extracting YouTube chapters", e);
-            return Collections.emptyList();
+            return null;
         }
     }
 
     /**
      * Extract chapters using yt-dlp's JSON output (works for yt-dlp-resolved YouTube sources).
      * @param youtubeUrl The canonical YouTube URL for the video.
-     * @return List of chapters or empty list on failure.
+     * @return List of chapters, an empty list if the video has none, or null if yt-dlp is unavailable or failed.
      */
     public static List<Chapter> extractChaptersWithYtDlp(String youtubeUrl) {
         if (youtubeUrl == null || youtubeUrl.isBlank()) {
@@ -135,12 +135,12 @@ public class YouTubeChapterExtractor {
         try {
             Path exe = findYtDlpExecutable();
             if (exe == null) {
-                return Collections.emptyList();
+                return null;
             }
 
             String json = runYtDlpAndGetJson(exe, youtubeUrl);
             if (json == null || json.isBlank()) {
-                return Collections.emptyList();
+                return null;
             }
             JsonNode node = mapper.readTree(json);
             List<Chapter> parsed = parseYtDlpChapters(node.path("chapters"));
@@ -148,7 +148,7 @@ public class YouTubeChapterExtractor {
             return parsed;
         } catch (Exception e) {
             log.debug("yt-dlp chapter extraction failed: {}", e.toString());
-            return Collections.emptyList();
+            return null;
         }
     }
 
@@ -252,34 +252,17 @@ public class YouTubeChapterExtractor {
      * @return The page content or null if there was an error
      */
     private static String fetchPage(String url) {
-        HttpURLConnection connection = null;
         try {
-            connection = (HttpURLConnection) java.net.URI.create(url).toURL().openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(10000);
-            
-            int responseCode = connection.getResponseCode();
-            if (responseCode != 200) {
-                log.warn("Error fetching YouTube page: HTTP " + responseCode);
-                return null;
-            }
-            
-            // Read the content
-            Scanner scanner = new Scanner(connection.getInputStream(), "UTF-8");
-            scanner.useDelimiter("\\A");
-            String content = scanner.hasNext() ? scanner.next() : "";
-            scanner.close();
-            
-            return content;
+            return HttpService.get().getString(url, "User-Agent", "Mozilla/5.0");
+        } catch (HttpService.HttpStatusException e) {
+            log.warn("Error fetching YouTube page: HTTP " + e.getStatusCode());
+            return null;
         } catch (IOException e) {
             log.warn("Error fetching YouTube page", e);
             return null;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
     }
 
@@ -302,8 +285,24 @@ public class YouTubeChapterExtractor {
     }
     
     /**
-     * Get the current chapter for a specific time
+     * Returns the chapters ordered by start time, which {@link #getCurrentChapter} relies on.
      * @param chapters List of chapters
+     * @return The same list if already ordered, otherwise a sorted copy
+     */
+    public static List<Chapter> sortByStart(List<Chapter> chapters) {
+        for (int i = 1; i < chapters.size(); i++) {
+            if (chapters.get(i - 1).getStartTimeMs() > chapters.get(i).getStartTimeMs()) {
+                List<Chapter> sorted = new ArrayList<>(chapters);
+                sorted.sort(Comparator.comparingLong(Chapter::getStartTimeMs));
+                return sorted;
+            }
+        }
+        return chapters;
+    }
+
+    /**
+     * Get the current chapter for a specific time
+     * @param chapters List of chapters, ordered by start time
      * @param currentTimeMs Current playback position in milliseconds
      * @return The current chapter or null if not found
      */
@@ -311,18 +310,30 @@ public class YouTubeChapterExtractor {
         if (chapters == null || chapters.isEmpty()) {
             return null;
         }
-        
-        for (Chapter chapter : chapters) {
-            if (currentTimeMs >= chapter.getStartTimeMs() && currentTimeMs < chapter.getEndTimeMs()) {
-                return chapter;
+
+        // Binary search for the last chapter starting at or before the position
+        int low = 0;
+        int high = chapters.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chapters.get(mid).getStartTimeMs() <= currentTimeMs) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
         }
-        
+        if (found < 0) {
+            return null;
+        }
+
         // If we're at the very end of the video, return the last chapter
-        if (!chapters.isEmpty() && currentTimeMs >= chapters.get(chapters.size() - 1).getStartTimeMs()) {
-            return chapters.get(chapters.size() - 1);
+        Chapter chapter = chapters.get(found);
+        if (currentTimeMs < chapter.getEndTimeMs() || found == chapters.size() - 1) {
+            return chapter;
         }
-        
+
         return null;
     }
-} 
\ No newline at end of file
+}
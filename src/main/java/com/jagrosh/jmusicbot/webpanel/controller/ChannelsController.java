@@ -10,11 +10,14 @@ import com.jagrosh.jmusicbot.webpanel.model.DiscordServer;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordMessage;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordUserProfile;
 import com.jagrosh.jmusicbot.webpanel.service.ChannelsService;
+import com.jagrosh.jmusicbot.webpanel.service.GuildSnapshots;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -23,6 +26,9 @@ import java.util.Map;
 
 /**
  * Controller handling Discord channel-related API endpoints
+ * <p>
+ * Servers, channels, roles and profiles carry the ETag of their snapshot and must be
+ * revalidated, so the browser sends it back and gets a 304 while they did not change.
  */
 @RestController
 @RequestMapping("/api")
@@ -39,36 +45,41 @@ public class ChannelsController {
      * Get all servers (guilds) the bot is in
      */
     @GetMapping("/servers")
-    public ResponseEntity<List<DiscordServer>> getServers() {
-        return ResponseEntity.ok(channelsService.getServers());
+    public ResponseEntity<List<DiscordServer>> getServers(WebRequest request) {
+        GuildSnapshots.Versioned<List<DiscordServer>> servers = channelsService.getServers();
+        if (servers == null) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        return conditional(request, servers);
     }
 
     /**
      * Get all channels for a specific server
      */
     @GetMapping("/servers/{serverId}/channels")
-    public ResponseEntity<List<DiscordChannel>> getChannelsForServer(@PathVariable("serverId") String serverId) {
-        List<DiscordChannel> channels = channelsService.getChannelsForServer(serverId);
+    public ResponseEntity<List<DiscordChannel>> getChannelsForServer(@PathVariable("serverId") String serverId,
+                                                                     WebRequest request) {
+        GuildSnapshots.Versioned<List<DiscordChannel>> channels = channelsService.getChannelsForServer(serverId);
         
         if (channels == null) {
             return ResponseEntity.notFound().build();
         }
         
-        return ResponseEntity.ok(channels);
+        return conditional(request, channels);
     }
 
     /**
      * Get all roles for a specific server
      */
     @GetMapping("/servers/{serverId}/roles")
-    public ResponseEntity<List<DiscordRole>> getRolesForServer(@PathVariable("serverId") String serverId) {
-        List<DiscordRole> roles = channelsService.getRolesForServer(serverId);
+    public ResponseEntity<List<DiscordRole>> getRolesForServer(@PathVariable("serverId") String serverId,
+                                                               WebRequest request) {
+        GuildSnapshots.Versioned<List<DiscordRole>> roles = channelsService.getRolesForServer(serverId);
         if (roles == null) { 
             // Service returned null, indicating an internal error or guild not found for roles
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
         }
-        // Return empty list if no roles, or the list of roles
-        return ResponseEntity.ok(roles);
+        return conditional(request, roles);
     }
 
     /**
@@ -126,14 +137,15 @@ public class ChannelsController {
     @GetMapping("/servers/{serverId}/members/{memberId}/profile")
     public ResponseEntity<?> getMemberProfile(
             @PathVariable("serverId") String serverId,
-            @PathVariable("memberId") String memberId) {
-        DiscordUserProfile profile = channelsService.getMemberProfile(serverId, memberId);
+            @PathVariable("memberId") String memberId,
+            WebRequest request) {
+        GuildSnapshots.Versioned<DiscordUserProfile> profile = channelsService.getMemberProfile(serverId, memberId);
         if (profile == null) {
             Map<String, Object> response = new HashMap<>();
             response.put("error", "User profile not found or an error occurred.");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
-        return ResponseEntity.ok(profile);
+        return conditional(request, profile);
     }
 
     /**
@@ -156,4 +168,17 @@ public class ChannelsController {
         response.put("message", "Message sent successfully");
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Answers 304 when the request carries the ETag of the snapshot, the snapshot otherwise.
+     */
+    private static <T> ResponseEntity<T> conditional(WebRequest request, GuildSnapshots.Versioned<T> snapshot) {
+        if (request.checkNotModified(snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.etag())
+                .body(snapshot.value());
+    }
+}
@@ -7,14 +7,26 @@ package com.jagrosh.jmusicbot.webpanel.controller;
 import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.audio.MusicHistory;
 import com.jagrosh.jmusicbot.webpanel.service.AvatarCacheService;
+import dev.cosgy.jmusicbot.history.HistoryExport;
+import dev.cosgy.jmusicbot.history.HistoryPage;
+import dev.cosgy.jmusicbot.history.HistoryQuery;
+import dev.cosgy.jmusicbot.history.HistorySearchPage;
+import dev.cosgy.jmusicbot.history.HistoryStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.stream.Collectors;
 
 /**
@@ -30,10 +42,6 @@ public class HistoryController {
         this.avatarCacheService = avatarCacheService;
     }
 
-    private static boolean containsIgnoreCase(String value, String lowerNeedle) {
-        return value != null && !value.isEmpty() && value.toLowerCase().contains(lowerNeedle);
-    }
-
     /**
      * Enriches history records with dynamic user avatars (cached)
      */
@@ -114,171 +122,83 @@ public class HistoryController {
         }).collect(Collectors.toList());
     }
 
-    private static List<MusicHistory.PlayRecord> applyStartEndDateFilter(
-            List<MusicHistory.PlayRecord> records,
-            String startDate,
-            String endDate) {
-        if (records == null || records.isEmpty()) return records;
-        if (startDate == null || startDate.isEmpty()) return records;
-
-        final String effectiveEnd = (endDate == null || endDate.isEmpty()) ? startDate : endDate;
-
-        final LocalDate start = LocalDate.parse(startDate);
-        final LocalDate end = LocalDate.parse(effectiveEnd);
-        final LocalDate min = start.isBefore(end) ? start : end;
-        final LocalDate max = start.isBefore(end) ? end : start;
-
-        final ZoneId zone = ZoneId.systemDefault();
-        final long startMillis = min.atStartOfDay(zone).toInstant().toEpochMilli();
-        final long endExclusiveMillis = max.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
-
-        return records.stream()
-                .filter(r -> r.getPlayedAt() >= startMillis && r.getPlayedAt() < endExclusiveMillis)
-                .collect(Collectors.toList());
-    }
-
-    private static List<MusicHistory.PlayRecord> applyTypeFilter(
-            List<MusicHistory.PlayRecord> records,
-            List<String> types) {
-        if (types == null || types.isEmpty() || types.contains("all")) {
-            return records;
-        }
-
-        return records.stream()
-                .filter(record -> matchesAnySelectedType(record, types))
-                .collect(Collectors.toList());
-    }
-
-    private static boolean matchesAnySelectedType(MusicHistory.PlayRecord record, List<String> types) {
-        for (String type : types) {
-            if (matchesType(record, type)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static boolean matchesType(MusicHistory.PlayRecord record, String type) {
-        switch (type) {
-            case "spotify":
-                return record.hasSpotifyData();
-            case "youtube":
-                return record.getYoutubeVideoId() != null && !record.getYoutubeVideoId().isEmpty();
-            case "radio":
-                return record.hasRadioData();
-            case "gensokyo":
-                return record.hasGensokyoData();
-            case "local":
-                return record.hasLocalData();
-            case "soundcloud":
-                return record.hasSoundCloudData();
-            case "instagram":
-                return record.hasYtDlpData() && "Instagram".equalsIgnoreCase(record.getYtDlpSourceType());
-            case "tiktok":
-                return record.hasYtDlpData() && "TikTok".equalsIgnoreCase(record.getYtDlpSourceType());
-            case "twitter":
-                return record.hasYtDlpData()
-                        && ("Twitter".equalsIgnoreCase(record.getYtDlpSourceType())
-                        || "X".equalsIgnoreCase(record.getYtDlpSourceType()));
-            case "generic":
-                return isGenericYtDlpSource(record);
-            default:
-                return false;
-        }
-    }
-
-    private static boolean isGenericYtDlpSource(MusicHistory.PlayRecord record) {
-        return record.hasYtDlpData()
-                && !"Instagram".equalsIgnoreCase(record.getYtDlpSourceType())
-                && !"TikTok".equalsIgnoreCase(record.getYtDlpSourceType())
-                && !"Twitter".equalsIgnoreCase(record.getYtDlpSourceType())
-                && !"X".equalsIgnoreCase(record.getYtDlpSourceType())
-                && !"YouTube".equalsIgnoreCase(record.getYtDlpSourceType())
-                && !"SoundCloud".equalsIgnoreCase(record.getYtDlpSourceType());
-    }
-
-    private List<MusicHistory.PlayRecord> applyCommonFilters(
-            List<MusicHistory.PlayRecord> records,
+    /**
+     * Translates the web panel filters into an index query. Time range and date
+     * filters are combined into a single playedAt window.
+     */
+    private static HistoryQuery buildQuery(
             String guildId,
             List<String> types,
             String requester,
             String timeRange,
             String startDate,
-            String endDate) {
-
-        List<MusicHistory.PlayRecord> filtered = records;
-
-        if (guildId != null && !guildId.isEmpty() && !guildId.equals("all")) {
-            filtered = filtered.stream()
-                    .filter(record -> guildId.equals(record.getGuildId()))
-                    .collect(Collectors.toList());
-        }
-
-        filtered = applyTypeFilter(filtered, types);
-
-        if (requester != null && !requester.isEmpty() && !requester.equals("all")) {
-            filtered = filtered.stream()
-                    .filter(record -> requester.equals(record.getRequesterName()))
-                    .collect(Collectors.toList());
+            String endDate,
+            int limit,
+            int offset,
+            long cursor) {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+
+        if (timeRange != null && !timeRange.isEmpty() && !timeRange.equals("all")) {
+            final long currentTime = System.currentTimeMillis();
+            switch (timeRange) {
+                case "today":
+                    from = currentTime - (24 * 60 * 60 * 1000L);
+                    break;
+                case "week":
+                    from = currentTime - (7 * 24 * 60 * 60 * 1000L);
+                    break;
+                case "month":
+                    from = currentTime - (30L * 24 * 60 * 60 * 1000L);
+                    break;
+                default:
+                    break;
+            }
         }
 
-        filtered = applyTimeRangeFilter(filtered, timeRange);
-
         if (startDate != null && !startDate.isEmpty()) {
-            filtered = applyStartEndDateFilter(filtered, startDate, endDate);
-        }
-
-        return filtered;
-    }
-
-    private List<MusicHistory.PlayRecord> applyTimeRangeFilter(List<MusicHistory.PlayRecord> records, String timeRange) {
-        if (timeRange == null || timeRange.isEmpty() || timeRange.equals("all")) {
-            return records;
-        }
+            final String effectiveEnd = (endDate == null || endDate.isEmpty()) ? startDate : endDate;
 
-        final long currentTime = System.currentTimeMillis();
-        final long timeFilter;
-        switch (timeRange) {
-            case "today":
-                timeFilter = currentTime - (24 * 60 * 60 * 1000L);
-                break;
-            case "week":
-                timeFilter = currentTime - (7 * 24 * 60 * 60 * 1000L);
-                break;
-            case "month":
-                timeFilter = currentTime - (30L * 24 * 60 * 60 * 1000L);
-                break;
-            default:
-                timeFilter = 0;
-        }
+            final LocalDate start = LocalDate.parse(startDate);
+            final LocalDate end = LocalDate.parse(effectiveEnd);
+            final LocalDate min = start.isBefore(end) ? start : end;
+            final LocalDate max = start.isBefore(end) ? end : start;
 
-        if (timeFilter <= 0) {
-            return records;
+            final ZoneId zone = ZoneId.systemDefault();
+            from = Math.max(from, min.atStartOfDay(zone).toInstant().toEpochMilli());
+            to = max.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
         }
 
-        return records.stream()
-                .filter(record -> record.getPlayedAt() >= timeFilter)
-                .collect(Collectors.toList());
+        return new HistoryQuery(guildId, types == null ? Set.of() : new HashSet<>(types), requester,
+                from, to, limit, offset, cursor);
     }
 
-    private List<MusicHistory.PlayRecord> applyPagination(List<MusicHistory.PlayRecord> records, int limit, int offset) {
-        if (limit <= 0) {
-            return records;
-        }
-        int totalRecords = records.size();
-        int startIndex = Math.min(offset, totalRecords);
-        int endIndex = Math.min(offset + limit, totalRecords);
-        if (startIndex < endIndex) {
-            return records.subList(startIndex, endIndex);
+    private ResponseEntity<Map<String, Object>> successSearchResponse(HistorySearchPage page) {
+        List<MusicHistory.PlayRecord> records = page.hits().stream()
+                .map(HistorySearchPage.Hit::record)
+                .collect(Collectors.toList());
+        List<Map<String, Object>> history = enrichWithAvatars(records);
+        for (int i = 0; i < history.size(); i++) {
+            HistorySearchPage.Hit hit = page.hits().get(i);
+            history.get(i).put("titleHighlights", hit.titleHighlights());
+            history.get(i).put("artistHighlights", hit.artistHighlights());
         }
-        return List.of();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("history", history);
+        response.put("total", page.total());
+        return ResponseEntity.ok(response);
     }
 
-    private ResponseEntity<Map<String, Object>> successHistoryResponse(List<MusicHistory.PlayRecord> records, int totalRecords) {
+    private ResponseEntity<Map<String, Object>> successHistoryResponse(List<MusicHistory.PlayRecord> records, int totalRecords, long nextCursor) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("history", enrichWithAvatars(records));
         response.put("total", totalRecords);
+        if (nextCursor >= 0) {
+            response.put("nextCursor", nextCursor);
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -289,96 +209,6 @@ public class HistoryController {
         return ResponseEntity.ok(response);
     }
 
-    private List<MusicHistory.PlayRecord> applyTextSearch(List<MusicHistory.PlayRecord> records, String query) {
-        String lowerQuery = query == null ? "" : query.trim().toLowerCase();
-        if (lowerQuery.isEmpty()) {
-            return records;
-        }
-
-        return records.stream()
-            .filter(record -> matchesAnyField(record, lowerQuery))
-                .collect(Collectors.toList());
-    }
-
-        private boolean matchesAnyField(MusicHistory.PlayRecord record, String query) {
-        return matchesCoreFields(record, query)
-            || matchesSpotifyFields(record, query)
-            || matchesRadioFields(record, query)
-            || containsIgnoreCase(record.getYoutubeVideoId(), query)
-            || matchesLocalFields(record, query)
-            || matchesGensokyoFields(record, query)
-            || matchesStreamFields(record, query)
-            || (record.hasSoundCloudData() && containsIgnoreCase(record.getSoundCloudArtworkUrl(), query))
-            || matchesYtDlpFields(record, query);
-        }
-
-        private boolean matchesCoreFields(MusicHistory.PlayRecord record, String query) {
-        return matchesAny(query,
-            record.getTitle(),
-            record.getArtist(),
-            record.getUrl(),
-            String.valueOf(record.getDuration()),
-            record.getFormattedDuration(),
-            String.valueOf(record.getPlayedAt()),
-            record.getFormattedPlayedAt(),
-            record.getRequesterId(),
-            record.getRequesterName(),
-            record.getGuildId(),
-            record.getGuildName());
-        }
-
-        private boolean matchesSpotifyFields(MusicHistory.PlayRecord record, String query) {
-        return record.hasSpotifyData() && matchesAny(query,
-            record.getSpotifyTrackId(),
-            record.getSpotifyAlbumName(),
-            record.getSpotifyAlbumImageUrl(),
-            record.getSpotifyArtistName(),
-            record.getSpotifyReleaseYear());
-        }
-
-        private boolean matchesRadioFields(MusicHistory.PlayRecord record, String query) {
-        return record.hasRadioData() && matchesAny(query,
-            record.getRadioStationName(),
-            record.getRadioLogoUrl(),
-            record.getRadioSongImageUrl());
-        }
-
-        private boolean matchesLocalFields(MusicHistory.PlayRecord record, String query) {
-        return record.hasLocalData() && matchesAny(query,
-            record.getLocalAlbum(),
-            record.getLocalGenre(),
-            record.getLocalYear(),
-            record.getLocalArtworkHash());
-        }
-
-        private boolean matchesGensokyoFields(MusicHistory.PlayRecord record, String query) {
-        return record.hasGensokyoData() && matchesAny(query,
-            record.getGensokyoTitle(),
-            record.getGensokyoArtist(),
-            record.getGensokyoAlbum(),
-            record.getGensokyoCircle(),
-            record.getGensokyoYear(),
-            record.getGensokyoAlbumArtUrl());
-        }
-
-        private boolean matchesStreamFields(MusicHistory.PlayRecord record, String query) {
-        return record.hasStreamData() && matchesAny(query,
-            record.getStreamName(),
-            record.getStreamGenre(),
-            record.getStreamLogo(),
-            String.valueOf(record.isLiveStream()));
-        }
-
-        private boolean matchesYtDlpFields(MusicHistory.PlayRecord record, String query) {
-        return record.hasYtDlpData() && matchesAny(query,
-            record.getYtDlpSourceType(),
-            record.getYtDlpThumbnailUrl());
-        }
-
-        private boolean matchesAny(String query, String... values) {
-        return java.util.Arrays.stream(values).anyMatch(value -> containsIgnoreCase(value, query));
-        }
-
     /**
      * Get the music history
      * @param limit Optional limit of records to return
@@ -387,12 +217,14 @@ public class HistoryController {
      * @param type Optional source type to filter by (spotify, youtube, etc.)
      * @param requester Optional requester name to filter by
      * @param timeRange Optional time range to filter by (today, week, month, all)
+     * @param cursor Optional nextCursor of the previous page; takes precedence over offset
      * @return List of play records
      */
     @GetMapping("")
     public ResponseEntity<Map<String, Object>> getHistory(
             @RequestParam(value = "limit", required = false, defaultValue = "0") int limit,
             @RequestParam(value = "offset", required = false, defaultValue = "0") int offset,
+            @RequestParam(value = "cursor", required = false, defaultValue = "-1") long cursor,
             @RequestParam(value = "guildId", required = false) String guildId,
             @RequestParam(value = "type", required = false) List<String> types,
             @RequestParam(value = "requester", required = false) String requester,
@@ -405,13 +237,9 @@ public class HistoryController {
                 return failureHistoryResponse("Music history is not available");
             }
 
-            List<MusicHistory.PlayRecord> filteredHistory = applyCommonFilters(
-                    Bot.INSTANCE.getMusicHistory().getHistory(),
-                    guildId, types, requester, timeRange, startDate, endDate);
-
-            int totalRecords = filteredHistory.size();
-            filteredHistory = applyPagination(filteredHistory, limit, offset);
-            return successHistoryResponse(filteredHistory, totalRecords);
+            HistoryPage page = Bot.INSTANCE.getMusicHistory().query(
+                    buildQuery(guildId, types, requester, timeRange, startDate, endDate, limit, offset, cursor));
+            return successHistoryResponse(page.records(), page.total(), page.nextCursor());
         } catch (Exception e) {
             return failureHistoryResponse("Error retrieving music history: " + e.getMessage());
         }
@@ -426,7 +254,8 @@ public class HistoryController {
      * @param type Optional source type to filter by (spotify, youtube, etc.)
      * @param requester Optional requester name to filter by
      * @param timeRange Optional time range to filter by (today, week, month, all)
-     * @return Filtered list of play records
+     * @return Matching play records, best match first, with the highlighted ranges of
+     *         their title and artist
      */
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchHistory(
@@ -445,19 +274,62 @@ public class HistoryController {
                 return failureHistoryResponse("Music history is not available");
             }
 
-            List<MusicHistory.PlayRecord> filtered = applyCommonFilters(
-                    Bot.INSTANCE.getMusicHistory().getHistory(),
-                    guildId, types, requester, timeRange, startDate, endDate);
-
-            List<MusicHistory.PlayRecord> searched = applyTextSearch(filtered, query);
-            int totalRecords = searched.size();
-            searched = applyPagination(searched, limit, offset);
-            return successHistoryResponse(searched, totalRecords);
+            HistorySearchPage page = Bot.INSTANCE.getMusicHistory().search(
+                    buildQuery(guildId, types, requester, timeRange, startDate, endDate, limit, offset, -1), query);
+            return successSearchResponse(page);
         } catch (Exception e) {
             return failureHistoryResponse("Error searching music history: " + e.getMessage());
         }
     }
     
+    /**
+     * Export the music history, in memory and on disk, as a download. Records are
+     * written to the response as they are read, so the response is sent chunked and
+     * the whole history is never held at once.
+     * @param format ndjson (one music_history.json record per line) or csv
+     * @param guildId Optional guild ID to filter by
+     * @param type Optional source type to filter by (spotify, youtube, etc.)
+     * @param requester Optional requester name to filter by
+     * @param timeRange Optional time range to filter by (today, week, month, all)
+     * @return The matching records, newest first
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            @RequestParam(value = "guildId", required = false) String guildId,
+            @RequestParam(value = "type", required = false) List<String> types,
+            @RequestParam(value = "requester", required = false) String requester,
+            @RequestParam(value = "timeRange", required = false) String timeRange,
+            @RequestParam(value = "startDate", required = false) String startDate,
+            @RequestParam(value = "endDate", required = false) String endDate) {
+
+        if (Bot.INSTANCE == null || Bot.INSTANCE.getMusicHistory() == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        HistoryExport.Format exportFormat = HistoryExport.Format.fromString(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HistoryQuery query;
+        try {
+            query = buildQuery(guildId, types, requester, timeRange, startDate, endDate, 0, 0, -1);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        MusicHistory history = Bot.INSTANCE.getMusicHistory();
+        StreamingResponseBody body = out -> {
+            try (HistoryExport export = new HistoryExport(out, exportFormat)) {
+                history.export(query, export);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"music_history-" + LocalDate.now() + "." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
     /**
      * Get the list of all unique requesters
      * @param guildId Optional guild ID to filter requesters by guild
@@ -471,27 +343,9 @@ public class HistoryController {
         
         try {
             if (Bot.INSTANCE != null && Bot.INSTANCE.getMusicHistory() != null) {
-                MusicHistory musicHistory = Bot.INSTANCE.getMusicHistory();
-                List<MusicHistory.PlayRecord> allHistory = musicHistory.getHistory();
-                
+                boolean allGuilds = guildId == null || guildId.isEmpty() || guildId.equals("all");
                 // Map name to ID to get avatar
-                Map<String, String> nameToIdMap = new HashMap<>();
-                
-                java.util.stream.Stream<MusicHistory.PlayRecord> stream = allHistory.stream();
-                
-                // Filter by guild if specified
-                if (guildId != null && !guildId.isEmpty() && !guildId.equals("all")) {
-                    stream = stream.filter(record -> guildId.equals(record.getGuildId()));
-                }
-                
-                stream.forEach(record -> {
-                    String name = record.getRequesterName();
-                    String id = record.getRequesterId();
-                    if (name != null && !name.isEmpty()) {
-                        // Keep the ID associated with the name
-                        nameToIdMap.putIfAbsent(name, id);
-                    }
-                });
+                Map<String, String> nameToIdMap = Bot.INSTANCE.getMusicHistory().getRequesters(allGuilds ? null : guildId);
 
                 // Convert to list of objects with avatar
                 List<Map<String, String>> requesters = nameToIdMap.entrySet().stream()
@@ -517,4 +371,95 @@ public class HistoryController {
         
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Get play counts and leaderboards
+     * @param guildId Optional guild ID, all guilds when missing
+     * @param window Optional time window (day, week, month, all)
+     * @param limit Optional number of top tracks and requesters
+     * @return Play count, listening time, top tracks and top requesters
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(
+            @RequestParam(value = "guildId", required = false) String guildId,
+            @RequestParam(value = "window", required = false, defaultValue = "all") String window,
+            @RequestParam(value = "limit", required = false, defaultValue = "10") int limit) {
+
+        try {
+            if (Bot.INSTANCE == null || Bot.INSTANCE.getMusicHistory() == null) {
+                return failureHistoryResponse("Music history is not available");
+            }
+
+            boolean allGuilds = guildId == null || guildId.isEmpty() || guildId.equals("all");
+            HistoryStats.Window statsWindow = HistoryStats.Window.fromString(window);
+            HistoryStats.Summary summary = Bot.INSTANCE.getMusicHistory().getStats()
+                    .summary(allGuilds ? null : guildId, statsWindow, Math.max(1, Math.min(limit, 100)));
+
+            List<Map<String, Object>> topTracks = summary.topTracks().stream().map(entry -> {
+                Map<String, Object> track = new HashMap<>();
+                track.put("title", entry.name());
+                track.put("artist", entry.detail());
+                track.put("url", entry.id());
+                track.put("plays", entry.plays());
+                track.put("listenedMs", entry.listenedMs());
+                return track;
+            }).collect(Collectors.toList());
+
+            List<Map<String, Object>> topRequesters = summary.topRequesters().stream().map(entry -> {
+                Map<String, Object> requester = new HashMap<>();
+                requester.put("name", entry.name());
+                requester.put("avatar", avatarCacheService.getAvatarUrl(entry.id()));
+                requester.put("plays", entry.plays());
+                requester.put("listenedMs", entry.listenedMs());
+                return requester;
+            }).collect(Collectors.toList());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("window", statsWindow.name().toLowerCase());
+            response.put("plays", summary.plays());
+            response.put("listenedMs", summary.listenedMs());
+            response.put("topTracks", topTracks);
+            response.put("topRequesters", topRequesters);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return failureHistoryResponse("Error retrieving statistics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get play counts per guild
+     * @param window Optional time window (day, week, month, all)
+     * @return Guilds with plays in the window, most active first
+     */
+    @GetMapping("/stats/guilds")
+    public ResponseEntity<Map<String, Object>> getGuildStats(
+            @RequestParam(value = "window", required = false, defaultValue = "all") String window) {
+
+        try {
+            if (Bot.INSTANCE == null || Bot.INSTANCE.getMusicHistory() == null) {
+                return failureHistoryResponse("Music history is not available");
+            }
+
+            HistoryStats.Window statsWindow = HistoryStats.Window.fromString(window);
+            List<Map<String, Object>> guilds = Bot.INSTANCE.getMusicHistory().getStats().guilds(statsWindow).stream()
+                    .map(count -> {
+                        Map<String, Object> guild = new HashMap<>();
+                        guild.put("guildId", count.guildId());
+                        guild.put("guildName", count.guildName());
+                        guild.put("plays", count.plays());
+                        guild.put("listenedMs", count.listenedMs());
+                        return guild;
+                    })
+                    .collect(Collectors.toList());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("window", statsWindow.name().toLowerCase());
+            response.put("guilds", guilds);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return failureHistoryResponse("Error retrieving statistics: " + e.getMessage());
+        }
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.webpanel.WebPanelApplication;
+import dev.cosgy.jmusicbot.shard.Shards;
+import dev.cosgy.jmusicbot.stats.PlaybackCounters;
 
 import java.io.File;
 import java.io.InputStream;
@@ -59,15 +61,15 @@ public class MusicController {
         response.put("success", true);
         
         try {
-            if (Bot.INSTANCE != null && Bot.INSTANCE.getJDA() != null) {
-                response.put("name", Bot.INSTANCE.getJDA().getSelfUser().getName());
-                response.put("avatarUrl", Bot.INSTANCE.getJDA().getSelfUser().getEffectiveAvatarUrl());
-                response.put("id", Bot.INSTANCE.getJDA().getSelfUser().getId());
+            if (Bot.INSTANCE != null && Bot.INSTANCE.getShards() != null) {
+                response.put("name", Bot.INSTANCE.getShards().getSelfUser().getName());
+                response.put("avatarUrl", Bot.INSTANCE.getShards().getSelfUser().getEffectiveAvatarUrl());
+                response.put("id", Bot.INSTANCE.getShards().getSelfUser().getId());
                 
                 // Add banner URL if available
                 try {
                     // We need to retrieve the banner from the self user
-                    net.dv8tion.jda.api.entities.User user = Bot.INSTANCE.getJDA().getSelfUser().getJDA().retrieveUserById(Bot.INSTANCE.getJDA().getSelfUser().getId()).complete();
+                    net.dv8tion.jda.api.entities.User user = Bot.INSTANCE.getShards().retrieveUserById(Bot.INSTANCE.getShards().getSelfUser().getIdLong()).complete();
                     String bannerUrl = user.retrieveProfile().complete().getBannerUrl();
                     if (bannerUrl != null) {
                         response.put("bannerUrl", bannerUrl);
@@ -88,6 +90,62 @@ public class MusicController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Playback counters of one guild, or of every guild when no guild is given
+     */
+    @GetMapping("/stats/playback")
+    public ResponseEntity<Map<String, Object>> getPlaybackStats(
+            @RequestParam(value = "guildId", required = false) String guildId) {
+        Map<String, Object> response = new HashMap<>();
+        if (Bot.INSTANCE == null || Bot.INSTANCE.getPlaybackCounters() == null) {
+            response.put("success", false);
+            response.put("message", "Playback statistics are not available");
+            return ResponseEntity.ok(response);
+        }
+        PlaybackCounters counters = Bot.INSTANCE.getPlaybackCounters();
+        PlaybackCounters.Totals totals;
+        if (guildId == null || guildId.isEmpty() || guildId.equals("all")) {
+            totals = counters.total();
+            response.put("guilds", counters.guildCount());
+        } else {
+            try {
+                totals = counters.get(Long.parseLong(guildId));
+            } catch (NumberFormatException e) {
+                response.put("success", false);
+                response.put("message", "Invalid guild ID");
+                return ResponseEntity.ok(response);
+            }
+        }
+        response.put("success", true);
+        response.put("plays", totals.plays());
+        response.put("playTimeMs", totals.playTimeMs());
+        response.put("skips", totals.skips());
+        response.put("skipVotes", totals.skipVotes());
+        response.put("errors", totals.errors());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Status, gateway ping and event rate of every shard run by this process
+     */
+    @GetMapping("/stats/shards")
+    public ResponseEntity<Map<String, Object>> getShardStats() {
+        Map<String, Object> response = new HashMap<>();
+        if (Bot.INSTANCE == null || Bot.INSTANCE.getShards() == null) {
+            response.put("success", false);
+            response.put("message", "Shards are not started yet");
+            return ResponseEntity.ok(response);
+        }
+        Shards shards = Bot.INSTANCE.getShards();
+        response.put("success", true);
+        response.put("total", shards.getShardCount());
+        response.put("connected", shards.getConnectedShardCount());
+        response.put("guilds", shards.getGuildCount());
+        response.put("averagePing", shards.getAverageGatewayPing());
+        response.put("shards", shards.getHealth());
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/guild/select/{guildId}")
     public ResponseEntity<Map<String, Object>> selectGuild(@PathVariable(value = "guildId") String guildId) {
         boolean success = musicService.setSelectedGuild(guildId);
@@ -365,9 +423,9 @@ public class MusicController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (Bot.INSTANCE != null && Bot.INSTANCE.getJDA() != null) {
+            if (Bot.INSTANCE != null && Bot.INSTANCE.getShards() != null) {
                 // Update the bot's name
-                Bot.INSTANCE.getJDA().getSelfUser().getManager().setName(name).queue(
+                Bot.INSTANCE.getShards().getSelfUser().getManager().setName(name).queue(
                     success -> {
                         // Success handling happens in the frontend
                     },
@@ -395,13 +453,13 @@ public class MusicController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (Bot.INSTANCE != null && Bot.INSTANCE.getJDA() != null) {
+            if (Bot.INSTANCE != null && Bot.INSTANCE.getShards() != null) {
                 // Use the OtherUtil to load the image from the URL
                 InputStream imageStream = com.jagrosh.jmusicbot.utils.OtherUtil.imageFromUrl(url);
                 
                 if (imageStream != null) {
                     // Update the bot's avatar
-                    Bot.INSTANCE.getJDA().getSelfUser().getManager().setAvatar(net.dv8tion.jda.api.entities.Icon.from(imageStream)).queue(
+                    Bot.INSTANCE.getShards().getSelfUser().getManager().setAvatar(net.dv8tion.jda.api.entities.Icon.from(imageStream)).queue(
                         success -> {
                             // Success handling happens in the frontend
                         },
@@ -436,13 +494,13 @@ public class MusicController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (Bot.INSTANCE != null && Bot.INSTANCE.getJDA() != null) {
+            if (Bot.INSTANCE != null && Bot.INSTANCE.getShards() != null) {
                 // Use the OtherUtil to load the image from the URL
                 InputStream imageStream = com.jagrosh.jmusicbot.utils.OtherUtil.imageFromUrl(url);
                 
                 if (imageStream != null) {
                     // Update the bot's banner using JDA's interface
-                    Bot.INSTANCE.getJDA().getSelfUser().getManager().setBanner(net.dv8tion.jda.api.entities.Icon.from(imageStream)).queue(
+                    Bot.INSTANCE.getShards().getSelfUser().getManager().setBanner(net.dv8tion.jda.api.entities.Icon.from(imageStream)).queue(
                         success -> {
                             // Success handling happens in the frontend
                         },
@@ -77,8 +77,8 @@ public class AvatarCacheService {
         
         // Fallback to JDA if user is cached and we don't have local yet
         try {
-            if (Bot.INSTANCE != null && Bot.INSTANCE.getJDA() != null) {
-                User user = Bot.INSTANCE.getJDA().getUserById(userId);
+            if (Bot.INSTANCE != null && Bot.INSTANCE.getShards() != null) {
+                User user = Bot.INSTANCE.getShards().getUserById(userId);
                 if (user != null) {
                     return user.getEffectiveAvatarUrl();
                 }
@@ -94,14 +94,14 @@ public class AvatarCacheService {
     private void updateAvatarAsync(String userId) {
         executor.submit(() -> {
             try {
-                if (Bot.INSTANCE == null || Bot.INSTANCE.getJDA() == null) return;
+                if (Bot.INSTANCE == null || Bot.INSTANCE.getShards() == null) return;
 
-                User user = Bot.INSTANCE.getJDA().getUserById(userId);
+                User user = Bot.INSTANCE.getShards().getUserById(userId);
                 
                 // If not in cache, try to retrieve it
                 if (user == null) {
                     try {
-                        user = Bot.INSTANCE.getJDA().retrieveUserById(userId).complete();
+                        user = Bot.INSTANCE.getShards().retrieveUserById(userId).complete();
                     } catch (Exception e) {
                         return; // User lookup failed (invalid ID or deleted user)
                     }
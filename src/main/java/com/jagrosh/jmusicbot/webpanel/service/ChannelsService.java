@@ -5,16 +5,17 @@
 package com.jagrosh.jmusicbot.webpanel.service;
 
 import com.jagrosh.jmusicbot.Bot;
+import dev.cosgy.jmusicbot.shard.Shards;
 import com.jagrosh.jmusicbot.webpanel.model.ChannelPermission;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordChannel;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordMessage;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordRole;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordServer;
+import dev.cosgy.jmusicbot.history.HistoryStats;
 import dev.cosgy.jmusicbot.util.DiscordCompat;
 import com.jagrosh.jmusicbot.webpanel.model.DiscordUserProfile;
 import com.jagrosh.jmusicbot.webpanel.model.ChannelMember;
 
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Activity;
@@ -50,63 +51,48 @@ import java.util.stream.Collectors;
 
 /**
  * Service for handling Discord channel-related operations
+ * <p>
+ * Servers, channels, roles and member profiles are served from {@link GuildSnapshots},
+ * built from the JDA caches again only after an event changed them.
  */
 @Service
 public class ChannelsService {
 
     private static final Logger log = LoggerFactory.getLogger(ChannelsService.class);
+    private static final long PROFILE_MAX_AGE_MILLIS = 5 * 60 * 1000L;
     
     @SuppressWarnings("unused")
     private final Bot bot;
     private final AvatarCacheService avatarCacheService;
+    private final GuildSnapshots snapshots;
     
     @Autowired
-    public ChannelsService(Bot bot, AvatarCacheService avatarCacheService) {
+    public ChannelsService(Bot bot, AvatarCacheService avatarCacheService, GuildSnapshots snapshots) {
         this.bot = bot;
         this.avatarCacheService = avatarCacheService;
+        this.snapshots = snapshots;
     }
 
     /**
-     * Get all servers (guilds) the bot is in
+     * Get all servers (guilds) the bot is in, the most active first.
+     * @return the servers and the ETag of their snapshot, or null on error
      */
-    public List<DiscordServer> getServers() {
-        List<DiscordServer> servers = new ArrayList<>();
-        
+    public GuildSnapshots.Versioned<List<DiscordServer>> getServers() {
+        GuildSnapshots.Versioned<List<DiscordServer>> snapshot = snapshots.get(GuildSnapshots.ALL_GUILDS,
+                GuildSnapshots.Part.SERVERS, 0L, GuildSnapshots.NO_EXPIRY, this::buildServers);
+        if (snapshot == null) {
+            return null;
+        }
+        List<DiscordServer> servers = new ArrayList<>(snapshot.value());
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
-                log.error("JDA instance is null");
-                return servers;
-            }
-            
             // Get music history to count activity per server
             Map<String, Long> activityCount = new HashMap<>();
             if (Bot.INSTANCE.getMusicHistory() != null) {
-                List<com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord> history = 
-                    Bot.INSTANCE.getMusicHistory().getHistory();
-                
-                // Count number of tracks played per guild
-                activityCount = history.stream()
-                    .collect(Collectors.groupingBy(
-                        com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord::getGuildId,
-                        Collectors.counting()
-                    ));
-            }
-            
-            for (Guild guild : jda.getGuilds()) {
-                boolean botHasAdmin = guild.getSelfMember().hasPermission(Permission.ADMINISTRATOR);
-                
-                DiscordServer server = new DiscordServer(
-                    guild.getId(),
-                    guild.getName(),
-                    guild.getIconUrl(),
-                    guild.getMemberCount(),
-                    botHasAdmin
-                );
-                
-                servers.add(server);
+                // Number of tracks played per guild, kept up to date by the history statistics
+                activityCount = Bot.INSTANCE.getMusicHistory().getStats().guilds(HistoryStats.Window.ALL).stream()
+                    .collect(Collectors.toMap(HistoryStats.GuildCount::guildId, HistoryStats.GuildCount::plays));
             }
-            
+
             // Sort servers by music activity (most active servers first), then by name as tiebreaker
             final Map<String, Long> finalActivityCount = activityCount;
             servers.sort((s1, s2) -> {
@@ -122,27 +108,68 @@ public class ChannelsService {
                 // Secondary sort: by name (alphabetically) for servers with same activity
                 return s1.getName().compareToIgnoreCase(s2.getName());
             });
-            
+        } catch (Exception e) {
+            log.error("Error sorting servers", e);
+        }
+
+        // The order follows the plays, which are not part of the snapshot
+        int order = servers.stream().map(DiscordServer::getId).toList().hashCode();
+        return new GuildSnapshots.Versioned<>(servers, snapshot.etag() + "-" + Integer.toHexString(order));
+    }
+
+    private List<DiscordServer> buildServers() {
+        try {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
+                log.error("JDA instance is null");
+                return null;
+            }
+
+            List<DiscordServer> servers = new ArrayList<>();
+            for (Guild guild : shards.getGuilds()) {
+                boolean botHasAdmin = guild.getSelfMember().hasPermission(Permission.ADMINISTRATOR);
+                
+                DiscordServer server = new DiscordServer(
+                    guild.getId(),
+                    guild.getName(),
+                    guild.getIconUrl(),
+                    guild.getMemberCount(),
+                    botHasAdmin
+                );
+                
+                servers.add(server);
+            }
+            return List.copyOf(servers);
         } catch (Exception e) {
             log.error("Error fetching servers", e);
+            return null;
         }
-        
-        return servers;
     }
 
     /**
      * Get all channels for a specific server, sorted by category and position.
+     * @return the channels and the ETag of their snapshot, or null if the server is not found or on error
      */
-    public List<DiscordChannel> getChannelsForServer(String serverId) {
+    public GuildSnapshots.Versioned<List<DiscordChannel>> getChannelsForServer(String serverId) {
+        long guildId = parseId(serverId);
+        if (guildId == 0L) {
+            log.warn("Guild with ID {} not found.", serverId);
+            return null;
+        }
+        return snapshots.get(guildId, GuildSnapshots.Part.CHANNELS, 0L, GuildSnapshots.NO_EXPIRY,
+                () -> buildChannels(serverId));
+    }
+
+    private List<DiscordChannel> buildChannels(String serverId) {
         List<DiscordChannel> sortedChannels = new ArrayList<>();
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.warn("JDA instance is null, cannot fetch channels for server {}", serverId);
                 return null;
             }
 
-            Guild guild = jda.getGuildById(serverId);
+            Guild guild = shards.getGuildById(serverId);
             if (guild == null) {
                 log.warn("Guild with ID {} not found.", serverId);
                 return null;
@@ -185,7 +212,7 @@ public class ChannelsService {
             log.error("Error fetching channels for server " + serverId, e);
             return null; // Return null to indicate an error
         }
-        return sortedChannels;
+        return List.copyOf(sortedChannels);
     }
 
     private DiscordChannel createDiscordChannelFromGuildChannel(GuildChannel channel, Guild guild) {
@@ -252,20 +279,31 @@ public class ChannelsService {
 
     /**
      * Get all roles for a specific server
+     * @return the roles and the ETag of their snapshot, or null if the server is not found or on error
      */
-    public List<DiscordRole> getRolesForServer(String serverId) {
+    public GuildSnapshots.Versioned<List<DiscordRole>> getRolesForServer(String serverId) {
+        long guildId = parseId(serverId);
+        if (guildId == 0L) {
+            log.warn("Guild with ID {} not found.", serverId);
+            return null;
+        }
+        return snapshots.get(guildId, GuildSnapshots.Part.ROLES, 0L, GuildSnapshots.NO_EXPIRY,
+                () -> buildRoles(serverId));
+    }
+
+    private List<DiscordRole> buildRoles(String serverId) {
         List<DiscordRole> roles = new ArrayList<>();
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.warn("JDA instance is null, cannot fetch roles for server {}", serverId);
-                return roles; // Return empty list
+                return null;
             }
 
-            Guild guild = jda.getGuildById(serverId);
+            Guild guild = shards.getGuildById(serverId);
             if (guild == null) {
                 log.warn("Guild with ID {} not found.", serverId);
-                return roles; // Return empty list
+                return null;
             }
 
             for (Role role : guild.getRoles()) {
@@ -291,9 +329,9 @@ public class ChannelsService {
 
         } catch (Exception e) {
             log.error("Error fetching roles for server " + serverId, e);
-            // Return empty list on error
+            return null;
         }
-        return roles;
+        return List.copyOf(roles);
     }
 
     /**
@@ -301,13 +339,13 @@ public class ChannelsService {
      */
     public DiscordChannel getChannelDetails(String channelId) {
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.warn("JDA instance is null, cannot fetch details for channel {}", channelId);
                 return null;
             }
 
-            GuildChannel guildChannel = jda.getGuildChannelById(channelId);
+            GuildChannel guildChannel = shards.getGuildChannelById(channelId);
             if (guildChannel == null) {
                 log.warn("Channel with ID {} not found.", channelId);
                 return null;
@@ -384,13 +422,13 @@ public class ChannelsService {
         List<DiscordMessage> messages = new ArrayList<>();
 
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.error("JDA instance is null");
                 return null;
             }
             
-            TextChannel channel = jda.getTextChannelById(channelId);
+            TextChannel channel = shards.getTextChannelById(channelId);
             if (channel == null) {
                 log.error("Text channel not found: {}", channelId);
                 return null;
@@ -553,13 +591,13 @@ public class ChannelsService {
      */
     public boolean sendMessageToChannel(String channelId, String content) { // Renamed from sendChannelMessage
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.error("JDA instance is null");
                 return false;
             }
             
-            Channel channel = jda.getChannelById(Channel.class, channelId);
+            Channel channel = shards.getChannelById(Channel.class, channelId);
             if (channel == null || !(channel instanceof TextChannel)) {
                 log.error("Channel not found or not a text channel: {}", channelId);
                 return false;
@@ -592,13 +630,13 @@ public class ChannelsService {
     public List<DiscordRole> getMemberRoles(String serverId, String memberId) {
         List<DiscordRole> memberRolesList = new ArrayList<>();
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.warn("JDA instance is null, cannot fetch member roles for server {} member {}", serverId, memberId);
                 return memberRolesList; // Return empty list
             }
 
-            Guild guild = jda.getGuildById(serverId);
+            Guild guild = shards.getGuildById(serverId);
             if (guild == null) {
                 log.warn("Guild with ID {} not found while fetching member roles.", serverId);
                 return memberRolesList; // Return empty list
@@ -631,19 +669,32 @@ public class ChannelsService {
 
     /**
      * Get detailed profile information for a specific member in a server.
+     * The profile is kept for {@link #PROFILE_MAX_AGE_MILLIS} at most, as banners and
+     * accent colors change without events.
      * @param serverId The ID of the server.
      * @param memberId The ID of the member.
-     * @return DiscordUserProfile object or null if not found or error.
+     * @return the profile and the ETag of its snapshot, or null if not found or error.
      */
-    public DiscordUserProfile getMemberProfile(String serverId, String memberId) {
+    public GuildSnapshots.Versioned<DiscordUserProfile> getMemberProfile(String serverId, String memberId) {
+        long guildId = parseId(serverId);
+        long userId = parseId(memberId);
+        if (guildId == 0L || userId == 0L) {
+            log.warn("Member with ID {} not found in guild {} while fetching profile.", memberId, serverId);
+            return null;
+        }
+        return snapshots.get(guildId, GuildSnapshots.Part.PROFILE, userId, PROFILE_MAX_AGE_MILLIS,
+                () -> buildMemberProfile(serverId, memberId));
+    }
+
+    private DiscordUserProfile buildMemberProfile(String serverId, String memberId) {
         try {
-            JDA jda = Bot.INSTANCE.getJDA();
-            if (jda == null) {
+            Shards shards = Bot.INSTANCE.getShards();
+            if (shards == null) {
                 log.warn("JDA instance is null, cannot fetch profile for member {} in server {}", memberId, serverId);
                 return null;
             }
 
-            Guild guild = jda.getGuildById(serverId);
+            Guild guild = shards.getGuildById(serverId);
             if (guild == null) {
                 log.warn("Guild with ID {} not found while fetching member profile.", serverId);
                 return null;
@@ -745,4 +796,15 @@ public class ChannelsService {
             return null;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * @return the snowflake, or 0 when {@code id} is not one
+     */
+    private static long parseId(String id) {
+        try {
+            return Long.parseUnsignedLong(id);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
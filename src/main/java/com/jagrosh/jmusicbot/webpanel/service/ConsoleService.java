@@ -240,7 +240,7 @@ public class ConsoleService {
             // Process the command through the bot's command system
             // This is a simulated execution - the bot would normally process this
             // through a guild message event
-            if (bot.getJDA() != null && !bot.getJDA().getGuilds().isEmpty()) {
+            if (bot.getShards() != null && !bot.getShards().getGuilds().isEmpty()) {
                 if (fullCommand.equals(prefix + "help")) {
                     return "List of available commands: play, pause, skip, volume, queue, etc. (Use prefix: " + prefix + ")";
                 } else if (fullCommand.startsWith(prefix + "play")) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package com.jagrosh.jmusicbot.webpanel.service;
+
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.webpanel.service.GuildSnapshots.Part;
+import dev.cosgy.jmusicbot.shard.Shards;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.guild.GuildAvailableEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.guild.GuildUnavailableEvent;
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.override.GenericPermissionOverrideEvent;
+import net.dv8tion.jda.api.events.guild.update.GenericGuildUpdateEvent;
+import net.dv8tion.jda.api.events.guild.voice.GenericGuildVoiceEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.session.SessionRecreateEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateAvatarEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateGlobalNameEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the {@link GuildSnapshots} a gateway event changes as stale.
+ * <p>
+ * Listens on every shard while the web panel runs. Roles and permission overwrites
+ * change what the bot can see, so they mark the channels and the list of servers too.
+ */
+@Component
+public class GuildSnapshotListener extends ListenerAdapter implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(GuildSnapshotListener.class);
+
+    private final GuildSnapshots snapshots;
+    private Shards shards;
+
+    public GuildSnapshotListener(GuildSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        shards = Bot.INSTANCE == null ? null : Bot.INSTANCE.getShards();
+        if (shards == null) {
+            log.debug("No gateway, the web panel builds every view on request");
+            return;
+        }
+        shards.getManager().addEventListener(this);
+        snapshots.setLive(true);
+    }
+
+    @Override
+    public void destroy() {
+        if (shards != null) {
+            shards.getManager().removeEventListener(this);
+        }
+        snapshots.setLive(false);
+    }
+
+    @Override
+    public void onGenericChannel(GenericChannelEvent event) {
+        if (event.isFromGuild()) {
+            snapshots.invalidate(event.getGuild().getIdLong(), Part.CHANNELS);
+        }
+    }
+
+    @Override
+    public void onGenericPermissionOverride(GenericPermissionOverrideEvent event) {
+        snapshots.invalidate(event.getGuild().getIdLong(), Part.CHANNELS);
+    }
+
+    @Override
+    public void onGenericRole(GenericRoleEvent event) {
+        // Profiles show the names and colors of the roles
+        snapshots.invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGenericGuildMember(GenericGuildMemberEvent event) {
+        Guild guild = event.getGuild();
+        Member member = event.getMember();
+        snapshots.invalidateMember(guild.getIdLong(), member.getIdLong());
+        if (member.equals(guild.getSelfMember())) {
+            snapshots.invalidate(guild.getIdLong(), Part.CHANNELS);
+            snapshots.invalidate(GuildSnapshots.ALL_GUILDS, Part.SERVERS);
+        } else if (member.getVoiceState() != null && member.getVoiceState().inAudioChannel()) {
+            // Voice channels list their members by name
+            snapshots.invalidate(guild.getIdLong(), Part.CHANNELS);
+        }
+    }
+
+    @Override
+    public void onGuildMemberJoin(GuildMemberJoinEvent event) {
+        snapshots.invalidate(GuildSnapshots.ALL_GUILDS, Part.SERVERS);
+    }
+
+    @Override
+    public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
+        snapshots.invalidateMember(event.getGuild().getIdLong(), event.getUser().getIdLong());
+        snapshots.invalidate(GuildSnapshots.ALL_GUILDS, Part.SERVERS);
+    }
+
+    @Override
+    public void onGenericGuildVoice(GenericGuildVoiceEvent event) {
+        snapshots.invalidate(event.getGuild().getIdLong(), Part.CHANNELS);
+    }
+
+    @Override
+    public void onGenericGuildUpdate(GenericGuildUpdateEvent event) {
+        snapshots.invalidate(GuildSnapshots.ALL_GUILDS, Part.SERVERS);
+    }
+
+    @Override
+    public void onGuildJoin(GuildJoinEvent event) {
+        snapshots.invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        snapshots.invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildReady(GuildReadyEvent event) {
+        snapshots.invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildAvailable(GuildAvailableEvent event) {
+        snapshots.invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildUnavailable(GuildUnavailableEvent event) {
+        snapshots.invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onUserUpdateName(UserUpdateNameEvent event) {
+        snapshots.invalidateUser(event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onUserUpdateGlobalName(UserUpdateGlobalNameEvent event) {
+        snapshots.invalidateUser(event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onUserUpdateAvatar(UserUpdateAvatarEvent event) {
+        snapshots.invalidateUser(event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onSessionRecreate(SessionRecreateEvent event) {
+        // The shard rebuilt its caches from scratch, the events in between are lost
+        snapshots.invalidateAll();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package com.jagrosh.jmusicbot.webpanel.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Snapshots of the views the web panel shows of each guild, kept until Discord tells us
+ * they changed.
+ * <p>
+ * A snapshot is built from the JDA caches the first time it is asked for and served as
+ * is afterwards. {@link GuildSnapshotListener} marks the parts of a guild an event
+ * touches as stale, and the next request builds them again; the other parts of the guild
+ * are left alone. Every build gets a new version, which the controller sends as the
+ * ETag so the panel gets a 304 while nothing changed.
+ * <p>
+ * The values are never changed once built, and must not be changed by the callers.
+ * Until {@link #setLive(boolean) events come in}, nothing is kept and every request
+ * builds its view.
+ */
+@Component
+public class GuildSnapshots {
+    /**
+     * Guild id under which the list of servers is kept.
+     */
+    public static final long ALL_GUILDS = 0L;
+    /**
+     * Max age of a snapshot that is only built again after an event.
+     */
+    public static final long NO_EXPIRY = -1L;
+    // Expired profiles are only dropped when this many snapshots are kept
+    private static final int PRUNE_ABOVE = 2000;
+
+    public enum Part {
+        SERVERS, CHANNELS, ROLES, PROFILE
+    }
+
+    /**
+     * A snapshot and the ETag of its version.
+     */
+    public record Versioned<T>(T value, String etag) {
+    }
+
+    private record Key(long guildId, Part part, long memberId) {
+    }
+
+    /**
+     * A built snapshot, or a stale marker when {@code value} is null. Compared by
+     * identity, so a build only replaces the entry it saw when it started.
+     */
+    private static final class Entry {
+        private final Object value;
+        private final long version;
+        private final long expiresNanos;
+
+        private Entry(Object value, long version, long expiresNanos) {
+            this.value = value;
+            this.version = version;
+            this.expiresNanos = expiresNanos;
+        }
+
+        private static Entry stale() {
+            return new Entry(null, 0L, 0L);
+        }
+
+        private boolean isFresh(long now) {
+            return value != null && (expiresNanos == Long.MAX_VALUE || now - expiresNanos < 0);
+        }
+    }
+
+    // Versions restart with the process, the epoch keeps the ETags of two runs apart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean live;
+
+    /**
+     * @param live whether events keep the snapshots up to date; when they stop, every
+     *             snapshot is dropped
+     */
+    public void setLive(boolean live) {
+        this.live = live;
+        if (!live) {
+            entries.clear();
+        }
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Returns the snapshot of a part of a guild, building it when there is none or it
+     * is stale.
+     *
+     * @param memberId     the member of a {@link Part#PROFILE}, 0 for the other parts
+     * @param maxAgeMillis age after which the snapshot is built again, or {@link #NO_EXPIRY}
+     * @param build        builds the view from the JDA caches, or returns null when it
+     *                     cannot; a null is returned as is and not kept
+     */
+    public <T> Versioned<T> get(long guildId, Part part, long memberId, long maxAgeMillis, Supplier<T> build) {
+        Key key = new Key(guildId, part, memberId);
+        Entry seen = entries.get(key);
+        long now = System.nanoTime();
+        if (live && seen != null && seen.isFresh(now)) {
+            return versioned(seen);
+        }
+        if (live && seen == null) {
+            // Invalidations only mark entries that exist, so there must be one to mark while building
+            seen = entries.computeIfAbsent(key, k -> Entry.stale());
+        }
+        T value = build.get();
+        if (value == null) {
+            if (seen != null && seen.value == null) {
+                entries.remove(key, seen);
+            }
+            return null;
+        }
+        long expires = maxAgeMillis < 0 ? Long.MAX_VALUE : now + TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        Entry built = new Entry(value, versions.incrementAndGet(), expires);
+        if (live && seen != null) {
+            // An event that came in while building left a new marker, the build is not kept then
+            entries.replace(key, seen, built);
+            if (part == Part.PROFILE && entries.size() > PRUNE_ABOVE) {
+                entries.values().removeIf(entry -> !entry.isFresh(now));
+            }
+        }
+        return versioned(built);
+    }
+
+    /**
+     * Marks parts of a guild as stale.
+     */
+    public void invalidate(long guildId, Part... parts) {
+        for (Part part : parts) {
+            entries.put(new Key(guildId, part, 0L), Entry.stale());
+        }
+    }
+
+    /**
+     * Marks the profile of a member as stale.
+     */
+    public void invalidateMember(long guildId, long memberId) {
+        // Members nobody looked at get no marker, or every member event would add one
+        entries.computeIfPresent(new Key(guildId, Part.PROFILE, memberId), (key, entry) -> Entry.stale());
+    }
+
+    /**
+     * Marks the profiles of a user in every guild as stale.
+     */
+    public void invalidateUser(long userId) {
+        for (Key key : entries.keySet()) {
+            if (key.part() == Part.PROFILE && key.memberId() == userId) {
+                entries.computeIfPresent(key, (k, entry) -> Entry.stale());
+            }
+        }
+    }
+
+    /**
+     * Marks every snapshot of a guild, and the list of servers, as stale.
+     */
+    public void invalidateGuild(long guildId) {
+        entries.keySet().removeIf(key -> key.guildId() == guildId && key.part() == Part.PROFILE);
+        invalidate(guildId, Part.CHANNELS, Part.ROLES);
+        invalidate(ALL_GUILDS, Part.SERVERS);
+    }
+
+    /**
+     * Marks every snapshot as stale, for when the JDA caches were rebuilt without events.
+     */
+    public void invalidateAll() {
+        entries.replaceAll((key, entry) -> Entry.stale());
+    }
+
+    private <T> Versioned<T> versioned(Entry entry) {
+        @SuppressWarnings("unchecked")
+        T value = (T) entry.value;
+        return new Versioned<>(value, epoch + "-" + entry.version);
+    }
+}
@@ -45,7 +45,7 @@ public class MusicBotService {
             }
             
             // Get the guild
-            Guild guild = bot.getJDA().getGuildById(guildId);
+            Guild guild = bot.getShards().getGuildById(guildId);
             if (guild == null) {
                 return "The bot is not connected to the selected server.";
             }
@@ -148,7 +148,7 @@ public class MusicBotService {
                 @Override
                 public void trackLoaded(AudioTrack track) {
                     // Always use the bot's self user for metadata
-                    RequestMetadata metadata = new RequestMetadata(bot.getJDA().getSelfUser());
+                    RequestMetadata metadata = new RequestMetadata(bot.getShards().getSelfUser());
                     track.setUserData(metadata);
                     
                     // Get the handler
@@ -183,7 +183,7 @@ public class MusicBotService {
                         // Just load the first result
                         AudioTrack track = playlist.getTracks().get(0);
                         // Always use the bot's self user for metadata
-                        RequestMetadata metadata = new RequestMetadata(bot.getJDA().getSelfUser());
+                        RequestMetadata metadata = new RequestMetadata(bot.getShards().getSelfUser());
                         track.setUserData(metadata);
                         
                         int position = handler.addTrack(new QueuedTrack(track, metadata)) + 1;
@@ -194,7 +194,7 @@ public class MusicBotService {
                             .limit(20) // Limit to 20 tracks for safety
                             .forEach(track -> {
                                 // Always use the bot's self user for metadata
-                                RequestMetadata metadata = new RequestMetadata(bot.getJDA().getSelfUser());
+                                RequestMetadata metadata = new RequestMetadata(bot.getShards().getSelfUser());
                                 track.setUserData(metadata);
                                 handler.addTrack(new QueuedTrack(track, metadata));
                             });
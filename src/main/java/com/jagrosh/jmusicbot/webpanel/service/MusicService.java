@@ -20,17 +20,15 @@ import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.cosgy.jmusicbot.history.HistoryStats;
+import dev.cosgy.jmusicbot.spotify.SpotifyManager;
+import dev.cosgy.jmusicbot.spotify.SpotifyTrackInfo;
 import dev.cosgy.jmusicbot.util.YtDlpManager.FallbackPlatform;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
-import java.lang.reflect.Field;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -42,8 +40,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
-import org.json.JSONObject;
-
 import net.dv8tion.jda.api.EmbedBuilder;
 
 @Service
@@ -60,14 +56,14 @@ public class MusicService {
         // Initialize the selectedGuildId safely
         try {
             // Wait a short time for JDA to initialize if needed
-            if (bot.getJDA() == null) {
+            if (bot.getShards() == null) {
                 System.out.println("Web Panel: Waiting for JDA to initialize...");
                 Thread.sleep(5000); // Wait 5 seconds for JDA to initialize
             }
             
             // Set the first guild as the default selected guild if available
-            if (bot.getJDA() != null && !bot.getJDA().getGuilds().isEmpty()) {
-                this.selectedGuildId = bot.getJDA().getGuilds().get(0).getId();
+            if (bot.getShards() != null && !bot.getShards().getGuilds().isEmpty()) {
+                this.selectedGuildId = bot.getShards().getGuilds().get(0).getId();
                 System.out.println("Web Panel: Selected guild ID: " + this.selectedGuildId);
             } else {
                 this.selectedGuildId = null;
@@ -266,12 +262,12 @@ public class MusicService {
                 }
                 String spotifyTrackId = rm != null && rm.hasSpotifyData() ? rm.getSpotifyTrackId() : null;
                 if (spotifyTrackId != null) {
-                    String albumUrl = dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.albumImageUrls.get(spotifyTrackId);
+                    String albumUrl = bot.getSpotifyManager().getAlbumImageUrl(spotifyTrackId);
                     data.thumbnailUrl = !isEmpty(albumUrl)
                             ? albumUrl
                             : "https://www.freepnglogos.com/uploads/spotify-logo-png/file-spotify-logo-png-4.png";
                 } else {
-                    dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.SpotifyTrackInfo spotifyInfo = audioHandler.getSpotifyTrackInfo();
+                    SpotifyTrackInfo spotifyInfo = audioHandler.getSpotifyTrackInfo();
                     data.thumbnailUrl = (spotifyInfo != null && !isEmpty(spotifyInfo.albumImageUrl))
                             ? spotifyInfo.albumImageUrl
                             : "https://www.freepnglogos.com/uploads/spotify-logo-png/file-spotify-logo-png-4.png";
@@ -408,13 +404,13 @@ public class MusicService {
      */
     public List<Guild> getGuilds() {
         // Check if JDA is null or not fully initialized
-        if (bot.getJDA() == null) {
+        if (bot.getShards() == null) {
             System.out.println("Web Panel: JDA is null, cannot get guilds list");
             return Collections.emptyList();
         }
         
         // Check if the bot is connected to any guilds
-        if (bot.getJDA().getGuilds().isEmpty()) {
+        if (bot.getShards().getGuilds().isEmpty()) {
             System.out.println("Web Panel: Bot is not connected to any guilds");
             return Collections.emptyList();
         }
@@ -423,20 +419,14 @@ public class MusicService {
             // Get music history to count activity per server
             Map<String, Long> activityCount = new HashMap<>();
             if (Bot.INSTANCE.getMusicHistory() != null) {
-                List<com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord> history = 
-                    Bot.INSTANCE.getMusicHistory().getHistory();
-                
-                // Count number of tracks played per guild
-                activityCount = history.stream()
-                    .collect(Collectors.groupingBy(
-                        com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord::getGuildId,
-                        Collectors.counting()
-                    ));
+                // Number of tracks played per guild, kept up to date by the history statistics
+                activityCount = Bot.INSTANCE.getMusicHistory().getStats().guilds(HistoryStats.Window.ALL).stream()
+                    .collect(Collectors.toMap(HistoryStats.GuildCount::guildId, HistoryStats.GuildCount::plays));
             }
             
             final Map<String, Long> finalActivityCount = activityCount;
             
-            List<Guild> guilds = bot.getJDA().getGuilds().stream()
+            List<Guild> guilds = bot.getShards().getGuilds().stream()
                     .map(g -> {
                         AudioHandler audioHandler = (AudioHandler) g.getAudioManager().getSendingHandler();
                         boolean hasConnectedAudio = audioHandler != null;
@@ -481,12 +471,12 @@ public class MusicService {
      */
     public boolean setSelectedGuild(String guildId) {
         // Check if JDA is initialized
-        if (bot.getJDA() == null) {
+        if (bot.getShards() == null) {
             return false;
         }
         
         // Check if the guild exists
-        net.dv8tion.jda.api.entities.Guild guild = bot.getJDA().getGuildById(guildId);
+        net.dv8tion.jda.api.entities.Guild guild = bot.getShards().getGuildById(guildId);
         if (guild != null) {
             this.selectedGuildId = guildId;
             return true;
@@ -503,8 +493,8 @@ public class MusicService {
         if (selectedGuildId == null) {
             // Try to select a guild if one is available
             try {
-                if (bot.getJDA() != null && !bot.getJDA().getGuilds().isEmpty()) {
-                    selectedGuildId = bot.getJDA().getGuilds().get(0).getId();
+                if (bot.getShards() != null && !bot.getShards().getGuilds().isEmpty()) {
+                    selectedGuildId = bot.getShards().getGuilds().get(0).getId();
                     System.out.println("Web Panel: Auto-selected guild ID: " + selectedGuildId);
                     return selectedGuildId;
                 }
@@ -523,7 +513,7 @@ public class MusicService {
             return Optional.empty();
         }
         
-        net.dv8tion.jda.api.entities.Guild guild = bot.getJDA().getGuildById(selectedGuildId);
+        net.dv8tion.jda.api.entities.Guild guild = bot.getShards().getGuildById(selectedGuildId);
         if (guild == null) {
             return Optional.empty();
         }
@@ -591,10 +581,10 @@ public class MusicService {
     }
 
     private boolean isBotInVoiceChannel() {
-        if (selectedGuildId == null || bot.getJDA() == null) {
+        if (selectedGuildId == null || bot.getShards() == null) {
             return false;
         }
-        net.dv8tion.jda.api.entities.Guild guild = bot.getJDA().getGuildById(selectedGuildId);
+        net.dv8tion.jda.api.entities.Guild guild = bot.getShards().getGuildById(selectedGuildId);
         if (guild == null) {
             return false;
         }
@@ -650,8 +640,8 @@ public class MusicService {
             String avatar = cachedAvatar != null ? cachedAvatar : rm.user.avatar;
             return new RequesterData(rm.user.username, avatar);
         }
-        if (bot.getJDA() != null) {
-            return new RequesterData(bot.getJDA().getSelfUser().getName(), bot.getJDA().getSelfUser().getEffectiveAvatarUrl());
+        if (bot.getShards() != null) {
+            return new RequesterData(bot.getShards().getSelfUser().getName(), bot.getShards().getSelfUser().getEffectiveAvatarUrl());
         }
         return new RequesterData("Unknown", "");
     }
@@ -669,7 +659,7 @@ public class MusicService {
     }
 
     private Map<String, Object> buildSpotifyExtendedTrackInfo(AudioHandler audioHandler) {
-        dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.SpotifyTrackInfo spotInfo = audioHandler.getSpotifyTrackInfo();
+        SpotifyTrackInfo spotInfo = audioHandler.getSpotifyTrackInfo();
         if (spotInfo == null) {
             return null;
         }
@@ -898,11 +888,11 @@ public class MusicService {
             
             AudioHandler audioHandler = handler.get();
             
-            getAudioManager().loadItemOrdered(bot.getJDA().getGuildById(selectedGuildId), url, new AudioLoadResultHandler() {
+            getAudioManager().loadItemOrdered(bot.getShards().getGuildById(selectedGuildId), url, new AudioLoadResultHandler() {
                 @Override
                 public void trackLoaded(AudioTrack track) {
                     // Always use the bot's self user for metadata instead of null
-                    RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                    RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                     QueuedTrack qtrack = new QueuedTrack(track, rm);
                     
                     int position = audioHandler.addTrack(qtrack) + 1;
@@ -919,7 +909,7 @@ public class MusicService {
                     if (playlist.isSearchResult()) {
                         AudioTrack track = playlist.getTracks().get(0);
                         // Always use the bot's self user for metadata instead of null
-                        RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                        RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                         QueuedTrack qtrack = new QueuedTrack(track, rm);
                         
                         int position = audioHandler.addTrack(qtrack) + 1;
@@ -931,7 +921,7 @@ public class MusicService {
                         for (int i = 0; i < playlist.getTracks().size() && i < 10; i++) {
                             AudioTrack track = playlist.getTracks().get(i);
                             // Always use the bot's self user for metadata instead of null
-                            RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                            RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                             QueuedTrack qtrack = new QueuedTrack(track, rm);
                             
                             if (position == -1) {
@@ -980,11 +970,11 @@ public class MusicService {
             
             AudioHandler audioHandler = handler.get();
             
-            getAudioManager().loadItemOrdered(bot.getJDA().getGuildById(selectedGuildId), url, new AudioLoadResultHandler() {
+            getAudioManager().loadItemOrdered(bot.getShards().getGuildById(selectedGuildId), url, new AudioLoadResultHandler() {
                 @Override
                 public void trackLoaded(AudioTrack track) {
                     // Always use the bot's self user for metadata instead of null
-                    RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                    RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                     QueuedTrack qtrack = new QueuedTrack(track, rm);
                     
                     int position = audioHandler.addTrackToFront(qtrack) + 1;
@@ -1001,7 +991,7 @@ public class MusicService {
                     if (playlist.isSearchResult()) {
                         AudioTrack track = playlist.getTracks().get(0);
                         // Always use the bot's self user for metadata instead of null
-                        RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                        RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                         QueuedTrack qtrack = new QueuedTrack(track, rm);
                         
                         int position = audioHandler.addTrackToFront(qtrack) + 1;
@@ -1011,7 +1001,7 @@ public class MusicService {
                         for (int i = Math.min(4, playlist.getTracks().size() - 1); i >= 0; i--) {
                             AudioTrack track = playlist.getTracks().get(i);
                             // Always use the bot's self user for metadata instead of null
-                            RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                            RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                             QueuedTrack qtrack = new QueuedTrack(track, rm);
                             audioHandler.addTrackToFront(qtrack);
                         }
@@ -1084,8 +1074,8 @@ public class MusicService {
             audioHandler.stopAndClear();
             
             // Close audio connection to leave the voice channel
-            if (bot.getJDA().getGuildById(selectedGuildId) != null) {
-                bot.getJDA().getGuildById(selectedGuildId).getAudioManager().closeAudioConnection();
+            if (bot.getShards().getGuildById(selectedGuildId) != null) {
+                bot.getShards().getGuildById(selectedGuildId).getAudioManager().closeAudioConnection();
             }
             
             return true;
@@ -1233,65 +1223,23 @@ public class MusicService {
      */
     public String processSpotifyTrack(String trackId, boolean playNext) {
         try {
-            // Get the access token using reflection
-            Field accessTokenField = dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.class.getDeclaredField("accessToken");
-            accessTokenField.setAccessible(true);
-            String accessToken = (String) accessTokenField.get(null);
-            
-            if (accessToken == null) {
+            SpotifyManager spotify = bot.getSpotifyManager();
+            if (!spotify.isAvailable()) {
                 return "Failed to authenticate with Spotify";
             }
             
-            // Get the Spotify track information
-            String endpoint = "https://api.spotify.com/v1/tracks/" + trackId;
-            HttpClient httpClient = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(5))
-                    .build();
-            
-            HttpRequest request = HttpRequest.newBuilder()
-                    .header("Authorization", "Bearer " + accessToken)
-                    .header("Accept-Language", "en")
-                    .GET()
-                    .uri(URI.create(endpoint))
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            JSONObject json = new JSONObject(response.body());
-            String trackName = json.getString("name");
-            String artistName = json.getJSONArray("artists").getJSONObject(0).getString("name");
-            String albumName = json.getJSONObject("album").getString("name");
-            String albumImageUrl = json.getJSONObject("album").getJSONArray("images").getJSONObject(0).getString("url");
-            
-            // Extract release date information
-            String releaseDate = json.getJSONObject("album").getString("release_date");
-            String releaseDatePrecision = json.getJSONObject("album").getString("release_date_precision");
-            String releaseYear = extractReleaseYear(releaseDate, releaseDatePrecision);
-            
-            // Use the Audio Features endpoint to retrieve track information
-            endpoint = "https://api.spotify.com/v1/audio-features/" + trackId;
-            request = HttpRequest.newBuilder()
-                    .header("Authorization", "Bearer " + accessToken)
-                    .GET()
-                    .uri(URI.create(endpoint))
-                    .build();
-            
-            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            json = new JSONObject(response.body());
-            // Use a default value when valence key does not exist
-            double trackColor = json.has("valence") ? json.getDouble("valence") : 0.5;
-            
-            int hue = (int) (trackColor * 360);
-            Color color = Color.getHSBColor((float) hue / 360, 1.0f, 1.0f);
+            // Get the Spotify track information (cached after the first lookup)
+            SpotifyTrackInfo info = spotify.lookupTrack(trackId);
+            String trackName = info.trackName;
+            String artistName = info.artistName;
+            String albumName = info.albumName;
+            String albumImageUrl = info.albumImageUrl;
+            String releaseYear = info.releaseYear;
+            Color color = info.color;
             
-            // Store track information for NowplayingCmd using the static maps
+            // Remember the track for NowplayingCmd
             String guildId = getSelectedGuildId();
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.lastTrackIds.put(guildId, trackId);
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.trackNames.put(trackId, trackName);
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.albumNames.put(trackId, albumName);
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.artistNames.put(trackId, artistName);
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.albumImageUrls.put(trackId, albumImageUrl);
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.trackColors.put(trackId, color);
-            dev.cosgy.jmusicbot.slashcommands.music.SpotifyCmd.releaseYears.put(trackId, releaseYear);
+            spotify.setGuildTrack(guildId, trackId);
             
             // Create an embed with the track information to display
             EmbedBuilder embed = new EmbedBuilder();
@@ -1306,11 +1254,11 @@ public class MusicService {
             embed.setColor(color);
             
             // Send the embed to the music channel if available
-            if (bot.getJDA().getGuildById(guildId) != null) {
+            if (bot.getShards().getGuildById(guildId) != null) {
                 // Get the settings for the guild
                 net.dv8tion.jda.api.entities.channel.concrete.TextChannel musicChannel = 
-                    bot.getSettingsManager().getSettings(bot.getJDA().getGuildById(guildId))
-                        .getTextChannel(bot.getJDA().getGuildById(guildId));
+                    bot.getSettingsManager().getSettings(bot.getShards().getGuildById(guildId))
+                        .getTextChannel(bot.getShards().getGuildById(guildId));
                 
                 if (musicChannel != null) {
                     musicChannel.sendMessageEmbeds(embed.build()).queue();
@@ -1329,11 +1277,11 @@ public class MusicService {
             
             AudioHandler audioHandler = handler.get();
             
-            getAudioManager().loadItemOrdered(bot.getJDA().getGuildById(guildId), searchQuery, new AudioLoadResultHandler() {
+            getAudioManager().loadItemOrdered(bot.getShards().getGuildById(guildId), searchQuery, new AudioLoadResultHandler() {
                 @Override
                 public void trackLoaded(AudioTrack track) {
                     // Create RequestMetadata with the Spotify track ID
-                    RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                    RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                     rm.setSpotifyTrackId(trackId);
                     
                     QueuedTrack qtrack = new QueuedTrack(track, rm);
@@ -1357,7 +1305,7 @@ public class MusicService {
                     }
                     
                     AudioTrack track = playlist.getTracks().get(0);
-                    RequestMetadata rm = new RequestMetadata(bot.getJDA().getSelfUser());
+                    RequestMetadata rm = new RequestMetadata(bot.getShards().getSelfUser());
                     rm.setSpotifyTrackId(trackId);
                     
                     QueuedTrack qtrack = new QueuedTrack(track, rm);
@@ -1395,28 +1343,6 @@ public class MusicService {
         }
     }
     
-    /**
-     * Helper method to extract release year based on precision
-     */
-    private String extractReleaseYear(String releaseDate, String precision) {
-        if (releaseDate == null || releaseDate.isEmpty()) {
-            return "Unknown";
-        }
-        
-        switch (precision) {
-            case "year":
-                return releaseDate; // Already just the year
-            case "month":
-            case "day":
-                // Extract just the year part (first 4 characters)
-                if (releaseDate.length() >= 4) {
-                    return releaseDate.substring(0, 4);
-                }
-            default:
-                return releaseDate;
-        }
-    }
-    
     /**
      * Set the volume for the current player
      * @param volume Volume level (0-150)
@@ -1426,7 +1352,7 @@ public class MusicService {
         if (selectedGuildId == null) return false;
         
         try {
-            net.dv8tion.jda.api.entities.Guild guild = bot.getJDA().getGuildById(selectedGuildId);
+            net.dv8tion.jda.api.entities.Guild guild = bot.getShards().getGuildById(selectedGuildId);
             if (guild == null) return false;
             
             AudioHandler handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
@@ -22,13 +22,12 @@ import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import dev.cosgy.agent.objects.ResultSet;
+import dev.cosgy.jmusicbot.util.http.HttpService;
 import net.dv8tion.jda.api.entities.Guild;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
@@ -145,7 +144,7 @@ public class GensokyoInfoAgent extends Thread {
             try {
                 // Get the guild from the ID
                 long guildIdLong = Long.parseLong(guildId);
-                Guild guild = bot.getJDA().getGuildById(guildIdLong);
+                Guild guild = bot.getShards().getGuildById(guildIdLong);
                 if (guild == null) continue;
                 
                 // Get the audio handler
@@ -272,7 +271,6 @@ public class GensokyoInfoAgent extends Thread {
      * @return ResultSet containing radio information or null if error
      */
     private static ResultSet fetch() throws Exception {
-        HttpURLConnection connection = null;
         try {
             long currentTime = System.currentTimeMillis();
             boolean forceCheck = updateForceCheck(currentTime);
@@ -289,26 +287,17 @@ public class GensokyoInfoAgent extends Thread {
             needsUpdate = false;
             log.debug("Fetching Gensokyo Radio information from API...");
             
-            System.setProperty("http.agent", "Chrome");
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .followRedirects(HttpClient.Redirect.NORMAL)
-                    .build();
             HttpRequest req = buildApiRequest(API_URL);
-            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> res = HttpService.get().send(req, HttpResponse.BodyHandlers.ofString());
             String body = res.body();
             log.debug("Response status: {}", res.statusCode());
             res.headers().map().forEach((key, values) -> 
                 log.debug("Header {} : {}", key, String.join(", ", values)));
-            return handleApiResponse(client, res, body);
+            return handleApiResponse(res, body);
 
         } catch (Exception e) {
             log.warn("Failed to fetch Gensokyo Radio information: {}", e.getMessage());
             return info; // Return existing info if available
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
         }
     }
 
@@ -349,7 +338,7 @@ public class GensokyoInfoAgent extends Thread {
                 .build();
     }
 
-    private static ResultSet handleApiResponse(HttpClient client, HttpResponse<String> res, String body) {
+    private static ResultSet handleApiResponse(HttpResponse<String> res, String body) {
         switch (res.statusCode()) {
             case 200:
                 return handleSuccessResponse(body);
@@ -357,7 +346,7 @@ public class GensokyoInfoAgent extends Thread {
             case 302:
             case 307:
             case 308:
-                return handleRedirectResponse(client, res);
+                return handleRedirectResponse(res);
             case 403:
                 log.warn("Gensokyo Radio information retrieval error (403) - Access forbidden");
                 log.debug("Body: {}", res.body());
@@ -435,7 +424,7 @@ public class GensokyoInfoAgent extends Thread {
         }
     }
 
-    private static ResultSet handleRedirectResponse(HttpClient client, HttpResponse<String> res) {
+    private static ResultSet handleRedirectResponse(HttpResponse<String> res) {
         String location = res.headers().firstValue("Location").orElse("No location header");
         log.warn("Unexpected redirection. Status: {}, Location: {}", res.statusCode(), location);
         log.info("Trying to fetch from the new location directly");
@@ -448,7 +437,7 @@ public class GensokyoInfoAgent extends Thread {
             API_URL = location;
             log.info("Updated API URL to: {}", API_URL);
             HttpRequest redirectRequest = buildApiRequest(location);
-            HttpResponse<String> redirectRes = client.send(redirectRequest, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> redirectRes = HttpService.get().send(redirectRequest, HttpResponse.BodyHandlers.ofString());
             if (redirectRes.statusCode() != 200) {
                 return info;
             }
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection of the bot to one audio node.
+ * <p>
+ * The connection is kept up by a thread of its own: it connects, pings the node every few
+ * seconds and reconnects with an exponential backoff when the node goes away or stops
+ * answering. When the connection is lost, every open session is told so it can move to
+ * another node.
+ */
+public class AudioNodeClient implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AudioNodeClient.class);
+    private static final long PING_INTERVAL_MILLIS = 5000;
+    private static final long PONG_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+    private static final AtomicLong SESSION_IDS = new AtomicLong();
+
+    /**
+     * Receives what the node sends about one session. Called on the connection's reader
+     * thread, so implementations must not block.
+     */
+    public interface Session {
+        void onFrame(int epoch, long timecode, byte[] data);
+
+        void onTrackEvent(int epoch, byte type, long thresholdMs, String severity, String message);
+
+        /**
+         * The connection to {@code node} was lost; the session is closed and nothing more
+         * will be received for it.
+         */
+        void onNodeLost(AudioNodeClient node);
+    }
+
+    private final String address;
+    private final String secret;
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final LongAdder framesReceived = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+    private volatile NodeConnection connection;
+    private volatile Set<String> sources = Set.of();
+    private volatile NodeStats stats = NodeStats.EMPTY;
+    private volatile long pingNanos = -1;
+    private volatile long lastPongNanos;
+    private volatile boolean closed;
+    private Thread thread;
+
+    /**
+     * @param secret the secret the node was started with, empty for none
+     */
+    public AudioNodeClient(String address, String secret) {
+        this.address = address;
+        this.secret = secret;
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            thread = Thread.ofVirtual().name("audio-node " + address).start(this::run);
+        }
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public boolean isAvailable() {
+        return connection != null;
+    }
+
+    /**
+     * @return whether the node can decode tracks of the source manager named {@code sourceName}
+     */
+    public boolean supports(String sourceName) {
+        return sourceName != null && sources.contains(sourceName);
+    }
+
+    public NodeStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return round trip time of the last ping in milliseconds, or -1 before the first pong
+     */
+    public long getPingMillis() {
+        long nanos = pingNanos;
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Starts {@code track} at {@code position} in a new session.
+     *
+     * @return ID of the session, or -1 when the node is not connected
+     */
+    public long play(Session session, int epoch, byte[] track, long position, int volume, String filters, int credits) {
+        long id = SESSION_IDS.incrementAndGet();
+        sessions.put(id, session);
+        boolean sent = send(NodeProtocol.PLAY, out -> {
+            out.writeLong(id);
+            out.writeInt(epoch);
+            NodeProtocol.writeBytes(out, track);
+            out.writeLong(position);
+            out.writeInt(volume);
+            out.writeUTF(filters);
+            out.writeInt(credits);
+        });
+        // A connection lost before the session was added did not report it as lost
+        if (!sent) {
+            sessions.remove(id);
+            return -1;
+        }
+        return id;
+    }
+
+    public void stop(long session) {
+        if (sessions.remove(session) != null) {
+            send(NodeProtocol.STOP, out -> out.writeLong(session));
+        }
+    }
+
+    public void seek(long session, int epoch, long position, int credits) {
+        send(NodeProtocol.SEEK, out -> {
+            out.writeLong(session);
+            out.writeInt(epoch);
+            out.writeLong(position);
+            out.writeInt(credits);
+        });
+    }
+
+    public void setVolume(long session, int volume) {
+        send(NodeProtocol.VOLUME, out -> {
+            out.writeLong(session);
+            out.writeInt(volume);
+        });
+    }
+
+    public void setFilters(long session, String filters) {
+        send(NodeProtocol.FILTERS, out -> {
+            out.writeLong(session);
+            out.writeUTF(filters);
+        });
+    }
+
+    public void credit(long session, int epoch, int frames) {
+        send(NodeProtocol.CREDIT, out -> {
+            out.writeLong(session);
+            out.writeInt(epoch);
+            out.writeInt(frames);
+        });
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) {
+            t.interrupt();
+        }
+        closeConnection(connection);
+    }
+
+    @Override
+    public String toString() {
+        if (!isAvailable()) {
+            return "down, connects=" + connects.sum();
+        }
+        NodeStats current = stats;
+        return "up, ping=" + getPingMillis() + "ms"
+                + ", sessions=" + sessions.size()
+                + ", players=" + current.playingPlayers() + "/" + current.players()
+                + ", cpu=" + Math.round(current.cpuLoad() * 100) + "%"
+                + ", deficit=" + Math.round(current.frameDeficit() * 100) + "%"
+                + ", frames=" + framesReceived.sum();
+    }
+
+    private boolean send(byte op, NodeConnection.Body body) {
+        NodeConnection conn = connection;
+        if (conn == null) {
+            return false;
+        }
+        try {
+            conn.send(op, body);
+            return true;
+        } catch (IOException e) {
+            // The reader fails on the same connection and reports the sessions as lost
+            log.debug("Could not send to audio node {}: {}", address, e.getMessage());
+            closeConnection(conn);
+            return false;
+        }
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!closed) {
+            NodeConnection conn = null;
+            try {
+                conn = NodeConnection.connect(address);
+                handshake(conn);
+                lastPongNanos = System.nanoTime();
+                connection = conn;
+                connects.increment();
+                backoff = MIN_BACKOFF_MILLIS;
+                log.info("Connected to audio node {} ({} sources)", address, sources.size());
+                NodeConnection reading = conn;
+                Thread reader = Thread.ofVirtual().name("audio-node-reader " + address).start(() -> readLoop(reading));
+                keepAlive(conn, reader);
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Audio node {} is unreachable: {}", address, e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeConnection(conn);
+                lost(conn);
+            }
+            if (closed || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private void handshake(NodeConnection conn) throws IOException {
+        conn.send(NodeProtocol.HELLO, out -> {
+            out.writeInt(NodeProtocol.VERSION);
+            out.writeUTF(secret);
+        });
+        NodeConnection.Message ready;
+        try {
+            ready = conn.read();
+        } catch (EOFException e) {
+            throw new IOException("the node closed the connection, check that audionode.secret matches the node's");
+        }
+        if (ready.op() != NodeProtocol.READY) {
+            throw new IOException("Expected READY, got opcode " + ready.op());
+        }
+        DataInputStream in = ready.body();
+        int version = in.readInt();
+        if (version != NodeProtocol.VERSION) {
+            throw new IOException("Node speaks protocol " + version + ", expected " + NodeProtocol.VERSION);
+        }
+        int count = in.readInt();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            names.add(in.readUTF());
+        }
+        sources = Set.copyOf(names);
+    }
+
+    private void keepAlive(NodeConnection conn, Thread reader) throws IOException, InterruptedException {
+        while (!closed) {
+            reader.join(PING_INTERVAL_MILLIS);
+            if (!reader.isAlive()) {
+                return;
+            }
+            if (System.nanoTime() - lastPongNanos > PONG_TIMEOUT_NANOS) {
+                log.warn("Audio node {} stopped answering pings, reconnecting", address);
+                return;
+            }
+            long sent = System.nanoTime();
+            conn.send(NodeProtocol.PING, out -> out.writeLong(sent));
+        }
+    }
+
+    private void readLoop(NodeConnection conn) {
+        try {
+            while (true) {
+                NodeConnection.Message message = conn.read();
+                DataInputStream in = message.body();
+                switch (message.op()) {
+                    case NodeProtocol.FRAME -> {
+                        Session session = sessions.get(in.readLong());
+                        int epoch = in.readInt();
+                        long timecode = in.readLong();
+                        byte[] data = NodeProtocol.readBytes(in);
+                        framesReceived.increment();
+                        if (session != null) {
+                            session.onFrame(epoch, timecode, data);
+                        }
+                    }
+                    case NodeProtocol.TRACK_EVENT -> {
+                        long id = in.readLong();
+                        int epoch = in.readInt();
+                        byte type = in.readByte();
+                        long thresholdMs = in.readLong();
+                        String severity = in.readUTF();
+                        String text = in.readUTF();
+                        Session session = type == NodeProtocol.EVENT_END ? sessions.remove(id) : sessions.get(id);
+                        if (session != null) {
+                            session.onTrackEvent(epoch, type, thresholdMs, severity, text);
+                        }
+                    }
+                    case NodeProtocol.STATS -> stats = NodeProtocol.readStats(in);
+                    case NodeProtocol.PONG -> {
+                        long now = System.nanoTime();
+                        pingNanos = now - in.readLong();
+                        lastPongNanos = now;
+                    }
+                    default -> log.debug("Ignoring opcode {} from audio node {}", message.op(), address);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed && conn.isOpen()) {
+                log.warn("Lost connection to audio node {}: {}", address,
+                        e instanceof EOFException ? "closed by the node" : e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while reading from audio node {}", address, e);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    private void lost(NodeConnection conn) {
+        if (conn == null) {
+            return;
+        }
+        synchronized (this) {
+            if (connection != conn) {
+                return;
+            }
+            connection = null;
+        }
+        stats = NodeStats.EMPTY;
+        pingNanos = -1;
+        for (Long id : sessions.keySet()) {
+            Session session = sessions.remove(id);
+            if (session != null) {
+                try {
+                    session.onNodeLost(this);
+                } catch (RuntimeException e) {
+                    log.error("Session {} failed to handle the loss of audio node {}", id, address, e);
+                }
+            }
+        }
+    }
+
+    private static void closeConnection(NodeConnection conn) {
+        if (conn == null) return;
+        try {
+            conn.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
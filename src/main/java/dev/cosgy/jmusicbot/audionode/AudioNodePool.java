@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The audio nodes the bot plays on, and which guild plays on which.
+ * <p>
+ * A guild stays on its node for as long as the node is up and can decode its tracks, so
+ * its tracks keep the node's warm caches and connections. A guild without a node goes to
+ * the least loaded one, see {@link #penalty}.
+ */
+public class AudioNodePool implements Closeable {
+    private final List<AudioNodeClient> nodes;
+    private final Map<Long, AudioNodeClient> placements = new ConcurrentHashMap<>();
+
+    /**
+     * @param secret the secret the nodes were started with, empty for none
+     */
+    public AudioNodePool(List<String> addresses, String secret) {
+        List<AudioNodeClient> clients = new ArrayList<>();
+        for (String address : addresses) {
+            clients.add(new AudioNodeClient(address, secret));
+        }
+        this.nodes = List.copyOf(clients);
+    }
+
+    public void start() {
+        nodes.forEach(AudioNodeClient::start);
+    }
+
+    public List<AudioNodeClient> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return whether a node can play tracks of {@code sourceName} right now
+     */
+    public boolean canPlay(String sourceName) {
+        for (AudioNodeClient node : nodes) {
+            if (node.isAvailable() && node.supports(sourceName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the node {@code guildId} should play a track of {@code sourceName} on, or
+     *         {@code null} when no node is up that can decode it
+     */
+    public AudioNodeClient select(long guildId, String sourceName) {
+        AudioNodeClient current = placements.get(guildId);
+        if (current != null && current.isAvailable() && current.supports(sourceName)) {
+            return current;
+        }
+        AudioNodeClient best = null;
+        double bestPenalty = Double.MAX_VALUE;
+        for (AudioNodeClient node : nodes) {
+            if (!node.isAvailable() || !node.supports(sourceName)) {
+                continue;
+            }
+            double penalty = penalty(node.getStats(), node.getSessionCount());
+            if (penalty < bestPenalty) {
+                best = node;
+                bestPenalty = penalty;
+            }
+        }
+        if (best == null) {
+            placements.remove(guildId);
+        } else {
+            placements.put(guildId, best);
+        }
+        return best;
+    }
+
+    /**
+     * Load of a node as a number of players: one per playing player, CPU load growing
+     * exponentially, from 6 at 10% and 60 at 40% to over a thousand at full load, and one
+     * per percent of frames the node could not produce in time. The players the node reported are at least the
+     * sessions this bot opened on it, which counts the sessions opened since the last
+     * report, so a burst of guilds does not all land on the same node.
+     */
+    static double penalty(NodeStats stats, int openSessions) {
+        double players = Math.max(stats.playingPlayers(), openSessions);
+        double cpu = Math.pow(1.05, 100 * stats.cpuLoad()) * 10 - 10;
+        double deficit = stats.frameDeficit() * 100;
+        return players + cpu + deficit;
+    }
+
+    @Override
+    public void close() {
+        nodes.forEach(AudioNodeClient::close);
+        placements.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (AudioNodeClient node : nodes) {
+            if (!sb.isEmpty()) sb.append("; ");
+            sb.append(node.getAddress()).append(" ").append(node);
+        }
+        sb.append("; placements=").append(placements.size());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagrosh.jmusicbot.audio.FilterChainConfig;
+import com.sedmelluq.discord.lavaplayer.container.MediaContainerRegistry;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.typesafe.config.Config;
+import dev.lavalink.youtube.YoutubeAudioSourceManager;
+import dev.lavalink.youtube.YoutubeSourceOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Audio node: decodes, filters and encodes tracks for bots connected over a socket, so
+ * the audio work can run on other cores or machines than the Discord gateway.
+ * <p>
+ * Each session gets its own player. Its frames are pulled by a pump thread per
+ * connection, as far as the bot granted credits, and sent with the track events in the
+ * order the player produced them. Stats are sent to every connection periodically.
+ */
+public class AudioNodeServer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AudioNodeServer.class);
+    public static final String DEFAULT_ADDRESS = "127.0.0.1:2334";
+    private static final long PUMP_INTERVAL_MILLIS = 10;
+    private static final long STATS_INTERVAL_MILLIS = 5000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final DefaultAudioPlayerManager manager;
+    private final String address;
+    private final byte[] secret;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder framesMissed = new LongAdder();
+    private volatile ServerSocketChannel server;
+    private volatile boolean closed;
+    private Thread acceptThread;
+
+    /**
+     * @param secret the secret bots must send to play on this node, empty for none
+     */
+    public AudioNodeServer(DefaultAudioPlayerManager manager, String address, String secret) {
+        this.manager = manager;
+        this.address = address;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs a node with the sources and quality settings the bot uses, until the process
+     * is stopped. Tracks of the sources the node lacks, such as yt-dlp and niconico, keep
+     * playing in the bot.
+     */
+    public static void run(Config config) throws IOException, InterruptedException {
+        String address = config.hasPath("audionode.listen") ? config.getString("audionode.listen") : DEFAULT_ADDRESS;
+        String secret = config.hasPath("audionode.secret") ? config.getString("audionode.secret") : "";
+        if (secret.isEmpty() && !isLocal(address)) {
+            throw new IOException("audionode.listen is " + address + ", which other hosts can reach; "
+                    + "set audionode.secret on the node and its bots to listen there");
+        }
+        AudioNodeServer node = new AudioNodeServer(createManager(config), address, secret);
+        node.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(node::close, "audio-node-shutdown"));
+        node.acceptThread.join();
+    }
+
+    /**
+     * @return whether only this machine can connect to {@code address}: a Unix domain
+     *         socket or a loopback address
+     */
+    static boolean isLocal(String address) {
+        SocketAddress local = NodeConnection.parseAddress(address);
+        if (local instanceof InetSocketAddress inet) {
+            return inet.getAddress() != null && inet.getAddress().isLoopbackAddress();
+        }
+        return true;
+    }
+
+    static DefaultAudioPlayerManager createManager(Config config) {
+        DefaultAudioPlayerManager manager = new DefaultAudioPlayerManager();
+        YoutubeSourceOptions ytOptions = new YoutubeSourceOptions();
+        String cipherUrl = config.hasPath("ytcipher.url") ? config.getString("ytcipher.url") : "";
+        if (!cipherUrl.isEmpty()) {
+            String password = config.hasPath("ytcipher.password") ? config.getString("ytcipher.password") : null;
+            String userAgent = config.hasPath("ytcipher.user-agent") ? config.getString("ytcipher.user-agent") : "";
+            ytOptions.setRemoteCipher(cipherUrl, password, userAgent.isBlank() ? null : userAgent);
+        }
+        manager.registerSourceManager(new YoutubeAudioSourceManager(ytOptions));
+        AudioSourceManagers.registerRemoteSources(manager, MediaContainerRegistry.DEFAULT_REGISTRY);
+        AudioSourceManagers.registerLocalSource(manager);
+        manager.getConfiguration().setOpusEncodingQuality(10);
+        manager.getConfiguration().setResamplingQuality(AudioConfiguration.ResamplingQuality.HIGH);
+        manager.getConfiguration().setFilterHotSwapEnabled(true);
+        // A paused bot grants no credits, so the player is not polled; sessions are closed
+        // by the bot or with its connection rather than by lavaplayer's idle cleanup
+        manager.setPlayerCleanupThreshold(TimeUnit.DAYS.toMillis(1));
+        return manager;
+    }
+
+    public synchronized void start() throws IOException {
+        server = NodeConnection.listen(address);
+        acceptThread = Thread.ofPlatform().name("audio-node-accept").start(this::acceptLoop);
+        Thread.ofVirtual().name("audio-node-stats").start(this::statsLoop);
+        log.info("Audio node listening on {}", address);
+    }
+
+    SocketAddress getLocalAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            ServerSocketChannel current = server;
+            if (current != null) {
+                current.close();
+            }
+        } catch (IOException ignored) {
+        }
+        connections.forEach(Connection::close);
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Connection connection = new Connection(NodeConnection.accept(server));
+                connections.add(connection);
+                connection.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Could not accept a bot connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void statsLoop() {
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        while (!closed) {
+            try {
+                Thread.sleep(STATS_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            int players = 0;
+            int playing = 0;
+            for (Connection connection : connections) {
+                for (Session session : connection.sessions.values()) {
+                    players++;
+                    if (session.player.getPlayingTrack() != null) {
+                        playing++;
+                    }
+                }
+            }
+            long sent = framesSent.sumThenReset();
+            long missed = framesMissed.sumThenReset();
+            double deficit = sent + missed == 0 ? 0 : (double) missed / (sent + missed);
+            NodeStats stats = new NodeStats(players, playing, Math.max(0, os.getCpuLoad()), deficit);
+            for (Connection connection : connections) {
+                if (connection.ready) {
+                    connection.send(NodeProtocol.STATS, out -> NodeProtocol.writeStats(out, stats));
+                }
+            }
+        }
+    }
+
+    private final class Connection {
+        private final NodeConnection conn;
+        private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+        private volatile boolean open = true;
+        // Set once the bot sent the right version and secret
+        private volatile boolean ready;
+
+        private Connection(NodeConnection conn) {
+            this.conn = conn;
+        }
+
+        private void start() {
+            Thread.ofVirtual().name("audio-node-connection").start(this::readLoop);
+        }
+
+        private void readLoop() {
+            try {
+                handshake();
+                ready = true;
+                Thread.ofVirtual().name("audio-node-pump").start(this::pumpLoop);
+                while (open) {
+                    NodeConnection.Message message = conn.read();
+                    handle(message.op(), message.body());
+                }
+            } catch (IOException e) {
+                if (open) {
+                    log.info("Bot connection closed: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("Error while handling a bot connection", e);
+            } finally {
+                close();
+            }
+        }
+
+        private void handshake() throws IOException {
+            NodeConnection.Message hello = conn.read();
+            if (hello.op() != NodeProtocol.HELLO) {
+                throw new IOException("Expected HELLO, got opcode " + hello.op());
+            }
+            DataInputStream in = hello.body();
+            int version = in.readInt();
+            if (version != NodeProtocol.VERSION) {
+                // Tell the bot which version to expect, without the sources
+                conn.send(NodeProtocol.READY, out -> {
+                    out.writeInt(NodeProtocol.VERSION);
+                    out.writeInt(0);
+                });
+                throw new IOException("Bot speaks protocol " + version + ", expected " + NodeProtocol.VERSION);
+            }
+            if (!MessageDigest.isEqual(secret, in.readUTF().getBytes(StandardCharsets.UTF_8))) {
+                throw new IOException("Bot sent a wrong secret");
+            }
+            List<String> sources = new ArrayList<>();
+            for (AudioSourceManager source : manager.getSourceManagers()) {
+                sources.add(source.getSourceName());
+            }
+            conn.send(NodeProtocol.READY, out -> {
+                out.writeInt(NodeProtocol.VERSION);
+                out.writeInt(sources.size());
+                for (String source : sources) {
+                    out.writeUTF(source);
+                }
+            });
+        }
+
+        private void handle(byte op, DataInputStream in) throws IOException {
+            switch (op) {
+                case NodeProtocol.PLAY -> {
+                    long id = in.readLong();
+                    int epoch = in.readInt();
+                    byte[] encoded = NodeProtocol.readBytes(in);
+                    long position = in.readLong();
+                    int volume = in.readInt();
+                    String filters = in.readUTF();
+                    int credits = in.readInt();
+                    Session session = sessions.computeIfAbsent(id, key -> new Session(this, key));
+                    session.play(epoch, encoded, position, volume, filters, credits);
+                }
+                case NodeProtocol.STOP -> {
+                    Session session = sessions.remove(in.readLong());
+                    if (session != null) {
+                        session.destroy();
+                    }
+                }
+                case NodeProtocol.SEEK -> {
+                    Session session = sessions.get(in.readLong());
+                    int epoch = in.readInt();
+                    long position = in.readLong();
+                    int credits = in.readInt();
+                    if (session != null) {
+                        session.seek(epoch, position, credits);
+                    }
+                }
+                case NodeProtocol.VOLUME -> {
+                    Session session = sessions.get(in.readLong());
+                    int volume = in.readInt();
+                    if (session != null) {
+                        session.player.setVolume(volume);
+                    }
+                }
+                case NodeProtocol.FILTERS -> {
+                    Session session = sessions.get(in.readLong());
+                    String filters = in.readUTF();
+                    if (session != null) {
+                        session.applyFilters(filters);
+                    }
+                }
+                case NodeProtocol.CREDIT -> {
+                    Session session = sessions.get(in.readLong());
+                    int epoch = in.readInt();
+                    int frames = in.readInt();
+                    if (session != null && session.epoch == epoch) {
+                        session.credits.addAndGet(frames);
+                    }
+                }
+                case NodeProtocol.PING -> {
+                    long nanos = in.readLong();
+                    send(NodeProtocol.PONG, out -> out.writeLong(nanos));
+                }
+                default -> log.debug("Ignoring opcode {} from bot", op);
+            }
+        }
+
+        private void pumpLoop() {
+            while (open) {
+                for (Session session : sessions.values()) {
+                    session.pump();
+                }
+                try {
+                    Thread.sleep(PUMP_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void send(byte op, NodeConnection.Body body) {
+            if (!open) return;
+            try {
+                conn.send(op, body);
+            } catch (IOException e) {
+                log.debug("Could not send to bot: {}", e.getMessage());
+                close();
+            }
+        }
+
+        private void close() {
+            if (!open) return;
+            open = false;
+            connections.remove(this);
+            try {
+                conn.close();
+            } catch (IOException ignored) {
+            }
+            sessions.values().forEach(Session::destroy);
+            sessions.clear();
+        }
+    }
+
+    private final class Session extends AudioEventAdapter {
+        private final Connection connection;
+        private final long id;
+        private final AudioPlayer player;
+        private final AtomicInteger credits = new AtomicInteger();
+        private volatile int epoch;
+
+        private Session(Connection connection, long id) {
+            this.connection = connection;
+            this.id = id;
+            this.player = manager.createPlayer();
+            player.addListener(this);
+        }
+
+        private void play(int epoch, byte[] encoded, long position, int volume, String filters, int credits) {
+            this.epoch = epoch;
+            this.credits.set(credits);
+            AudioTrack track;
+            try {
+                DecodedTrackHolder holder = manager.decodeTrack(new MessageInput(new ByteArrayInputStream(encoded)));
+                track = holder == null ? null : holder.decodedTrack;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not decode track of session {}: {}", id, e.getMessage());
+                track = null;
+            }
+            if (track == null) {
+                sendEvent(NodeProtocol.EVENT_EXCEPTION, 0, FriendlyException.Severity.SUSPICIOUS.name(),
+                        "The audio node could not decode this track");
+                sendEvent(NodeProtocol.EVENT_END, 0, "", "");
+                return;
+            }
+            player.setVolume(volume);
+            applyFilters(filters);
+            if (position > 0) {
+                track.setPosition(position);
+            }
+            player.playTrack(track);
+        }
+
+        private void seek(int epoch, long position, int credits) {
+            this.epoch = epoch;
+            this.credits.set(credits);
+            AudioTrack track = player.getPlayingTrack();
+            if (track != null) {
+                track.setPosition(position);
+            }
+        }
+
+        private void applyFilters(String filters) {
+            if (filters.isEmpty()) {
+                player.setFilterFactory(null);
+                return;
+            }
+            try {
+                FilterChainConfig config = new FilterChainConfig();
+                config.fromMap(MAPPER.readValue(filters, new TypeReference<Map<String, Object>>() {
+                }));
+                player.setFilterFactory(config.isAnyEnabled() ? new FilterChainConfig.Factory(config) : null);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring bad filters for session {}: {}", id, e.getMessage());
+            }
+        }
+
+        /**
+         * Sends the frames ready on the player, as many as the bot has credit for. The
+         * player ends the track from here when it reaches the end, so the end event always
+         * follows the last frame.
+         */
+        private void pump() {
+            while (credits.get() > 0) {
+                AudioFrame frame = player.provide();
+                if (frame == null) {
+                    if (player.getPlayingTrack() != null && !player.isPaused()) {
+                        framesMissed.increment();
+                    }
+                    return;
+                }
+                int frameEpoch = epoch;
+                byte[] data = frame.getData();
+                long timecode = frame.getTimecode();
+                connection.send(NodeProtocol.FRAME, out -> {
+                    out.writeLong(id);
+                    out.writeInt(frameEpoch);
+                    out.writeLong(timecode);
+                    NodeProtocol.writeBytes(out, data);
+                });
+                credits.decrementAndGet();
+                framesSent.increment();
+            }
+        }
+
+        private void destroy() {
+            player.destroy();
+        }
+
+        @Override
+        public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) {
+            // Stops and replacements come from the bot, which knows about them already
+            if (endReason == AudioTrackEndReason.STOPPED || endReason == AudioTrackEndReason.REPLACED) {
+                return;
+            }
+            connection.sessions.remove(id);
+            sendEvent(NodeProtocol.EVENT_END, 0, "", "");
+        }
+
+        @Override
+        public void onTrackException(AudioPlayer player, AudioTrack track, FriendlyException exception) {
+            String message = exception.getMessage() == null ? "Playback failed on the audio node" : exception.getMessage();
+            sendEvent(NodeProtocol.EVENT_EXCEPTION, 0, exception.severity.name(), message);
+        }
+
+        @Override
+        public void onTrackStuck(AudioPlayer player, AudioTrack track, long thresholdMs) {
+            sendEvent(NodeProtocol.EVENT_STUCK, thresholdMs, "", "");
+        }
+
+        private void sendEvent(byte type, long thresholdMs, String severity, String message) {
+            int eventEpoch = epoch;
+            connection.send(NodeProtocol.TRACK_EVENT, out -> {
+                out.writeLong(id);
+                out.writeInt(eventEpoch);
+                out.writeByte(type);
+                out.writeLong(thresholdMs);
+                out.writeUTF(severity);
+                out.writeUTF(message);
+            });
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+
+/**
+ * One end of a connection between the bot and an audio node, over TCP or a Unix domain
+ * socket. A message is its length, an opcode from {@link NodeProtocol} and a payload.
+ * <p>
+ * One thread reads; any thread may send, messages are written whole and never interleave.
+ */
+public class NodeConnection implements Closeable {
+    static final int MAX_MESSAGE_SIZE = 1 << 20;
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public record Message(byte op, DataInputStream body) {
+    }
+
+    @FunctionalInterface
+    public interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    NodeConnection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.getRemoteAddress() instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        this.in = new DataInputStream(new BufferedInputStream(new ChannelInput(channel), 64 * 1024));
+        this.out = new DataOutputStream(new BufferedOutputStream(new ChannelOutput(channel), 64 * 1024));
+    }
+
+    /**
+     * @param address {@code host:port}, or {@code unix:} followed by the path of a socket file
+     */
+    public static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring("unix:".length()));
+        }
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Audio node address must be host:port or unix:/path, not " + address);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    public static NodeConnection connect(String address) throws IOException {
+        SocketChannel channel = SocketChannel.open(parseAddress(address));
+        try {
+            return new NodeConnection(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static ServerSocketChannel listen(String address) throws IOException {
+        SocketAddress local = parseAddress(address);
+        ServerSocketChannel server;
+        if (local instanceof UnixDomainSocketAddress unix) {
+            // A socket file left over by a node that did not shut down cleanly
+            Files.deleteIfExists(unix.getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+            server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        }
+        server.bind(local);
+        return server;
+    }
+
+    public static NodeConnection accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel = server.accept();
+        try {
+            return new NodeConnection(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void send(byte op, Body body) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        body.write(new DataOutputStream(payload));
+        synchronized (out) {
+            out.writeInt(payload.size() + 1);
+            out.writeByte(op);
+            payload.writeTo(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Blocks until the next message.
+     *
+     * @throws EOFException when the other end closed the connection
+     */
+    public Message read() throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length > MAX_MESSAGE_SIZE) {
+            throw new IOException("Bad message length " + length);
+        }
+        byte op = in.readByte();
+        byte[] payload = new byte[length - 1];
+        in.readFully(payload);
+        return new Message(op, new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+     * Streams over the channel itself rather than Channels.newInputStream/newOutputStream,
+     * so that a read blocked waiting for the next message does not hold up sends.
+     */
+    private static final class ChannelInput extends InputStream {
+        private final SocketChannel channel;
+
+        private ChannelInput(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            return channel.read(ByteBuffer.wrap(b, off, len));
+        }
+    }
+
+    private static final class ChannelOutput extends OutputStream {
+        private final SocketChannel channel;
+
+        private ChannelOutput(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
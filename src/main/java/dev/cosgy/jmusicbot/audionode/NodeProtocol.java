@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Messages exchanged between the bot and an audio node.
+ * <p>
+ * The bot opens a session per track it plays on a node and identifies it by a session
+ * ID. Every {@link #PLAY} and {@link #SEEK} starts a new epoch; frames and events carry
+ * the epoch they belong to, so the bot drops what was still in flight from before a
+ * seek. Frames flow on credit: the node sends at most as many frames as the bot granted,
+ * which bounds the audio buffered on the bot to what it asked for.
+ * <p>
+ * A node with a secret answers {@link #HELLO} only when the bot sent the same secret,
+ * and closes the connection otherwise. The secret is sent as is, it keeps other hosts
+ * from using the node but does not encrypt anything.
+ */
+public final class NodeProtocol {
+    public static final int VERSION = 2;
+
+    // Bot -> node
+    /** {@code int version, String secret}, the secret is empty when the node has none */
+    public static final byte HELLO = 1;
+    /** {@code long session, int epoch, byte[] track, long position, int volume, String filters, int credits} */
+    public static final byte PLAY = 2;
+    /** {@code long session} */
+    public static final byte STOP = 3;
+    /** {@code long session, int epoch, long position, int credits} */
+    public static final byte SEEK = 4;
+    /** {@code long session, int volume} */
+    public static final byte VOLUME = 5;
+    /** {@code long session, String filters}, the JSON of a filter chain or empty for none */
+    public static final byte FILTERS = 6;
+    /** {@code long session, int epoch, int frames} */
+    public static final byte CREDIT = 7;
+    /** {@code long nanos} */
+    public static final byte PING = 8;
+
+    // Node -> bot
+    /** {@code int version, int count, String... sources}, the names of the node's source managers */
+    public static final byte READY = 20;
+    /** {@code long session, int epoch, long timecode, byte[] opus} */
+    public static final byte FRAME = 21;
+    /** {@code long session, int epoch, byte type, long thresholdMs, String severity, String message} */
+    public static final byte TRACK_EVENT = 22;
+    /** {@link NodeStats} */
+    public static final byte STATS = 23;
+    /** {@code long nanos}, echoed from the ping */
+    public static final byte PONG = 24;
+
+    // Track event types
+    public static final byte EVENT_END = 0;
+    public static final byte EVENT_EXCEPTION = 1;
+    public static final byte EVENT_STUCK = 2;
+
+    private NodeProtocol() {
+    }
+
+    public static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > NodeConnection.MAX_MESSAGE_SIZE) {
+            throw new IOException("Bad field length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    public static void writeStats(DataOutputStream out, NodeStats stats) throws IOException {
+        out.writeInt(stats.players());
+        out.writeInt(stats.playingPlayers());
+        out.writeDouble(stats.cpuLoad());
+        out.writeDouble(stats.frameDeficit());
+    }
+
+    public static NodeStats readStats(DataInputStream in) throws IOException {
+        return new NodeStats(in.readInt(), in.readInt(), in.readDouble(), in.readDouble());
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+/**
+ * Load reported by an audio node.
+ *
+ * @param players        sessions open on the node, from every bot connected to it
+ * @param playingPlayers sessions with a track playing
+ * @param cpuLoad        system CPU load between 0 and 1
+ * @param frameDeficit   share of the frames due during the last report interval that were
+ *                       not ready in time, between 0 and 1
+ */
+public record NodeStats(int players, int playingPlayers, double cpuLoad, double frameDeficit) {
+    public static final NodeStats EMPTY = new NodeStats(0, 0, 0, 0);
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagrosh.jmusicbot.audio.FilterChainConfig;
+import com.sedmelluq.discord.lavaplayer.filter.PcmFilterFactory;
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerOptions;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackState;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarker;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarkerHandler.MarkerState;
+import com.sedmelluq.discord.lavaplayer.track.TrackStateListener;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioTrackExecutor;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.TerminatorAudioFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Plays a track on an audio node instead of decoding it in this process.
+ * <p>
+ * The player sees an ordinary track: it pulls Opus frames from this executor, which
+ * receives them from the node, and it gets the node's track exceptions, stuck events
+ * and the end of the track as if the track ran locally. Seeks, volume and filter changes
+ * are forwarded to the node. When the node goes away the track resumes on another node
+ * from the last frame played; when none is left it ends with an exception, and the next
+ * track plays locally.
+ */
+public class RemoteTrackExecutor implements AudioTrackExecutor, AudioNodeClient.Session {
+    private static final Logger log = LoggerFactory.getLogger(RemoteTrackExecutor.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Three seconds of 20 ms frames, about what lavaplayer buffers for a local track
+    private static final int BUFFER_FRAMES = 150;
+    private static final int CREDIT_BATCH = 25;
+
+    private final InternalAudioTrack track;
+    private final byte[] encodedTrack;
+    private final String sourceName;
+    private final long guildId;
+    private final AudioNodePool pool;
+    private final AudioDataFormat format;
+    private final AudioPlayerOptions options;
+    private final BlockingQueue<AudioFrame> frames = new LinkedBlockingQueue<>();
+    private final AtomicReference<TrackMarker> marker = new AtomicReference<>();
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private AudioNodeClient node;
+    private long session = -1;
+    private int epoch;
+    private int consumed;
+    private int sentVolume;
+    private PcmFilterFactory sentFilters;
+
+    private volatile TrackStateListener listener;
+    private volatile AudioTrackState state = AudioTrackState.INACTIVE;
+    private volatile long position;
+    private volatile boolean receivedFrame;
+    private volatile boolean failedBeforeLoad;
+
+    public RemoteTrackExecutor(InternalAudioTrack track, byte[] encodedTrack, String sourceName, long guildId,
+                               AudioNodePool pool, AudioDataFormat format, AudioPlayerOptions options) {
+        this.track = track;
+        this.encodedTrack = encodedTrack;
+        this.sourceName = sourceName;
+        this.guildId = guildId;
+        this.pool = pool;
+        this.format = format;
+        this.options = options;
+    }
+
+    /**
+     * Starts the track on a node. Unlike a local executor this returns at once; the
+     * frames come in on the node connection's reader thread.
+     */
+    @Override
+    public void execute(TrackStateListener listener) {
+        this.listener = listener;
+        state = AudioTrackState.LOADING;
+        if (!startOnNode()) {
+            fail("No audio node is available to play this track");
+        }
+    }
+
+    @Override
+    public AudioFrameBuffer getAudioBuffer() {
+        // Frames are buffered in the queue of this executor, not in a lavaplayer frame buffer
+        return null;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            if (state == AudioTrackState.FINISHED) {
+                return;
+            }
+            state = AudioTrackState.FINISHED;
+            if (node != null) {
+                node.stop(session);
+                node = null;
+            }
+        }
+        frames.clear();
+        TrackMarker current = marker.getAndSet(null);
+        if (current != null) {
+            current.handler.handle(MarkerState.STOPPED);
+        }
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void setPosition(long timecode) {
+        synchronized (lock) {
+            position = timecode;
+            if (node == null) {
+                // Not started yet, or between nodes: the position is where it starts
+                return;
+            }
+            epoch++;
+            consumed = 0;
+            frames.clear();
+            node.seek(session, epoch, timecode, BUFFER_FRAMES);
+        }
+        TrackMarker current = marker.get();
+        if (current != null && current.timecode <= timecode && marker.compareAndSet(current, null)) {
+            current.handler.handle(MarkerState.BYPASSED);
+        }
+    }
+
+    @Override
+    public AudioTrackState getState() {
+        return state;
+    }
+
+    @Override
+    public void setMarker(TrackMarker marker) {
+        TrackMarker previous = this.marker.getAndSet(marker);
+        if (previous != null) {
+            previous.handler.handle(marker != null ? MarkerState.OVERWRITTEN : MarkerState.REMOVED);
+        }
+    }
+
+    @Override
+    public boolean failedBeforeLoad() {
+        return failedBeforeLoad;
+    }
+
+    @Override
+    public AudioFrame provide() {
+        return consume(frames.poll());
+    }
+
+    @Override
+    public AudioFrame provide(long timeout, TimeUnit unit) throws InterruptedException {
+        return consume(frames.poll(timeout, unit));
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame) {
+        return copy(provide(), targetFrame);
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame, long timeout, TimeUnit unit) throws InterruptedException {
+        return copy(provide(timeout, unit), targetFrame);
+    }
+
+    @Override
+    public void onFrame(int frameEpoch, long timecode, byte[] data) {
+        synchronized (lock) {
+            if (frameEpoch != epoch || node == null) {
+                return;
+            }
+            // Added under the lock, a seek in between would keep this frame of the old epoch
+            receivedFrame = true;
+            frames.add(new ImmutableAudioFrame(timecode, data, options.volumeLevel.get(), format));
+        }
+    }
+
+    @Override
+    public void onTrackEvent(int eventEpoch, byte type, long thresholdMs, String severity, String message) {
+        synchronized (lock) {
+            if (eventEpoch != epoch) {
+                return;
+            }
+            if (type == NodeProtocol.EVENT_END) {
+                node = null;
+            }
+        }
+        TrackStateListener current = listener;
+        switch (type) {
+            case NodeProtocol.EVENT_END -> frames.add(TerminatorAudioFrame.INSTANCE);
+            case NodeProtocol.EVENT_EXCEPTION -> {
+                if (!receivedFrame) {
+                    failedBeforeLoad = true;
+                }
+                if (current != null) {
+                    current.onTrackException(track, new FriendlyException(message, severity(severity), null));
+                }
+            }
+            case NodeProtocol.EVENT_STUCK -> {
+                if (current != null) {
+                    current.onTrackStuck(track, thresholdMs);
+                }
+            }
+            default -> log.debug("Ignoring track event {} from audio node", type);
+        }
+    }
+
+    @Override
+    public void onNodeLost(AudioNodeClient lost) {
+        synchronized (lock) {
+            // Also reported for a node whose play failed, which startOnNode already left
+            if (node != lost || state == AudioTrackState.FINISHED) {
+                return;
+            }
+            log.info("Audio node {} went away, moving guild {} to another node at {}ms",
+                    node.getAddress(), guildId, position);
+            node = null;
+        }
+        if (!startOnNode()) {
+            fail("The audio node playing this track went away and no other node is available");
+        }
+    }
+
+    private boolean startOnNode() {
+        for (int attempt = 0; attempt < pool.getNodes().size(); attempt++) {
+            synchronized (lock) {
+                if (state == AudioTrackState.FINISHED) {
+                    return true;
+                }
+                AudioNodeClient next = pool.select(guildId, sourceName);
+                if (next == null) {
+                    return false;
+                }
+                epoch++;
+                consumed = 0;
+                frames.clear();
+                sentVolume = options.volumeLevel.get();
+                sentFilters = options.filterFactory.get();
+                // Set before sending, the first frames may arrive before play returns
+                node = next;
+                session = next.play(this, epoch, encodedTrack, position, sentVolume, filters(sentFilters), BUFFER_FRAMES);
+                if (session >= 0) {
+                    return true;
+                }
+                node = null;
+            }
+        }
+        return false;
+    }
+
+    private AudioFrame consume(AudioFrame frame) {
+        if (frame == null) {
+            return null;
+        }
+        if (frame.isTerminator()) {
+            state = AudioTrackState.FINISHED;
+            return frame;
+        }
+        state = AudioTrackState.PLAYING;
+        position = frame.getTimecode();
+        synchronized (lock) {
+            if (node != null) {
+                if (++consumed >= CREDIT_BATCH) {
+                    node.credit(session, epoch, consumed);
+                    consumed = 0;
+                }
+                int volume = options.volumeLevel.get();
+                if (volume != sentVolume) {
+                    sentVolume = volume;
+                    node.setVolume(session, volume);
+                }
+                PcmFilterFactory filters = options.filterFactory.get();
+                if (filters != sentFilters) {
+                    sentFilters = filters;
+                    node.setFilters(session, filters(filters));
+                }
+            }
+        }
+        TrackMarker current = marker.get();
+        if (current != null && position >= current.timecode && marker.compareAndSet(current, null)) {
+            current.handler.handle(MarkerState.REACHED);
+        }
+        return frame;
+    }
+
+    private void fail(String message) {
+        if (!receivedFrame) {
+            failedBeforeLoad = true;
+        }
+        TrackStateListener current = listener;
+        if (current != null) {
+            current.onTrackException(track, new FriendlyException(message, FriendlyException.Severity.SUSPICIOUS, null));
+        }
+        frames.add(TerminatorAudioFrame.INSTANCE);
+    }
+
+    private static boolean copy(AudioFrame frame, MutableAudioFrame target) {
+        if (frame == null) {
+            return false;
+        }
+        target.setTimecode(frame.getTimecode());
+        target.setVolume(frame.getVolume());
+        target.setFormat(frame.getFormat());
+        target.setTerminator(frame.isTerminator());
+        if (!frame.isTerminator()) {
+            byte[] data = frame.getData();
+            target.store(data, 0, data.length);
+        }
+        return true;
+    }
+
+    private static String filters(PcmFilterFactory factory) {
+        if (!(factory instanceof FilterChainConfig.Factory chain)) {
+            return "";
+        }
+        try {
+            return MAPPER.writeValueAsString(chain.config().toMap());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize filters for the audio node", e);
+            return "";
+        }
+    }
+
+    private static FriendlyException.Severity severity(String name) {
+        try {
+            return FriendlyException.Severity.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return FriendlyException.Severity.SUSPICIOUS;
+        }
+    }
+}
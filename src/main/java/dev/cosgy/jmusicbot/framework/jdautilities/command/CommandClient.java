@@ -1,5 +1,7 @@
 package dev.cosgy.jmusicbot.framework.jdautilities.command;
 
+import dev.cosgy.jmusicbot.util.LatencyHistogram;
+import dev.cosgy.jmusicbot.util.scheduler.OrderedExecutor;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
@@ -9,16 +11,33 @@ import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEve
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.Executors;
+
+/**
+ * Routes text and slash commands to their {@link Command}.
+ * <p>
+ * Names, aliases and slash subcommands are looked up in maps built once from the
+ * registered commands. Commands run on virtual threads rather than the JDA event thread,
+ * so a slow command does not hold up the events of the whole shard; the commands of one
+ * guild still run one at a time, in the order they were received.
+ */
 public class CommandClient extends ListenerAdapter {
+    private static final Logger log = LoggerFactory.getLogger(CommandClient.class);
+    private static final long COOLDOWN_SWEEP_INTERVAL_MILLIS = 60_000;
+
     private final String prefix;
     private final String altPrefix;
     private final String ownerId;
@@ -33,7 +52,12 @@ public class CommandClient extends ListenerAdapter {
     private final Activity activity;
     private final List<Command> commands;
     private final List<SlashCommand> slashCommands;
-    private final Map<String, Long> cooldowns = new ConcurrentHashMap<>();
+    private final Map<String, Command> commandIndex;
+    private final Map<String, SlashCommand> slashCommandIndex;
+    private final OrderedExecutor executor = new OrderedExecutor(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("command-", 0).factory()));
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final CooldownStore cooldowns = new CooldownStore(COOLDOWN_SWEEP_INTERVAL_MILLIS);
     private final List<String> coOwnerIds = new ArrayList<>();
     private final OffsetDateTime startTime = OffsetDateTime.now();
     private JDA jda;
@@ -53,6 +77,81 @@ public class CommandClient extends ListenerAdapter {
         this.activity = builder.activity;
         this.commands = List.copyOf(builder.commands);
         this.slashCommands = List.copyOf(builder.slashCommands);
+        this.commandIndex = indexCommands(commands);
+        this.slashCommandIndex = indexSlashCommands(slashCommands);
+    }
+
+    /**
+     * Maps every lowercase name and alias to its command. The first command registered
+     * for a name keeps it, as the linear search used to.
+     */
+    private static Map<String, Command> indexCommands(List<Command> commands) {
+        Map<String, Command> index = new HashMap<>();
+        for (Command command : commands) {
+            index.putIfAbsent(command.getName().toLowerCase(Locale.ROOT), command);
+            for (String alias : command.getAliases()) {
+                index.putIfAbsent(alias.toLowerCase(Locale.ROOT), command);
+            }
+        }
+        return Map.copyOf(index);
+    }
+
+    /**
+     * Maps {@code root}, {@code root sub} and {@code root group sub} to their command.
+     * {@code root  sub}, with an empty group, only holds children outside any group.
+     */
+    private static Map<String, SlashCommand> indexSlashCommands(List<SlashCommand> slashCommands) {
+        Map<String, SlashCommand> index = new HashMap<>();
+        for (SlashCommand root : slashCommands) {
+            String rootName = root.getName().toLowerCase(Locale.ROOT);
+            index.putIfAbsent(rootName, root);
+            for (SlashCommand child : root.getChildren()) {
+                String childName = child.getName().toLowerCase(Locale.ROOT);
+                index.putIfAbsent(rootName + " " + childName, child);
+                String group = child.getSubcommandGroup() == null
+                        ? "" : child.getSubcommandGroup().getName().toLowerCase(Locale.ROOT);
+                index.putIfAbsent(rootName + " " + group + " " + childName, child);
+            }
+        }
+        return Map.copyOf(index);
+    }
+
+    private SlashCommand findSlashCommand(String root, String group, String sub) {
+        root = root.toLowerCase(Locale.ROOT);
+        if (sub == null) {
+            return slashCommandIndex.get(root);
+        }
+        sub = sub.toLowerCase(Locale.ROOT);
+        SlashCommand target = group == null
+                ? slashCommandIndex.get(root + " " + sub)
+                : slashCommandIndex.getOrDefault(root + " " + group.toLowerCase(Locale.ROOT) + " " + sub,
+                        slashCommandIndex.get(root + "  " + sub));
+        return target != null ? target : slashCommandIndex.get(root);
+    }
+
+    /**
+     * Runs a command after the earlier commands of the same guild, or of the same
+     * channel outside guilds, and records how long it took.
+     */
+    private void dispatch(Guild guild, long channelId, String path, Runnable run) {
+        Object key = guild != null ? guild.getIdLong() : "channel:" + channelId;
+        executor.execute(key, () -> {
+            long start = System.nanoTime();
+            try {
+                run.run();
+            } catch (Throwable t) {
+                log.error("Command {} failed", path, t);
+            } finally {
+                latencies.computeIfAbsent(path, k -> new LatencyHistogram()).record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * @return run time histograms by command, subcommands as {@code "root sub"}
+     */
+    public Map<String, LatencyHistogram> getCommandLatencies() {
+        return new TreeMap<>(latencies);
     }
 
     @Override
@@ -66,8 +165,9 @@ public class CommandClient extends ListenerAdapter {
         }
         event.getJDA().getPresence().setPresence(targetStatus, activity, false);
 
-        // Register slash commands through the internal implementation.
-        if (!slashCommands.isEmpty()) {
+        // Register slash commands through the internal implementation. Global commands
+        // belong to the application, not to a shard, so only shard 0 sends them.
+        if (!slashCommands.isEmpty() && event.getJDA().getShardInfo().getShardId() == 0) {
             var update = event.getJDA().updateCommands();
             for (SlashCommand command : slashCommands) {
                 update = update.addCommands(command.buildCommandData());
@@ -80,69 +180,64 @@ public class CommandClient extends ListenerAdapter {
     public void onMessageReceived(MessageReceivedEvent event) {
         if (event.getAuthor().isBot()) return;
 
-        String raw = event.getMessage().getContentRaw();
+        Invocation invocation = parse(event.getMessage().getContentRaw());
+        if (invocation == null) return;
+        Command command = invocation.command();
+        CommandEvent commandEvent = new CommandEvent(this, event.getMessage(), invocation.args());
+        dispatch(event.isFromGuild() ? event.getGuild() : null, event.getChannel().getIdLong(), command.getName(), () -> {
+            if (listener != null) listener.onCommand(commandEvent, command);
+            command.run(commandEvent);
+        });
+    }
+
+    /**
+     * A prefixed message resolved to its command.
+     */
+    public record Invocation(Command command, String args) {
+    }
+
+    /**
+     * Finds the command a message invokes.
+     *
+     * @return the command and its arguments, or {@code null} when the message is not a command
+     */
+    public Invocation parse(String raw) {
         String matchedPrefix = null;
         if (raw.startsWith(prefix)) {
             matchedPrefix = prefix;
         } else if (altPrefix != null && !altPrefix.isEmpty() && raw.startsWith(altPrefix)) {
             matchedPrefix = altPrefix;
         }
-        if (matchedPrefix == null) return;
+        if (matchedPrefix == null) return null;
 
         String commandLine = raw.substring(matchedPrefix.length()).trim();
-        if (commandLine.isEmpty()) return;
+        if (commandLine.isEmpty()) return null;
 
         String[] parts = commandLine.split("\\s+", 2);
-        String invoke = parts[0].toLowerCase(Locale.ROOT);
-        String args = parts.length > 1 ? parts[1] : "";
-
-        for (Command command : commands) {
-            if (command.isCommandFor(invoke)) {
-                CommandEvent commandEvent = new CommandEvent(this, event.getMessage(), args);
-                if (listener != null) listener.onCommand(commandEvent, command);
-                command.run(commandEvent);
-                return;
-            }
-        }
+        Command command = commandIndex.get(parts[0].toLowerCase(Locale.ROOT));
+        return command == null ? null : new Invocation(command, parts.length > 1 ? parts[1] : "");
     }
 
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
-        String rootName = event.getName();
-        SlashCommand root = null;
-        for (SlashCommand command : slashCommands) {
-            if (command.getName().equalsIgnoreCase(rootName)) {
-                root = command;
-                break;
-            }
-        }
-        if (root == null) return;
-
-        SlashCommand target = root;
-        if (event.getSubcommandName() != null) {
-            for (SlashCommand child : root.getChildren()) {
-                if (!child.getName().equalsIgnoreCase(event.getSubcommandName())) continue;
-                if (event.getSubcommandGroup() != null && child.getSubcommandGroup() != null
-                        && !event.getSubcommandGroup().equalsIgnoreCase(child.getSubcommandGroup().getName())) {
-                    continue;
-                }
-                target = child;
-                break;
-            }
-        }
+        SlashCommand target = findSlashCommand(event.getName(), event.getSubcommandGroup(), event.getSubcommandName());
+        if (target == null) return;
 
         SlashCommandEvent wrapped = new SlashCommandEvent(this, event);
-        if (listener != null) listener.onSlashCommand(wrapped, target);
-        target.run(wrapped);
+        String path = target == slashCommandIndex.get(event.getName().toLowerCase(Locale.ROOT))
+                ? target.getName() : event.getName() + " " + target.getName();
+        dispatch(event.getGuild(), event.getChannelIdLong(), path, () -> {
+            if (listener != null) listener.onSlashCommand(wrapped, target);
+            target.run(wrapped);
+        });
     }
 
     @Override
     public void onCommandAutoCompleteInteraction(CommandAutoCompleteInteractionEvent event) {
-        for (SlashCommand command : slashCommands) {
-            if (command.getName().equalsIgnoreCase(event.getName())) {
-                command.onAutoComplete(event);
-                return;
-            }
+        // Answered inline, autocomplete results are only useful within moments
+        SlashCommand command = slashCommandIndex.get(event.getName().toLowerCase(Locale.ROOT));
+        if (command != null) {
+            command.onAutoComplete(event);
         }
     }
 
@@ -183,18 +278,15 @@ public class CommandClient extends ListenerAdapter {
     }
 
     public int getRemainingCooldown(String key) {
-        Long expiresAt = cooldowns.get(key);
-        if (expiresAt == null) return 0;
-        long remaining = (expiresAt - System.currentTimeMillis()) / 1000L;
-        if (remaining <= 0) {
-            cooldowns.remove(key);
-            return 0;
-        }
-        return (int) remaining;
+        return cooldowns.getRemaining(key);
     }
 
     public void applyCooldown(String key, int seconds) {
-        cooldowns.put(key, System.currentTimeMillis() + (seconds * 1000L));
+        cooldowns.apply(key, seconds);
+    }
+
+    public CooldownStore getCooldowns() {
+        return cooldowns;
     }
 
     public CommandListener getListener() {
@@ -206,7 +298,9 @@ public class CommandClient extends ListenerAdapter {
     }
 
     public int getTotalGuilds() {
-        return jda == null ? 0 : jda.getGuilds().size();
+        if (jda == null) return 0;
+        ShardManager shardManager = jda.getShardManager();
+        return shardManager == null ? jda.getGuilds().size() : (int) shardManager.getGuildCache().size();
     }
 
     @SuppressWarnings("unchecked")
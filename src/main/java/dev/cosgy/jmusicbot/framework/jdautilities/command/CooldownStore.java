@@ -0,0 +1,88 @@
+package dev.cosgy.jmusicbot.framework.jdautilities.command;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cooldown expiry times by key, dropped once they passed.
+ * <p>
+ * An expired key is removed when it is read, and a sweep removes the keys that are never
+ * read again, such as those of a user who ran a command once. The sweep runs at most
+ * once per interval, on the thread that happens to touch the store when it is due, so
+ * the store needs no thread of its own and holds only the cooldowns still running plus
+ * those expired since the last sweep. Reads and writes go to a {@link ConcurrentHashMap}
+ * and only contend on the same key.
+ */
+public class CooldownStore {
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final long sweepIntervalMillis;
+    private final LongSupplier clock;
+    private final AtomicLong nextSweep;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder sweeps = new LongAdder();
+
+    public CooldownStore(long sweepIntervalMillis) {
+        this(sweepIntervalMillis, System::currentTimeMillis);
+    }
+
+    CooldownStore(long sweepIntervalMillis, LongSupplier clock) {
+        this.sweepIntervalMillis = sweepIntervalMillis;
+        this.clock = clock;
+        this.nextSweep = new AtomicLong(clock.getAsLong() + sweepIntervalMillis);
+    }
+
+    /**
+     * @return remaining seconds of the cooldown of {@code key}, 0 when there is none
+     */
+    public int getRemaining(String key) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        Long expiresAt = expiries.get(key);
+        if (expiresAt == null) return 0;
+        long remaining = (expiresAt - now) / 1000L;
+        if (remaining <= 0) {
+            if (expiries.remove(key, expiresAt)) {
+                evictions.increment();
+            }
+            return 0;
+        }
+        return (int) remaining;
+    }
+
+    public void apply(String key, int seconds) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        expiries.put(key, now + seconds * 1000L);
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size() + ", evictions=" + getEvictions() + ", sweeps=" + sweeps.sum();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + sweepIntervalMillis)) {
+            return;
+        }
+        sweeps.increment();
+        expiries.entrySet().removeIf(entry -> {
+            if (entry.getValue() - now >= 1000L) {
+                return false;
+            }
+            evictions.increment();
+            return true;
+        });
+    }
+}
@@ -1,69 +1,258 @@
 package dev.cosgy.jmusicbot.framework.jdautilities.commons.waiter;
 
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * Runs an action on the first event matching a condition, or a timeout action when none
+ * came in time.
+ * <p>
+ * Waiters are indexed by event class, and optionally by the ID of the message the event
+ * is about, so an event is only tested against the waiters that could match it: a
+ * typing or presence event does not touch the button waiters of every open menu, and a
+ * button click only those of its own message.
+ */
 public class EventWaiter extends ListenerAdapter {
-    private final List<WaitingEvent<?>> waitingEvents = new CopyOnWriteArrayList<>();
+    private static final long NO_MESSAGE = -1;
+
+    private final Map<Class<?>, Bucket> buckets = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
         Thread t = new Thread(r, "event-waiter");
         t.setDaemon(true);
         return t;
     });
 
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dispatchNanos = new LongAdder();
+    private final AtomicLong maxDispatchNanos = new AtomicLong();
+
+    // Event class -> itself and every superclass and interface, the keys it is looked up by
+    private static final ClassValue<List<Class<?>>> SUPERTYPES = new ClassValue<>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            collect(type, types);
+            return List.copyOf(types);
+        }
+
+        private void collect(Class<?> type, Set<Class<?>> types) {
+            if (type == null || !types.add(type)) return;
+            collect(type.getSuperclass(), types);
+            for (Class<?> iface : type.getInterfaces()) {
+                collect(iface, types);
+            }
+        }
+    };
+
+    public <T extends GenericEvent> void waitForEvent(Class<T> clazz,
+                                                      Predicate<T> condition,
+                                                      Consumer<T> action,
+                                                      long timeout,
+                                                      TimeUnit unit,
+                                                      Runnable timeoutAction) {
+        register(clazz, NO_MESSAGE, condition, action, timeout, unit, timeoutAction);
+    }
+
+    /**
+     * Like {@link #waitForEvent(Class, Predicate, Consumer, long, TimeUnit, Runnable)}, but
+     * only for events about the message {@code messageId}: component interactions on it
+     * and message events such as reactions. Other events are never tested against the
+     * condition.
+     */
     public <T extends GenericEvent> void waitForEvent(Class<T> clazz,
+                                                      long messageId,
                                                       Predicate<T> condition,
                                                       Consumer<T> action,
                                                       long timeout,
                                                       TimeUnit unit,
                                                       Runnable timeoutAction) {
-        WaitingEvent<T> waiting = new WaitingEvent<>(clazz, condition, action);
-        waitingEvents.add(waiting);
-        scheduler.schedule(() -> {
-            if (waitingEvents.remove(waiting) && timeoutAction != null) {
-                timeoutAction.run();
+        register(clazz, messageId, condition, action, timeout, unit, timeoutAction);
+    }
+
+    private <T extends GenericEvent> void register(Class<T> clazz, long messageId, Predicate<T> condition,
+                                                   Consumer<T> action, long timeout, TimeUnit unit,
+                                                   Runnable timeoutAction) {
+        WaitingEvent<T> waiting = new WaitingEvent<>(clazz, messageId, condition, action);
+        buckets.computeIfAbsent(clazz, c -> new Bucket()).add(waiting);
+        active.incrementAndGet();
+        ScheduledFuture<?> future = scheduler.schedule(() -> {
+            if (finish(waiting)) {
+                timedOut.increment();
+                if (timeoutAction != null) {
+                    timeoutAction.run();
+                }
             }
         }, timeout, unit);
+        waiting.timeout = future;
+        // Matched before the timeout was even stored
+        if (waiting.done.get()) {
+            future.cancel(false);
+        }
     }
 
     @Override
     public void onGenericEvent(GenericEvent event) {
-        Iterator<WaitingEvent<?>> iterator = waitingEvents.iterator();
-        while (iterator.hasNext()) {
-            WaitingEvent<?> waiting = iterator.next();
-            if (waiting.tryAccept(event)) {
-                waitingEvents.remove(waiting);
+        long start = System.nanoTime();
+        long messageId = messageId(event);
+        List<WaitingEvent<?>> accepted = null;
+        for (Class<?> type : SUPERTYPES.get(event.getClass())) {
+            Bucket bucket = buckets.get(type);
+            if (bucket == null) continue;
+            accepted = collect(bucket.any, event, accepted);
+            if (messageId != NO_MESSAGE) {
+                accepted = collect(bucket.byMessage.get(messageId), event, accepted);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        dispatched.increment();
+        dispatchNanos.add(elapsed);
+        maxDispatchNanos.accumulateAndGet(elapsed, Math::max);
+
+        if (accepted != null) {
+            for (WaitingEvent<?> waiting : accepted) {
+                waiting.accept(event);
+            }
+        }
+    }
+
+    /**
+     * @return number of waiters that neither matched nor timed out yet
+     */
+    public int getActiveWaiters() {
+        return active.get();
+    }
+
+    @Override
+    public String toString() {
+        long count = dispatched.sum();
+        return "active=" + active.get()
+                + ", events=" + count
+                + ", matched=" + matched.sum()
+                + ", timedOut=" + timedOut.sum()
+                + ", avgDispatch=" + (count == 0 ? 0 : dispatchNanos.sum() / count / 1000) + "us"
+                + ", maxDispatch=" + maxDispatchNanos.get() / 1000 + "us";
+    }
+
+    /**
+     * Claims the waiters of {@code waiters} matching {@code event}. A waiter is claimed
+     * once, so it runs either its action or its timeout action, and only once, even when
+     * two threads dispatch matching events at the same time.
+     */
+    private List<WaitingEvent<?>> collect(Set<WaitingEvent<?>> waiters, GenericEvent event,
+                                          List<WaitingEvent<?>> accepted) {
+        if (waiters == null) return accepted;
+        for (WaitingEvent<?> waiting : waiters) {
+            if (waiting.test(event) && finish(waiting)) {
+                ScheduledFuture<?> timeout = waiting.timeout;
+                if (timeout != null) timeout.cancel(false);
+                matched.increment();
+                if (accepted == null) accepted = new ArrayList<>(1);
+                accepted.add(waiting);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * @return whether this call removed the waiter, i.e. it is the caller's to run
+     */
+    private boolean finish(WaitingEvent<?> waiting) {
+        if (!waiting.done.compareAndSet(false, true)) return false;
+        Bucket bucket = buckets.get(waiting.type);
+        if (bucket != null) {
+            bucket.remove(waiting);
+        }
+        active.decrementAndGet();
+        return true;
+    }
+
+    private static long messageId(GenericEvent event) {
+        if (event instanceof GenericComponentInteractionCreateEvent interaction) {
+            return interaction.getMessageIdLong();
+        }
+        if (event instanceof GenericMessageEvent message) {
+            return message.getMessageIdLong();
+        }
+        return NO_MESSAGE;
+    }
+
+    /**
+     * Waiters of one event class. Message sets are dropped once empty, so the map only
+     * holds messages with a live waiter.
+     */
+    private static final class Bucket {
+        private final Set<WaitingEvent<?>> any = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Set<WaitingEvent<?>>> byMessage = new ConcurrentHashMap<>();
+
+        private void add(WaitingEvent<?> waiting) {
+            if (waiting.messageId == NO_MESSAGE) {
+                any.add(waiting);
+                return;
             }
+            byMessage.compute(waiting.messageId, (id, set) -> {
+                if (set == null) set = ConcurrentHashMap.newKeySet();
+                set.add(waiting);
+                return set;
+            });
+        }
+
+        private void remove(WaitingEvent<?> waiting) {
+            if (waiting.messageId == NO_MESSAGE) {
+                any.remove(waiting);
+                return;
+            }
+            byMessage.computeIfPresent(waiting.messageId, (id, set) -> {
+                set.remove(waiting);
+                return set.isEmpty() ? null : set;
+            });
         }
     }
 
     private static final class WaitingEvent<T extends GenericEvent> {
         private final Class<T> type;
+        private final long messageId;
         private final Predicate<T> condition;
         private final Consumer<T> action;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeout;
 
-        private WaitingEvent(Class<T> type, Predicate<T> condition, Consumer<T> action) {
+        private WaitingEvent(Class<T> type, long messageId, Predicate<T> condition, Consumer<T> action) {
             this.type = type;
+            this.messageId = messageId;
             this.condition = condition;
             this.action = action;
         }
 
         @SuppressWarnings("unchecked")
-        private boolean tryAccept(GenericEvent event) {
-            if (!type.isInstance(event)) return false;
-            T casted = (T) event;
-            if (condition != null && !condition.test(casted)) return false;
-            action.accept(casted);
-            return true;
+        private boolean test(GenericEvent event) {
+            return condition == null || condition.test((T) event);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void accept(GenericEvent event) {
+            action.accept((T) event);
         }
     }
 }
@@ -72,6 +72,7 @@ public class ButtonMenu {
             AtomicBoolean finished = new AtomicBoolean(false);
             waiter.waitForEvent(
                     ButtonInteractionEvent.class,
+                    updatedMessage.getIdLong(),
                     e -> e.getMessageIdLong() == updatedMessage.getIdLong()
                             && e.getUser() != null
                             && !e.getUser().isBot()
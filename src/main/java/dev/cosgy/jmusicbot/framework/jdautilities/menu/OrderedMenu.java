@@ -61,6 +61,7 @@ public class OrderedMenu {
             if (waiter == null) return;
             waiter.waitForEvent(
                     ButtonInteractionEvent.class,
+                    prompt.getIdLong(),
                     ev -> ev.getMessageIdLong() == prompt.getIdLong()
                             && ev.getComponentId().startsWith(baseId)
                             && (userIds.isEmpty() || userIds.contains(ev.getUser().getId())),
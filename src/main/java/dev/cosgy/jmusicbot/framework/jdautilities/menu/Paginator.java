@@ -81,6 +81,7 @@ public class Paginator {
     private void waitForNavigationEvent(Message message, String baseId, AtomicInteger current, int totalPages) {
         waiter.waitForEvent(
                 ButtonInteractionEvent.class,
+                message.getIdLong(),
                 ev -> ev.getMessageIdLong() == message.getIdLong()
                         && ev.getComponentId().startsWith(baseId)
                         && (userIds.isEmpty() || userIds.contains(ev.getUser().getId())),
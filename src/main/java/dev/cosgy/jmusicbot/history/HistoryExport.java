@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Writes play records to a stream one at a time, so an export of the whole history
+ * needs no more memory than a single record.
+ * <p>
+ * NDJSON lines use the same fields as {@code music_history.json}; CSV has one fixed
+ * column per common field and the source types joined with {@code ;}.
+ */
+public class HistoryExport implements Closeable {
+    private static final String[] CSV_COLUMNS = {"playedAt", "title", "artist", "duration", "url",
+            "requesterId", "requesterName", "guildId", "guildName", "sources"};
+
+    private final Format format;
+    private final Writer writer;
+    private final ObjectMapper mapper;
+    private long written;
+
+    public enum Format {
+        NDJSON("ndjson", "application/x-ndjson"),
+        CSV("csv", "text/csv");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        /**
+         * @return the format, or null when {@code value} names none
+         */
+        public static Format fromString(String value) {
+            if (value == null || value.isEmpty()) {
+                return NDJSON;
+            }
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "ndjson":
+                case "jsonl":
+                case "json":
+                    return NDJSON;
+                case "csv":
+                    return CSV;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    public HistoryExport(OutputStream out, Format format) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // Closing the generator after each line must not close the stream
+        this.mapper = new ObjectMapper();
+        this.mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+        }
+    }
+
+    public void write(PlayRecord record) throws IOException {
+        if (format == Format.NDJSON) {
+            mapper.writeValue(writer, PlayRecordCodec.toNode(mapper, record));
+            writer.write('\n');
+        } else {
+            writeCsvRow(record);
+        }
+        written++;
+    }
+
+    /**
+     * @return number of records written
+     */
+    public long written() {
+        return written;
+    }
+
+    /**
+     * Flushes the buffered lines and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeCsvRow(PlayRecord record) throws IOException {
+        writer.write(Instant.ofEpochMilli(record.getPlayedAt()).toString());
+        writeCsvField(record.getTitle());
+        writeCsvField(record.getArtist());
+        writer.write(',');
+        writer.write(Long.toString(record.getDuration()));
+        writeCsvField(record.getUrl());
+        writeCsvField(record.getRequesterId());
+        writeCsvField(record.getRequesterName());
+        writeCsvField(record.getGuildId());
+        writeCsvField(record.getGuildName());
+        writeCsvField(String.join(";", HistoryIndex.sourceTypes(record)));
+        writer.write("\r\n");
+    }
+
+    /**
+     * Writes a separator and the value, quoted as RFC 4180 asks when it holds a comma,
+     * quote or line break.
+     */
+    private void writeCsvField(String value) throws IOException {
+        writer.write(',');
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
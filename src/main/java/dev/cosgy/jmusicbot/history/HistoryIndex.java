@@ -0,0 +1,575 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory play history with secondary indexes on guild, requester, source type
+ * and play time (hourly buckets).
+ * <p>
+ * A record's sequence number is its position in play order, so every posting list is
+ * sorted and a cursor is simply the sequence number of the last record returned.
+ * When old records are dropped with {@link #retain}, numbering continues from
+ * {@link #base()} so cursors stay valid. A
+ * query walks the smallest matching posting list from the newest end and checks the
+ * other filters on each record, so a page costs about the page size when one filter
+ * is selective, instead of a scan of the whole history. Text search goes through a
+ * {@link HistorySearchIndex} kept alongside.
+ */
+public class HistoryIndex {
+    private static final long BUCKET_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Oldest first; slots past the published size are only written under the write lock
+    private PlayRecord[] records = new PlayRecord[INITIAL_CAPACITY];
+    private int size;
+    // Sequence number of records[0]; postings hold positions relative to it
+    private volatile long base;
+    private volatile NewestFirstView view = new NewestFirstView(records, 0);
+
+    private final Map<String, Postings> byGuild = new HashMap<>();
+    private final Map<String, Postings> byRequester = new HashMap<>();
+    private final Map<String, Postings> bySource = new HashMap<>();
+    private final TreeMap<Long, Postings> byBucket = new TreeMap<>();
+    private final Map<String, Map<String, String>> requestersByGuild = new HashMap<>();
+    private final Map<String, String> requesters = new HashMap<>();
+    private final HistorySearchIndex searchIndex = new HistorySearchIndex(this::newestFirst);
+
+    /**
+     * Adds records in play order, oldest first.
+     */
+    public void addAll(List<PlayRecord> batch) {
+        lock.writeLock().lock();
+        try {
+            for (PlayRecord record : batch) {
+                addLocked(record);
+            }
+            view = new NewestFirstView(records, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the content with records loaded from storage, oldest first.
+     *
+     * @param firstSeq sequence number of the first record
+     */
+    public void load(long firstSeq, List<PlayRecord> batch) {
+        clear();
+        lock.writeLock().lock();
+        try {
+            base = firstSeq;
+            for (PlayRecord record : batch) {
+                addLocked(record);
+            }
+            view = new NewestFirstView(records, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(PlayRecord record) {
+        lock.writeLock().lock();
+        try {
+            addLocked(record);
+            // Publishing the new view makes the record visible to lock-free readers
+            view = new NewestFirstView(records, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        searchIndex.catchUp();
+    }
+
+    /**
+     * Indexes the text of the records loaded so far on a background thread. Searches
+     * scan the records that are not indexed yet, so they work during the build.
+     */
+    public void buildSearchIndex() {
+        searchIndex.buildInBackground();
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            resetLocked(new PlayRecord[INITIAL_CAPACITY]);
+            base = 0;
+            view = new NewestFirstView(records, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        searchIndex.clear();
+    }
+
+    /**
+     * Drops the oldest records so that at most {@code keep} remain and none was played
+     * before {@code minPlayedAt}. The indexes are rebuilt from the remaining records.
+     *
+     * @return number of records dropped
+     */
+    public int retain(int keep, long minPlayedAt) {
+        int drop;
+        lock.writeLock().lock();
+        try {
+            drop = Math.max(0, size - keep);
+            while (drop < size && records[drop].getPlayedAt() < minPlayedAt) {
+                drop++;
+            }
+            if (drop == 0) {
+                return 0;
+            }
+            PlayRecord[] kept = Arrays.copyOfRange(records, drop, size);
+            resetLocked(new PlayRecord[Math.max(INITIAL_CAPACITY, kept.length * 3 / 2)]);
+            base += drop;
+            for (PlayRecord record : kept) {
+                addLocked(record);
+            }
+            // Cleared before the new view is visible, so text searches never mix the two
+            searchIndex.clear();
+            view = new NewestFirstView(records, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        searchIndex.buildInBackground();
+        return drop;
+    }
+
+    /**
+     * @return sequence number of the oldest record held
+     */
+    public long base() {
+        return base;
+    }
+
+    /**
+     * @return number of records held
+     */
+    public int size() {
+        return view.size();
+    }
+
+    /**
+     * @return the oldest record held, or null when empty
+     */
+    public PlayRecord oldest() {
+        NewestFirstView current = view;
+        return current.isEmpty() ? null : current.get(current.size() - 1);
+    }
+
+    private void resetLocked(PlayRecord[] storage) {
+        records = storage;
+        size = 0;
+        byGuild.clear();
+        byRequester.clear();
+        bySource.clear();
+        byBucket.clear();
+        requestersByGuild.clear();
+        requesters.clear();
+    }
+
+    /**
+     * Read-only snapshot of the whole history, newest first. It stays valid while
+     * new records are added.
+     */
+    public List<PlayRecord> newestFirst() {
+        return view;
+    }
+
+    /**
+     * The records held, newest first, with the sequence number of the oldest one.
+     * Both are read together, so the snapshot is consistent across a {@link #retain}.
+     */
+    Snapshot snapshot() {
+        lock.readLock().lock();
+        try {
+            return new Snapshot(base, view);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Requesters that appear in the history, mapped to the user ID of their latest play.
+     *
+     * @param guildId guild to restrict to, or null for every guild
+     */
+    public Map<String, String> getRequesters(String guildId) {
+        lock.readLock().lock();
+        try {
+            Map<String, String> source = guildId == null ? requesters : requestersByGuild.getOrDefault(guildId, Map.of());
+            return new HashMap<>(source);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public HistoryPage query(HistoryQuery query) {
+        lock.readLock().lock();
+        try {
+            return queryLocked(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Full-text search of titles, artists and album-like details, combined with the
+     * filters of {@code query}. Cursors are not supported, pages are taken by offset.
+     *
+     * @param text search terms, all of which must match
+     */
+    public HistorySearchPage search(HistoryQuery query, String text) {
+        String[] terms = HistorySearchIndex.terms(text);
+        if (terms.length == 0) {
+            HistoryPage page = query(new HistoryQuery(query.guildId(), query.types(), query.requesterName(),
+                    query.from(), query.to(), query.limit(), query.offset(), -1));
+            List<HistorySearchPage.Hit> hits = new ArrayList<>(page.records().size());
+            for (PlayRecord record : page.records()) {
+                hits.add(new HistorySearchPage.Hit(record, 0, List.of(), List.of()));
+            }
+            return new HistorySearchPage(hits, page.total());
+        }
+
+        String guildId = isFilter(query.guildId()) ? query.guildId() : null;
+        String requester = isFilter(query.requesterName()) ? query.requesterName() : null;
+        Set<String> types = query.types() == null || query.types().contains("all") ? Set.of() : query.types();
+        List<PlayRecord> snapshot = view;
+        int skip = Math.max(0, query.offset());
+        HistorySearchIndex.Result result = searchIndex.search(snapshot, terms,
+                record -> matches(record, guildId, requester, types, query),
+                query.limit() > 0 ? skip + query.limit() : 0);
+
+        List<HistorySearchIndex.Match> matches = result.matches();
+        List<HistorySearchPage.Hit> hits = new ArrayList<>(Math.max(0, matches.size() - skip));
+        for (HistorySearchIndex.Match match : matches.subList(Math.min(skip, matches.size()), matches.size())) {
+            hits.add(new HistorySearchPage.Hit(snapshot.get(snapshot.size() - 1 - match.seq()), match.score(),
+                    HistorySearchIndex.highlights(match.text().title, terms),
+                    HistorySearchIndex.highlights(match.text().artist, terms)));
+        }
+        return new HistorySearchPage(hits, result.total());
+    }
+
+    /**
+     * Source types of a record, using the names of the web panel type filter.
+     */
+    public static Set<String> sourceTypes(PlayRecord record) {
+        Set<String> types = new HashSet<>(2);
+        if (record.hasSpotifyData()) types.add("spotify");
+        if (record.getYoutubeVideoId() != null && !record.getYoutubeVideoId().isEmpty()) types.add("youtube");
+        if (record.hasRadioData()) types.add("radio");
+        if (record.hasGensokyoData()) types.add("gensokyo");
+        if (record.hasLocalData()) types.add("local");
+        if (record.hasSoundCloudData()) types.add("soundcloud");
+        if (record.hasYtDlpData()) {
+            String source = record.getYtDlpSourceType();
+            if ("Instagram".equalsIgnoreCase(source)) {
+                types.add("instagram");
+            } else if ("TikTok".equalsIgnoreCase(source)) {
+                types.add("tiktok");
+            } else if ("Twitter".equalsIgnoreCase(source) || "X".equalsIgnoreCase(source)) {
+                types.add("twitter");
+            } else if (!"YouTube".equalsIgnoreCase(source) && !"SoundCloud".equalsIgnoreCase(source)) {
+                types.add("generic");
+            }
+        }
+        return types;
+    }
+
+    private void addLocked(PlayRecord record) {
+        if (size == records.length) {
+            records = Arrays.copyOf(records, size * 3 / 2);
+        }
+        int seq = size;
+        records[seq] = record;
+        size++;
+
+        posting(byGuild, record.getGuildId()).add(seq);
+        posting(byRequester, record.getRequesterName()).add(seq);
+        for (String type : sourceTypes(record)) {
+            posting(bySource, type).add(seq);
+        }
+        byBucket.computeIfAbsent(bucket(record.getPlayedAt()), k -> new Postings()).add(seq);
+
+        if (record.getRequesterName() != null && !record.getRequesterName().isEmpty()) {
+            requesters.put(record.getRequesterName(), record.getRequesterId());
+            requestersByGuild.computeIfAbsent(record.getGuildId(), k -> new HashMap<>())
+                    .put(record.getRequesterName(), record.getRequesterId());
+        }
+    }
+
+    private HistoryPage queryLocked(HistoryQuery query) {
+        String guildId = isFilter(query.guildId()) ? query.guildId() : null;
+        String requester = isFilter(query.requesterName()) ? query.requesterName() : null;
+        Set<String> types = query.types() == null || query.types().contains("all") ? Set.of() : query.types();
+        boolean timed = query.hasTimeRange();
+
+        // Candidate lists, one per filter; the smallest one drives the walk
+        List<Candidates> filters = new ArrayList<>();
+        if (guildId != null) {
+            filters.add(new Candidates(singleton(byGuild.get(guildId)), false));
+        }
+        if (requester != null) {
+            filters.add(new Candidates(singleton(byRequester.get(requester)), false));
+        }
+        if (!types.isEmpty()) {
+            List<Postings> lists = new ArrayList<>();
+            for (String type : types) {
+                Postings postings = bySource.get(type);
+                if (postings != null) {
+                    lists.add(postings);
+                }
+            }
+            filters.add(new Candidates(lists, false));
+        }
+        if (timed) {
+            long fromBucket = query.from() == Long.MIN_VALUE ? Long.MIN_VALUE : bucket(query.from());
+            long toBucket = query.to() == Long.MAX_VALUE ? Long.MAX_VALUE : bucket(query.to() - 1);
+            Collection<Postings> buckets = fromBucket > toBucket
+                    ? List.of()
+                    : byBucket.subMap(fromBucket, true, toBucket, true).values();
+            // Buckets only approximate the range, the exact bounds are checked per record
+            filters.add(new Candidates(new ArrayList<>(buckets), true));
+        }
+
+        Candidates driver = null;
+        for (Candidates candidates : filters) {
+            if (driver == null || candidates.estimatedSize() < driver.estimatedSize()) {
+                driver = candidates;
+            }
+        }
+        IntSeq seqs = driver == null ? new Range(size) : driver.materialize();
+        if (seqs.size() == 0) {
+            return new HistoryPage(List.of(), 0, -1);
+        }
+
+        // A single exact filter (or none) needs no per-record checks to count matches
+        boolean exact = filters.size() <= 1 && (driver == null || !driver.approximate);
+        int total = exact ? seqs.size() : -1;
+        int limit = query.limit() > 0 ? query.limit() : Integer.MAX_VALUE;
+        int skip = query.cursor() >= 0 ? 0 : Math.max(0, query.offset());
+
+        int pos;
+        if (query.cursor() >= 0) {
+            pos = lowerBound(seqs, query.cursor() - base) - 1;
+        } else if (exact) {
+            // Offsets can be jumped over directly when every candidate matches
+            pos = seqs.size() - 1 - skip;
+            skip = 0;
+        } else {
+            pos = seqs.size() - 1;
+        }
+
+        List<PlayRecord> page = new ArrayList<>(Math.min(limit, 64));
+        int lastSeq = -1;
+        for (; pos >= 0 && page.size() < limit; pos--) {
+            int seq = seqs.get(pos);
+            PlayRecord record = records[seq];
+            if (!exact && !matches(record, guildId, requester, types, query)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            page.add(record);
+            lastSeq = seq;
+        }
+        long nextCursor = page.size() == limit && pos >= 0 ? base + lastSeq : -1;
+
+        if (total < 0) {
+            total = 0;
+            for (int i = 0; i < seqs.size(); i++) {
+                if (matches(records[seqs.get(i)], guildId, requester, types, query)) {
+                    total++;
+                }
+            }
+        }
+        return new HistoryPage(page, total, nextCursor);
+    }
+
+    static boolean matches(PlayRecord record, String guildId, String requester, Set<String> types, HistoryQuery query) {
+        if (guildId != null && !guildId.equals(record.getGuildId())) {
+            return false;
+        }
+        if (requester != null && !requester.equals(record.getRequesterName())) {
+            return false;
+        }
+        if (record.getPlayedAt() < query.from() || record.getPlayedAt() >= query.to()) {
+            return false;
+        }
+        if (!types.isEmpty()) {
+            for (String type : sourceTypes(record)) {
+                if (types.contains(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    static boolean isFilter(String value) {
+        return value != null && !value.isEmpty() && !value.equals("all");
+    }
+
+    private static long bucket(long playedAt) {
+        return Math.floorDiv(playedAt, BUCKET_MS);
+    }
+
+    private static Postings posting(Map<String, Postings> index, String key) {
+        return index.computeIfAbsent(key == null ? "" : key, k -> new Postings());
+    }
+
+    private static List<Postings> singleton(Postings postings) {
+        return postings == null ? List.of() : List.of(postings);
+    }
+
+    /**
+     * Index of the first element not smaller than {@code seq}.
+     */
+    private static int lowerBound(IntSeq seqs, long seq) {
+        int low = 0;
+        int high = seqs.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (seqs.get(mid) < seq) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private interface IntSeq {
+        int size();
+
+        int get(int index);
+    }
+
+    /**
+     * Sorted, append-only list of sequence numbers.
+     */
+    private static final class Postings implements IntSeq {
+        private int[] data = new int[8];
+        private int size;
+
+        private void add(int seq) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = seq;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int get(int index) {
+            return data[index];
+        }
+    }
+
+    record Snapshot(long base, List<PlayRecord> newestFirst) {
+    }
+
+    private record Range(int size) implements IntSeq {
+        @Override
+        public int get(int index) {
+            return index;
+        }
+    }
+
+    private record Sorted(int[] data) implements IntSeq {
+        @Override
+        public int size() {
+            return data.length;
+        }
+
+        @Override
+        public int get(int index) {
+            return data[index];
+        }
+    }
+
+    /**
+     * Union of posting lists matching one filter. Only merged when chosen as the driver.
+     */
+    private record Candidates(List<Postings> lists, boolean approximate) {
+        int estimatedSize() {
+            int total = 0;
+            for (Postings postings : lists) {
+                total += postings.size();
+            }
+            return total;
+        }
+
+        IntSeq materialize() {
+            if (lists.size() == 1) {
+                return lists.get(0);
+            }
+            int[] merged = new int[estimatedSize()];
+            int n = 0;
+            for (Postings postings : lists) {
+                System.arraycopy(postings.data, 0, merged, n, postings.size());
+                n += postings.size();
+            }
+            Arrays.sort(merged);
+            // A record can be listed under more than one source type
+            int unique = 0;
+            for (int i = 0; i < merged.length; i++) {
+                if (unique == 0 || merged[i] != merged[unique - 1]) {
+                    merged[unique++] = merged[i];
+                }
+            }
+            return new Sorted(unique == merged.length ? merged : Arrays.copyOf(merged, unique));
+        }
+    }
+
+    /**
+     * Read-only, newest first view of the first {@code size} records. Records are never
+     * moved or overwritten once published, so a view stays valid while new ones are added.
+     */
+    private static final class NewestFirstView extends AbstractList<PlayRecord> implements RandomAccess {
+        private final PlayRecord[] records;
+        private final int size;
+
+        private NewestFirstView(PlayRecord[] records, int size) {
+            this.records = records;
+            this.size = size;
+        }
+
+        @Override
+        public PlayRecord get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return records[size - 1 - index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
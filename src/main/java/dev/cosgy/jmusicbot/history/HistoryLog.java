@@ -0,0 +1,859 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+import dev.cosgy.jmusicbot.util.LruCache;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only storage for the play history.
+ * <p>
+ * Records are stored as length-prefixed MessagePack frames in segment files. Appends
+ * are queued and written in batches by a single background thread, so a track start
+ * never waits for the disk. When the active segment grows past {@link #SEGMENT_MAX_BYTES}
+ * a new one is started. The {@code segments} manifest lists the live segments in order
+ * with the sequence number of their first record, and is always replaced atomically,
+ * so a crash during rotation or retention never loses or duplicates records.
+ * <p>
+ * Only the newest records are kept in memory by {@link HistoryIndex}; older ones are
+ * read back from here. Sealed segments are memory-mapped when read, deflated once
+ * their newest record is older than the warm age, and deleted past the maximum age.
+ * Each segment keeps a small summary (record count, play time range, counts per
+ * guild, requester and source type), so most scans and counts skip whole segments.
+ * The summaries of sealed segments are saved next to the manifest, so opening the log
+ * only reads the newest segments, however much history is kept.
+ */
+public class HistoryLog {
+    private static final Logger log = LoggerFactory.getLogger(HistoryLog.class);
+    private static final String MANIFEST = "segments";
+    private static final String SUMMARIES = "summaries";
+    private static final int SUMMARIES_VERSION = 1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".mpk";
+    private static final String COMPRESSED_SUFFIX = ".z";
+    private static final long SEGMENT_MAX_BYTES = 4L * 1024 * 1024;
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+    private static final long RETENTION_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path dir;
+    private final HistoryRetention retention;
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper packMapper = new ObjectMapper(new MessagePackFactory());
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "history-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Queue<PlayRecord> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong compressed = new AtomicLong();
+    private final AtomicLong pruned = new AtomicLong();
+    // Decoded segments, so paging through old history does not decode a segment per page
+    private final LruCache<String, List<PlayRecord>> decoded = new LruCache<>(2);
+
+    // Only touched by the writer thread once open() has returned
+    private final List<Segment> segments = new ArrayList<>();
+    private int nextSegmentId;
+    private FileOutputStream activeFile;
+    private DataOutputStream active;
+    private long activeBytes;
+    private long lastRetention;
+    private volatile long openedSeq;
+    // Copy of segments for readers, replaced with the manifest
+    private volatile List<Segment> published = List.of();
+
+    public HistoryLog(Path dir, HistoryRetention retention) {
+        this.dir = dir;
+        this.retention = retention;
+    }
+
+    /**
+     * Reads the segment list and starts a fresh active segment. When the log does not
+     * exist yet, the legacy JSON history is migrated into it once and renamed.
+     * <p>
+     * Sealed segments are known from their persisted summaries without being read;
+     * only the segments holding the records kept in memory, and any segment without a
+     * summary (the active one of the last run), are decoded.
+     *
+     * @param legacyFile the old {@code music_history.json}, may not exist
+     * @return the records to keep in memory, oldest first
+     */
+    public synchronized List<PlayRecord> open(Path legacyFile) throws IOException {
+        Files.createDirectories(dir);
+        nextSegmentId = findNextSegmentId();
+        Path manifest = dir.resolve(MANIFEST);
+        if (!Files.exists(manifest) && legacyFile != null && Files.exists(legacyFile)) {
+            migrate(legacyFile);
+        }
+
+        Map<String, List<PlayRecord>> read = new HashMap<>();
+        if (Files.exists(manifest)) {
+            Map<String, Segment> summarized = readSummaries();
+            long nextSeq = 0;
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                // Manifests written before tiering only list names
+                String[] fields = line.trim().split("\t");
+                long startSeq = fields.length > 1 ? Long.parseLong(fields[1]) : nextSeq;
+                Segment known = summarized.get(baseName(fields[0]));
+                Segment segment;
+                if (known != null && known.startSeq == startSeq) {
+                    segment = known.renamed(fields[0]);
+                } else {
+                    segment = new Segment(fields[0], startSeq);
+                    List<PlayRecord> records = readSegment(segment);
+                    records.forEach(segment::add);
+                    read.put(segment.name, records);
+                }
+                segments.add(segment);
+                nextSeq = startSeq + segment.count;
+            }
+        }
+
+        // The newest records, read back from the newest segments until memory is full
+        long cutoff = retention.hotCutoff(System.currentTimeMillis());
+        ArrayDeque<PlayRecord> hot = new ArrayDeque<>();
+        for (int s = segments.size() - 1; s >= 0 && hot.size() < retention.hotRecords(); s--) {
+            Segment segment = segments.get(s);
+            if (segment.count == 0) {
+                continue;
+            }
+            if (segment.summary.maxPlayedAt < cutoff) {
+                break;
+            }
+            List<PlayRecord> records = read.containsKey(segment.name) ? read.get(segment.name) : readSegment(segment);
+            for (int i = records.size() - 1; i >= 0 && hot.size() < retention.hotRecords(); i--) {
+                hot.addFirst(records.get(i));
+            }
+        }
+        while (!hot.isEmpty() && hot.peekFirst().getPlayedAt() < cutoff) {
+            hot.removeFirst();
+        }
+        deleteOrphans();
+        startSegment();
+        openedSeq = segments.get(segments.size() - 1).startSeq;
+        writer.execute(this::applyRetentionQuietly);
+        return new ArrayList<>(hot);
+    }
+
+    /**
+     * @return number of records stored when {@link #open} returned, which is also the
+     * sequence number of the first record appended after it
+     */
+    public long openedSeq() {
+        return openedSeq;
+    }
+
+    /**
+     * Visits stored records numbered below {@code before}, newest first, until the
+     * visitor returns false. Segments rejected by {@code mayMatch} are not read.
+     */
+    public void scan(long before, Predicate<Summary> mayMatch, RecordVisitor visitor) {
+        List<Segment> current = published;
+        for (int s = current.size() - 1; s >= 0; s--) {
+            Segment segment = current.get(s);
+            if (segment.startSeq >= before || segment.count == 0 || !mayMatch.test(segment.summary)) {
+                continue;
+            }
+            List<PlayRecord> records = decoded(segment);
+            int end = (int) Math.min(records.size(), before - segment.startSeq);
+            for (int i = end - 1; i >= 0; i--) {
+                if (!visitor.visit(segment.startSeq + i, records.get(i))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every stored record numbered below {@code before}, oldest first. Segments
+     * are read one at a time and not cached, so a full replay does not push the pages
+     * being browsed out of the cache.
+     */
+    public void replay(long before, Consumer<PlayRecord> visitor) {
+        for (Segment segment : published) {
+            if (segment.startSeq >= before || segment.count == 0) {
+                continue;
+            }
+            List<PlayRecord> records;
+            try {
+                records = readSegment(segment);
+            } catch (IOException e) {
+                log.warn("Failed to read history segment {}: {}", segment.name, e.getMessage());
+                continue;
+            }
+            int end = (int) Math.min(Math.min(records.size(), segment.count), before - segment.startSeq);
+            for (int i = 0; i < end; i++) {
+                visitor.accept(records.get(i));
+            }
+        }
+    }
+
+    /**
+     * Counts stored records numbered below {@code before} that match. Segments are
+     * counted from their summary when {@code summaryCount} can tell, which it signals
+     * with a result of 0 or more.
+     */
+    public int count(long before, SummaryCounter summaryCount, Predicate<PlayRecord> matches) {
+        int total = 0;
+        for (Segment segment : published) {
+            if (segment.startSeq >= before || segment.count == 0) {
+                continue;
+            }
+            // A segment holding records on both sides of before can only be skipped when none match
+            boolean whole = segment.startSeq + segment.count <= before;
+            int known = summaryCount.count(segment.summary);
+            if (known == 0 || (known > 0 && whole)) {
+                total += known;
+                continue;
+            }
+            List<PlayRecord> records = decoded(segment);
+            int end = (int) Math.min(records.size(), before - segment.startSeq);
+            for (int i = 0; i < end; i++) {
+                if (matches.test(records.get(i))) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Requesters of the stored records numbered below {@code before}, mapped to the user
+     * ID of their latest play, oldest segments first so newer IDs win.
+     */
+    public Map<String, String> requesters(long before, String guildId) {
+        Map<String, String> requesters = new HashMap<>();
+        for (Segment segment : published) {
+            if (segment.startSeq >= before) {
+                continue;
+            }
+            if (guildId == null) {
+                requesters.putAll(segment.summary.requesterIds);
+            } else {
+                requesters.putAll(segment.summary.requesterIdsByGuild.getOrDefault(guildId, Map.of()));
+            }
+        }
+        return requesters;
+    }
+
+    /**
+     * Queues a record for the background writer.
+     */
+    public void append(PlayRecord record) {
+        pending.add(record);
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.warn("History log is closed, dropping record {}", record.getTitle());
+            }
+        }
+    }
+
+    /**
+     * Drops every stored record, including the ones still waiting to be written.
+     */
+    public void clear() {
+        runOnWriter(() -> {
+            pending.clear();
+            closeActive();
+            List<Segment> old = new ArrayList<>(segments);
+            segments.clear();
+            decoded.clear();
+            startSegment();
+            for (Segment segment : old) {
+                Files.deleteIfExists(dir.resolve(segment.name));
+            }
+        });
+    }
+
+    /**
+     * Writes the queued records and closes the active segment.
+     */
+    public void close() {
+        runOnWriter(() -> {
+            drain();
+            closeActive();
+        });
+        writer.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        List<Segment> current = published;
+        long cold = current.stream().filter(Segment::isCompressed).count();
+        return "segments=" + current.size() + " (" + cold + " compressed), written=" + written.get()
+                + ", pending=" + pending.size() + ", compressed=" + compressed.get() + ", pruned=" + pruned.get();
+    }
+
+    private void runOnWriter(IoTask task) {
+        try {
+            writer.submit(() -> {
+                task.run();
+                return null;
+            }).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.error("History log operation failed", e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (active == null) {
+                startSegment();
+            }
+            Segment segment = segments.get(segments.size() - 1);
+            List<PlayRecord> batch = new ArrayList<>();
+            PlayRecord record;
+            while ((record = pending.poll()) != null) {
+                activeBytes += writeFrame(active, record);
+                batch.add(record);
+            }
+            active.flush();
+            // Counted once in the file, so a reader mapping the segment never sees fewer records than its count
+            for (PlayRecord flushed : batch) {
+                segment.add(flushed);
+            }
+            written.addAndGet(batch.size());
+            if (activeBytes >= SEGMENT_MAX_BYTES) {
+                rotate();
+            } else if (System.currentTimeMillis() - lastRetention >= RETENTION_INTERVAL_MS) {
+                applyRetention();
+            }
+        } catch (IOException e) {
+            log.error("Failed to append to the history log", e);
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeActive();
+        startSegment();
+        applyRetention();
+    }
+
+    private void applyRetentionQuietly() {
+        try {
+            applyRetention();
+        } catch (IOException e) {
+            log.error("Failed to apply history retention", e);
+        }
+    }
+
+    /**
+     * Deletes sealed segments older than the maximum age and compresses the ones older
+     * than the warm age. A segment's age is that of its newest record.
+     */
+    private void applyRetention() throws IOException {
+        long now = System.currentTimeMillis();
+        lastRetention = now;
+        boolean changed = false;
+        List<Segment> deleted = new ArrayList<>();
+        // The active segment is never touched
+        for (int i = 0; i < segments.size() - 1; i++) {
+            Segment segment = segments.get(i);
+            if (retention.maxAgeMs() > 0 && segment.summary.maxPlayedAt < now - retention.maxAgeMs()) {
+                segments.remove(i--);
+                deleted.add(segment);
+                pruned.addAndGet(segment.count);
+                changed = true;
+            } else if (retention.warmAgeMs() > 0 && !segment.isCompressed()
+                    && segment.summary.maxPlayedAt < now - retention.warmAgeMs()) {
+                Segment cold = compress(segment);
+                segments.set(i, cold);
+                deleted.add(segment);
+                compressed.incrementAndGet();
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        writeManifest();
+        for (Segment segment : deleted) {
+            decoded.remove(segment.name + "#" + segment.count);
+            try {
+                Files.deleteIfExists(dir.resolve(segment.name));
+            } catch (IOException e) {
+                // A segment still mapped by a reader cannot be deleted on Windows; open() removes it later
+                log.debug("Could not delete history segment {} yet: {}", segment.name, e.getMessage());
+            }
+        }
+    }
+
+    private Segment compress(Segment segment) throws IOException {
+        String name = segment.name + COMPRESSED_SUFFIX;
+        Path tmp = dir.resolve(name + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DeflaterOutputStream out = new DeflaterOutputStream(new BufferedOutputStream(file))) {
+            Files.copy(dir.resolve(segment.name), out);
+            out.finish();
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return segment.renamed(name);
+    }
+
+    private void startSegment() throws IOException {
+        String name = segmentName(nextSegmentId++);
+        Path file = dir.resolve(name);
+        // The file must exist before the manifest points at it
+        Files.createFile(file);
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        segments.add(new Segment(name, last == null ? 0 : last.startSeq + last.count));
+        writeManifest();
+        activeFile = new FileOutputStream(file.toFile(), true);
+        active = new DataOutputStream(new BufferedOutputStream(activeFile));
+        activeBytes = 0;
+    }
+
+    private void closeActive() throws IOException {
+        if (active == null) {
+            return;
+        }
+        try {
+            active.flush();
+            activeFile.getFD().sync();
+        } finally {
+            active.close();
+            active = null;
+            activeFile = null;
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        writeSummaries();
+        Path manifest = dir.resolve(MANIFEST);
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        List<String> lines = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            lines.add(segment.name + "\t" + segment.startSeq);
+        }
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        published = List.copyOf(segments);
+    }
+
+    /**
+     * Writes the summaries of the sealed segments next to the manifest, so the next
+     * {@link #open} does not read them. The last segment is still written to and is
+     * left out.
+     */
+    private void writeSummaries() throws IOException {
+        ArrayNode list = jsonMapper.createArrayNode();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            Segment segment = segments.get(i);
+            Summary summary = segment.summary;
+            ObjectNode node = list.addObject();
+            node.put("name", baseName(segment.name));
+            node.put("start", segment.startSeq);
+            node.put("count", segment.count);
+            node.put("min", summary.minPlayedAt);
+            node.put("max", summary.maxPlayedAt);
+            ArrayNode groups = node.putArray("groups");
+            for (Map.Entry<Group, Integer> entry : summary.groups.entrySet()) {
+                ArrayNode group = groups.addArray();
+                group.add(entry.getKey().guildId());
+                group.add(entry.getKey().requester());
+                ArrayNode types = group.addArray();
+                entry.getKey().types().forEach(types::add);
+                group.add(entry.getValue());
+            }
+            ObjectNode ids = node.putObject("requesters");
+            summary.requesterIds.forEach(ids::put);
+            ObjectNode byGuild = node.putObject("requestersByGuild");
+            summary.requesterIdsByGuild.forEach((guild, names) -> {
+                ObjectNode guildIds = byGuild.putObject(guild);
+                names.forEach(guildIds::put);
+            });
+        }
+        ObjectNode root = jsonMapper.createObjectNode();
+        root.put("version", SUMMARIES_VERSION);
+        root.set("segments", list);
+        Path tmp = dir.resolve(SUMMARIES + ".tmp");
+        Files.write(tmp, packMapper.writeValueAsBytes(root));
+        Files.move(tmp, dir.resolve(SUMMARIES), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sealed segments by name without the compression suffix, with their summary and
+     * count; empty when there is no summaries file or it cannot be read, in which case
+     * the segments are read instead.
+     */
+    private Map<String, Segment> readSummaries() {
+        Map<String, Segment> known = new HashMap<>();
+        Path file = dir.resolve(SUMMARIES);
+        if (!Files.exists(file)) {
+            return known;
+        }
+        try {
+            JsonNode root = packMapper.readTree(Files.readAllBytes(file));
+            if (root == null || root.path("version").asInt() != SUMMARIES_VERSION) {
+                return known;
+            }
+            for (JsonNode node : root.path("segments")) {
+                Summary summary = new Summary();
+                summary.minPlayedAt = node.path("min").asLong();
+                summary.maxPlayedAt = node.path("max").asLong();
+                for (JsonNode group : node.path("groups")) {
+                    Set<String> types = new HashSet<>();
+                    group.get(2).forEach(type -> types.add(type.asText()));
+                    summary.groups.put(new Group(text(group.get(0)), text(group.get(1)), types),
+                            group.get(3).asInt());
+                }
+                node.path("requesters").fields().forEachRemaining(
+                        entry -> summary.requesterIds.put(entry.getKey(), entry.getValue().asText()));
+                node.path("requestersByGuild").fields().forEachRemaining(guild -> {
+                    Map<String, String> ids = new ConcurrentHashMap<>();
+                    guild.getValue().fields().forEachRemaining(entry -> ids.put(entry.getKey(), entry.getValue().asText()));
+                    summary.requesterIdsByGuild.put(guild.getKey(), ids);
+                });
+                String name = node.path("name").asText();
+                known.put(name, new Segment(name, node.path("start").asLong(), summary, node.path("count").asInt()));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read the history segment summaries, reading the segments instead: {}", e.getMessage());
+            known.clear();
+        }
+        return known;
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static String baseName(String name) {
+        return name.endsWith(COMPRESSED_SUFFIX) ? name.substring(0, name.length() - COMPRESSED_SUFFIX.length()) : name;
+    }
+
+    private int writeFrame(DataOutputStream out, PlayRecord record) throws IOException {
+        byte[] body = packMapper.writeValueAsBytes(PlayRecordCodec.toNode(jsonMapper, record));
+        out.writeInt(body.length);
+        out.write(body);
+        return body.length + Integer.BYTES;
+    }
+
+    private List<PlayRecord> decoded(Segment segment) {
+        // The active segment grows, so its entry is keyed by its current size too
+        int count = segment.count;
+        String key = segment.name + "#" + count;
+        List<PlayRecord> records = decoded.get(key);
+        if (records == null) {
+            try {
+                records = readSegment(segment);
+            } catch (IOException e) {
+                log.warn("Failed to read history segment {}: {}", segment.name, e.getMessage());
+                return List.of();
+            }
+            if (records.size() < count) {
+                // Not kept, so a short read is never served again under this count
+                return records;
+            }
+            // Frames written after the count was read belong to a later key
+            records = records.size() > count ? List.copyOf(records.subList(0, count)) : records;
+            decoded.put(key, records);
+        }
+        return records;
+    }
+
+    /**
+     * Reads the records of a segment in order. Uncompressed segments are memory-mapped,
+     * compressed ones inflated in memory.
+     */
+    private List<PlayRecord> readSegment(Segment segment) throws IOException {
+        Path file = dir.resolve(segment.name);
+        ByteBuffer buffer;
+        try {
+            if (segment.isCompressed()) {
+                try (InflaterInputStream in = new InflaterInputStream(Files.newInputStream(file))) {
+                    buffer = ByteBuffer.wrap(in.readAllBytes());
+                }
+            } else {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            log.warn("History segment {} is missing", segment.name);
+            return List.of();
+        }
+        return readFrames(segment.name, buffer);
+    }
+
+    /**
+     * Decodes the frames of a segment. A torn frame at the end of the file, left by a
+     * crash mid-write, ends the segment; frames that do not decode are skipped.
+     */
+    private List<PlayRecord> readFrames(String name, ByteBuffer buffer) {
+        List<PlayRecord> records = new ArrayList<>();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                log.warn("Corrupt frame in history segment {}, ignoring the rest of it", name);
+                break;
+            }
+            if (buffer.remaining() < length) {
+                log.warn("Truncated frame at the end of history segment {}", name);
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            try {
+                records.add(PlayRecordCodec.fromNode(packMapper.readTree(body)));
+            } catch (IOException | RuntimeException e) {
+                log.debug("Skipping unreadable history record in {}: {}", name, e.getMessage());
+            }
+        }
+        return records;
+    }
+
+    private void migrate(Path legacyFile) throws IOException {
+        List<PlayRecord> records = new ArrayList<>();
+        JsonNode root = jsonMapper.readTree(legacyFile.toFile());
+        JsonNode history = root == null ? null : root.get("history");
+        if (history != null && history.isArray()) {
+            // The legacy file is newest first, the log is oldest first
+            for (int i = history.size() - 1; i >= 0; i--) {
+                try {
+                    records.add(PlayRecordCodec.fromNode(history.get(i)));
+                } catch (RuntimeException e) {
+                    log.debug("Skipping unreadable legacy history record: {}", e.getMessage());
+                }
+            }
+        }
+
+        String name = segmentName(nextSegmentId++);
+        Path tmp = dir.resolve(name + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            for (PlayRecord record : records) {
+                writeFrame(out, record);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // open() reads the manifest back right after
+        segments.add(new Segment(name, 0));
+        writeManifest();
+        segments.clear();
+        Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        log.info("Migrated {} history records from {} to {}", records.size(), legacyFile, dir);
+    }
+
+    /**
+     * Removes segments and temporary files left behind by an interrupted rotation or retention pass.
+     */
+    private void deleteOrphans() throws IOException {
+        Set<String> live = new HashSet<>();
+        for (Segment segment : segments) {
+            live.add(segment.name);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean segment = name.startsWith(SEGMENT_PREFIX) && !live.contains(name);
+                if (segment || name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                    log.info("Removed leftover history file {}", name);
+                }
+            }
+        }
+    }
+
+    private int findNextSegmentId() throws IOException {
+        int max = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX)) {
+                    String digits = name.substring(SEGMENT_PREFIX.length()).replaceAll("\\D.*", "");
+                    if (!digits.isEmpty()) {
+                        max = Math.max(max, Integer.parseInt(digits));
+                    }
+                }
+            }
+        }
+        return max + 1;
+    }
+
+    private static String segmentName(int id) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX);
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @return false to stop the scan
+         */
+        boolean visit(long seq, PlayRecord record);
+    }
+
+    @FunctionalInterface
+    public interface SummaryCounter {
+        /**
+         * @return matching records of a segment with this summary, or -1 when it has to be read
+         */
+        int count(Summary summary);
+    }
+
+    /**
+     * What a segment contains, kept in memory for every segment: its play time range and
+     * the number of records for each guild, requester and set of source types found in it.
+     */
+    public static final class Summary {
+        private volatile long minPlayedAt = Long.MAX_VALUE;
+        private volatile long maxPlayedAt = Long.MIN_VALUE;
+        private final Map<Group, Integer> groups = new ConcurrentHashMap<>();
+        private final Map<String, String> requesterIds = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, String>> requesterIdsByGuild = new ConcurrentHashMap<>();
+
+        private void add(PlayRecord record) {
+            minPlayedAt = Math.min(minPlayedAt, record.getPlayedAt());
+            maxPlayedAt = Math.max(maxPlayedAt, record.getPlayedAt());
+            groups.merge(new Group(record.getGuildId(), record.getRequesterName(), HistoryIndex.sourceTypes(record)),
+                    1, Integer::sum);
+            if (record.getRequesterName() != null && !record.getRequesterName().isEmpty() && record.getRequesterId() != null) {
+                requesterIds.put(record.getRequesterName(), record.getRequesterId());
+                requesterIdsByGuild.computeIfAbsent(String.valueOf(record.getGuildId()), k -> new ConcurrentHashMap<>())
+                        .put(record.getRequesterName(), record.getRequesterId());
+            }
+        }
+
+        public long minPlayedAt() {
+            return minPlayedAt;
+        }
+
+        public long maxPlayedAt() {
+            return maxPlayedAt;
+        }
+
+        /**
+         * Records matching the guild, requester and source type filters, ignoring play time.
+         *
+         * @param guildId   null for any guild
+         * @param requester null for any requester
+         * @param types     any of which may match, empty for any type
+         */
+        public int count(String guildId, String requester, Set<String> types) {
+            int total = 0;
+            for (Map.Entry<Group, Integer> entry : groups.entrySet()) {
+                if (entry.getKey().matches(guildId, requester, types)) {
+                    total += entry.getValue();
+                }
+            }
+            return total;
+        }
+    }
+
+    private record Group(String guildId, String requester, Set<String> types) {
+        private boolean matches(String guildId, String requester, Set<String> types) {
+            if (guildId != null && !guildId.equals(this.guildId)) {
+                return false;
+            }
+            if (requester != null && !requester.equals(this.requester)) {
+                return false;
+            }
+            if (types.isEmpty()) {
+                return true;
+            }
+            for (String type : this.types) {
+                if (types.contains(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Segment {
+        private final String name;
+        private final long startSeq;
+        private final Summary summary;
+        private volatile int count;
+
+        private Segment(String name, long startSeq) {
+            this(name, startSeq, new Summary(), 0);
+        }
+
+        private Segment(String name, long startSeq, Summary summary, int count) {
+            this.name = name;
+            this.startSeq = startSeq;
+            this.summary = summary;
+            this.count = count;
+        }
+
+        private void add(PlayRecord record) {
+            summary.add(record);
+            count++;
+        }
+
+        private boolean isCompressed() {
+            return name.endsWith(COMPRESSED_SUFFIX);
+        }
+
+        private Segment renamed(String newName) {
+            return new Segment(newName, startSeq, summary, count);
+        }
+    }
+}
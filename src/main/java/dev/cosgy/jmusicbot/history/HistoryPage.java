@@ -0,0 +1,18 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+import java.util.List;
+
+/**
+ * One page of history matches, newest first.
+ *
+ * @param total      number of records matching the filters
+ * @param nextCursor cursor to pass for the following page, or -1 when this is the last one
+ */
+public record HistoryPage(List<PlayRecord> records, int total, long nextCursor) {
+}
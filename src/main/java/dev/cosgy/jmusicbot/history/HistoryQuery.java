@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import java.util.Set;
+
+/**
+ * Filters and paging of a history lookup. Null or empty filters match everything.
+ *
+ * @param types     source types as used by the web panel (spotify, youtube, radio...), any of which may match
+ * @param from      inclusive lower bound of {@code playedAt}, or {@link Long#MIN_VALUE}
+ * @param to        exclusive upper bound of {@code playedAt}, or {@link Long#MAX_VALUE}
+ * @param limit     page size, 0 or less for every match
+ * @param offset    number of matches to skip, ignored when a cursor is given
+ * @param cursor    {@link HistoryPage#nextCursor()} of the previous page, or -1 for the first page
+ */
+public record HistoryQuery(String guildId, Set<String> types, String requesterName,
+                           long from, long to, int limit, int offset, long cursor) {
+
+    public static HistoryQuery forGuild(String guildId, int limit) {
+        return new HistoryQuery(guildId, Set.of(), null, Long.MIN_VALUE, Long.MAX_VALUE, limit, 0, -1);
+    }
+
+    boolean hasTimeRange() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+}
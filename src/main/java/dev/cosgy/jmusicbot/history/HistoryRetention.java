@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long history records stay in each storage tier.
+ *
+ * @param hotRecords maximum number of records kept in memory
+ * @param hotAgeMs   age after which records leave memory, 0 for no limit
+ * @param warmAgeMs  age after which a segment file is compressed, 0 to never compress
+ * @param maxAgeMs   age after which a segment file is deleted, 0 to keep everything
+ */
+public record HistoryRetention(int hotRecords, long hotAgeMs, long warmAgeMs, long maxAgeMs) {
+
+    public static HistoryRetention ofDays(int hotRecords, int hotDays, int warmDays, int maxDays) {
+        return new HistoryRetention(Math.max(1, hotRecords), TimeUnit.DAYS.toMillis(Math.max(0, hotDays)),
+                TimeUnit.DAYS.toMillis(Math.max(0, warmDays)), TimeUnit.DAYS.toMillis(Math.max(0, maxDays)));
+    }
+
+    /**
+     * Play time before which records leave memory.
+     */
+    long hotCutoff(long now) {
+        long cutoff = hotAgeMs > 0 ? now - hotAgeMs : Long.MIN_VALUE;
+        return maxAgeMs > 0 ? Math.max(cutoff, now - maxAgeMs) : cutoff;
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Inverted index over the title, artist and album-like details of history records.
+ * <p>
+ * Each distinct title/artist/detail combination is indexed once, with the sequence
+ * numbers of its plays attached, since the same songs come back again and again.
+ * Text is folded per character (case, Latin accents, full-width forms, katakana to
+ * hiragana), which keeps offsets in the folded text identical to the original so
+ * matches can be highlighted. Candidates come from character bigram postings, which
+ * also work for Japanese text without word boundaries, and are then verified and
+ * ranked on the folded strings.
+ * <p>
+ * Records are indexed by whichever thread finds the index behind: a background
+ * build at startup, then each append. Records not indexed yet are scanned directly,
+ * so searches are complete while the build is running.
+ */
+public class HistorySearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(HistorySearchIndex.class);
+    private static final int BUILD_CHUNK = 4096;
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Supplier<List<PlayRecord>> source;
+    private final Map<String, Integer> textIds = new HashMap<>();
+    private final List<Text> texts = new ArrayList<>();
+    private final Map<Integer, IntList> bigrams = new HashMap<>();
+    private volatile int indexedUpTo;
+    // Identifies the snapshot the sequence numbers were taken from
+    private PlayRecord oldestIndexed;
+
+    /**
+     * @param source supplies the current newest-first history snapshot
+     */
+    HistorySearchIndex(Supplier<List<PlayRecord>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Builds the index from the records already loaded, on a daemon thread.
+     */
+    void buildInBackground() {
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            catchUp();
+            log.info("History search index built: {} records, {} distinct songs in {} ms",
+                    indexedUpTo, texts.size(), System.currentTimeMillis() - start);
+        }, "history-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Indexes every record not indexed yet. Returns at once when another thread is
+     * already indexing; that thread checks again for new records once it is done.
+     */
+    void catchUp() {
+        while (indexedUpTo < source.get().size()) {
+            if (!lock.writeLock().tryLock()) {
+                return;
+            }
+            try {
+                List<PlayRecord> snapshot = source.get();
+                int size = snapshot.size();
+                int end = Math.min(size, indexedUpTo + BUILD_CHUNK);
+                for (int seq = indexedUpTo; seq < end; seq++) {
+                    addLocked(seq, snapshot.get(size - 1 - seq));
+                }
+                indexedUpTo = end;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            textIds.clear();
+            texts.clear();
+            bigrams.clear();
+            indexedUpTo = 0;
+            oldestIndexed = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds records whose text contains every term.
+     *
+     * @param snapshot newest-first history the sequence numbers refer to
+     * @param filter   other conditions a matching record must meet
+     * @param keep     number of best matches to return, 0 or less for all of them
+     * @return the best matches ranked by relevance, then by recency, and the match count
+     */
+    Result search(List<PlayRecord> snapshot, String[] terms, Predicate<PlayRecord> filter, int keep) {
+        int size = snapshot.size();
+        IntFunction<PlayRecord> bySeq = seq -> snapshot.get(size - 1 - seq);
+        TopMatches top = new TopMatches(keep);
+
+        int indexed;
+        lock.readLock().lock();
+        try {
+            // A snapshot taken before the history was trimmed is scanned instead
+            boolean sameHistory = size > 0 && snapshot.get(size - 1) == oldestIndexed;
+            indexed = sameHistory ? Math.min(indexedUpTo, size) : 0;
+            for (int textId : indexed > 0 ? candidates(terms) : new int[0]) {
+                Text text = texts.get(textId);
+                int score = score(text, terms);
+                if (score <= 0) {
+                    continue;
+                }
+                for (int i = 0; i < text.seqs.size; i++) {
+                    int seq = text.seqs.data[i];
+                    if (seq < indexed && filter.test(bySeq.apply(seq))) {
+                        top.offer(seq, score, text);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Records appended or loaded since the last indexing pass
+        for (int seq = indexed; seq < size; seq++) {
+            PlayRecord record = bySeq.apply(seq);
+            if (filter.test(record)) {
+                Text text = Text.of(record);
+                int score = score(text, terms);
+                if (score > 0) {
+                    top.offer(seq, score, text);
+                }
+            }
+        }
+        return new Result(top.sorted(), top.total);
+    }
+
+    private void addLocked(int seq, PlayRecord record) {
+        if (seq == 0) {
+            oldestIndexed = record;
+        }
+        String key = record.getTitle() + FIELD_SEPARATOR + record.getArtist() + FIELD_SEPARATOR + detail(record);
+        Integer id = textIds.get(key);
+        if (id == null) {
+            id = texts.size();
+            textIds.put(key, id);
+            Text text = Text.of(record);
+            texts.add(text);
+            String all = text.title + FIELD_SEPARATOR + text.artist + FIELD_SEPARATOR + text.detail;
+            int previous = -1;
+            for (int i = 0; i + 1 < all.length(); i++) {
+                int bigram = bigram(all.charAt(i), all.charAt(i + 1));
+                if (bigram != previous) {
+                    IntList postings = bigrams.computeIfAbsent(bigram, k -> new IntList());
+                    // Text ids only grow, so a repeated bigram is always at the end
+                    if (postings.size == 0 || postings.data[postings.size - 1] != id) {
+                        postings.add(id);
+                    }
+                }
+                previous = bigram;
+            }
+        }
+        texts.get(id).seqs.add(seq);
+    }
+
+    /**
+     * Text ids that may contain every term: the intersection of the bigram postings of
+     * the most selective term, or every text when all terms are single characters.
+     */
+    private int[] candidates(String[] terms) {
+        IntList best = null;
+        for (String term : terms) {
+            for (int i = 0; i + 1 < term.length(); i++) {
+                IntList postings = bigrams.get(bigram(term.charAt(i), term.charAt(i + 1)));
+                if (postings == null) {
+                    return new int[0];
+                }
+                if (best == null || postings.size < best.size) {
+                    best = postings;
+                }
+            }
+        }
+        if (best == null) {
+            int[] all = new int[texts.size()];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        return Arrays.copyOf(best.data, best.size);
+    }
+
+    /**
+     * Relevance of a text for the query terms, 0 when a term is missing.
+     * Title matches count double, whole-word and word-prefix matches count more.
+     */
+    static int score(Text text, String[] terms) {
+        int score = 0;
+        for (String term : terms) {
+            int best = Math.max(Math.max(
+                    2 * matchStrength(text.title, term),
+                    matchStrength(text.artist, term)),
+                    matchStrength(text.detail, term) > 0 ? 1 : 0);
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        if (String.join(" ", terms).equals(text.title)) {
+            score += 10;
+        }
+        return score;
+    }
+
+    private static int matchStrength(String folded, String term) {
+        int best = 0;
+        for (int at = folded.indexOf(term); at >= 0; at = folded.indexOf(term, at + 1)) {
+            boolean starts = at == 0 || !Character.isLetterOrDigit(folded.charAt(at - 1));
+            int end = at + term.length();
+            boolean ends = end == folded.length() || !Character.isLetterOrDigit(folded.charAt(end));
+            best = Math.max(best, starts && ends ? 3 : starts ? 2 : 1);
+            if (best == 3) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * [start, end) offsets of every term occurrence, merged where they overlap.
+     */
+    static List<int[]> highlights(String folded, String[] terms) {
+        List<int[]> ranges = new ArrayList<>();
+        for (String term : terms) {
+            for (int at = folded.indexOf(term); at >= 0; at = folded.indexOf(term, at + 1)) {
+                ranges.add(new int[]{at, at + term.length()});
+            }
+        }
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<int[]> merged = new ArrayList<>();
+        for (int[] range : ranges) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1]) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    static String[] terms(String query) {
+        return Arrays.stream(fold(query == null ? "" : query).split("[\\s\\p{Punct}、。・「」]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Folds text one character at a time so offsets stay aligned with the original:
+     * lower case, accents removed from Latin letters, full-width forms narrowed and
+     * katakana mapped to hiragana.
+     */
+    static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        char[] folded = new char[value.length()];
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x30A1 && c <= 0x30F6) {
+                // Katakana to hiragana
+                c = (char) (c - 0x60);
+            } else if (c >= 0xFF01 && c <= 0xFF5E) {
+                // Full-width ASCII
+                c = (char) (c - 0xFEE0);
+            } else if (c >= 0x00C0 && c <= 0x024F) {
+                String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                c = decomposed.charAt(0);
+            }
+            folded[i] = Character.toLowerCase(c);
+        }
+        return new String(folded);
+    }
+
+    private static String detail(PlayRecord record) {
+        StringBuilder sb = new StringBuilder();
+        appendDetail(sb, record.getSpotifyAlbumName());
+        appendDetail(sb, record.getSpotifyArtistName());
+        appendDetail(sb, record.getLocalAlbum());
+        appendDetail(sb, record.getLocalGenre());
+        appendDetail(sb, record.getGensokyoTitle());
+        appendDetail(sb, record.getGensokyoArtist());
+        appendDetail(sb, record.getGensokyoAlbum());
+        appendDetail(sb, record.getGensokyoCircle());
+        appendDetail(sb, record.getRadioStationName());
+        appendDetail(sb, record.getStreamName());
+        appendDetail(sb, record.getYoutubeVideoId());
+        return sb.toString();
+    }
+
+    private static void appendDetail(StringBuilder sb, String value) {
+        if (value != null && !value.isEmpty()) {
+            if (sb.length() > 0) {
+                sb.append(" / ");
+            }
+            sb.append(value);
+        }
+    }
+
+    private static int bigram(char a, char b) {
+        return (a << 16) | b;
+    }
+
+    /**
+     * A search hit: the record's sequence number, its score and the folded text it matched.
+     */
+    record Match(int seq, int score, Text text) {
+        private static final Comparator<Match> BEST_FIRST =
+                Comparator.comparingInt(Match::score).thenComparingInt(Match::seq).reversed();
+    }
+
+    record Result(List<Match> matches, int total) {
+    }
+
+    /**
+     * Keeps the best matches seen so far in a bounded heap, worst on top, so broad
+     * queries don't sort every match just to return one page.
+     */
+    private static final class TopMatches {
+        private final int keep;
+        private final PriorityQueue<Match> heap;
+        private int total;
+
+        private TopMatches(int keep) {
+            this.keep = keep > 0 ? keep : Integer.MAX_VALUE;
+            this.heap = new PriorityQueue<>(Match.BEST_FIRST.reversed());
+        }
+
+        private void offer(int seq, int score, Text text) {
+            total++;
+            if (heap.size() == keep) {
+                Match worst = heap.peek();
+                if (score < worst.score || (score == worst.score && seq < worst.seq)) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(new Match(seq, score, text));
+        }
+
+        private List<Match> sorted() {
+            List<Match> matches = new ArrayList<>(heap);
+            matches.sort(Match.BEST_FIRST);
+            return matches;
+        }
+    }
+
+    /**
+     * Folded text of one distinct song and the plays that share it.
+     */
+    static final class Text {
+        final String title;
+        final String artist;
+        final String detail;
+        final IntList seqs = new IntList();
+
+        private Text(String title, String artist, String detail) {
+            this.title = title;
+            this.artist = artist;
+            this.detail = detail;
+        }
+
+        static Text of(PlayRecord record) {
+            return new Text(fold(record.getTitle()), fold(record.getArtist()), fold(detail(record)));
+        }
+    }
+
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+import java.util.List;
+
+/**
+ * One page of text search results, best match first.
+ *
+ * @param total number of records matching the search and the filters
+ */
+public record HistorySearchPage(List<Hit> hits, int total) {
+
+    /**
+     * A matching record with the [start, end) character ranges of the query terms
+     * in its title and artist.
+     */
+    public record Hit(PlayRecord record, int score, List<int[]> titleHighlights, List<int[]> artistHighlights) {
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Play counters and leaderboards, updated as records are appended instead of
+ * recomputed from the whole history.
+ * <p>
+ * Every guild, plus the global scope, keeps one set of counters per {@link Window}.
+ * Rolling windows are fed by hourly buckets: a play is added to every window it
+ * falls in, and its bucket is subtracted again once it slides out of a window.
+ * Leaderboards are exact: entries are kept in a tree ordered by play count, so a
+ * count change costs a remove and an insert, and the top K is the first K entries.
+ */
+public class HistoryStats {
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+    private static final String GLOBAL = "";
+
+    private final Map<String, Scope> scopes = new HashMap<>();
+    private final Map<String, String> guildNames = new HashMap<>();
+
+    /**
+     * Time ranges the counters are kept for.
+     */
+    public enum Window {
+        DAY(TimeUnit.DAYS.toMillis(1)),
+        WEEK(TimeUnit.DAYS.toMillis(7)),
+        MONTH(TimeUnit.DAYS.toMillis(30)),
+        ALL(0);
+
+        private final long length;
+
+        Window(long length) {
+            this.length = length;
+        }
+
+        public static Window fromString(String value) {
+            if (value == null || value.isEmpty()) {
+                return ALL;
+            }
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "day":
+                case "today":
+                    return DAY;
+                case "week":
+                    return WEEK;
+                case "month":
+                    return MONTH;
+                default:
+                    return ALL;
+            }
+        }
+    }
+
+    /**
+     * Counters of one scope and window.
+     *
+     * @param plays      number of plays
+     * @param listenedMs total length of the tracks played, streams excluded
+     */
+    public record Summary(long plays, long listenedMs, List<Entry> topTracks, List<Entry> topRequesters) {
+    }
+
+    /**
+     * A leaderboard line. For tracks {@code id} is the URL and {@code detail} the artist,
+     * for requesters they are the user ID and null.
+     */
+    public record Entry(String name, String id, String detail, long plays, long listenedMs) {
+    }
+
+    /**
+     * Play counts of one guild over a window.
+     */
+    public record GuildCount(String guildId, String guildName, long plays, long listenedMs) {
+    }
+
+    public synchronized void add(PlayRecord record) {
+        long now = System.currentTimeMillis();
+        if (record.getGuildId() != null) {
+            guildNames.put(record.getGuildId(), record.getGuildName());
+            scope(record.getGuildId()).add(record, now);
+        }
+        scope(GLOBAL).add(record, now);
+    }
+
+    /**
+     * Counts records loaded from the history store, oldest first.
+     */
+    public void addAll(List<PlayRecord> records) {
+        for (PlayRecord record : records) {
+            add(record);
+        }
+    }
+
+    public synchronized void clear() {
+        scopes.clear();
+        guildNames.clear();
+    }
+
+    /**
+     * @param guildId guild to report on, or null for every guild
+     * @param limit   number of leaderboard entries
+     */
+    public synchronized Summary summary(String guildId, Window window, int limit) {
+        Scope scope = scopes.get(guildId == null ? GLOBAL : guildId);
+        if (scope == null) {
+            return new Summary(0, 0, List.of(), List.of());
+        }
+        scope.expire(System.currentTimeMillis());
+        Counts counts = scope.windows.get(window);
+        return new Summary(counts.plays, counts.listenedMs, counts.tracks.top(limit), counts.requesters.top(limit));
+    }
+
+    /**
+     * Guilds with at least one play in the window, most active first.
+     */
+    public synchronized List<GuildCount> guilds(Window window) {
+        long now = System.currentTimeMillis();
+        List<GuildCount> guilds = new ArrayList<>();
+        for (Map.Entry<String, Scope> entry : scopes.entrySet()) {
+            if (entry.getKey().equals(GLOBAL)) {
+                continue;
+            }
+            entry.getValue().expire(now);
+            Counts counts = entry.getValue().windows.get(window);
+            if (counts.plays > 0) {
+                guilds.add(new GuildCount(entry.getKey(), guildNames.get(entry.getKey()), counts.plays, counts.listenedMs));
+            }
+        }
+        guilds.sort(Comparator.comparingLong(GuildCount::plays).reversed());
+        return guilds;
+    }
+
+    @Override
+    public synchronized String toString() {
+        Scope global = scopes.get(GLOBAL);
+        if (global == null) {
+            return "0 plays";
+        }
+        Counts all = global.windows.get(Window.ALL);
+        return String.format("%d plays, %d tracks, %d requesters, %d guilds, %d hour buckets",
+                all.plays, all.tracks.size(), all.requesters.size(), scopes.size() - 1, global.buckets.size());
+    }
+
+    /**
+     * Key under which plays of the same track are counted: the video or track ID when
+     * known, the title for radios and streams whose URL is the station, else the URL
+     * without scheme, "www." and tracking parameters.
+     */
+    static String trackKey(PlayRecord record) {
+        if (record.getYoutubeVideoId() != null && !record.getYoutubeVideoId().isEmpty()) {
+            return "youtube:" + record.getYoutubeVideoId();
+        }
+        if (record.hasSpotifyData()) {
+            return "spotify:" + record.getSpotifyTrackId();
+        }
+        if (record.hasRadioData() || record.hasGensokyoData() || record.hasStreamData() || record.getUrl() == null) {
+            return "title:" + (record.getTitle() + "|" + record.getArtist()).toLowerCase(Locale.ROOT);
+        }
+        String url = record.getUrl();
+        int fragment = url.indexOf('#');
+        if (fragment >= 0) {
+            url = url.substring(0, fragment);
+        }
+        url = url.replaceFirst("^(?i)https?://(www\\.|m\\.)?", "");
+        int queryStart = url.indexOf('?');
+        if (queryStart >= 0) {
+            StringBuilder kept = new StringBuilder();
+            for (String param : url.substring(queryStart + 1).split("&")) {
+                String name = param.split("=", 2)[0].toLowerCase(Locale.ROOT);
+                if (name.startsWith("utm_") || name.equals("si") || name.equals("feature") || name.isEmpty()) {
+                    continue;
+                }
+                kept.append(kept.length() == 0 ? '?' : '&').append(param);
+            }
+            url = url.substring(0, queryStart) + kept;
+        }
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+
+    private static long listenedMs(PlayRecord record) {
+        long duration = record.getDuration();
+        return record.isLiveStream() || duration <= 0 || duration == Long.MAX_VALUE ? 0 : duration;
+    }
+
+    private Scope scope(String key) {
+        return scopes.computeIfAbsent(key, k -> new Scope());
+    }
+
+    /**
+     * Counters of one guild, or of every guild.
+     */
+    private static final class Scope {
+        private final EnumMap<Window, Counts> windows = new EnumMap<>(Window.class);
+        // Plays of the last month by hour, to subtract from the rolling windows
+        private final TreeMap<Long, Counts> buckets = new TreeMap<>();
+        // Per rolling window, the first hour still counted in it
+        private final EnumMap<Window, Long> windowStart = new EnumMap<>(Window.class);
+
+        private Scope() {
+            for (Window window : Window.values()) {
+                windows.put(window, new Counts(true));
+                if (window != Window.ALL) {
+                    windowStart.put(window, Long.MIN_VALUE);
+                }
+            }
+        }
+
+        private void add(PlayRecord record, long now) {
+            expire(now);
+            long hour = Math.floorDiv(record.getPlayedAt(), HOUR_MS);
+            windows.get(Window.ALL).add(record, 1);
+            boolean bucketed = false;
+            for (Map.Entry<Window, Long> entry : windowStart.entrySet()) {
+                if (hour >= entry.getValue()) {
+                    windows.get(entry.getKey()).add(record, 1);
+                    bucketed = true;
+                }
+            }
+            if (bucketed) {
+                buckets.computeIfAbsent(hour, k -> new Counts(false)).add(record, 1);
+            }
+        }
+
+        /**
+         * Slides the rolling windows to {@code now}, subtracting the hours that left them.
+         */
+        private void expire(long now) {
+            long currentHour = Math.floorDiv(now, HOUR_MS);
+            for (Map.Entry<Window, Long> entry : windowStart.entrySet()) {
+                long start = currentHour - entry.getKey().length / HOUR_MS + 1;
+                if (start <= entry.getValue()) {
+                    continue;
+                }
+                Counts counts = windows.get(entry.getKey());
+                for (Counts bucket : buckets.subMap(entry.getValue(), true, start, false).values()) {
+                    counts.subtract(bucket);
+                }
+                entry.setValue(start);
+            }
+            long oldest = windowStart.get(Window.MONTH);
+            buckets.headMap(oldest, false).clear();
+        }
+    }
+
+    /**
+     * Play and listening totals with their leaderboards.
+     */
+    private static final class Counts {
+        private long plays;
+        private long listenedMs;
+        private final Leaderboard tracks;
+        private final Leaderboard requesters;
+
+        /**
+         * @param ranked whether the leaderboards are read; hourly buckets only hold counts
+         */
+        private Counts(boolean ranked) {
+            tracks = new Leaderboard(ranked);
+            requesters = new Leaderboard(ranked);
+        }
+
+        private void add(PlayRecord record, int sign) {
+            long listened = listenedMs(record);
+            plays += sign;
+            listenedMs += sign * listened;
+            tracks.add(trackKey(record), record.getTitle(), record.getUrl(), record.getArtist(), sign, sign * listened);
+            String requester = record.getRequesterName() == null ? "" : record.getRequesterName();
+            requesters.add(requester, requester, record.getRequesterId(), null, sign, sign * listened);
+        }
+
+        private void subtract(Counts bucket) {
+            plays -= bucket.plays;
+            listenedMs -= bucket.listenedMs;
+            tracks.subtract(bucket.tracks);
+            requesters.subtract(bucket.requesters);
+        }
+    }
+
+    /**
+     * Counts by key, readable in descending order of plays.
+     */
+    private static final class Leaderboard {
+        private static final Comparator<Line> ORDER = Comparator.comparingLong((Line line) -> line.plays).reversed()
+                .thenComparing(line -> line.key);
+
+        private final Map<String, Line> lines = new HashMap<>();
+        private final TreeSet<Line> ranking;
+
+        private Leaderboard(boolean ranked) {
+            ranking = ranked ? new TreeSet<>(ORDER) : null;
+        }
+
+        private void add(String key, String name, String id, String detail, long plays, long listenedMs) {
+            Line line = lines.get(key);
+            if (line == null) {
+                if (plays <= 0) {
+                    return;
+                }
+                line = new Line(key);
+                lines.put(key, line);
+            } else if (ranking != null) {
+                ranking.remove(line);
+            }
+            line.plays += plays;
+            line.listenedMs += listenedMs;
+            if (plays > 0) {
+                // Latest name wins, titles and requester names change over time
+                line.name = name;
+                line.id = id;
+                line.detail = detail;
+            }
+            if (line.plays <= 0) {
+                lines.remove(key);
+            } else if (ranking != null) {
+                ranking.add(line);
+            }
+        }
+
+        private void subtract(Leaderboard bucket) {
+            for (Line line : bucket.lines.values()) {
+                add(line.key, line.name, line.id, line.detail, -line.plays, -line.listenedMs);
+            }
+        }
+
+        private List<Entry> top(int limit) {
+            List<Entry> top = new ArrayList<>(Math.min(limit, lines.size()));
+            Iterator<Line> it = ranking.iterator();
+            while (it.hasNext() && top.size() < limit) {
+                Line line = it.next();
+                top.add(new Entry(line.name, line.id, line.detail, line.plays, line.listenedMs));
+            }
+            return top;
+        }
+
+        private int size() {
+            return lines.size();
+        }
+    }
+
+    private static final class Line {
+        private final String key;
+        private String name;
+        private String id;
+        private String detail;
+        private long plays;
+        private long listenedMs;
+
+        private Line(String key) {
+            this.key = key;
+        }
+    }
+}
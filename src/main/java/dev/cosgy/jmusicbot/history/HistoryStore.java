@@ -0,0 +1,287 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Play history split into tiers: the newest records in a {@link HistoryIndex} in
+ * memory, older ones in the segments of a {@link HistoryLog} on disk.
+ * <p>
+ * The memory tier is trimmed back to {@link HistoryRetention#hotRecords()} records
+ * (and the hot age) as records are added, so heap usage stays bounded however long
+ * the bot runs. Queries read the memory tier first and continue into the log when a
+ * page reaches past it; totals of older records come from the segment summaries, and
+ * only segments that the summaries cannot answer for are read. Text search works the
+ * same way, through the search index in memory and a scan of the log below it.
+ */
+public class HistoryStore {
+    private static final long AGE_SLACK_MS = TimeUnit.HOURS.toMillis(6);
+
+    private final HistoryRetention retention;
+    private final HistoryIndex index = new HistoryIndex();
+    private final HistoryLog log;
+
+    public HistoryStore(Path dir, HistoryRetention retention) {
+        this.retention = retention;
+        this.log = new HistoryLog(dir, retention);
+    }
+
+    /**
+     * Loads the newest records into memory and starts building the search index.
+     *
+     * @param legacyFile the old {@code music_history.json}, migrated if the log does not exist yet
+     */
+    public void open(Path legacyFile) throws IOException {
+        List<PlayRecord> hot = log.open(legacyFile);
+        index.load(log.openedSeq() - hot.size(), hot);
+        index.buildSearchIndex();
+    }
+
+    /**
+     * Visits every record stored before {@link #open} returned, oldest first, reading
+     * the log one segment at a time. Meant for a background thread: it reads the whole
+     * history.
+     */
+    public void replay(Consumer<PlayRecord> visitor) {
+        log.replay(log.openedSeq(), visitor);
+    }
+
+    public void add(PlayRecord record) {
+        index.add(record);
+        log.append(record);
+        trim();
+    }
+
+    /**
+     * Newest records, as kept in memory.
+     */
+    public List<PlayRecord> recent() {
+        return index.newestFirst();
+    }
+
+    public HistoryPage query(HistoryQuery query) {
+        long base = index.base();
+        HistoryPage hot = index.query(query);
+        if (base == 0) {
+            return hot;
+        }
+
+        String guildId = HistoryIndex.isFilter(query.guildId()) ? query.guildId() : null;
+        String requester = HistoryIndex.isFilter(query.requesterName()) ? query.requesterName() : null;
+        Set<String> types = query.types() == null || query.types().contains("all") ? Set.of() : query.types();
+        Predicate<PlayRecord> matches = record -> HistoryIndex.matches(record, guildId, requester, types, query);
+        HistoryLog.SummaryCounter counter = summary -> count(summary, guildId, requester, types, query);
+        int total = hot.total() + log.count(base, counter, matches);
+
+        int limit = query.limit() > 0 ? query.limit() : Integer.MAX_VALUE;
+        if (hot.records().size() >= limit) {
+            // Everything below the memory tier comes next, so its lower bound works as a cursor
+            long next = hot.nextCursor() >= 0 ? hot.nextCursor() : total > hot.total() ? base : -1;
+            return new HistoryPage(hot.records(), total, next);
+        }
+
+        List<PlayRecord> page = new ArrayList<>(hot.records());
+        int[] skip = {query.cursor() >= 0 ? 0 : Math.max(0, query.offset() - hot.total())};
+        long[] lastSeq = {-1};
+        long before = query.cursor() >= 0 ? Math.min(query.cursor(), base) : base;
+        log.scan(before, summary -> counter.count(summary) != 0, (seq, record) -> {
+            if (!matches.test(record)) {
+                return true;
+            }
+            if (skip[0] > 0) {
+                skip[0]--;
+                return true;
+            }
+            page.add(record);
+            lastSeq[0] = seq;
+            return page.size() < limit;
+        });
+        return new HistoryPage(page, total, page.size() >= limit && lastSeq[0] > 0 ? lastSeq[0] : -1);
+    }
+
+    /**
+     * Writes every record matching the filters of {@code query}, newest first, from
+     * memory and then from the log. Paging fields are ignored; records are streamed
+     * one at a time and never collected.
+     *
+     * @return number of records written
+     */
+    public long export(HistoryQuery query, HistoryExport export) throws IOException {
+        String guildId = HistoryIndex.isFilter(query.guildId()) ? query.guildId() : null;
+        String requester = HistoryIndex.isFilter(query.requesterName()) ? query.requesterName() : null;
+        Set<String> types = query.types() == null || query.types().contains("all") ? Set.of() : query.types();
+        HistoryIndex.Snapshot hot = index.snapshot();
+        for (PlayRecord record : hot.newestFirst()) {
+            if (HistoryIndex.matches(record, guildId, requester, types, query)) {
+                export.write(record);
+            }
+        }
+        if (hot.base() == 0) {
+            return export.written();
+        }
+
+        IOException[] failure = {null};
+        log.scan(hot.base(), summary -> count(summary, guildId, requester, types, query) != 0, (seq, record) -> {
+            if (!HistoryIndex.matches(record, guildId, requester, types, query)) {
+                return true;
+            }
+            try {
+                export.write(record);
+                return true;
+            } catch (IOException e) {
+                failure[0] = e;
+                return false;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return export.written();
+    }
+
+    /**
+     * Text search over every stored record: the memory tier through its search index,
+     * then the log, skipping the segments whose summary rules out the filters. Ranked
+     * by relevance, then by recency.
+     */
+    public HistorySearchPage search(HistoryQuery query, String text) {
+        long base = index.base();
+        String[] terms = HistorySearchIndex.terms(text);
+        if (base == 0) {
+            return index.search(query, text);
+        }
+        if (terms.length == 0) {
+            HistoryPage page = query(new HistoryQuery(query.guildId(), query.types(), query.requesterName(),
+                    query.from(), query.to(), query.limit(), query.offset(), -1));
+            List<HistorySearchPage.Hit> hits = new ArrayList<>(page.records().size());
+            for (PlayRecord record : page.records()) {
+                hits.add(new HistorySearchPage.Hit(record, 0, List.of(), List.of()));
+            }
+            return new HistorySearchPage(hits, page.total());
+        }
+
+        int skip = Math.max(0, query.offset());
+        int keep = query.limit() > 0 ? skip + query.limit() : Integer.MAX_VALUE;
+        HistorySearchPage hot = index.search(new HistoryQuery(query.guildId(), query.types(), query.requesterName(),
+                query.from(), query.to(), query.limit() > 0 ? keep : 0, 0, -1), text);
+
+        String guildId = HistoryIndex.isFilter(query.guildId()) ? query.guildId() : null;
+        String requester = HistoryIndex.isFilter(query.requesterName()) ? query.requesterName() : null;
+        Set<String> types = query.types() == null || query.types().contains("all") ? Set.of() : query.types();
+        // Best matches of the log so far, worst on top
+        PriorityQueue<StoredMatch> best = new PriorityQueue<>(StoredMatch.BEST_FIRST.reversed());
+        int[] matched = {0};
+        log.scan(base, summary -> count(summary, guildId, requester, types, query) != 0, (seq, record) -> {
+            if (!HistoryIndex.matches(record, guildId, requester, types, query)) {
+                return true;
+            }
+            HistorySearchIndex.Text folded = HistorySearchIndex.Text.of(record);
+            int score = HistorySearchIndex.score(folded, terms);
+            if (score > 0) {
+                matched[0]++;
+                best.add(new StoredMatch(seq, score, record, folded));
+                if (best.size() > keep) {
+                    best.poll();
+                }
+            }
+            return true;
+        });
+        List<StoredMatch> stored = new ArrayList<>(best);
+        stored.sort(StoredMatch.BEST_FIRST);
+
+        // Both lists are best first; records in memory are newer, so they win ties
+        List<HistorySearchPage.Hit> merged = new ArrayList<>();
+        int h = 0;
+        int s = 0;
+        while (merged.size() < keep && (h < hot.hits().size() || s < stored.size())) {
+            if (s == stored.size() || (h < hot.hits().size() && hot.hits().get(h).score() >= stored.get(s).score())) {
+                merged.add(hot.hits().get(h++));
+            } else {
+                StoredMatch match = stored.get(s++);
+                merged.add(new HistorySearchPage.Hit(match.record(), match.score(),
+                        HistorySearchIndex.highlights(match.text().title, terms),
+                        HistorySearchIndex.highlights(match.text().artist, terms)));
+            }
+        }
+        List<HistorySearchPage.Hit> page = new ArrayList<>(merged.subList(Math.min(skip, merged.size()), merged.size()));
+        return new HistorySearchPage(page, hot.total() + matched[0]);
+    }
+
+    public Map<String, String> getRequesters(String guildId) {
+        Map<String, String> requesters = log.requesters(index.base(), guildId);
+        // Records in memory are newer, so their IDs win
+        requesters.putAll(index.getRequesters(guildId));
+        return requesters;
+    }
+
+    public void clear() {
+        index.clear();
+        log.clear();
+    }
+
+    public void close() {
+        log.close();
+    }
+
+    @Override
+    public String toString() {
+        return "in memory=" + index.size() + ", " + log;
+    }
+
+    /**
+     * Drops the oldest records from memory once there are a quarter more than the hot
+     * limit, or one is more than a few hours past the hot age, so the indexes are not
+     * rebuilt on every add.
+     */
+    private void trim() {
+        long cutoff = retention.hotCutoff(System.currentTimeMillis());
+        PlayRecord oldest = index.oldest();
+        boolean tooMany = index.size() > retention.hotRecords() + Math.max(1, retention.hotRecords() / 4);
+        boolean tooOld = cutoff != Long.MIN_VALUE && oldest != null && oldest.getPlayedAt() < cutoff - AGE_SLACK_MS;
+        if (tooMany || tooOld) {
+            index.retain(retention.hotRecords(), cutoff);
+        }
+    }
+
+    /**
+     * A search hit read from the log.
+     */
+    private record StoredMatch(long seq, int score, PlayRecord record, HistorySearchIndex.Text text) {
+        private static final Comparator<StoredMatch> BEST_FIRST =
+                Comparator.comparingInt(StoredMatch::score).thenComparingLong(StoredMatch::seq).reversed();
+    }
+
+    /**
+     * Matching records of a segment from its summary, or -1 when the play time range
+     * only partly overlaps the query and the segment has to be read.
+     */
+    private static int count(HistoryLog.Summary summary, String guildId, String requester,
+                             Set<String> types, HistoryQuery query) {
+        if (summary.maxPlayedAt() < query.from() || summary.minPlayedAt() >= query.to()) {
+            return 0;
+        }
+        int matching = summary.count(guildId, requester, types);
+        if (matching == 0) {
+            return 0;
+        }
+        if (summary.minPlayedAt() < query.from() || summary.maxPlayedAt() >= query.to()) {
+            return -1;
+        }
+        return matching;
+    }
+}
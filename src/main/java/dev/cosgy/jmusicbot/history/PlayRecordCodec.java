@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+
+/**
+ * Converts play records to and from the JSON tree shared by the legacy
+ * {@code music_history.json} file and the history log segments.
+ */
+final class PlayRecordCodec {
+    private PlayRecordCodec() {
+    }
+
+    static ObjectNode toNode(ObjectMapper mapper, PlayRecord record) {
+        ObjectNode recordNode = mapper.createObjectNode();
+        recordNode.put("title", record.getTitle());
+        recordNode.put("artist", record.getArtist());
+        recordNode.put("duration", record.getDuration());
+        recordNode.put("url", record.getUrl());
+        recordNode.put("playedAt", record.getPlayedAt());
+        recordNode.put("requesterId", record.getRequesterId());
+        recordNode.put("requesterName", record.getRequesterName());
+        recordNode.put("guildName", record.getGuildName());
+        recordNode.put("guildId", record.getGuildId());
+
+        // Save metadata based on type
+        if (record.hasSpotifyData()) {
+            ObjectNode spotifyData = recordNode.putObject("spotifyData");
+            spotifyData.put("trackId", record.getSpotifyTrackId());
+            spotifyData.put("albumName", record.getSpotifyAlbumName());
+            spotifyData.put("albumImageUrl", record.getSpotifyAlbumImageUrl());
+            spotifyData.put("artistName", record.getSpotifyArtistName());
+            spotifyData.put("releaseYear", record.getSpotifyReleaseYear());
+        } else if (record.hasRadioData()) {
+            ObjectNode radioData = recordNode.putObject("radioData");
+            radioData.put("stationName", record.getRadioStationName());
+            radioData.put("songImageUrl", record.getRadioSongImageUrl());
+            radioData.put("logoUrl", record.getRadioLogoUrl());
+        } else if (record.hasSoundCloudData()) {
+            ObjectNode soundcloudData = recordNode.putObject("soundcloudData");
+            soundcloudData.put("artworkUrl", record.getSoundCloudArtworkUrl());
+        } else if (record.hasYtDlpData()) {
+            ObjectNode ytDlpData = recordNode.putObject("ytDlpData");
+            ytDlpData.put("sourceType", record.getYtDlpSourceType());
+            ytDlpData.put("thumbnailUrl", record.getYtDlpThumbnailUrl());
+            ytDlpData.put("sourceIconUrl", record.getYtDlpSourceIconUrl());
+        } else if (record.hasYoutubeData()) {
+            ObjectNode ytData = recordNode.putObject("youtubeData");
+            ytData.put("videoId", record.getYoutubeVideoId());
+        } else if (record.hasLocalData()) {
+            ObjectNode localData = recordNode.putObject("localData");
+            localData.put("album", record.getLocalAlbum());
+            localData.put("genre", record.getLocalGenre());
+            localData.put("year", record.getLocalYear());
+            localData.put("artworkHash", record.getLocalArtworkHash());
+        } else if (record.hasGensokyoData()) {
+            ObjectNode gensokyoData = recordNode.putObject("gensokyoData");
+            gensokyoData.put("title", record.getGensokyoTitle());
+            gensokyoData.put("artist", record.getGensokyoArtist());
+            gensokyoData.put("album", record.getGensokyoAlbum());
+            gensokyoData.put("circle", record.getGensokyoCircle());
+            gensokyoData.put("year", record.getGensokyoYear());
+            gensokyoData.put("albumArtUrl", record.getGensokyoAlbumArtUrl());
+        } else if (record.hasStreamData()) {
+            ObjectNode streamData = recordNode.putObject("streamData");
+            streamData.put("streamName", record.getStreamName());
+            streamData.put("streamGenre", record.getStreamGenre());
+            streamData.put("streamLogo", record.getStreamLogo());
+            streamData.put("isLive", record.isLiveStream());
+        }
+        return recordNode;
+    }
+
+    static PlayRecord fromNode(JsonNode recordNode) {
+        // Get the guildId if available, otherwise use "unknown"
+        String guildId = recordNode.has("guildId")
+            ? recordNode.get("guildId").asText()
+            : "unknown";
+
+        PlayRecord record = new PlayRecord(
+            recordNode.get("title").asText(),
+            recordNode.get("artist").asText(),
+            recordNode.get("duration").asLong(),
+            recordNode.get("url").asText(),
+            recordNode.get("playedAt").asLong(),
+            recordNode.get("requesterId").asText(),
+            recordNode.get("requesterName").asText(),
+            recordNode.get("guildName").asText(),
+            guildId
+        );
+
+        // Load metadata based on type
+        if (recordNode.has("spotifyData")) {
+            JsonNode spotifyData = recordNode.get("spotifyData");
+            record.setSpotifyData(
+                spotifyData.path("trackId").asText(null),
+                spotifyData.path("albumName").asText(null),
+                spotifyData.path("albumImageUrl").asText(null),
+                spotifyData.path("artistName").asText(null),
+                spotifyData.path("releaseYear").asText(null)
+            );
+        } else if (recordNode.has("radioData")) {
+            JsonNode radioData = recordNode.get("radioData");
+            record.setRadioData(
+                radioData.path("stationName").asText(null),
+                radioData.path("songImageUrl").asText(null),
+                radioData.path("logoUrl").asText(null)
+            );
+        } else if (recordNode.has("soundcloudData")) {
+            JsonNode soundcloudData = recordNode.get("soundcloudData");
+            record.setSoundCloudData(
+                soundcloudData.path("artworkUrl").asText(null)
+            );
+        } else if (recordNode.has("ytDlpData")) {
+            JsonNode ytDlpData = recordNode.get("ytDlpData");
+            record.setYtDlpData(
+                ytDlpData.path("sourceType").asText(null),
+                ytDlpData.path("thumbnailUrl").asText(null),
+                ytDlpData.path("sourceIconUrl").asText(null)
+            );
+        } else if (recordNode.has("youtubeData")) {
+            JsonNode ytData = recordNode.get("youtubeData");
+            record.setYoutubeData(ytData.path("videoId").asText(null));
+        } else if (recordNode.has("localData")) {
+            JsonNode localData = recordNode.get("localData");
+            record.setLocalData(
+                localData.path("album").asText(""),
+                localData.path("genre").asText(""),
+                localData.path("year").asText(""),
+                localData.path("artworkHash").asText("")
+            );
+        } else if (recordNode.has("gensokyoData")) {
+            JsonNode gensokyoData = recordNode.get("gensokyoData");
+            record.setGensokyoData(
+                gensokyoData.path("title").asText(null),
+                gensokyoData.path("artist").asText(null),
+                gensokyoData.path("album").asText(null),
+                gensokyoData.path("circle").asText(null),
+                gensokyoData.path("year").asText(null),
+                gensokyoData.path("albumArtUrl").asText(null)
+            );
+        } else if (recordNode.has("streamData")) {
+            JsonNode streamData = recordNode.get("streamData");
+            record.setStreamData(
+                streamData.path("streamName").asText(null),
+                streamData.path("streamGenre").asText(null),
+                streamData.path("streamLogo").asText(null),
+                streamData.path("isLive").asBoolean(false)
+            );
+        }
+        return record;
+    }
+}
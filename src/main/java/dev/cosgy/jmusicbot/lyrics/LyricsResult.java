@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.lyrics;
+
+import org.json.JSONObject;
+
+/**
+ * Lyrics found for a song, whichever provider they came from.
+ *
+ * @param url link to the lyrics page, or null when the provider has none
+ */
+public record LyricsResult(String title, String author, String content, String url) {
+
+    JSONObject toJson() {
+        return new JSONObject()
+                .put("title", title)
+                .put("author", author)
+                .put("content", content)
+                .put("url", url == null ? "" : url);
+    }
+
+    static LyricsResult fromJson(JSONObject json) {
+        String url = json.optString("url");
+        return new LyricsResult(json.getString("title"), json.getString("author"), json.getString("content"),
+                url.isEmpty() ? null : url);
+    }
+}
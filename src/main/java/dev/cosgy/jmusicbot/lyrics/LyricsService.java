@@ -0,0 +1,330 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.lyrics;
+
+import com.jagrosh.jmusicbot.BotConfig;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.cosgy.jlyrics.Lyrics;
+import dev.cosgy.jlyrics.LyricsClient;
+import dev.cosgy.jmusicbot.util.LruCache;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Looks up song lyrics, first through {@link LyricsClient} and then lyrics.ovh, and
+ * caches the outcome by normalized artist and title so every guild shares it.
+ * <p>
+ * Songs without lyrics are cached too, with a much shorter TTL than found lyrics. A lookup
+ * that failed to reach a provider is not cached, so the next one tries again.
+ * Found lyrics can be persisted to a gzip-compressed file so they survive restarts.
+ */
+public class LyricsService {
+    private static final Logger log = LoggerFactory.getLogger(LyricsService.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "lyrics-cache");
+        t.setDaemon(true);
+        return t;
+    });
+    private final LyricsClient client = new LyricsClient();
+    private final LruCache<String, CacheEntry> cache;
+    private final Map<String, CompletableFuture<LyricsResult>> inFlight = new ConcurrentHashMap<>();
+    private final long hitTtlMs;
+    private final long missTtlMs;
+    private final boolean prefetch;
+    private final Path cacheFile;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private volatile boolean dirty;
+
+    public LyricsService(BotConfig config) {
+        this.cache = new LruCache<>(config.getLyricsCacheSize());
+        this.hitTtlMs = TimeUnit.MINUTES.toMillis(config.getLyricsHitTtl());
+        this.missTtlMs = TimeUnit.MINUTES.toMillis(config.getLyricsMissTtl());
+        this.prefetch = config.isLyricsPrefetch();
+        String file = config.getLyricsCacheFile();
+        this.cacheFile = file == null || file.isBlank() ? null : Paths.get(file);
+    }
+
+    /**
+     * Loads the persisted cache and schedules periodic saves.
+     */
+    public void init() {
+        if (cacheFile == null) {
+            return;
+        }
+        loadCache();
+        scheduler.scheduleWithFixedDelay(this::saveCacheIfDirty, 10, 10, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Finds lyrics for a song title, answering from the cache when possible.
+     * Concurrent lookups of the same song share a single request.
+     *
+     * @param title the song title, usually "Artist - Title"
+     * @return a future completed with the lyrics, or with null when none were found
+     */
+    public CompletableFuture<LyricsResult> getLyrics(String title) {
+        String key = normalizeKey(title);
+        CacheEntry entry = cache.get(key);
+        if (entry != null) {
+            if (!entry.isExpired(System.currentTimeMillis())) {
+                if (entry.result == null) {
+                    negativeHits.incrementAndGet();
+                }
+                return CompletableFuture.completedFuture(entry.result);
+            }
+            cache.remove(key);
+        }
+
+        CompletableFuture<LyricsResult> future = new CompletableFuture<>();
+        CompletableFuture<LyricsResult> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        lookups.incrementAndGet();
+        CompletableFuture<Lyrics> primary;
+        try {
+            primary = client.getLyrics(title);
+        } catch (RuntimeException e) {
+            primary = CompletableFuture.failedFuture(e);
+        }
+        primary.handleAsync((lyrics, error) -> {
+                    if (lyrics != null) {
+                        return new Lookup(fromClient(lyrics), true);
+                    }
+                    Lookup fallback = searchFallbacks(title);
+                    // Not found only when every provider answered
+                    return error == null ? fallback : new Lookup(fallback.result(), fallback.result() != null);
+                }, HttpService.get().getExecutor())
+                .whenComplete((lookup, error) -> {
+                    LyricsResult result = error == null ? lookup.result() : null;
+                    if (result != null) {
+                        cache.put(key, new CacheEntry(result, System.currentTimeMillis() + hitTtlMs));
+                        dirty = true;
+                    } else if (error == null && lookup.answered()) {
+                        cache.put(key, new CacheEntry(null, System.currentTimeMillis() + missTtlMs));
+                    }
+                    inFlight.remove(key);
+                    future.complete(result);
+                });
+        return future;
+    }
+
+    /**
+     * Fetches the lyrics of a track in the background so a later lookup is answered
+     * from the cache. Streams are skipped.
+     */
+    public void prefetch(AudioTrack track) {
+        if (!prefetch || track == null || track.getInfo().isStream || track.getInfo().title == null) {
+            return;
+        }
+        getLyrics(cleanupTitle(track.getInfo().title));
+    }
+
+    /**
+     * Strips the usual video decorations from a track title before a lyrics lookup.
+     */
+    public static String cleanupTitle(String title) {
+        return title.replaceAll("\\(Official (Music )?Video\\)", "")
+                    .replaceAll("\\(Official (Audio|Lyric) Video\\)", "")
+                    .replaceAll("\\(Lyric Video\\)", "")
+                    .replaceAll("\\(Audio\\)", "")
+                    .replaceAll("\\[Official (Music )?Video\\]", "")
+                    .replaceAll("\\(\\d{2}:\\d{2}\\)", "")
+                    .trim();
+    }
+
+    /**
+     * Cache counters, plus the lookups that reached the providers and the cached
+     * "no lyrics" answers served.
+     */
+    public String getStats() {
+        return cache + ", lookups=" + lookups.get() + ", negativeHits=" + negativeHits.get();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            // A periodic save may still be writing the temporary file
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("A lyrics cache save is still running, saving after it");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveCacheIfDirty();
+    }
+
+    /**
+     * Builds the cache key: artist and title folded to lower case without accents,
+     * punctuation or extra spaces. Non-Latin scripts are kept as they are.
+     */
+    static String normalizeKey(String title) {
+        String artist = "";
+        String song = title;
+        int dash = title.indexOf('-');
+        if (dash > 0) {
+            artist = title.substring(0, dash);
+            song = title.substring(dash + 1);
+        }
+        return fold(artist) + "|" + fold(song);
+    }
+
+    private static String fold(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFKC);
+        // Drop accents from Latin letters only; kana voicing marks must stay
+        folded = Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("(?<=\\p{IsLatin})\\p{M}+", "");
+        folded = Normalizer.normalize(folded, Normalizer.Form.NFC);
+        return folded.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static LyricsResult fromClient(Lyrics lyrics) {
+        return new LyricsResult(lyrics.getTitle(), lyrics.getAuthor(), lyrics.getContent(), lyrics.getURL());
+    }
+
+    /**
+     * @param answered whether the providers answered, so a null result means they have
+     *                 no lyrics rather than that they could not be reached
+     */
+    private record Lookup(LyricsResult result, boolean answered) {
+    }
+
+    private Lookup searchFallbacks(String title) {
+        try {
+            String text = searchLyricsOvh(title);
+            if (text == null && title.contains("-")) {
+                // Retry with the part after the dash, which is usually the song name alone
+                text = searchLyricsOvh(title.substring(title.indexOf("-") + 1).trim());
+            }
+            return new Lookup(text == null ? null : new LyricsResult(title, "Lyrics for: " + title, text, null), true);
+        } catch (IOException e) {
+            log.debug("lyrics.ovh lookup failed for {}: {}", title, e.getMessage());
+            return new Lookup(null, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Lookup(null, false);
+        }
+    }
+
+    /**
+     * @return the lyrics, or null when lyrics.ovh has none
+     * @throws IOException when lyrics.ovh could not be reached or failed to answer
+     */
+    private String searchLyricsOvh(String title) throws IOException, InterruptedException {
+        // Try to separate artist and title if they're in format "Artist - Title"
+        String artist = "";
+        String songTitle = title;
+
+        if (title.contains("-")) {
+            String[] parts = title.split("-", 2);
+            if (parts.length == 2) {
+                artist = parts[0].trim();
+                songTitle = parts[1].trim();
+            }
+        }
+
+        String apiUrl = "https://api.lyrics.ovh/v1/"
+                + URLEncoder.encode(artist, StandardCharsets.UTF_8) + "/"
+                + URLEncoder.encode(songTitle, StandardCharsets.UTF_8);
+
+        try {
+            String lyrics = new JSONObject(HttpService.get().getString(apiUrl)).optString("lyrics");
+            return lyrics.isEmpty() ? null : lyrics;
+        } catch (HttpService.HttpStatusException e) {
+            // 404 is how lyrics.ovh says it has no lyrics for the song
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw e;
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private void loadCache() {
+        if (!Files.exists(cacheFile)) {
+            return;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(cacheFile))) {
+            JSONArray entries = new JSONArray(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < entries.length(); i++) {
+                JSONObject json = entries.getJSONObject(i);
+                long expiresAt = json.getLong("expiresAt");
+                if (expiresAt > now) {
+                    cache.put(json.getString("key"), new CacheEntry(LyricsResult.fromJson(json), expiresAt));
+                }
+            }
+            log.info("Loaded {} cached lyrics", cache.size());
+        } catch (IOException | JSONException e) {
+            log.warn("Failed to load lyrics cache from {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private synchronized void saveCacheIfDirty() {
+        if (cacheFile == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        JSONArray entries = new JSONArray();
+        long now = System.currentTimeMillis();
+        cache.forEach((key, entry) -> {
+            // Misses are short-lived, only found lyrics are worth keeping
+            if (entry.result != null && !entry.isExpired(now)) {
+                entries.put(entry.result.toJson().put("key", key).put("expiresAt", entry.expiresAt));
+            }
+        });
+        try {
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                out.write(entries.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Failed to save lyrics cache to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private static final class CacheEntry {
+        private final LyricsResult result;
+        private final long expiresAt;
+
+        private CacheEntry(LyricsResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
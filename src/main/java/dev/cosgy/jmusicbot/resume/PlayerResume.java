@@ -0,0 +1,342 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.resume;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.AudioHandler;
+import com.jagrosh.jmusicbot.audio.QueuedTrack;
+import com.jagrosh.jmusicbot.audio.RequestMetadata;
+import com.jagrosh.jmusicbot.settings.Settings;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import dev.cosgy.jmusicbot.settings.RepeatMode;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.audio.hooks.ConnectionStatus;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Saves the players of every guild when the bot shuts down and resumes them on the next
+ * start.
+ * <p>
+ * The snapshot is taken before anything is stopped, see {@link PlayerSnapshot} for what
+ * it holds. On start it is read once and deleted, so a bot that keeps crashing does not
+ * keep rejoining voice channels; a snapshot older than {@code resume.maxage} is dropped.
+ * Each shard resumes its guilds when it is ready, a few at a time: a guild holds its slot
+ * until its voice connection is up, which keeps the voice state updates of a large shard
+ * from queueing behind the gateway rate limit.
+ */
+public class PlayerResume {
+    private static final Logger log = LoggerFactory.getLogger(PlayerResume.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long CONNECT_TIMEOUT_MILLIS = 10000;
+
+    private final Bot bot;
+    private final Path file;
+    private final Map<Long, PlayerSnapshot.GuildPlayer> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean saved = new AtomicBoolean();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public PlayerResume(Bot bot, Path file) {
+        this.bot = bot;
+        this.file = file;
+    }
+
+    /**
+     * Reads the snapshot left by the previous run, if any, and deletes it.
+     */
+    public void load() {
+        if (!bot.getConfig().isResumeEnabled()) {
+            return;
+        }
+        PlayerSnapshot snapshot;
+        try {
+            snapshot = PlayerSnapshot.read(file);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("Ignoring player snapshot {}: {}", file, e.getMessage());
+            deleteFile();
+            return;
+        }
+        deleteFile();
+        long age = System.currentTimeMillis() - snapshot.takenAtMillis();
+        if (age > TimeUnit.SECONDS.toMillis(bot.getConfig().getResumeMaxAgeSeconds())) {
+            log.info("Not resuming {} players, they were saved {} seconds ago", snapshot.guilds().size(),
+                    TimeUnit.MILLISECONDS.toSeconds(age));
+            return;
+        }
+        snapshot.guilds().forEach(guild -> pending.put(guild.guildId(), guild));
+        log.info("Resuming {} players saved {} seconds ago", pending.size(), TimeUnit.MILLISECONDS.toSeconds(age));
+    }
+
+    /**
+     * Saves the players of every guild. Only the first call saves, so it can be called
+     * from both the shutdown command and the JVM shutdown hook.
+     */
+    public void save() {
+        if (!bot.getConfig().isResumeEnabled() || bot.getShards() == null || !saved.compareAndSet(false, true)) {
+            return;
+        }
+        List<PlayerSnapshot.GuildPlayer> guilds = new ArrayList<>();
+        for (Guild guild : bot.getShards().getGuilds()) {
+            try {
+                PlayerSnapshot.GuildPlayer player = capture(guild);
+                if (player != null) {
+                    guilds.add(player);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not save the player of guild {}", guild.getId(), e);
+            }
+        }
+        if (guilds.isEmpty()) {
+            return;
+        }
+        try {
+            new PlayerSnapshot(System.currentTimeMillis(), guilds).write(file);
+            log.info("Saved {} players to {}", guilds.size(), file);
+        } catch (IOException e) {
+            log.warn("Failed to save players to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Starts resuming the saved players of the guilds of {@code jda}, without waiting for them.
+     *
+     * @return IDs of the guilds being resumed
+     */
+    public Set<Long> resume(JDA jda) {
+        List<Runnable> jobs = new ArrayList<>();
+        Set<Long> guildIds = new HashSet<>();
+        for (Guild guild : jda.getGuilds()) {
+            PlayerSnapshot.GuildPlayer state = pending.remove(guild.getIdLong());
+            if (state != null) {
+                guildIds.add(guild.getIdLong());
+                jobs.add(() -> resume(guild, state));
+            }
+        }
+        if (jobs.isEmpty()) {
+            return guildIds;
+        }
+        int shardId = jda.getShardInfo().getShardId();
+        ExecutorService executor = Executors.newFixedThreadPool(bot.getConfig().getResumeConcurrency(),
+                Thread.ofVirtual().name("player-resume-" + shardId + "-", 0).factory());
+        jobs.forEach(executor::execute);
+        executor.shutdown();
+        return guildIds;
+    }
+
+    @Override
+    public String toString() {
+        return "resumed=" + resumed.sum() + ", failed=" + failed.sum() + ", pending=" + pending.size();
+    }
+
+    private PlayerSnapshot.GuildPlayer capture(Guild guild) {
+        AudioChannelUnion channel = guild.getAudioManager().getConnectedChannel();
+        if (channel == null || !(guild.getAudioManager().getSendingHandler() instanceof AudioHandler handler)) {
+            return null;
+        }
+        AudioPlayer player = handler.getPlayer();
+        AudioTrack playing = player.getPlayingTrack();
+        PlayerSnapshot.Track current = playing == null ? null : encode(playing);
+        List<PlayerSnapshot.Track> queue = new ArrayList<>();
+        for (QueuedTrack queued : handler.getQueue().getList()) {
+            PlayerSnapshot.Track track = encode(queued.getTrack());
+            if (track != null) {
+                queue.add(track);
+            }
+        }
+        if (current == null && queue.isEmpty()) {
+            return null;
+        }
+        String filters = "";
+        if (handler.getFilterChain().isAnyEnabled()) {
+            try {
+                filters = MAPPER.writeValueAsString(handler.getFilterChain().toMap());
+            } catch (IOException e) {
+                log.debug("Not saving the filters of guild {}: {}", guild.getId(), e.getMessage());
+            }
+        }
+        Settings settings = bot.getSettingsManager().getSettings(guild);
+        return new PlayerSnapshot.GuildPlayer(guild.getIdLong(), channel.getIdLong(), current,
+                playing == null ? 0 : playing.getPosition(), player.isPaused(), player.getVolume(), filters,
+                settings.getRepeatMode().name(), queue);
+    }
+
+    private PlayerSnapshot.Track encode(AudioTrack track) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bot.getPlayerManager().encodeTrack(new MessageOutput(bytes), track);
+            RequestMetadata rm = AudioHandler.extractRequestMetadata(track);
+            RequestMetadata.UserInfo user = rm.user;
+            boolean radio = rm.hasRadioData();
+            return new PlayerSnapshot.Track(bytes.toByteArray(),
+                    user == null ? 0 : user.id,
+                    user == null ? null : user.username,
+                    user == null ? null : user.discrim,
+                    user == null ? null : user.avatar,
+                    rm.getSpotifyTrackId(),
+                    radio ? rm.getRadioStationPath() : null,
+                    radio ? rm.getRadioStationName() : null,
+                    radio ? rm.getRadioLogoUrl() : null,
+                    radio ? rm.getRadioStationUuid() : null);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Not saving {}, it cannot be encoded: {}", track.getIdentifier(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void resume(Guild guild, PlayerSnapshot.GuildPlayer state) {
+        try {
+            if (resumePlayer(guild, state)) {
+                resumed.increment();
+            } else {
+                failed.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+        } catch (RuntimeException e) {
+            log.warn("Could not resume the player of guild {}", guild.getId(), e);
+            failed.increment();
+        }
+    }
+
+    private boolean resumePlayer(Guild guild, PlayerSnapshot.GuildPlayer state) throws InterruptedException {
+        AudioChannel channel = guild.getChannelById(AudioChannel.class, state.voiceChannelId());
+        if (channel == null) {
+            log.info("Not resuming the player of guild {}, its voice channel is gone", guild.getId());
+            return false;
+        }
+        AudioHandler handler = bot.getPlayerManager().setUpHandler(guild);
+        AudioPlayer player = handler.getPlayer();
+        if (player.getPlayingTrack() != null) {
+            // Someone started something while the shard came up
+            return false;
+        }
+        Settings settings = bot.getSettingsManager().getSettings(guild);
+        try {
+            RepeatMode mode = RepeatMode.valueOf(state.repeatMode());
+            if (settings.getRepeatMode() != mode) {
+                settings.setRepeatMode(mode);
+            }
+        } catch (IllegalArgumentException ignored) {
+        }
+        player.setVolume(state.volume());
+        if (!state.filters().isEmpty()) {
+            try {
+                handler.getFilterChain().fromMap(MAPPER.readValue(state.filters(), new TypeReference<Map<String, Object>>() {
+                }));
+                handler.applyFilters();
+            } catch (IOException e) {
+                log.debug("Not restoring the filters of guild {}: {}", guild.getId(), e.getMessage());
+            }
+        }
+
+        guild.getAudioManager().openAudioConnection(channel);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while (guild.getAudioManager().getConnectionStatus() != ConnectionStatus.CONNECTED) {
+            if (System.currentTimeMillis() > deadline) {
+                log.info("Not resuming the player of guild {}, it did not connect to {}", guild.getId(), channel.getName());
+                guild.getAudioManager().closeAudioConnection();
+                return false;
+            }
+            Thread.sleep(100);
+        }
+
+        player.setPaused(state.paused());
+        AudioTrack current = decode(state.current());
+        if (current != null && state.position() > 0 && current.isSeekable()) {
+            current.setPosition(state.position());
+        }
+        boolean started = false;
+        if (current != null) {
+            handler.addTrack(new QueuedTrack(current, metadata(state.current())));
+            started = true;
+        }
+        for (PlayerSnapshot.Track entry : state.queue()) {
+            AudioTrack track = decode(entry);
+            if (track == null) {
+                continue;
+            }
+            QueuedTrack queued = new QueuedTrack(track, metadata(entry));
+            if (started) {
+                // Kept in the saved order rather than the fair order of new requests
+                handler.getQueue().addAt(handler.getQueue().size(), queued);
+            } else {
+                handler.addTrack(queued);
+                started = true;
+            }
+        }
+        if (!started) {
+            guild.getAudioManager().closeAudioConnection();
+            return false;
+        }
+        log.info("Resumed the player of guild {} in {} with {} queued tracks", guild.getId(), channel.getName(),
+                handler.getQueue().size());
+        return true;
+    }
+
+    private AudioTrack decode(PlayerSnapshot.Track saved) {
+        if (saved == null) {
+            return null;
+        }
+        try {
+            DecodedTrackHolder holder = bot.getPlayerManager().decodeTrack(new MessageInput(new ByteArrayInputStream(saved.encoded())));
+            return holder == null ? null : holder.decodedTrack;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Dropping a saved track that cannot be decoded: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static RequestMetadata metadata(PlayerSnapshot.Track saved) {
+        RequestMetadata rm = saved.userId() == 0
+                ? new RequestMetadata(null)
+                : new RequestMetadata(saved.userId(), saved.username(), saved.discrim(), saved.avatar());
+        if (saved.spotifyTrackId() != null) {
+            rm.setSpotifyTrackId(saved.spotifyTrackId());
+        }
+        if (saved.radioPath() != null) {
+            rm.setRadioInfo(saved.radioPath(), saved.radioName(), saved.radioLogo(), saved.radioUuid());
+        }
+        return rm;
+    }
+
+    private void deleteFile() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete player snapshot {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.resume;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The players of every guild at the time the bot shut down, so the next start can pick up
+ * where they stopped.
+ * <p>
+ * The snapshot is a small binary file: a header and the time it was taken, one entry per
+ * guild, then a CRC32 of everything before it. Tracks are kept in lavaplayer's own encoding
+ * next to who requested them. A torn or corrupt file is rejected as a whole.
+ */
+public record PlayerSnapshot(long takenAtMillis, List<GuildPlayer> guilds) {
+    private static final int MAGIC = 0x4A4D5053; // "JMPS"
+    private static final int VERSION = 1;
+
+    public PlayerSnapshot {
+        guilds = List.copyOf(guilds);
+    }
+
+    /**
+     * State of the player of one guild.
+     *
+     * @param filters the guild's filter chain as JSON, empty when no filter is on
+     * @param repeatMode name of the guild's repeat mode
+     */
+    public record GuildPlayer(long guildId, long voiceChannelId, Track current, long position, boolean paused,
+                              int volume, String filters, String repeatMode, List<Track> queue) {
+        public GuildPlayer {
+            queue = List.copyOf(queue);
+        }
+    }
+
+    /**
+     * A track and its requester. The radio fields are {@code null} for anything but a radio
+     * station, the Spotify ID for anything not matched from Spotify.
+     */
+    public record Track(byte[] encoded, long userId, String username, String discrim, String avatar,
+                        String spotifyTrackId, String radioPath, String radioName, String radioLogo,
+                        String radioUuid) {
+    }
+
+    public void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            DataOutputStream body = new DataOutputStream(new CheckedOutputStream(out, crc));
+            body.writeInt(MAGIC);
+            body.writeByte(VERSION);
+            body.writeLong(takenAtMillis);
+            body.writeInt(guilds.size());
+            for (GuildPlayer guild : guilds) {
+                body.writeLong(guild.guildId());
+                body.writeLong(guild.voiceChannelId());
+                writeTrack(body, guild.current());
+                body.writeLong(guild.position());
+                body.writeBoolean(guild.paused());
+                body.writeInt(guild.volume());
+                body.writeUTF(guild.filters());
+                body.writeUTF(guild.repeatMode());
+                body.writeInt(guild.queue().size());
+                for (Track track : guild.queue()) {
+                    writeTrack(body, track);
+                }
+            }
+            body.flush();
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @throws IOException when the file cannot be read, or is not a complete snapshot
+     */
+    public static PlayerSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            DataInputStream body = new DataInputStream(new CheckedInputStream(in, crc));
+            if (body.readInt() != MAGIC || body.readUnsignedByte() != VERSION) {
+                throw new IOException("not a player snapshot");
+            }
+            long takenAt = body.readLong();
+            int guildCount = body.readInt();
+            List<GuildPlayer> guilds = new ArrayList<>();
+            for (int g = 0; g < guildCount; g++) {
+                long guildId = body.readLong();
+                long voiceChannelId = body.readLong();
+                Track current = readTrack(body);
+                long position = body.readLong();
+                boolean paused = body.readBoolean();
+                int volume = body.readInt();
+                String filters = body.readUTF();
+                String repeatMode = body.readUTF();
+                int queueSize = body.readInt();
+                List<Track> queue = new ArrayList<>();
+                for (int t = 0; t < queueSize; t++) {
+                    queue.add(readTrack(body));
+                }
+                guilds.add(new GuildPlayer(guildId, voiceChannelId, current, position, paused, volume, filters,
+                        repeatMode, queue));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            return new PlayerSnapshot(takenAt, guilds);
+        }
+    }
+
+    private static void writeTrack(DataOutputStream out, Track track) throws IOException {
+        out.writeBoolean(track != null);
+        if (track == null) {
+            return;
+        }
+        out.writeInt(track.encoded().length);
+        out.write(track.encoded());
+        out.writeLong(track.userId());
+        writeString(out, track.username());
+        writeString(out, track.discrim());
+        writeString(out, track.avatar());
+        writeString(out, track.spotifyTrackId());
+        writeString(out, track.radioPath());
+        writeString(out, track.radioName());
+        writeString(out, track.radioLogo());
+        writeString(out, track.radioUuid());
+    }
+
+    private static Track readTrack(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int length = in.readInt();
+        if (length < 0 || length > 1 << 20) {
+            throw new IOException("track of " + length + " bytes");
+        }
+        byte[] encoded = new byte[length];
+        in.readFully(encoded);
+        return new Track(encoded, in.readLong(), readString(in), readString(in), readString(in), readString(in),
+                readString(in), readString(in), readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.shard;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the gateway events received by each shard, and turns the counts into a rate
+ * each time {@link #sample} is called.
+ */
+public class ShardEventCounter implements EventListener {
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final class Counter {
+        private final LongAdder events = new LongAdder();
+        private long sampledEvents;
+        private long sampledAt = System.nanoTime();
+        private volatile double perSecond;
+    }
+
+    @Override
+    public void onEvent(GenericEvent event) {
+        counter(event.getJDA().getShardInfo().getShardId()).events.increment();
+    }
+
+    /**
+     * Updates the rate of every shard to the events received since the last sample.
+     */
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        for (Counter counter : counters.values()) {
+            long events = counter.events.sum();
+            long elapsed = now - counter.sampledAt;
+            if (elapsed > 0) {
+                counter.perSecond = (events - counter.sampledEvents) * 1_000_000_000d / elapsed;
+            }
+            counter.sampledEvents = events;
+            counter.sampledAt = now;
+        }
+    }
+
+    public long getEvents(int shardId) {
+        Counter counter = counters.get(shardId);
+        return counter == null ? 0 : counter.events.sum();
+    }
+
+    /**
+     * @return events per second between the last two samples
+     */
+    public double getEventsPerSecond(int shardId) {
+        Counter counter = counters.get(shardId);
+        return counter == null ? 0 : counter.perSecond;
+    }
+
+    private Counter counter(int shardId) {
+        Counter counter = counters.get(shardId);
+        return counter != null ? counter : counters.computeIfAbsent(shardId, id -> new Counter());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.shard;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The gateway connections of this process, and the lookups that used to go to a single
+ * {@link JDA}.
+ * <p>
+ * Guilds, users and channels are looked up across every shard run here. A guild belongs
+ * to shard {@code (guildId >> 22) % shardsTotal}; with a shard range, the guilds of the
+ * other shards are handled by another process and are not found here.
+ */
+public class Shards {
+    private final ShardManager manager;
+    private final ShardEventCounter eventCounter;
+
+    /**
+     * Health of one shard, as shown on the web panel.
+     */
+    public record ShardHealth(int id, String status, long gatewayPing, long guilds, long events,
+                              double eventsPerSecond) {
+    }
+
+    public Shards(ShardManager manager, ShardEventCounter eventCounter) {
+        this.manager = manager;
+        this.eventCounter = eventCounter;
+    }
+
+    public static int shardIdFor(long guildId, int shardsTotal) {
+        return (int) ((guildId >>> 22) % shardsTotal);
+    }
+
+    public ShardManager getManager() {
+        return manager;
+    }
+
+    /**
+     * @return the shard the guild belongs to, or null when that shard is not run here
+     */
+    public JDA forGuild(long guildId) {
+        return manager.getShardById(shardIdFor(guildId, manager.getShardsTotal()));
+    }
+
+    public Guild getGuildById(long guildId) {
+        JDA shard = forGuild(guildId);
+        return shard == null ? null : shard.getGuildById(guildId);
+    }
+
+    public Guild getGuildById(String guildId) {
+        try {
+            return getGuildById(Long.parseUnsignedLong(guildId));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public List<Guild> getGuilds() {
+        return manager.getGuilds();
+    }
+
+    public long getGuildCount() {
+        return manager.getGuildCache().size();
+    }
+
+    public GuildChannel getGuildChannelById(String channelId) {
+        return manager.getGuildChannelById(channelId);
+    }
+
+    public TextChannel getTextChannelById(String channelId) {
+        return manager.getTextChannelById(channelId);
+    }
+
+    public <T extends Channel> T getChannelById(Class<T> type, String channelId) {
+        return manager.getChannelById(type, channelId);
+    }
+
+    public User getUserById(long userId) {
+        return manager.getUserById(userId);
+    }
+
+    public User getUserById(String userId) {
+        return manager.getUserById(userId);
+    }
+
+    public List<User> getUsers() {
+        return manager.getUsers();
+    }
+
+    public long getUserCount() {
+        return manager.getUserCache().size();
+    }
+
+    public RestAction<User> retrieveUserById(long userId) {
+        return manager.retrieveUserById(userId);
+    }
+
+    public RestAction<User> retrieveUserById(String userId) {
+        return manager.retrieveUserById(userId);
+    }
+
+    /**
+     * @return the bot user, the same on every shard
+     */
+    public SelfUser getSelfUser() {
+        return anyShard().getSelfUser();
+    }
+
+    /**
+     * @return a shard for calls that are not about one guild, preferring a connected one
+     */
+    public JDA anyShard() {
+        JDA fallback = null;
+        for (JDA shard : manager.getShardCache()) {
+            if (shard.getStatus() == JDA.Status.CONNECTED) {
+                return shard;
+            }
+            if (fallback == null) {
+                fallback = shard;
+            }
+        }
+        if (fallback == null) {
+            throw new IllegalStateException("No shard is running");
+        }
+        return fallback;
+    }
+
+    public int getShardCount() {
+        return manager.getShardCache().size();
+    }
+
+    public int getConnectedShardCount() {
+        int connected = 0;
+        for (JDA shard : manager.getShardCache()) {
+            if (shard.getStatus() == JDA.Status.CONNECTED) {
+                connected++;
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * @return the status of the only shard, or how many of the shards are connected
+     */
+    public String getStatusSummary() {
+        if (getShardCount() == 1) {
+            return anyShard().getStatus().name();
+        }
+        return getConnectedShardCount() + "/" + getShardCount() + " shards connected";
+    }
+
+    public Activity getActivity() {
+        return anyShard().getPresence().getActivity();
+    }
+
+    /**
+     * Sets the activity of every shard.
+     */
+    public void setActivity(Activity activity) {
+        manager.setActivity(activity);
+    }
+
+    public long getAverageGatewayPing() {
+        return (long) manager.getAverageGatewayPing();
+    }
+
+    public boolean isShuttingDown() {
+        for (JDA shard : manager.getShardCache()) {
+            JDA.Status status = shard.getStatus();
+            if (status != JDA.Status.SHUTTING_DOWN && status != JDA.Status.SHUTDOWN) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        manager.shutdown();
+    }
+
+    /**
+     * Turns the event counts into per-second rates; called periodically.
+     */
+    public void sampleEventRates() {
+        eventCounter.sample();
+    }
+
+    public List<ShardHealth> getHealth() {
+        List<ShardHealth> health = new ArrayList<>();
+        for (JDA shard : manager.getShardCache()) {
+            int id = shard.getShardInfo().getShardId();
+            health.add(new ShardHealth(id, shard.getStatus().name(), shard.getGatewayPing(),
+                    shard.getGuildCache().size(), eventCounter.getEvents(id), eventCounter.getEventsPerSecond(id)));
+        }
+        health.sort(Comparator.comparingInt(ShardHealth::id));
+        return health;
+    }
+}
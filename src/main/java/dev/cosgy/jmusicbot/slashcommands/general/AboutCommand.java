@@ -21,6 +21,7 @@ import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommandEvent;
 import dev.cosgy.jmusicbot.framework.jdautilities.commons.JDAUtilitiesInfo;
 import dev.cosgy.jmusicbot.framework.jdautilities.doc.standard.CommandInfo;
 import dev.cosgy.jmusicbot.framework.jdautilities.examples.doc.Author;
+import dev.cosgy.jmusicbot.stats.PlaybackCounters;
 import dev.cosgy.jmusicbot.util.DiscordCompat;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDAInfo;
@@ -32,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.*;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Cosgy Dev
@@ -49,6 +51,7 @@ public class AboutCommand extends SlashCommand {
     private boolean IS_AUTHOR = true;
     private String REPLACEMENT_ICON = "+";
     private String oauthLink;
+    private PlaybackCounters playbackCounters;
 
     public AboutCommand(Color color, String description, String[] features, Permission... perms) {
         this.color = color;
@@ -70,6 +73,19 @@ public class AboutCommand extends SlashCommand {
         this.REPLACEMENT_ICON = value;
     }
 
+    public void setPlaybackCounters(PlaybackCounters playbackCounters) {
+        this.playbackCounters = playbackCounters;
+    }
+
+    private void addPlaybackField(EmbedBuilder builder) {
+        if (playbackCounters == null) {
+            return;
+        }
+        PlaybackCounters.Totals total = playbackCounters.total();
+        builder.addField("Music", total.plays() + " songs played\n"
+                + TimeUnit.MILLISECONDS.toHours(total.playTimeMs()) + " hours of music", true);
+    }
+
     @Override
     protected void execute(SlashCommandEvent event) {
         if (oauthLink == null) {
@@ -111,6 +127,7 @@ public class AboutCommand extends SlashCommand {
             builder.addField("", event.getJDA().getUsers().size() + " users in shard\n" + event.getJDA().getGuilds().size() + " servers", true);
             builder.addField("", event.getJDA().getTextChannels().size() + " text channels\n" + event.getJDA().getVoiceChannels().size() + " voice channels", true);
         }
+        addPlaybackField(builder);
         builder.setFooter("Time when the bot was last restarted", "https://cdn-icons-png.flaticon.com/512/3357/3357329.png");
         builder.setTimestamp(event.getClient().getStartTime());
         event.replyEmbeds(builder.build()).queue();
@@ -157,6 +174,7 @@ public class AboutCommand extends SlashCommand {
             builder.addField("", event.getJDA().getUsers().size() + " users in shard\n" + event.getJDA().getGuilds().size() + " servers", true);
             builder.addField("", event.getJDA().getTextChannels().size() + " text channels\n" + event.getJDA().getVoiceChannels().size() + " voice channels", true);
         }
+        addPlaybackField(builder);
         builder.setFooter("Time when the bot was last restarted", "https://www.cosgy.dev/wp-content/uploads/2020/03/restart.jpg");
         builder.setTimestamp(event.getClient().getStartTime());
         event.reply(builder.build());
@@ -10,7 +10,7 @@ import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommandEvent;
 import dev.cosgy.jmusicbot.framework.jdautilities.doc.standard.CommandInfo;
 import dev.cosgy.jmusicbot.framework.jdautilities.examples.doc.Author;
 import com.jagrosh.jmusicbot.Bot;
-import com.jagrosh.jmusicbot.settings.Settings;
+import dev.cosgy.jmusicbot.stats.PlaybackCounters;
 import dev.cosgy.jmusicbot.util.DiscordCompat;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Guild;
@@ -50,11 +50,11 @@ public class StatsCommand extends SlashCommand {
      * @return The built embed with stats information
      */
     private EmbedBuilder createStatsEmbed(Guild guild) {
-        Settings settings = bot.getSettingsManager().getSettings(guild);
+        PlaybackCounters.Totals stats = bot.getPlaybackCounters().get(guild.getIdLong());
         
         // Get stats
-        int songsPlayed = settings.getSongsPlayed();
-        long playTimeMillis = settings.getPlayTimeMillis();
+        long songsPlayed = stats.plays();
+        long playTimeMillis = stats.playTimeMs();
         
         // Format time
         long hours = TimeUnit.MILLISECONDS.toHours(playTimeMillis);
@@ -76,6 +76,8 @@ public class StatsCommand extends SlashCommand {
         // Add fields in vertical layout (one per line) with emojis for better styling
         eb.addField("🎵 Total Songs Played :","> " + "```" + songsPlayed + "```", false);
         eb.addField("⏱️ Total Play Time :", "> " + "```" + timeStr + "```", false);
+        eb.addField("⏭️ Skips :", "> " + "```" + stats.skips() + " skipped, " + stats.skipVotes() + " skip votes```", false);
+        eb.addField("⚠️ Playback Errors :", "> " + "```" + stats.errors() + "```", false);
         
         // Add timestamp for freshness
         eb.setTimestamp(java.time.Instant.now());
@@ -89,6 +89,7 @@ public class FiltersCmd extends MusicCommand {
         // Wait for button interaction
         bot.getWaiter().waitForEvent(
                 ButtonInteractionEvent.class,
+                message.getIdLong(),
                 ev -> ev.getMessageIdLong() == message.getIdLong()
                         && ev.getComponentId().startsWith(baseId)
                         && ev.getUser().getId().equals(userId),
@@ -148,6 +149,7 @@ public class FiltersCmd extends MusicCommand {
     private void waitForSelectMenu(Message message, String baseId, AudioHandler handler, String userId) {
         bot.getWaiter().waitForEvent(
                 StringSelectInteractionEvent.class,
+                message.getIdLong(),
                 ev -> ev.getMessageIdLong() == message.getIdLong()
                         && ev.getComponentId().equals(baseId + ":select")
                         && ev.getUser().getId().equals(userId),
@@ -158,6 +160,7 @@ public class FiltersCmd extends MusicCommand {
         // Also keep listening for buttons (back / toggle buttons)
         bot.getWaiter().waitForEvent(
                 ButtonInteractionEvent.class,
+                message.getIdLong(),
                 ev -> ev.getMessageIdLong() == message.getIdLong()
                         && ev.getComponentId().startsWith(baseId)
                         && ev.getUser().getId().equals(userId),
@@ -19,6 +19,8 @@ import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandEvent;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommandEvent;
 import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.audio.MusicHistory;
+import dev.cosgy.jmusicbot.history.HistoryPage;
+import dev.cosgy.jmusicbot.history.HistoryQuery;
 import dev.cosgy.jmusicbot.slashcommands.MusicCommand;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
@@ -29,7 +31,6 @@ import net.dv8tion.jda.api.entities.Guild;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Command to display the music playback history
@@ -94,9 +95,8 @@ public class HistoryCmd extends MusicCommand {
      * @param guildId Guild ID to filter by
      */
     private void displayHistory(CommandEvent event, SlashCommandEvent slashEvent, int count, String guildId) {
-        List<MusicHistory.PlayRecord> fullHistory = bot.getMusicHistory().getHistory();
-        List<MusicHistory.PlayRecord> filteredHistory = filterGuildHistory(fullHistory, guildId);
-        List<MusicHistory.PlayRecord> history = limitHistory(filteredHistory, count);
+        HistoryPage page = bot.getMusicHistory().query(HistoryQuery.forGuild(guildId, count));
+        List<MusicHistory.PlayRecord> history = page.records();
 
         if (history.isEmpty()) {
             replyNoHistory(event, slashEvent);
@@ -109,7 +109,7 @@ public class HistoryCmd extends MusicCommand {
 
         builder.setDescription(buildHistoryDescription(history));
         applyThumbnail(builder, history);
-        builder.setFooter(buildFooterText(history.size(), filteredHistory.size(), guildId));
+        builder.setFooter(buildFooterText(history.size(), page.total(), guildId));
 
         replyHistory(event, slashEvent, builder);
     }
@@ -127,17 +127,6 @@ public class HistoryCmd extends MusicCommand {
         }
     }
 
-    private List<MusicHistory.PlayRecord> filterGuildHistory(List<MusicHistory.PlayRecord> history, String guildId) {
-        return history.stream()
-                .filter(record -> guildId.equals(record.getGuildId()))
-                .collect(Collectors.toList());
-    }
-
-    private List<MusicHistory.PlayRecord> limitHistory(List<MusicHistory.PlayRecord> history, int count) {
-        int size = Math.min(count, history.size());
-        return size > 0 ? history.subList(0, size) : history;
-    }
-
     private void replyNoHistory(CommandEvent event, SlashCommandEvent slashEvent) {
         if (event != null) {
             event.replyWarning("No music history available for this server.");
@@ -259,7 +248,7 @@ public class HistoryCmd extends MusicCommand {
 
     private String buildFooterText(int shownCount, int totalRecords, String guildId) {
         String serverName = "this server";
-        Guild guild = bot.getJDA().getGuildById(guildId);
+        Guild guild = bot.getShards().getGuildById(guildId);
         if (guild != null) {
             serverName = guild.getName();
         }
@@ -161,6 +161,7 @@ public class NicoSearchCmd extends MusicCommand {
                                       Consumer<nicoVideoSearchResult> onSelection) {
         bot.getWaiter().waitForEvent(
                 net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent.class,
+                message.getIdLong(),
                 e -> e.getMessage().equals(message) && e.getUser().equals(allowedUser),
             e -> handleSelectionInteraction(e, results, onSelection),
                 1, TimeUnit.MINUTES,
@@ -23,6 +23,7 @@ import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandEvent;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommandEvent;
 import dev.cosgy.jmusicbot.slashcommands.MusicCommand;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
@@ -153,7 +154,7 @@ public class NowplayingCmd extends MusicCommand {
             return;
         }
 
-        bot.getThreadpool().schedule(() -> {
+        bot.getScheduler().schedule(Scheduler.Lane.UI, "nowplaying-chapters", () -> {
             try {
                 AudioTrack currentTrack = handler.getPlayer().getPlayingTrack();
                 if (currentTrack == null || currentTrack != initialTrack) {
@@ -165,7 +166,7 @@ public class NowplayingCmd extends MusicCommand {
                     return;
                 }
 
-                MessageCreateData refreshed = handler.getNowPlaying(bot.getJDA());
+                MessageCreateData refreshed = handler.getNowPlaying(guild.getJDA());
                 if (refreshed == null) {
                     return;
                 }
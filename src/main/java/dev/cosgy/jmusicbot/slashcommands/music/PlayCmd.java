@@ -38,10 +38,10 @@ import dev.cosgy.jmusicbot.playlist.CacheLoader;
 import dev.cosgy.jmusicbot.playlist.PubliclistLoader;
 import dev.cosgy.jmusicbot.slashcommands.DJCommand;
 import dev.cosgy.jmusicbot.slashcommands.MusicCommand;
+import dev.cosgy.jmusicbot.spotify.SpotifyCollection;
 import dev.cosgy.jmusicbot.util.Cache;
 import dev.cosgy.jmusicbot.util.DiscordCompat;
 import dev.cosgy.jmusicbot.util.StackTraceUtil;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.exceptions.PermissionException;
@@ -244,6 +244,15 @@ public class PlayCmd extends MusicCommand {
                 ? event.getArgs().substring(1, event.getArgs().length() - 1)
                 : event.getArgs();
 
+        if (SpotifyCollection.isCollectionUrl(args)) {
+            if (spotifyCmd.isConfigured()) {
+                event.reply(loadingEmoji + " Loading Spotify playlist...", m -> spotifyCmd.handleSpotifyCollection(args, event, m));
+            } else {
+                event.reply("Spotify support is not configured on this bot. Please contact the bot owner.");
+            }
+            return;
+        }
+
         if (isSpotifyUrl(args)) {
             if (spotifyCmd.isConfigured()) {
                 String trackId = SpotifyCmd.extractTrackIdFromUrl(args);
@@ -374,6 +383,15 @@ public class PlayCmd extends MusicCommand {
 
     private void handleSlashInput(SlashCommandEvent event) {
         String input = event.getOption("input").getAsString();
+        if (SpotifyCollection.isCollectionUrl(input)) {
+            if (spotifyCmd.isConfigured()) {
+                event.deferReply().queue(hook -> spotifyCmd.handleSpotifyCollection(input, event, hook));
+            } else {
+                event.reply("Spotify support is not configured on this bot. Please contact the bot owner.").queue();
+            }
+            return;
+        }
+
         if (isSpotifyUrl(input)) {
             if (spotifyCmd.isConfigured()) {
                 String trackId = SpotifyCmd.extractTrackIdFromUrl(input);
@@ -754,12 +772,9 @@ public class PlayCmd extends MusicCommand {
         private final static String CANCEL = "\uD83D\uDEAB"; // 
 
         private final String loadingEmoji;
-        @SuppressWarnings("unused")
-        private final JDA jda;
 
         public RequestCmd(Bot bot) {
             super(bot);
-            this.jda = bot.getJDA();
             this.loadingEmoji = bot.getConfig().getLoading();
             this.name = "request";
             this.arguments = "<title|URL>";
@@ -35,11 +35,6 @@ import net.dv8tion.jda.api.components.actionrow.ActionRow;
 import net.dv8tion.jda.api.components.buttons.Button;
 import java.util.stream.Collectors;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -51,6 +46,8 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import net.dv8tion.jda.api.entities.Activity;
 import com.jagrosh.jmusicbot.settings.Settings;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import java.util.regex.Pattern;
 
 /**
  * Command to search and play radio stations from onlineradiobox.com
@@ -60,6 +57,7 @@ import com.jagrosh.jmusicbot.settings.Settings;
 public class RadioCmd extends MusicCommand {
     private final String searchingEmoji;
     private final ObjectMapper mapper = new ObjectMapper();
+    private static final Pattern LINE_BREAKS = Pattern.compile("\\r\\n|\\r|\\n");
     
     // Store timers by guild
     private static final Map<String, Timer> activeTimers = new ConcurrentHashMap<>();
@@ -157,26 +155,7 @@ public class RadioCmd extends MusicCommand {
      * @return the HTML response from the search
      */
     private String fetchRadioStationResults(String encodedQuery) throws Exception {
-        // Create URL for the search
-        URL url = URI.create("https://onlineradiobox.com/search?q=" + encodedQuery).toURL();
-        
-        // Setup connection
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-        // Set language to English
-        connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-        
-        // Read the response
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-        }
-        
-        return response.toString();
+        return fetchHtml("https://onlineradiobox.com/search?q=" + encodedQuery);
     }
 
     /**
@@ -362,21 +341,16 @@ public class RadioCmd extends MusicCommand {
         }
     }
 
-    private String fetchHtml(String targetUrl) throws Exception {
-        URL url = URI.create(targetUrl).toURL();
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-        connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-        }
-        return response.toString();
+    /**
+     * Fetch a page from onlineradiobox through the shared HTTP service, with the
+     * English locale forced. Line breaks are dropped because the station parsers
+     * were written against single-line HTML.
+     */
+    private static String fetchHtml(String targetUrl) throws Exception {
+        String body = HttpService.get().getString(targetUrl,
+                "User-Agent", HttpService.BROWSER_USER_AGENT,
+                "Accept-Language", "en-US,en;q=0.9");
+        return LINE_BREAKS.matcher(body).replaceAll("");
     }
 
     private String extractAttributeValue(String html, int startIndex, String attribute) {
@@ -626,22 +600,10 @@ public class RadioCmd extends MusicCommand {
                 RadioStation station = stations.get(i);
                 
                 // Get station details from the JSON endpoint
-                URL url = URI.create("https://onlineradiobox.com/json/" + station.path).toURL();
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-                connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-                connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-                
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
+                String response = fetchHtml("https://onlineradiobox.com/json/" + station.path);
                 
                 // Parse the JSON response to get the description
-                JsonNode stationData = mapper.readTree(response.toString());
+                JsonNode stationData = mapper.readTree(response);
                 if (stationData.has("station") && stationData.get("station").has("description")) {
                     station.description = stationData.get("station").get("description").asText("");
                 }
@@ -925,6 +887,7 @@ public class RadioCmd extends MusicCommand {
         // Configure the button listener for responses
         bot.getWaiter().waitForEvent(
             net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent.class,
+            message.getIdLong(),
             e -> isValidButtonInteraction(e, message, cmdEvent, slashEvent),
             e -> handleButtonInteraction(e, stations, cmdEvent, slashEvent, currentPage, query, moreResultsUrl, moreResultsOffset),
             1, TimeUnit.MINUTES,
@@ -1265,36 +1228,10 @@ public class RadioCmd extends MusicCommand {
      * Fetch stream URL from the radio station API
      */
     private String fetchStreamUrlFromApi(String stationPath) throws Exception {
-        // Get station details
-        URL url = URI.create("https://onlineradiobox.com/json/" + stationPath).toURL();
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-        connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-        
-        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-        StringBuilder response = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
-        }
-        reader.close();
-        
         // Get stream URL from widget data
-        URL widgetUrl = URI.create("https://onlineradiobox.com/json/" + stationPath + "/widget/").toURL();
-        HttpURLConnection widgetConnection = (HttpURLConnection) widgetUrl.openConnection();
-        widgetConnection.setRequestMethod("GET");
-        widgetConnection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-        widgetConnection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
+        String response = fetchHtml("https://onlineradiobox.com/json/" + stationPath + "/widget/");
         
-        reader = new BufferedReader(new InputStreamReader(widgetConnection.getInputStream(), StandardCharsets.UTF_8));
-        response = new StringBuilder();
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
-        }
-        reader.close();
-        
-        JsonNode widgetData = mapper.readTree(response.toString());
+        JsonNode widgetData = mapper.readTree(response);
         return widgetData.path("streamURL").asText();
     }
 
@@ -1383,22 +1320,9 @@ public class RadioCmd extends MusicCommand {
         try {
             // Get current track info from OnlineRadioBox scraper API
             String scraperId = stationPath.replace("/", ".");
-            URL scrapeUrl = URI.create("http://scraper.onlineradiobox.com/" + scraperId).toURL();
-            
-            HttpURLConnection connection = (HttpURLConnection) scrapeUrl.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-            connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-            
-            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
+            String response = fetchHtml("http://scraper.onlineradiobox.com/" + scraperId);
             
-            JsonNode trackInfo = mapper.readTree(response.toString());
+            JsonNode trackInfo = mapper.readTree(response);
             if (trackInfo.has("updated") && trackInfo.path("updated").asInt() > 0) {
                 return trackInfo.path("title").asText();
             }
@@ -1458,22 +1382,9 @@ public class RadioCmd extends MusicCommand {
         try {
             // Get current track info from OnlineRadioBox scraper API
             String scraperId = stationPath.replace("/", ".");
-            URL scrapeUrl = URI.create("http://scraper.onlineradiobox.com/" + scraperId).toURL();
-            
-            HttpURLConnection connection = (HttpURLConnection) scrapeUrl.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-            connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-            
-            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
+            String response = fetchHtml("http://scraper.onlineradiobox.com/" + scraperId);
             
-            JsonNode trackInfo = mapper.readTree(response.toString());
+            JsonNode trackInfo = mapper.readTree(response);
             if (trackInfo.has("updated") && trackInfo.path("updated").asInt() > 0) {
                 TrackInfo info = new TrackInfo();
                 info.title = trackInfo.path("title").asText("");
@@ -1947,7 +1858,7 @@ public class RadioCmd extends MusicCommand {
          * Check if the radio is still playing
          */
         private boolean isRadioStillPlaying() {
-            Guild currentGuild = bot.getJDA().getGuildById(guildId);
+            Guild currentGuild = bot.getShards().getGuildById(guildId);
             if (currentGuild == null) {
                 return false;
             }
@@ -1992,7 +1903,7 @@ public class RadioCmd extends MusicCommand {
                 track.setUserData(newTitle);
                 
                 // Also update the Discord status/topic and bot nickname
-                Guild guild = bot.getJDA().getGuildById(guildId);
+                Guild guild = bot.getShards().getGuildById(guildId);
                 if (guild != null) {
                     updateIntegrations(guild, newTitle, latestInfo);
                 }
@@ -2011,7 +1922,7 @@ public class RadioCmd extends MusicCommand {
          * Add the current track to the music history
          */
         private void addTrackToHistory(AudioTrack track, String newTitle, TrackInfo latestInfo) {
-            Guild guild = bot.getJDA().getGuildById(guildId);
+            Guild guild = bot.getShards().getGuildById(guildId);
             if (guild == null) return;
             
             AudioHandler handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
@@ -2061,7 +1972,7 @@ public class RadioCmd extends MusicCommand {
          */
         private void updateBotActivity(Guild guild, String newTitle) {
             if (bot.getConfig().getSongInStatus() && 
-                    bot.getJDA().getGuilds().stream()
+                    bot.getShards().getGuilds().stream()
                     .filter(g -> {
                         Member selfMember = resolveSelfMember(g);
                         return selfMember != null
@@ -2072,7 +1983,7 @@ public class RadioCmd extends MusicCommand {
                 if(newTitle.length() > 128) {
                     newTitle = newTitle.substring(0, 128);
                 }
-                bot.getJDA().getPresence().setActivity(Activity.listening(newTitle));
+                bot.getShards().setActivity(Activity.listening(newTitle));
             }
         }
         
@@ -2235,25 +2146,7 @@ public class RadioCmd extends MusicCommand {
             
             // Create URL for the search with pagination parameters
             // The URL format is: https://onlineradiobox.com/search?part=1&q=[query]&offset=[offset]
-            URL url = URI.create("https://onlineradiobox.com/search?part=1&q=" + encodedQuery + "&offset=" + offset).toURL();
-            
-            // Setup connection
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-            connection.setRequestProperty("Accept-Language", "en-US,en;q=0.9");
-            
-            // Read the response
-            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
-            
-            // Parse HTML to find radio stations
-            String html = response.toString();
+            String html = fetchHtml("https://onlineradiobox.com/search?part=1&q=" + encodedQuery + "&offset=" + offset);
             
             // Get stations from the HTML response
             List<RadioStation> moreStations = parseRadioStations(html, maxResults);
@@ -2362,20 +2255,9 @@ public class RadioCmd extends MusicCommand {
                 }
             }
 
-            URL scraperUrl = URI.create("http://scraper.onlineradiobox.com/" + scraperId).toURL();
-            HttpURLConnection connection = (HttpURLConnection) scraperUrl.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-
-            StringBuilder response = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-            }
+            String response = fetchHtml("http://scraper.onlineradiobox.com/" + scraperId);
 
-            JsonNode scraperData = mapper.readTree(response.toString());
+            JsonNode scraperData = mapper.readTree(response);
             if (scraperData.has("stationId")) {
                 return String.valueOf(scraperData.get("stationId").asInt());
             }
@@ -2638,6 +2520,7 @@ public class RadioCmd extends MusicCommand {
         // Configure the button listener for responses
         bot.getWaiter().waitForEvent(
             net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent.class,
+            message.getIdLong(),
             e -> isValidButtonInteraction(e, message, cmdEvent, slashEvent),
             e -> handleSubstationButtonInteraction(e, stations, cmdEvent, slashEvent, currentPage, query, 
                                                moreResultsUrl, moreResultsOffset, mainStation),
@@ -145,6 +145,7 @@ public class SearchCmd extends MusicCommand {
                         // Set up button listener
                         bot.getWaiter().waitForEvent(
                             net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent.class,
+                            message.getIdLong(),
                             e -> {
                                 // Check if it's the correct message and the user is authorized
                                 return e.getMessage().equals(message) && e.getUser().equals(event.getUser());
@@ -295,6 +296,7 @@ public class SearchCmd extends MusicCommand {
                         // Set up button listener
                         bot.getWaiter().waitForEvent(
                             net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent.class,
+                            message.getIdLong(),
                             e -> {
                                 // Check if it's the correct message and the user is authorized
                                 return e.getMessage().equals(message) && e.getUser().equals(event.getAuthor());
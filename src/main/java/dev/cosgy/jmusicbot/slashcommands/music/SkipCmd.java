@@ -22,6 +22,7 @@ import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.jagrosh.jmusicbot.audio.RequestMetadata;
 import dev.cosgy.jmusicbot.slashcommands.MusicCommand;
+import dev.cosgy.jmusicbot.stats.PlaybackCounters;
 import dev.cosgy.jmusicbot.util.DiscordCompat;
 import dev.cosgy.jmusicbot.util.LocalAudioMetadata;
 import net.dv8tion.jda.api.entities.Member;
@@ -71,6 +72,7 @@ public class SkipCmd extends MusicCommand {
             } else {
                 msg = event.getClient().getSuccess() + "Requested to skip the current track.`[";
                 handler.getVotes().add(event.getAuthor().getId());
+                bot.getPlaybackCounters().increment(event.getGuild().getIdLong(), PlaybackCounters.Counter.SKIP_VOTES);
             }
 
             // Number of votes to skip from users in voice chat
@@ -137,6 +139,7 @@ public class SkipCmd extends MusicCommand {
             } else {
                 msg = event.getClient().getSuccess() + "Requested to skip the current track.`[";
                 handler.getVotes().add(event.getUser().getId());
+                bot.getPlaybackCounters().increment(event.getGuild().getIdLong(), PlaybackCounters.Counter.SKIP_VOTES);
             }
 
             // Number of votes to skip from users in voice chat
@@ -27,61 +27,36 @@ import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import dev.cosgy.jmusicbot.slashcommands.MusicCommand;
+import dev.cosgy.jmusicbot.spotify.SpotifyCollection;
+import dev.cosgy.jmusicbot.spotify.SpotifyImporter;
+import dev.cosgy.jmusicbot.spotify.SpotifyManager;
+import dev.cosgy.jmusicbot.spotify.SpotifyTrackInfo;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.awt.*;
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
 
 public class SpotifyCmd extends MusicCommand {
 
     Logger log = LoggerFactory.getLogger(this.name);
-    private static final int CONNECTION_TIMEOUT = 5; // Connection timeout in seconds
-    private static final int RESPONSE_TIMEOUT = 5;   // Response read timeout in seconds
-    private static final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(CONNECTION_TIMEOUT))
-            .build();
     @SuppressWarnings("unused")
     private static final String SPOTIFY_TRACK_URL_PREFIX = "https://open.spotify.com/track/";
-    private static final String SPOTIFY_AUTH_URL = "https://accounts.spotify.com/api/token";
 
     @SuppressWarnings("unused")
     private final static String LOAD = "\uD83D\uDCE5"; // 📥
     @SuppressWarnings("unused")
     private final static String CANCEL = "\uD83D\uDEAB"; // 🚫
 
-    // Static variables to avoid double initialization
-    private static String accessToken = null;
-    private static long accessTokenExpirationTime;
-    private static boolean initializationAttempted = false;
-
-    // Maps to store Spotify track information
-    public static final Map<String, String> lastTrackIds = new ConcurrentHashMap<>(); // guildId -> trackId
-    public static final Map<String, String> trackNames = new ConcurrentHashMap<>(); // trackId -> trackName
-    public static final Map<String, String> albumNames = new ConcurrentHashMap<>(); // trackId -> albumName
-    public static final Map<String, String> artistNames = new ConcurrentHashMap<>(); // trackId -> artistName
-    public static final Map<String, String> albumImageUrls = new ConcurrentHashMap<>(); // trackId -> albumImageUrl
-    public static final Map<String, Color> trackColors = new ConcurrentHashMap<>(); // trackId -> color
-    public static final Map<String, String> releaseYears = new ConcurrentHashMap<>(); // trackId -> releaseYear
+    private final SpotifyManager spotify;
 
     public SpotifyCmd(Bot bot) {
         super(bot);
@@ -93,63 +68,32 @@ public class SpotifyCmd extends MusicCommand {
         this.bePlaying = false;
 
         List<OptionData> options = new ArrayList<>();
-        options.add(new OptionData(OptionType.STRING, "tracklink", "URL of the Spotify track", true));
+        options.add(new OptionData(OptionType.STRING, "tracklink", "URL of a Spotify track, playlist or album", true));
         this.options = options;
-
-        // Initialize Spotify connection only if it hasn't been attempted yet
-        if (!initializationAttempted) {
-            initializationAttempted = true;
-            try {
-                String clientId = bot.getConfig().getSpotifyClientId();
-                String clientSecret = bot.getConfig().getSpotifyClientSecret();
-
-                if (clientId.isEmpty() || clientSecret.isEmpty()) {
-                    log.info("Spotify feature disabled: Client ID or Client Secret not configured");
-                    return;
-                }
-
-                // Single attempt to get access token with timeout
-                accessToken = getAccessToken(clientId, clientSecret);
-                if (accessToken == null) {
-                    log.info("Spotify feature disabled: Failed to obtain access token");
-                } else {
-                    log.info("Successfully connected to Spotify API");
-                }
-            } catch (Exception e) {
-                log.info("Failed to initialize Spotify connection", e);
-                // Don't rethrow - let the bot continue without Spotify functionality
-            }
-        }
+        this.spotify = bot.getSpotifyManager();
     }
 
     @Override
     public void doCommand(SlashCommandEvent event) {
         String trackUrl = event.getOption("tracklink").getAsString();
 
-        if (accessToken == null) {
+        if (!spotify.isAvailable()) {
             event.reply("This command is not available. A configuration by the bot owner is required to activate this command.").queue();
             return;
         }
 
-        // Renew the access token if it has expired
-        if (System.currentTimeMillis() >= accessTokenExpirationTime) {
-            String clientId = bot.getConfig().getSpotifyClientId();
-            String clientSecret = bot.getConfig().getSpotifyClientSecret();
-            accessToken = getAccessToken(clientId, clientSecret);
-            if (accessToken == null) {
-                event.reply("Failed to connect to Spotify API. Please try again later.").queue();
-                return;
-            }
+        if (SpotifyCollection.isCollectionUrl(trackUrl)) {
+            event.deferReply().queue(hook -> handleSpotifyCollection(trackUrl, event, hook));
+            return;
         }
-
         if (!isSpotifyTrackUrl(trackUrl)) {
             event.reply("Error: The specified URL is not a Spotify track URL").queue();
             return;
         }
         try {
             String trackId = extractTrackIdFromUrl(trackUrl);
-            SpotifyLookupResult trackData = fetchSpotifyTrackData(trackId);
-            storeTrackInfo(event.getGuild().getId(), trackId, trackData.trackName, trackData.albumName, trackData.artistName, trackData.albumImageUrl, trackData.color, trackData.releaseYear);
+            SpotifyTrackInfo trackData = spotify.lookupTrack(trackId);
+            spotify.setGuildTrack(event.getGuild().getId(), trackId);
             sendTrackInfoEmbed(event.getTextChannel(), trackData);
             event.reply("Loading `[" + trackData.trackName + "]`...")
                     .queue(m -> bot.getPlayerManager().loadItemOrdered(event.getGuild(), "ytmsearch:" + trackData.trackName + " " + trackData.artistName, new SlashResultHandler(m, event)));
@@ -161,35 +105,28 @@ public class SpotifyCmd extends MusicCommand {
     @Override
     public void doCommand(CommandEvent event) {
         if (event.getArgs().isEmpty()) {
-            event.reply(event.getClient().getError() + " Please include the Spotify track URL.");
+            event.reply(event.getClient().getError() + " Please include a Spotify track, playlist or album URL.");
             return;
         }
         String trackUrl = event.getArgs();
 
-        if (accessToken == null) {
+        if (!spotify.isAvailable()) {
             event.reply("This command is not available. A configuration by the bot owner is required to activate this command.");
             return;
         }
 
-        // Renew the access token if it has expired
-        if (System.currentTimeMillis() >= accessTokenExpirationTime) {
-            String clientId = bot.getConfig().getSpotifyClientId();
-            String clientSecret = bot.getConfig().getSpotifyClientSecret();
-            accessToken = getAccessToken(clientId, clientSecret);
-            if (accessToken == null) {
-                event.reply("Failed to connect to Spotify API. Please try again later.");
-                return;
-            }
+        if (SpotifyCollection.isCollectionUrl(trackUrl)) {
+            event.reply(bot.getConfig().getLoading() + " Loading Spotify playlist...", m -> handleSpotifyCollection(trackUrl, event, m));
+            return;
         }
-
         if (!isSpotifyTrackUrl(trackUrl)) {
             event.reply("Error: The specified URL is not a Spotify track URL");
             return;
         }
         try {
             String trackId = extractTrackIdFromUrl(trackUrl);
-            SpotifyLookupResult trackData = fetchSpotifyTrackData(trackId);
-            storeTrackInfo(event.getGuild().getId(), trackId, trackData.trackName, trackData.albumName, trackData.artistName, trackData.albumImageUrl, trackData.color, trackData.releaseYear);
+            SpotifyTrackInfo trackData = spotify.lookupTrack(trackId);
+            spotify.setGuildTrack(event.getGuild().getId(), trackId);
             sendTrackInfoEmbed(event.getTextChannel(), trackData);
             event.reply("Loading `[" + trackData.trackName + "]`...",
                     m -> bot.getPlayerManager().loadItemOrdered(event.getGuild(), "ytmsearch:" + trackData.trackName + " " + trackData.artistName, new ResultHandler(m, event)));
@@ -222,61 +159,7 @@ public class SpotifyCmd extends MusicCommand {
         return matcher.matches();
     }
 
-    private static final class SpotifyLookupResult {
-        private final String trackName;
-        private final String albumName;
-        private final String artistName;
-        private final String albumImageUrl;
-        private final String releaseYear;
-        private final Color color;
-
-        private SpotifyLookupResult(String trackName, String albumName, String artistName, String albumImageUrl, String releaseYear, Color color) {
-            this.trackName = trackName;
-            this.albumName = albumName;
-            this.artistName = artistName;
-            this.albumImageUrl = albumImageUrl;
-            this.releaseYear = releaseYear;
-            this.color = color;
-        }
-    }
-
-    private SpotifyLookupResult fetchSpotifyTrackData(String trackId) throws IOException, InterruptedException {
-        String endpoint = "https://api.spotify.com/v1/tracks/" + trackId;
-        HttpRequest request = HttpRequest.newBuilder()
-                .header("Authorization", "Bearer " + accessToken)
-                .header("Accept-Language", "en")
-                .GET()
-                .uri(URI.create(endpoint))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        JSONObject json = new JSONObject(response.body());
-        String trackName = json.getString("name");
-        String albumName = json.getJSONObject("album").getString("name");
-        String artistName = json.getJSONArray("artists").getJSONObject(0).getString("name");
-        String albumImageUrl = json.getJSONObject("album").getJSONArray("images").getJSONObject(0).getString("url");
-
-        String releaseDate = json.getJSONObject("album").getString("release_date");
-        String releaseDatePrecision = json.getJSONObject("album").getString("release_date_precision");
-        String releaseYear = extractReleaseYear(releaseDate, releaseDatePrecision);
-
-        endpoint = "https://api.spotify.com/v1/audio-features/" + trackId;
-        request = HttpRequest.newBuilder()
-                .header("Authorization", "Bearer " + accessToken)
-                .GET()
-                .uri(URI.create(endpoint))
-                .build();
-
-        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        json = new JSONObject(response.body());
-        double trackColor = json.has("valence") ? json.getDouble("valence") : 0.5;
-        int hue = (int) (trackColor * 360);
-        Color color = Color.getHSBColor((float) hue / 360, 1.0f, 1.0f);
-
-        return new SpotifyLookupResult(trackName, albumName, artistName, albumImageUrl, releaseYear, color);
-    }
-
-    private void sendTrackInfoEmbed(MessageChannel channel, SpotifyLookupResult result) {
+    private void sendTrackInfoEmbed(MessageChannel channel, SpotifyTrackInfo result) {
         EmbedBuilder embed = new EmbedBuilder();
         embed.setTitle("Track Information :");
         embed.setDescription(
@@ -290,118 +173,6 @@ public class SpotifyCmd extends MusicCommand {
         channel.sendMessageEmbeds(embed.build()).queue();
     }
 
-    private static String getAccessToken(String clientId, String clientSecret) {
-        if (clientId.isEmpty() || clientSecret.isEmpty()) {
-            LoggerFactory.getLogger("SpotifyCmd").warn("Spotify credentials are not configured");
-            return null;
-        }
-
-        try {
-            String encodedCredentials = Base64.getEncoder().encodeToString((clientId + ":" + clientSecret).getBytes());
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .header("Authorization", "Basic " + encodedCredentials)
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials"))
-                    .uri(URI.create(SPOTIFY_AUTH_URL))
-                    .timeout(Duration.ofSeconds(RESPONSE_TIMEOUT))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            
-            // Check if response is successful (2xx status code)
-            if (response.statusCode() / 100 != 2) {
-                LoggerFactory.getLogger("SpotifyCmd").warn("Failed to get Spotify access token. Status code: " + response.statusCode());
-                return null;
-            }
-
-            // Check if response body is empty
-            if (response.body() == null || response.body().trim().isEmpty()) {
-                LoggerFactory.getLogger("SpotifyCmd").warn("Empty response from Spotify API");
-                return null;
-            }
-
-            // Validate JSON response
-            try {
-                JSONObject json = new JSONObject(response.body());
-                if (!json.has("access_token") || !json.has("expires_in")) {
-                    LoggerFactory.getLogger("SpotifyCmd").warn("Invalid response format from Spotify API");
-                    return null;
-                }
-                accessTokenExpirationTime = System.currentTimeMillis() + json.getInt("expires_in") * 1000L;
-                return json.getString("access_token");
-            } catch (org.json.JSONException e) {
-                LoggerFactory.getLogger("SpotifyCmd").warn("Failed to parse Spotify API response: " + e.getMessage());
-                return null;
-            }
-        } catch (IOException e) {
-            LoggerFactory.getLogger("SpotifyCmd").warn("Network error while connecting to Spotify API: " + e.getMessage());
-            return null;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LoggerFactory.getLogger("SpotifyCmd").warn("Interrupted while connecting to Spotify API");
-            return null;
-        } catch (Exception e) {
-            LoggerFactory.getLogger("SpotifyCmd").warn("Unexpected error while connecting to Spotify API: " + e.getMessage());
-            return null;
-        }
-    }
-
-    // Check if a track is from Spotify (based on the guild ID)
-    public static boolean isSpotifyTrack(String guildId) {
-        return lastTrackIds.containsKey(guildId);
-    }
-    
-    // Get Spotify track information for a guild
-    public static class SpotifyTrackInfo {
-        public final String trackId;
-        public final String trackName;
-        public final String albumName;
-        public final String artistName;
-        public final String albumImageUrl;
-        public final Color color;
-        public final String releaseYear;
-        
-        public SpotifyTrackInfo(String trackId, String trackName, String albumName, String artistName, String albumImageUrl, Color color, String releaseYear) {
-            this.trackId = trackId;
-            this.trackName = trackName;
-            this.albumName = albumName;
-            this.artistName = artistName;
-            this.albumImageUrl = albumImageUrl;
-            this.color = color;
-            this.releaseYear = releaseYear;
-        }
-    }
-    
-    // Get Spotify track info for a specific guild
-    public static SpotifyTrackInfo getTrackInfo(String guildId) {
-        String trackId = lastTrackIds.get(guildId);
-        if (trackId == null) {
-            return null;
-        }
-        
-        return new SpotifyTrackInfo(
-            trackId,
-            trackNames.getOrDefault(trackId, "Unknown Track"),
-            albumNames.getOrDefault(trackId, "Unknown Album"),
-            artistNames.getOrDefault(trackId, "Unknown Artist"),
-            albumImageUrls.getOrDefault(trackId, ""),
-            trackColors.getOrDefault(trackId, Color.GREEN),
-            releaseYears.getOrDefault(trackId, "Unknown")
-        );
-    }
-    
-    // Store track info in the maps
-    private void storeTrackInfo(String guildId, String trackId, String trackName, String albumName, String artistName, String albumImageUrl, Color color, String releaseYear) {
-        lastTrackIds.put(guildId, trackId);
-        trackNames.put(trackId, trackName);
-        albumNames.put(trackId, albumName);
-        artistNames.put(trackId, artistName);
-        albumImageUrls.put(trackId, albumImageUrl);
-        trackColors.put(trackId, color);
-        releaseYears.put(trackId, releaseYear);
-    }
-
     private class SlashResultHandler implements AudioLoadResultHandler {
         private final InteractionHook m;
         private final SlashCommandEvent event;
@@ -410,7 +181,7 @@ public class SpotifyCmd extends MusicCommand {
         private SlashResultHandler(InteractionHook m, SlashCommandEvent event) {
             this.m = m;
             this.event = event;
-            this.trackId = lastTrackIds.get(event.getGuild().getId());
+            this.trackId = spotify.getGuildTrackId(event.getGuild().getId());
         }
 
         @Override
@@ -434,11 +205,11 @@ public class SpotifyCmd extends MusicCommand {
             AudioHandler handler = (AudioHandler) event.getGuild().getAudioManager().getSendingHandler();
             int pos = handler.addTrack(qtrack) + 1;
             
-            // Update the lastTrackIds map immediately, even if the track is queued
+            // Update the guild's Spotify track immediately, even if the track is queued
             // This ensures we remember this is a Spotify track when it eventually plays
             if (trackId != null) {
-                // Always update the lastTrackIds map to remember this track was loaded from Spotify
-                lastTrackIds.put(event.getGuild().getId(), trackId);
+                // Always remember this track was loaded from Spotify
+                spotify.setGuildTrack(event.getGuild().getId(), trackId);
             }
             
             event.getHook().sendMessage(FormatUtil.filter(event.getClient().getSuccess() + "**" + track.getInfo().title
@@ -469,10 +240,10 @@ public class SpotifyCmd extends MusicCommand {
             AudioHandler handler = (AudioHandler) event.getGuild().getAudioManager().getSendingHandler();
             int pos = handler.addTrack(qtrack) + 1;
             
-            // Update the lastTrackIds map immediately, even if the track is queued
+            // Update the guild's Spotify track immediately, even if the track is queued
             if (trackId != null) {
-                // Always update the lastTrackIds map to remember this track was loaded from Spotify
-                lastTrackIds.put(event.getGuild().getId(), trackId);
+                // Always remember this track was loaded from Spotify
+                spotify.setGuildTrack(event.getGuild().getId(), trackId);
             }
             
             event.getHook().sendMessage(FormatUtil.filter(event.getClient().getSuccess() + "**" + track.getInfo().title
@@ -502,7 +273,7 @@ public class SpotifyCmd extends MusicCommand {
         private ResultHandler(Message m, CommandEvent event) {
             this.m = m;
             this.event = event;
-            this.trackId = lastTrackIds.get(event.getGuild().getId());
+            this.trackId = spotify.getGuildTrackId(event.getGuild().getId());
         }
 
         @Override
@@ -525,10 +296,10 @@ public class SpotifyCmd extends MusicCommand {
             AudioHandler handler = (AudioHandler) event.getGuild().getAudioManager().getSendingHandler();
             int pos = handler.addTrack(qtrack) + 1;
             
-            // Update the lastTrackIds map immediately, even if the track is queued
+            // Update the guild's Spotify track immediately, even if the track is queued
             if (trackId != null) {
-                // Always update the lastTrackIds map to remember this track was loaded from Spotify
-                lastTrackIds.put(event.getGuild().getId(), trackId);
+                // Always remember this track was loaded from Spotify
+                spotify.setGuildTrack(event.getGuild().getId(), trackId);
             }
             
             m.editMessage(FormatUtil.filter(event.getClient().getSuccess() + "**" + track.getInfo().title
@@ -559,10 +330,10 @@ public class SpotifyCmd extends MusicCommand {
             AudioHandler handler = (AudioHandler) event.getGuild().getAudioManager().getSendingHandler();
             int pos = handler.addTrack(qtrack) + 1;
             
-            // Update the lastTrackIds map immediately, even if the track is queued
+            // Update the guild's Spotify track immediately, even if the track is queued
             if (trackId != null) {
-                // Always update the lastTrackIds map to remember this track was loaded from Spotify
-                lastTrackIds.put(event.getGuild().getId(), trackId);
+                // Always remember this track was loaded from Spotify
+                spotify.setGuildTrack(event.getGuild().getId(), trackId);
             }
             
             m.editMessage(FormatUtil.filter(event.getClient().getSuccess() + "**" + track.getInfo().title
@@ -586,30 +357,18 @@ public class SpotifyCmd extends MusicCommand {
 
     // Check if Spotify API credentials are properly configured
     public boolean isConfigured() {
-        return accessToken != null;
+        return spotify.isAvailable();
     }
 
     // Handle Spotify track processing for SlashCommands (called from PlayCmd)
     public void handleSpotifyTrack(String trackId, SlashCommandEvent event, InteractionHook hook) throws Exception {
-        if (accessToken == null) {
+        if (!spotify.isAvailable()) {
             hook.editOriginal("This command is unavailable. Configuration by the bot owner is required to enable this command.").queue();
             return;
         }
 
-        // Renew the access token if it has expired
-        if (System.currentTimeMillis() >= accessTokenExpirationTime) {
-            String clientId = bot.getConfig().getSpotifyClientId();
-            String clientSecret = bot.getConfig().getSpotifyClientSecret();
-            accessToken = getAccessToken(clientId, clientSecret);
-            
-            if (accessToken == null) {
-                hook.editOriginal("Failed to authenticate with Spotify. Please try again later.").queue();
-                return;
-            }
-        }
-
-            SpotifyLookupResult trackData = fetchSpotifyTrackData(trackId);
-            storeTrackInfo(event.getGuild().getId(), trackId, trackData.trackName, trackData.albumName, trackData.artistName, trackData.albumImageUrl, trackData.color, trackData.releaseYear);
+            SpotifyTrackInfo trackData = spotify.lookupTrack(trackId);
+            spotify.setGuildTrack(event.getGuild().getId(), trackId);
             sendTrackInfoEmbed(event.getTextChannel(), trackData);
         
         // Update the hook with the track name being loaded
@@ -669,25 +428,13 @@ public class SpotifyCmd extends MusicCommand {
     
     // Handle Spotify track processing for regular Commands (called from PlayCmd)
     public void handleSpotifyTrack(String trackId, CommandEvent event, Message message) throws Exception {
-        if (accessToken == null) {
+        if (!spotify.isAvailable()) {
             message.editMessage("This command is unavailable. Configuration by the bot owner is required to enable this command.").queue();
             return;
         }
 
-        // Renew the access token if it has expired
-        if (System.currentTimeMillis() >= accessTokenExpirationTime) {
-            String clientId = bot.getConfig().getSpotifyClientId();
-            String clientSecret = bot.getConfig().getSpotifyClientSecret();
-            accessToken = getAccessToken(clientId, clientSecret);
-            
-            if (accessToken == null) {
-                message.editMessage("Failed to authenticate with Spotify. Please try again later.").queue();
-                return;
-            }
-        }
-
-            SpotifyLookupResult trackData = fetchSpotifyTrackData(trackId);
-            storeTrackInfo(event.getGuild().getId(), trackId, trackData.trackName, trackData.albumName, trackData.artistName, trackData.albumImageUrl, trackData.color, trackData.releaseYear);
+            SpotifyTrackInfo trackData = spotify.lookupTrack(trackId);
+            spotify.setGuildTrack(event.getGuild().getId(), trackId);
             sendTrackInfoEmbed(event.getTextChannel(), trackData);
         
         // Update the message with the track name being loaded
@@ -745,30 +492,40 @@ public class SpotifyCmd extends MusicCommand {
         });
     }
 
-    // Helper method to extract release year based on precision
-    private String extractReleaseYear(String releaseDate, String precision) {
-        if (releaseDate == null || releaseDate.isEmpty()) {
-            return "Unknown";
-        }
-        
-        switch (precision) {
-            case "year":
-                return releaseDate; // Already just the year
-            case "month":
-            case "day":
-                // Extract just the year part (first 4 characters)
-                if (releaseDate.length() >= 4) {
-                    return releaseDate.substring(0, 4);
-                }
-            default:
-                return releaseDate;
-        }
+    // Import a Spotify playlist or album for SlashCommands (also called from PlayCmd)
+    public void handleSpotifyCollection(String url, SlashCommandEvent event, InteractionHook hook) {
+        bot.getSpotifyImporter().importUrl(event.getGuild(), event.getUser(), url,
+                        collection -> hook.editOriginal(formatListed(collection)).queue())
+                .whenComplete((result, error) -> hook.editOriginal(formatImportResult(event.getClient().getSuccess(), event.getClient().getError(), result, error)).queue());
     }
-    
-    // Store track info in the maps (overloaded method for backward compatibility)
-    @SuppressWarnings("unused")
-    private void storeTrackInfo(String guildId, String trackId, String trackName, String albumName, String artistName, String albumImageUrl, Color color) {
-        storeTrackInfo(guildId, trackId, trackName, albumName, artistName, albumImageUrl, color, "Unknown");
+
+    // Import a Spotify playlist or album for regular Commands (also called from PlayCmd)
+    public void handleSpotifyCollection(String url, CommandEvent event, Message message) {
+        bot.getSpotifyImporter().importUrl(event.getGuild(), event.getAuthor(), url,
+                        collection -> message.editMessage(formatListed(collection)).queue())
+                .whenComplete((result, error) -> message.editMessage(formatImportResult(event.getClient().getSuccess(), event.getClient().getError(), result, error)).queue());
     }
-}
 
+    private String formatListed(SpotifyCollection collection) {
+        return bot.getConfig().getLoading() + " Loading **" + collection.trackIds().size() + "** tracks from `"
+                + FormatUtil.filter(collection.name()) + "`...";
+    }
+
+    private String formatImportResult(String success, String error, SpotifyImporter.Result result, Throwable failure) {
+        if (failure != null) {
+            Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+            return error + " Failed to import from Spotify: " + cause.getMessage();
+        }
+        StringBuilder builder = new StringBuilder(result.added() == 0
+                ? error + " No tracks from `" + result.collection().name() + "` could be loaded!"
+                : success + " Loaded **" + result.added() + "** tracks from `" + result.collection().name() + "`!");
+        if (!result.failed().isEmpty()) {
+            builder.append("\nThe following tracks could not be found:");
+            result.failed().forEach(name -> builder.append("\n- ").append(name));
+        }
+        String str = builder.toString();
+        if (str.length() > 2000)
+            str = str.substring(0, 1994) + " (...)";
+        return FormatUtil.filter(str);
+    }
+}
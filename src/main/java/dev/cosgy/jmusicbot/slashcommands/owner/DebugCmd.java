@@ -1,18 +1,25 @@
 package dev.cosgy.jmusicbot.slashcommands.owner;
 
+import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandClient;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandEvent;
 import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommandEvent;
 import dev.cosgy.jmusicbot.framework.jdautilities.commons.JDAUtilitiesInfo;
 import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
 import com.sedmelluq.discord.lavaplayer.tools.PlayerLibrary;
+import dev.cosgy.jmusicbot.shard.Shards;
 import dev.cosgy.jmusicbot.slashcommands.OwnerCommand;
 import dev.cosgy.jmusicbot.util.DiscordCompat;
+import dev.cosgy.jmusicbot.util.LatencyHistogram;
+import dev.cosgy.jmusicbot.util.http.HostMetrics;
+import dev.cosgy.jmusicbot.util.http.HttpService;
 import net.dv8tion.jda.api.JDAInfo;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.utils.FileUpload;
 
+import java.util.Map;
+
 public class DebugCmd extends OwnerCommand {
     private final static String[] PROPERTIES = {"java.version", "java.vm.name", "java.vm.specification.version",
             "java.runtime.name", "java.runtime.version", "java.specification.version", "os.arch", "os.name"};
@@ -29,7 +36,7 @@ public class DebugCmd extends OwnerCommand {
 
     @Override
     protected void execute(SlashCommandEvent event) {
-        String content = buildDebugInfo(event.getJDA().getSelfUser().getId(), event.getJDA().getGuildCache().size(), event.getJDA().getUserCache().size(), true);
+        String content = buildDebugInfo(event.getJDA().getSelfUser().getId(), bot.getShards().getGuildCount(), bot.getShards().getUserCount(), event.getClient(), true);
         if (event.isFromGuild() || DiscordCompat.getSelfMember(event.getGuild()).hasPermission(event.getTextChannel(), Permission.MESSAGE_ATTACH_FILES)) {
             event.reply("Debug information").queue();
             event.getChannel().sendFiles(FileUpload.fromData(content.getBytes(), "debug_information.txt")).queue();
@@ -40,7 +47,7 @@ public class DebugCmd extends OwnerCommand {
 
     @Override
     protected void execute(CommandEvent event) {
-        String content = buildDebugInfo(event.getJDA().getSelfUser().getId(), event.getJDA().getGuildCache().size(), event.getJDA().getUserCache().size(), false);
+        String content = buildDebugInfo(event.getJDA().getSelfUser().getId(), bot.getShards().getGuildCount(), bot.getShards().getUserCount(), event.getClient(), false);
         if (event.isFromType(ChannelType.PRIVATE)
                 || DiscordCompat.getSelfMember(event.getGuild()).hasPermission(event.getTextChannel(), Permission.MESSAGE_ATTACH_FILES))
             event.getChannel().sendFiles(FileUpload.fromData(content.getBytes(), "debug_information.txt")).queue();
@@ -48,7 +55,7 @@ public class DebugCmd extends OwnerCommand {
             event.reply("Debug Information: ```\n" + content + "\n```");
     }
 
-    private String buildDebugInfo(String selfId, long guildCount, long userCount, boolean includePiiDisclaimer) {
+    private String buildDebugInfo(String selfId, long guildCount, long userCount, CommandClient client, boolean includePiiDisclaimer) {
         StringBuilder sb = new StringBuilder();
         sb.append("System Properties:");
         for (String key : PROPERTIES)
@@ -73,11 +80,47 @@ public class DebugCmd extends OwnerCommand {
         sb.append("\n\nRuntime Information:")
                 .append("\n  Total Memory = ").append(total)
                 .append("\n  Used Memory = ").append(used)
-                .append("\n\nDiscord Information:")
+                .append("\n  Event Waiters = ").append(bot.getWaiter());
+        if (bot.getAudioNodes() != null) {
+            sb.append("\n  Audio Nodes = ").append(bot.getAudioNodes());
+        }
+        Map<String, HostMetrics> httpMetrics = HttpService.get().getMetrics();
+        if (!httpMetrics.isEmpty()) {
+            sb.append("\n\nHTTP Hosts:");
+            httpMetrics.forEach((host, metrics) -> sb.append("\n  ").append(host).append(" = ").append(metrics));
+        }
+        sb.append("\n\nScheduled Jobs:");
+        bot.getScheduler().getStats().forEach((job, stats) -> sb.append("\n  ").append(job).append(" = ").append(stats));
+        sb.append("\n  Now Playing Messages = ").append(bot.getNowplayingHandler().getRefresher());
+        Map<String, LatencyHistogram> commandLatencies = client.getCommandLatencies();
+        if (!commandLatencies.isEmpty()) {
+            sb.append("\n\nCommands:");
+            commandLatencies.forEach((command, latency) -> sb.append("\n  ").append(command).append(" = ").append(latency));
+        }
+        sb.append("\n\nCaches:")
+                .append("\n  Spotify Tracks = ").append(bot.getSpotifyManager().getTrackCache())
+                .append("\n  Spotify Matches = ").append(bot.getSpotifyImporter().getResolvedTracks())
+                .append("\n  YouTube Chapters = ").append(bot.getYoutubeChapterManager().getCache())
+                .append("\n  Lyrics = ").append(bot.getLyricsService().getStats())
+                .append("\n  History Log = ").append(bot.getMusicHistory().getLogStats())
+                .append("\n  History Stats = ").append(bot.getMusicHistory().getStats())
+                .append("\n  Server Settings = ").append(bot.getSettingsManager().getWriteStats())
+                .append("\n  Playback Counters = ").append(bot.getPlaybackCounters())
+                .append("\n  Player Resume = ").append(bot.getPlayerResume())
+                .append("\n  Cooldowns = ").append(client.getCooldowns());
+        sb.append("\n\nDiscord Information:")
                 .append("\n  ID = ").append(selfId)
                 .append("\n  Guilds = ").append(guildCount)
-                .append("\n  Users = ").append(userCount)
-                .append("\nPlease do not edit this file if you send it to the developer.");
+                .append("\n  Users = ").append(userCount);
+        if (bot.getShards() != null) {
+            for (Shards.ShardHealth shard : bot.getShards().getHealth()) {
+                sb.append("\n  Shard ").append(shard.id()).append(" = ").append(shard.status())
+                        .append(", ping=").append(shard.gatewayPing()).append("ms")
+                        .append(", guilds=").append(shard.guilds())
+                        .append(", events/s=").append(String.format("%.1f", shard.eventsPerSecond()));
+            }
+        }
+        sb.append("\nPlease do not edit this file if you send it to the developer.");
         if (includePiiDisclaimer)
             sb.append("\nThis file does not contain any personally identifiable information, nor can it be used to hijack accounts.");
         return sb.toString();
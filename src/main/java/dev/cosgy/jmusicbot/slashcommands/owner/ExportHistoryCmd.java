@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.slashcommands.owner;
+
+import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandEvent;
+import dev.cosgy.jmusicbot.framework.jdautilities.command.SlashCommandEvent;
+import com.jagrosh.jmusicbot.Bot;
+import dev.cosgy.jmusicbot.history.HistoryExport;
+import dev.cosgy.jmusicbot.history.HistoryQuery;
+import dev.cosgy.jmusicbot.slashcommands.OwnerCommand;
+import dev.cosgy.jmusicbot.util.scheduler.Scheduler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sends the whole play history, or that of one server, as a gzipped NDJSON or CSV
+ * attachment. The export is written to a temporary file off the command thread.
+ */
+public class ExportHistoryCmd extends OwnerCommand {
+    private static final Logger log = LoggerFactory.getLogger(ExportHistoryCmd.class);
+
+    private final Bot bot;
+
+    public ExportHistoryCmd(Bot bot) {
+        this.bot = bot;
+        this.name = "exporthistory";
+        this.help = "Exports the music history as a gzipped file";
+        this.arguments = "[ndjson|csv] [server ID]";
+        this.aliases = bot.getConfig().getAliases(this.name);
+        this.guildOnly = false;
+
+        List<OptionData> options = new ArrayList<>();
+        options.add(new OptionData(OptionType.STRING, "format", "File format", false)
+                .addChoice("NDJSON", "ndjson")
+                .addChoice("CSV", "csv"));
+        options.add(new OptionData(OptionType.STRING, "serverid", "Only export this server", false));
+        this.options = options;
+    }
+
+    @Override
+    protected void execute(SlashCommandEvent event) {
+        String format = event.getOption("format") == null ? null : event.getOption("format").getAsString();
+        String guildId = event.getOption("serverid") == null ? null : event.getOption("serverid").getAsString();
+        event.deferReply().queue();
+        export(format, guildId, maxFileSize(event.getGuild()),
+                message -> event.getHook().sendMessage(message).queue(),
+                upload -> event.getHook().sendMessage("Music history export").addFiles(upload));
+    }
+
+    @Override
+    protected void execute(CommandEvent event) {
+        String[] args = event.getArgs().trim().split("\\s+");
+        String format = args.length > 0 && !args[0].isEmpty() ? args[0] : null;
+        String guildId = args.length > 1 ? args[1] : null;
+        export(format, guildId, maxFileSize(event.isFromType(ChannelType.PRIVATE) ? null : event.getGuild()),
+                message -> event.reply(message),
+                upload -> event.getChannel().sendFiles(upload));
+    }
+
+    private void export(String format, String guildId, long maxFileSize, Consumer<String> reply,
+                        Function<FileUpload, RestAction<?>> send) {
+        if (!bot.getConfig().isHistoryEnabled()) {
+            reply.accept("Music history feature is disabled in the configuration.");
+            return;
+        }
+        HistoryExport.Format exportFormat = HistoryExport.Format.fromString(format);
+        if (exportFormat == null) {
+            reply.accept("Unknown format `" + format + "`, use `ndjson` or `csv`.");
+            return;
+        }
+
+        bot.getScheduler().execute(Scheduler.Lane.NETWORK, "history-export", () -> {
+            Path file = null;
+            try {
+                file = Files.createTempFile("music_history", "." + exportFormat.extension() + ".gz");
+                long written;
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+                     HistoryExport export = new HistoryExport(out, exportFormat)) {
+                    written = bot.getMusicHistory().export(
+                            new HistoryQuery(guildId, Set.of(), null, Long.MIN_VALUE, Long.MAX_VALUE, 0, 0, -1), export);
+                }
+                if (written == 0) {
+                    reply.accept("No music history to export.");
+                    Files.deleteIfExists(file);
+                    return;
+                }
+                if (Files.size(file) > maxFileSize) {
+                    reply.accept("The export is " + Files.size(file) / 1024 / 1024
+                            + " MB, too large to upload here. Use /api/history/export on the web panel instead.");
+                    Files.deleteIfExists(file);
+                    return;
+                }
+
+                String name = "music_history-" + LocalDate.now() + "." + exportFormat.extension() + ".gz";
+                Path uploaded = file;
+                send.apply(FileUpload.fromData(uploaded, name))
+                        .queue(done -> deleteQuietly(uploaded), error -> deleteQuietly(uploaded));
+            } catch (IOException e) {
+                log.warn("Failed to export the music history", e);
+                reply.accept("Failed to export the music history: " + e.getMessage());
+                if (file != null) {
+                    deleteQuietly(file);
+                }
+            }
+        });
+    }
+
+    private static long maxFileSize(Guild guild) {
+        return guild == null ? Message.MAX_FILE_SIZE : guild.getMaxFileSize();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}", file, e);
+        }
+    }
+}
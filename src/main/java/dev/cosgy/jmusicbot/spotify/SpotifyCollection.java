@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.spotify;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Spotify playlist or album and the IDs of its tracks, in order.
+ */
+public record SpotifyCollection(Type type, String id, String name, List<String> trackIds) {
+    private static final Pattern URL_PATTERN = Pattern.compile("https://open\\.spotify\\.com/(?:intl-[a-z]+/)?(playlist|album)/(\\w+)");
+
+    public enum Type {
+        PLAYLIST, ALBUM
+    }
+
+    /**
+     * @return true if the URL points at a Spotify playlist or album
+     */
+    public static boolean isCollectionUrl(String url) {
+        return url != null && URL_PATTERN.matcher(url.split("\\?")[0]).matches();
+    }
+
+    /**
+     * @return the type and ID of a playlist or album URL, or null if the URL is not one
+     */
+    public static SpotifyCollection fromUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        Matcher matcher = URL_PATTERN.matcher(url.split("\\?")[0]);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new SpotifyCollection(Type.valueOf(matcher.group(1).toUpperCase(Locale.ROOT)), matcher.group(2), null, List.of());
+    }
+}
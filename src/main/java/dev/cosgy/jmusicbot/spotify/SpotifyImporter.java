@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.spotify;
+
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.AudioHandler;
+import com.jagrosh.jmusicbot.audio.QueuedTrack;
+import com.jagrosh.jmusicbot.audio.RequestMetadata;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.cosgy.jmusicbot.util.LruCache;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Imports Spotify playlists and albums into a guild queue.
+ * <p>
+ * Track details are fetched in batches, then every track is matched on YouTube Music
+ * (falling back to SoundCloud) with bounded parallelism. Matches are appended to the
+ * queue in playlist order as soon as all earlier tracks are settled, so playback can
+ * start before the whole playlist is resolved. Matches are remembered by Spotify track
+ * ID, so importing the same tracks again skips the searches.
+ */
+public class SpotifyImporter {
+    private static final Logger log = LoggerFactory.getLogger(SpotifyImporter.class);
+    private static final int MAX_TRACKS = 500;
+
+    private final Bot bot;
+    private final SpotifyManager spotify;
+    private final LruCache<String, AudioTrack> resolvedTracks;
+    private final int parallelism;
+
+    public SpotifyImporter(Bot bot, SpotifyManager spotify) {
+        this.bot = bot;
+        this.spotify = spotify;
+        this.resolvedTracks = new LruCache<>(bot.getConfig().getSpotifyCacheSize());
+        this.parallelism = Math.max(1, bot.getConfig().getSpotifyImportParallelism());
+    }
+
+    /**
+     * Imports a playlist or album URL into the guild's queue.
+     *
+     * @param onListed called once the collection has been listed, before matching starts
+     * @return a future completed when every track has been matched or skipped
+     */
+    public CompletableFuture<Result> importUrl(Guild guild, User requester, String url, Consumer<SpotifyCollection> onListed) {
+        SpotifyCollection target = SpotifyCollection.fromUrl(url);
+        if (target == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Not a Spotify playlist or album URL"));
+        }
+        AudioHandler handler = bot.getPlayerManager().setUpHandler(guild);
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        HttpService.get().getExecutor().execute(() -> {
+            try {
+                SpotifyCollection collection = spotify.fetchCollection(target.type(), target.id(), MAX_TRACKS);
+                onListed.accept(collection);
+                Map<String, SpotifyTrackInfo> infos = spotify.lookupTracks(collection.trackIds());
+                // Keep duplicates: a playlist may contain the same track more than once
+                List<SpotifyTrackInfo> ordered = collection.trackIds().stream()
+                        .map(infos::get)
+                        .filter(Objects::nonNull)
+                        .toList();
+                result.complete(resolveAll(collection, ordered, handler, requester));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } catch (Exception e) {
+                log.warn("Failed to import Spotify {} {}: {}", target.type(), target.id(), e.getMessage());
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public LruCache<String, AudioTrack> getResolvedTracks() {
+        return resolvedTracks;
+    }
+
+    private Result resolveAll(SpotifyCollection collection, List<SpotifyTrackInfo> infos, AudioHandler handler, User requester) throws InterruptedException {
+        List<String> failed = new ArrayList<>();
+        int[] added = new int[1];
+        // Called in playlist order, one track at a time
+        resolveInOrder(infos, parallelism, this::resolve, (info, track) -> {
+            if (track == null || bot.getConfig().isTooLong(track)) {
+                failed.add(info.trackName + " - " + info.artistName);
+                return;
+            }
+            RequestMetadata rm = new RequestMetadata(requester);
+            rm.setSpotifyTrackId(info.trackId);
+            try {
+                handler.addTrack(new QueuedTrack(track, rm));
+                added[0]++;
+            } catch (RuntimeException e) {
+                log.warn("Could not queue Spotify track {}", info.trackId, e);
+                failed.add(info.trackName + " - " + info.artistName);
+            }
+        });
+        return new Result(collection, added[0], failed);
+    }
+
+    /**
+     * Resolves every item with at most {@code parallelism} lookups running at a time and
+     * passes the results to {@code append} in the order of {@code items}, as soon as all
+     * earlier items are settled. A failed lookup is passed as null. Returns once every
+     * item was appended.
+     */
+    static <I, T> void resolveInOrder(List<I> items, int parallelism, Function<I, CompletableFuture<T>> resolve,
+                                      BiConsumer<I, T> append) throws InterruptedException {
+        OrderedAppender<I, T> appender = new OrderedAppender<>(items, append);
+        Semaphore slots = new Semaphore(parallelism);
+        for (int i = 0; i < items.size(); i++) {
+            slots.acquire();
+            int index = i;
+            CompletableFuture<T> lookup;
+            try {
+                lookup = resolve.apply(items.get(i));
+            } catch (RuntimeException e) {
+                lookup = CompletableFuture.failedFuture(e);
+            }
+            lookup.whenComplete((result, error) -> {
+                try {
+                    appender.complete(index, error == null ? result : null);
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+        // Wait for the stragglers before reporting
+        slots.acquire(parallelism);
+    }
+
+    private CompletableFuture<AudioTrack> resolve(SpotifyTrackInfo info) {
+        AudioTrack cached = resolvedTracks.get(info.trackId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.makeClone());
+        }
+        String query = info.trackName + " " + info.artistName;
+        return search("ytmsearch:" + query)
+                .thenCompose(track -> track != null ? CompletableFuture.completedFuture(track) : search("scsearch:" + query))
+                .thenApply(track -> {
+                    if (track != null) {
+                        resolvedTracks.put(info.trackId, track.makeClone());
+                    }
+                    return track;
+                });
+    }
+
+    private CompletableFuture<AudioTrack> search(String query) {
+        CompletableFuture<AudioTrack> future = new CompletableFuture<>();
+        // A fresh ordering key lets the searches of one import run side by side
+        bot.getPlayerManager().loadItemOrdered(new Object(), query, new AudioLoadResultHandler() {
+            @Override
+            public void trackLoaded(AudioTrack track) {
+                future.complete(track);
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist playlist) {
+                future.complete(playlist.getTracks().isEmpty() ? null : playlist.getTracks().get(0));
+            }
+
+            @Override
+            public void noMatches() {
+                future.complete(null);
+            }
+
+            @Override
+            public void loadFailed(FriendlyException exception) {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Passes results on strictly in order while they complete out of order.
+     */
+    private static final class OrderedAppender<I, T> {
+        private final List<I> items;
+        private final BiConsumer<I, T> append;
+        private final Object[] results;
+        private final boolean[] settled;
+        private int next;
+
+        private OrderedAppender(List<I> items, BiConsumer<I, T> append) {
+            this.items = items;
+            this.append = append;
+            this.results = new Object[items.size()];
+            this.settled = new boolean[items.size()];
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized void complete(int index, T result) {
+            results[index] = result;
+            settled[index] = true;
+            while (next < settled.length && settled[next]) {
+                int current = next++;
+                T value = (T) results[current];
+                results[current] = null;
+                try {
+                    append.accept(items.get(current), value);
+                } catch (RuntimeException e) {
+                    // The items after it are still appended
+                    log.warn("Could not append item {} of {}", current, items.size(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of an import: how many tracks were queued and which could not be matched.
+     */
+    public record Result(SpotifyCollection collection, int added, List<String> failed) {
+    }
+}
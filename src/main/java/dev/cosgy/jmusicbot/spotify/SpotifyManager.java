@@ -0,0 +1,376 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.spotify;
+
+import com.jagrosh.jmusicbot.BotConfig;
+import dev.cosgy.jmusicbot.util.LruCache;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to the Spotify Web API: token handling, a bounded LRU cache of track
+ * metadata (optionally persisted to disk) and the Spotify track currently
+ * associated with each guild.
+ */
+public class SpotifyManager {
+    private static final Logger log = LoggerFactory.getLogger(SpotifyManager.class);
+    private static final String API_BASE = "https://api.spotify.com/v1/";
+    private static final int BATCH_SIZE = 50;
+    private static final String PLAYLIST_PAGE_FIELDS = "next,items(track(id,type))";
+    private static final String PLAYLIST_FIELDS = "name,tracks(" + PLAYLIST_PAGE_FIELDS + ")";
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "spotify-token-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private final SpotifyTokenProvider tokens;
+    private final LruCache<String, SpotifyTrackInfo> tracks;
+    private final Map<String, String> guildTracks = new ConcurrentHashMap<>();
+    private final Path cacheFile;
+    private volatile boolean dirty;
+
+    public SpotifyManager(BotConfig config) {
+        this.tokens = new SpotifyTokenProvider(config.getSpotifyClientId(), config.getSpotifyClientSecret(), scheduler);
+        this.tracks = new LruCache<>(config.getSpotifyCacheSize());
+        String file = config.getSpotifyCacheFile();
+        this.cacheFile = file == null || file.isBlank() ? null : Paths.get(file);
+    }
+
+    /**
+     * Loads the persisted cache and obtains the first token. Spotify features stay
+     * disabled when no credentials are configured.
+     */
+    public void init() {
+        if (!tokens.hasCredentials()) {
+            log.info("Spotify feature disabled: Client ID or Client Secret not configured");
+            return;
+        }
+        loadCache();
+        if (cacheFile != null) {
+            scheduler.scheduleWithFixedDelay(this::saveCacheIfDirty, 10, 10, TimeUnit.MINUTES);
+        }
+        if (tokens.getToken() == null) {
+            log.info("Spotify feature disabled: Failed to obtain access token");
+        } else {
+            log.info("Successfully connected to Spotify API");
+        }
+    }
+
+    /**
+     * @return true when credentials are configured and a token has been obtained
+     */
+    public boolean isAvailable() {
+        return tokens.hasCredentials() && tokens.hasToken();
+    }
+
+    /**
+     * @return the current access token, or null if Spotify cannot be reached
+     */
+    public String getAccessToken() {
+        return tokens.getToken();
+    }
+
+    /**
+     * Returns the metadata of a track, using the cache when possible.
+     *
+     * @throws IOException if no token is available or the API request fails
+     */
+    public SpotifyTrackInfo lookupTrack(String trackId) throws IOException, InterruptedException {
+        SpotifyTrackInfo cached = tracks.get(trackId);
+        if (cached != null) {
+            return cached;
+        }
+        String token = requireToken();
+        JSONObject json = new JSONObject(apiGet("tracks/" + trackId, token));
+
+        // Use a default value when the audio features are unavailable
+        double valence = 0.5;
+        try {
+            JSONObject features = new JSONObject(apiGet("audio-features/" + trackId, token));
+            valence = features.optDouble("valence", 0.5);
+        } catch (IOException | JSONException e) {
+            log.debug("No audio features for Spotify track {}: {}", trackId, e.getMessage());
+        }
+
+        SpotifyTrackInfo info = toTrackInfo(json, valence);
+        cacheTrack(info);
+        return info;
+    }
+
+    /**
+     * Returns the metadata of several tracks. Cached tracks are served from memory,
+     * the others are fetched with the multi-track endpoints, {@value #BATCH_SIZE} per request.
+     *
+     * @return the found tracks in the order of {@code trackIds}; unavailable tracks are left out
+     */
+    public Map<String, SpotifyTrackInfo> lookupTracks(List<String> trackIds) throws IOException, InterruptedException {
+        Map<String, SpotifyTrackInfo> found = new HashMap<>();
+        Set<String> unknown = new LinkedHashSet<>();
+        for (String id : trackIds) {
+            SpotifyTrackInfo cached = tracks.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                unknown.add(id);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            List<String> missing = new ArrayList<>(unknown);
+            String token = requireToken();
+            for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+                String ids = String.join(",", missing.subList(from, Math.min(missing.size(), from + BATCH_SIZE)));
+                JSONArray batch = new JSONObject(apiGet("tracks?ids=" + ids, token)).getJSONArray("tracks");
+                Map<String, Double> valences = fetchValences(ids, token);
+                for (int i = 0; i < batch.length(); i++) {
+                    JSONObject json = batch.optJSONObject(i);
+                    if (json == null || json.isNull("id")) {
+                        continue;
+                    }
+                    SpotifyTrackInfo info = toTrackInfo(json, valences.getOrDefault(json.getString("id"), 0.5));
+                    cacheTrack(info);
+                    found.put(info.trackId, info);
+                }
+            }
+        }
+
+        Map<String, SpotifyTrackInfo> ordered = new LinkedHashMap<>();
+        for (String id : trackIds) {
+            SpotifyTrackInfo info = found.get(id);
+            if (info != null) {
+                ordered.put(id, info);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Lists a playlist or album page by page.
+     *
+     * @param maxTracks stop listing once this many tracks have been collected
+     */
+    public SpotifyCollection fetchCollection(SpotifyCollection.Type type, String id, int maxTracks) throws IOException, InterruptedException {
+        String token = requireToken();
+        JSONObject json;
+        JSONObject page;
+        if (type == SpotifyCollection.Type.PLAYLIST) {
+            json = new JSONObject(apiGet("playlists/" + id + "?fields=" + PLAYLIST_FIELDS, token));
+        } else {
+            json = new JSONObject(apiGet("albums/" + id, token));
+        }
+        String name = json.optString("name", "Unknown " + type.name().toLowerCase(Locale.ROOT));
+        page = json.getJSONObject("tracks");
+
+        List<String> trackIds = new ArrayList<>();
+        while (true) {
+            JSONArray items = page.getJSONArray("items");
+            for (int i = 0; i < items.length() && trackIds.size() < maxTracks; i++) {
+                // Playlist items wrap the track, album items are the track itself
+                JSONObject track = type == SpotifyCollection.Type.PLAYLIST
+                        ? items.getJSONObject(i).optJSONObject("track")
+                        : items.getJSONObject(i);
+                // Local files and podcast episodes have no usable track id
+                if (track != null && !track.isNull("id") && "track".equals(track.optString("type", "track"))) {
+                    trackIds.add(track.getString("id"));
+                }
+            }
+            String next = page.isNull("next") ? null : page.optString("next", null);
+            if (next == null || trackIds.size() >= maxTracks) {
+                break;
+            }
+            if (type == SpotifyCollection.Type.PLAYLIST && !next.contains("fields=")) {
+                next += (next.contains("?") ? "&" : "?") + "fields=" + PLAYLIST_PAGE_FIELDS;
+            }
+            page = new JSONObject(apiGetUrl(next, token));
+        }
+        return new SpotifyCollection(type, id, name, trackIds);
+    }
+
+    public void cacheTrack(SpotifyTrackInfo info) {
+        tracks.put(info.trackId, info);
+        dirty = true;
+    }
+
+    /**
+     * Remembers the Spotify track currently playing (or about to play) in a guild.
+     */
+    public void setGuildTrack(String guildId, String trackId) {
+        guildTracks.put(guildId, trackId);
+    }
+
+    public String getGuildTrackId(String guildId) {
+        return guildTracks.get(guildId);
+    }
+
+    public void clearGuildTrack(String guildId) {
+        guildTracks.remove(guildId);
+    }
+
+    /**
+     * @return info about the Spotify track of the guild, or null if it has none
+     */
+    public SpotifyTrackInfo getGuildTrackInfo(String guildId) {
+        String trackId = guildTracks.get(guildId);
+        if (trackId == null) {
+            return null;
+        }
+        SpotifyTrackInfo info = tracks.get(trackId);
+        return info != null ? info : SpotifyTrackInfo.unknown(trackId);
+    }
+
+    /**
+     * @return the album art of a cached track, or null if the track is not cached
+     */
+    public String getAlbumImageUrl(String trackId) {
+        SpotifyTrackInfo info = tracks.get(trackId);
+        return info == null ? null : info.albumImageUrl;
+    }
+
+    public LruCache<String, SpotifyTrackInfo> getTrackCache() {
+        return tracks;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            // A periodic save may still be writing the temporary file
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("A Spotify cache save is still running, saving after it");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveCacheIfDirty();
+    }
+
+    private String requireToken() throws IOException {
+        String token = tokens.getToken();
+        if (token == null) {
+            throw new IOException("Failed to authenticate with Spotify");
+        }
+        return token;
+    }
+
+    private Map<String, Double> fetchValences(String ids, String token) throws InterruptedException {
+        Map<String, Double> valences = new HashMap<>();
+        try {
+            JSONArray features = new JSONObject(apiGet("audio-features?ids=" + ids, token)).getJSONArray("audio_features");
+            for (int i = 0; i < features.length(); i++) {
+                JSONObject feature = features.optJSONObject(i);
+                if (feature != null && feature.has("id")) {
+                    valences.put(feature.getString("id"), feature.optDouble("valence", 0.5));
+                }
+            }
+        } catch (IOException | JSONException e) {
+            log.debug("No audio features for Spotify batch: {}", e.getMessage());
+        }
+        return valences;
+    }
+
+    private static SpotifyTrackInfo toTrackInfo(JSONObject json, double valence) {
+        JSONObject album = json.getJSONObject("album");
+        JSONArray images = album.optJSONArray("images");
+        int hue = (int) (valence * 360);
+        return new SpotifyTrackInfo(
+                json.getString("id"),
+                json.getString("name"),
+                album.getString("name"),
+                json.getJSONArray("artists").getJSONObject(0).getString("name"),
+                images == null || images.isEmpty() ? "" : images.getJSONObject(0).getString("url"),
+                Color.getHSBColor((float) hue / 360, 1.0f, 1.0f),
+                extractReleaseYear(album.optString("release_date"), album.optString("release_date_precision")));
+    }
+
+    String apiGet(String path, String token) throws IOException, InterruptedException {
+        return apiGetUrl(API_BASE + path, token);
+    }
+
+    private String apiGetUrl(String url, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpService.get().request(url)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Language", "en")
+                .GET()
+                .build();
+        HttpResponse<String> response = HttpService.get().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 401) {
+            // The token was revoked early; make sure the next call gets a new one
+            tokens.refresh();
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new HttpService.HttpStatusException(request.uri(), response.statusCode());
+        }
+        return response.body();
+    }
+
+    static String extractReleaseYear(String releaseDate, String precision) {
+        if (releaseDate == null || releaseDate.isEmpty()) {
+            return "Unknown";
+        }
+        if (("month".equals(precision) || "day".equals(precision)) && releaseDate.length() >= 4) {
+            return releaseDate.substring(0, 4);
+        }
+        return releaseDate;
+    }
+
+    private void loadCache() {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return;
+        }
+        try {
+            JSONArray entries = new JSONArray(Files.readString(cacheFile, StandardCharsets.UTF_8));
+            for (int i = 0; i < entries.length(); i++) {
+                SpotifyTrackInfo info = SpotifyTrackInfo.fromJson(entries.getJSONObject(i));
+                tracks.put(info.trackId, info);
+            }
+            log.info("Loaded {} cached Spotify tracks", tracks.size());
+        } catch (IOException | JSONException e) {
+            log.warn("Failed to load Spotify cache from {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private synchronized void saveCacheIfDirty() {
+        if (cacheFile == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        JSONArray entries = new JSONArray();
+        tracks.forEach((id, info) -> entries.put(info.toJson()));
+        try {
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            Files.writeString(tmp, entries.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Failed to save Spotify cache to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+}
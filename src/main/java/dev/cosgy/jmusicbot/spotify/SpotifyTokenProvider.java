@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.spotify;
+
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Client-credentials token for the Spotify Web API.
+ * <p>
+ * The token is renewed in the background shortly before it expires, so callers
+ * normally get the current token without waiting. Concurrent refreshes are
+ * collapsed into a single request.
+ */
+public class SpotifyTokenProvider {
+    private static final Logger log = LoggerFactory.getLogger(SpotifyTokenProvider.class);
+    private static final String AUTH_URL = "https://accounts.spotify.com/api/token";
+    private static final long REFRESH_MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long RETRY_DELAY_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_RETRY_DELAY_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long WAIT_TIMEOUT_SEC = 10;
+
+    private final String clientId;
+    private final String clientSecret;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+    private volatile String token;
+    private volatile long expiresAt;
+    private ScheduledFuture<?> nextRefresh;
+    private int failures;
+
+    public SpotifyTokenProvider(String clientId, String clientSecret, ScheduledExecutorService scheduler) {
+        this.clientId = clientId == null ? "" : clientId;
+        this.clientSecret = clientSecret == null ? "" : clientSecret;
+        this.scheduler = scheduler;
+    }
+
+    public boolean hasCredentials() {
+        return !clientId.isEmpty() && !clientSecret.isEmpty();
+    }
+
+    /**
+     * @return true once a token has been obtained at least once
+     */
+    public boolean hasToken() {
+        return token != null;
+    }
+
+    /**
+     * Returns the current token. Only waits when no valid token is available,
+     * e.g. after the background refresh failed.
+     *
+     * @return the token, or null if Spotify cannot be reached
+     */
+    public String getToken() {
+        if (!hasCredentials()) {
+            return null;
+        }
+        String current = token;
+        if (current != null && System.currentTimeMillis() < expiresAt) {
+            return current;
+        }
+        try {
+            return refresh().get(WAIT_TIMEOUT_SEC, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts a token request unless one is already running.
+     *
+     * @return a future completed with the new token, or null on failure
+     */
+    public CompletableFuture<String> refresh() {
+        if (!hasCredentials()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.compareAndExchange(null, pending);
+        if (existing != null) {
+            return existing;
+        }
+        HttpService.get().getExecutor().execute(() -> {
+            String fresh = null;
+            try {
+                fresh = requestToken();
+            } finally {
+                inFlight.set(null);
+                scheduleNextRefresh(fresh != null);
+                pending.complete(fresh);
+            }
+        });
+        return pending;
+    }
+
+    private synchronized void scheduleNextRefresh(boolean success) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        long delay;
+        if (success) {
+            failures = 0;
+            delay = Math.max(RETRY_DELAY_MS, expiresAt - System.currentTimeMillis() - REFRESH_MARGIN_MS);
+        } else {
+            // Back off so bad credentials don't hammer the accounts endpoint
+            delay = Math.min(MAX_RETRY_DELAY_MS, RETRY_DELAY_MS << Math.min(failures++, 6));
+        }
+        nextRefresh = scheduler.schedule(this::refresh, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private String requestToken() {
+        try {
+            String encodedCredentials = Base64.getEncoder()
+                    .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+
+            HttpRequest request = HttpService.get().request(AUTH_URL)
+                    .header("Authorization", "Basic " + encodedCredentials)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials"))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+
+            HttpResponse<String> response = HttpService.get().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                log.warn("Failed to get Spotify access token. Status code: {}", response.statusCode());
+                return null;
+            }
+            if (response.body() == null || response.body().isBlank()) {
+                log.warn("Empty response from Spotify API");
+                return null;
+            }
+
+            JSONObject json = new JSONObject(response.body());
+            if (!json.has("access_token") || !json.has("expires_in")) {
+                log.warn("Invalid response format from Spotify API");
+                return null;
+            }
+            String fresh = json.getString("access_token");
+            expiresAt = System.currentTimeMillis() + json.getInt("expires_in") * 1000L;
+            token = fresh;
+            log.debug("Spotify access token refreshed, valid for {}s", json.getInt("expires_in"));
+            return fresh;
+        } catch (JSONException e) {
+            log.warn("Failed to parse Spotify API response: {}", e.getMessage());
+        } catch (IOException e) {
+            log.warn("Network error while connecting to Spotify API: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while connecting to Spotify API");
+        } catch (RuntimeException e) {
+            log.warn("Unexpected error while connecting to Spotify API: {}", e.getMessage());
+        }
+        return null;
+    }
+}
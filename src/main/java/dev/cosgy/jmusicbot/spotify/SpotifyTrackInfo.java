@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.spotify;
+
+import org.json.JSONObject;
+
+import java.awt.Color;
+
+/**
+ * Metadata of a Spotify track as shown in the now-playing embed and the web panel.
+ */
+public class SpotifyTrackInfo {
+    public final String trackId;
+    public final String trackName;
+    public final String albumName;
+    public final String artistName;
+    public final String albumImageUrl;
+    public final Color color;
+    public final String releaseYear;
+
+    public SpotifyTrackInfo(String trackId, String trackName, String albumName, String artistName, String albumImageUrl, Color color, String releaseYear) {
+        this.trackId = trackId;
+        this.trackName = trackName;
+        this.albumName = albumName;
+        this.artistName = artistName;
+        this.albumImageUrl = albumImageUrl;
+        this.color = color;
+        this.releaseYear = releaseYear;
+    }
+
+    /**
+     * Placeholder used when a guild references a track whose metadata is no longer cached.
+     */
+    static SpotifyTrackInfo unknown(String trackId) {
+        return new SpotifyTrackInfo(trackId, "Unknown Track", "Unknown Album", "Unknown Artist", "", Color.GREEN, "Unknown");
+    }
+
+    JSONObject toJson() {
+        return new JSONObject()
+                .put("id", trackId)
+                .put("name", trackName)
+                .put("album", albumName)
+                .put("artist", artistName)
+                .put("image", albumImageUrl)
+                .put("color", color.getRGB())
+                .put("year", releaseYear);
+    }
+
+    static SpotifyTrackInfo fromJson(JSONObject json) {
+        return new SpotifyTrackInfo(
+                json.getString("id"),
+                json.optString("name", "Unknown Track"),
+                json.optString("album", "Unknown Album"),
+                json.optString("artist", "Unknown Artist"),
+                json.optString("image", ""),
+                new Color(json.optInt("color", Color.GREEN.getRGB())),
+                json.optString("year", "Unknown"));
+    }
+}
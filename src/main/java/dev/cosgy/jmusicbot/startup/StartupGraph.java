@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the startup steps of the bot as a graph rather than one after the other.
+ * <p>
+ * Each step starts on a virtual thread as soon as the steps it depends on are done, so
+ * steps that do not depend on each other run at the same time. Critical steps are the
+ * ones the bot needs before it can connect; the caller {@link Step#join() joins} them
+ * where it needs their result, and their failure fails startup. Background steps are
+ * never waited for: the bot comes up while they run, and a failure is only logged. A
+ * step whose dependency failed is skipped.
+ * <p>
+ * {@link #report()} logs when and for how long every step ran once they are all done.
+ */
+public class StartupGraph {
+    private static final Logger log = LoggerFactory.getLogger(StartupGraph.class);
+
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Step<?>> steps = new CopyOnWriteArrayList<>();
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * A step of the graph and its timing.
+     */
+    public static final class Step<T> {
+        private final String name;
+        private final boolean background;
+        private volatile CompletableFuture<T> future;
+        private volatile long startedNanos = -1;
+        private volatile long endedNanos = -1;
+        private volatile String result = "skipped";
+
+        private Step(String name, boolean background) {
+            this.name = name;
+            this.background = background;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Waits for the step and returns its result.
+         *
+         * @throws RuntimeException what the step threw, or a {@link CompletionException}
+         *                          wrapping a checked exception or the failure of a dependency
+         */
+        public T join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * @return time the step ran in milliseconds, or -1 when it did not run to an end
+         */
+        public long getMillis() {
+            return startedNanos < 0 || endedNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(endedNanos - startedNanos);
+        }
+
+        private T run(Callable<T> task) {
+            startedNanos = System.nanoTime();
+            try {
+                T value = task.call();
+                result = "ok";
+                return value;
+            } catch (Exception e) {
+                result = "failed";
+                if (background) {
+                    log.warn("Startup step '{}' failed", name, e);
+                }
+                throw e instanceof RuntimeException runtime ? runtime : new CompletionException(e);
+            } catch (Error e) {
+                result = "failed";
+                throw e;
+            } finally {
+                endedNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Adds a step the bot cannot come up without, started once {@code after} are done.
+     */
+    public <T> Step<T> critical(String name, Callable<T> task, Step<?>... after) {
+        return add(name, false, task, after);
+    }
+
+    /**
+     * Adds a step the bot does not wait for, started once {@code after} are done.
+     */
+    public Step<Void> background(String name, Task task, Step<?>... after) {
+        return add(name, true, () -> {
+            task.run();
+            return null;
+        }, after);
+    }
+
+    /**
+     * Logs the timing table once every step added so far is done, failed or skipped.
+     */
+    public CompletableFuture<Void> report() {
+        CompletableFuture<?>[] futures = steps.stream().map(step -> step.future).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures)
+                .handle((ignored, error) -> {
+                    log.info(table());
+                    executor.shutdown();
+                    return null;
+                });
+    }
+
+    /**
+     * @return a table of every step with when it started and how long it ran, relative
+     *         to the creation of the graph
+     */
+    public String table() {
+        List<Step<?>> sorted = new ArrayList<>(steps);
+        sorted.sort(Comparator.comparingLong(step -> step.startedNanos < 0 ? Long.MAX_VALUE : step.startedNanos));
+        long criticalEnd = 0;
+        long end = 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n  %-20s %8s %8s  %-10s %s", "Step", "Start", "Time", "Kind", "Result"));
+        for (Step<?> step : sorted) {
+            String start = step.startedNanos < 0 ? "-" : millis(step.startedNanos) + "ms";
+            String time = step.getMillis() < 0 ? "-" : step.getMillis() + "ms";
+            sb.append(String.format("%n  %-20s %8s %8s  %-10s %s", step.name, start, time,
+                    step.background ? "background" : "critical", step.result));
+            if (step.endedNanos >= 0) {
+                long ended = millis(step.endedNanos);
+                end = Math.max(end, ended);
+                if (!step.background) {
+                    criticalEnd = Math.max(criticalEnd, ended);
+                }
+            }
+        }
+        return "Startup took " + criticalEnd + "ms to connect, " + end + "ms in all:" + sb;
+    }
+
+    private long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos - startNanos);
+    }
+
+    private <T> Step<T> add(String name, boolean background, Callable<T> task, Step<?>... after) {
+        Step<T> step = new Step<>(name, background);
+        CompletableFuture<?>[] dependencies = new CompletableFuture<?>[after.length];
+        for (int i = 0; i < after.length; i++) {
+            dependencies[i] = after[i].future;
+        }
+        step.future = CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> step.run(task), executor);
+        steps.add(step);
+        return step;
+    }
+}
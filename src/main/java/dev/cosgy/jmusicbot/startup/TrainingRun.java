@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.startup;
+
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.FilterChainConfig;
+import com.jagrosh.jmusicbot.webpanel.WebPanelApplication;
+import com.sedmelluq.discord.lavaplayer.filter.AudioFilter;
+import com.sedmelluq.discord.lavaplayer.filter.FloatPcmAudioFilter;
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.typesafe.config.ConfigFactory;
+import dev.cosgy.jmusicbot.framework.jdautilities.command.Command;
+import dev.cosgy.jmusicbot.framework.jdautilities.command.CommandClient;
+import dev.cosgy.jmusicbot.history.HistoryQuery;
+import dev.cosgy.jmusicbot.util.http.HttpService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * Exercises the hot paths of the bot without Discord, for {@code --training-run}.
+ * <p>
+ * A training run starts the bot on a stand-in configuration, never connects to the
+ * gateway, runs these steps and exits. Started with {@code -XX:AOTCacheOutput}, the JVM
+ * writes the classes it loaded and linked, and the profiles it gathered, to an AOT cache
+ * that makes the next start with {@code -XX:AOTCache} faster. The run writes the usual
+ * data files, so it belongs in an empty working directory.
+ */
+public class TrainingRun {
+    private static final Logger log = LoggerFactory.getLogger(TrainingRun.class);
+    // Enough audio for the filters to be compiled, not just interpreted
+    private static final int FILTER_FRAMES = 2000;
+    private static final List<String> WEB_PANEL_PATHS = List.of(
+            "/", "/api/status", "/api/queue", "/api/guilds", "/api/bot/info", "/api/stats/playback",
+            "/api/stats/shards", "/api/filters", "/api/servers", "/api/console/logs", "/api/history?limit=20",
+            "/api/history/search?q=training", "/api/history/stats", "/api/history/requesters");
+
+    private final Bot bot;
+    private final CommandClient client;
+
+    public TrainingRun(Bot bot, CommandClient client) {
+        this.bot = bot;
+        this.client = client;
+    }
+
+    /**
+     * Stands in a token, which is never used, and an owner, unless they are given with
+     * {@code -D}, so a training run needs no config file. Players are neither resumed nor
+     * saved, so a run in the bot's own directory leaves its snapshot alone.
+     */
+    public static void useStandInConfig() {
+        setIfAbsent("token", "training-run");
+        setIfAbsent("owner", "1");
+        System.setProperty("resume.enabled", "false");
+        ConfigFactory.invalidateCaches();
+    }
+
+    /**
+     * Adds the training steps to {@code graph}; they run side by side. They are critical
+     * steps: a step that fails leaves its paths out of the cache, so the run must fail
+     * with it rather than produce a cache that only looks complete.
+     *
+     * @return the steps, for the caller to join
+     */
+    public List<StartupGraph.Step<Void>> exercise(StartupGraph graph) {
+        return List.of(
+                step(graph, "command parsing", this::parseCommands),
+                step(graph, "filters", this::runFilters),
+                step(graph, "history", this::readHistory),
+                step(graph, "web panel", this::callWebPanel));
+    }
+
+    private static StartupGraph.Step<Void> step(StartupGraph graph, String name, StartupGraph.Task task) {
+        return graph.critical(name, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private void parseCommands() {
+        String prefix = client.getPrefix();
+        int found = 0;
+        for (Command command : client.getCommands()) {
+            for (String line : List.of(command.getName(), command.getName() + " some arguments here",
+                    command.getName().toUpperCase() + "   spaced")) {
+                if (client.parse(prefix + line) != null) {
+                    found++;
+                }
+            }
+        }
+        client.parse("not a command");
+        log.debug("Parsed {} command lines", found);
+    }
+
+    private void runFilters() {
+        FilterChainConfig config = new FilterChainConfig();
+        config.getTimescale().setEnabled(true);
+        config.getTremolo().setEnabled(true);
+        config.getVibrato().setEnabled(true);
+        config.getKaraoke().setEnabled(true);
+        config.getRotation().setEnabled(true);
+        config.getDistortion().setEnabled(true);
+        config.getChannelMix().setEnabled(true);
+        config.getLowPass().setEnabled(true);
+        config.getReverb().setEnabled(true);
+        config.getEqualizer().setEnabled(true);
+
+        AudioDataFormat format = StandardAudioDataFormats.DISCORD_PCM_S16_BE;
+        List<AudioFilter> chain = config.buildChain(format, new Sink());
+        // The last filter built wraps all the others
+        FloatPcmAudioFilter head = (FloatPcmAudioFilter) chain.get(chain.size() - 1);
+        int samples = format.chunkSampleCount;
+        float[][] frame = new float[format.channelCount][samples];
+        try {
+            for (int i = 0; i < FILTER_FRAMES; i++) {
+                for (int c = 0; c < frame.length; c++) {
+                    for (int s = 0; s < samples; s++) {
+                        frame[c][s] = (float) Math.sin((i * samples + s) * 2 * Math.PI * 440 / format.sampleRate);
+                    }
+                }
+                head.process(frame, 0, samples);
+            }
+            head.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            chain.forEach(AudioFilter::close);
+        }
+        config.toMap();
+    }
+
+    private void readHistory() {
+        bot.getMusicHistory().getStats();
+        bot.getMusicHistory().getHistory(50);
+        bot.getMusicHistory().query(HistoryQuery.forGuild("0", 50));
+    }
+
+    private void callWebPanel() throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        WebPanelApplication.start(bot, port);
+        // Through the bot's own client, so the run also trains the path its lookups take
+        HttpService http = HttpService.get();
+        try {
+            for (String path : WEB_PANEL_PATHS) {
+                HttpRequest request = http.request("http://127.0.0.1:" + port + path).build();
+                // Most answers are errors without a gateway, they still go through the controllers
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                log.debug("GET {} -> {}", path, status);
+            }
+        } finally {
+            WebPanelApplication.stop();
+        }
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * End of the filter chain, drops the audio.
+     */
+    private static final class Sink implements FloatPcmAudioFilter {
+        @Override
+        public void process(float[][] input, int offset, int length) {
+        }
+
+        @Override
+        public void seekPerformed(long requestedTime, long providedTime) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Per-guild playback counters, kept apart from the server settings.
+ * <p>
+ * Counters are {@link LongAdder}s, so the player threads of different guilds never
+ * contend on an update. They are checkpointed every minute, when they changed, to a
+ * small binary file: a header, then the guild ID and one long per {@link Counter} for
+ * every guild, followed by a CRC32 of everything before it. A torn or corrupt file is
+ * ignored rather than half loaded.
+ */
+public class PlaybackCounters {
+    private static final Logger log = LoggerFactory.getLogger(PlaybackCounters.class);
+    private static final int MAGIC = 0x4A4D5043; // "JMPC"
+    private static final int VERSION = 1;
+    private static final long CHECKPOINT_INTERVAL_SECONDS = 60;
+
+    private final Path file;
+    private final Map<Long, LongAdder[]> guilds = new ConcurrentHashMap<>();
+    // Bumped on every update; a checkpoint is only written when it moved
+    private final LongAdder updates = new LongAdder();
+    private final AtomicLong checkpointedUpdates = new AtomicLong();
+    private final AtomicLong checkpoints = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "playback-counters");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * What is counted. New values must be appended, the checkpoint stores them in order.
+     */
+    public enum Counter {
+        PLAYS,
+        PLAY_TIME_MS,
+        SKIPS,
+        SKIP_VOTES,
+        ERRORS
+    }
+
+    /**
+     * Counter values of a guild, or summed over every guild.
+     */
+    public record Totals(long plays, long playTimeMs, long skips, long skipVotes, long errors) {
+        private static Totals of(long[] values) {
+            return new Totals(values[0], values[1], values[2], values[3], values[4]);
+        }
+    }
+
+    public PlaybackCounters(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the last checkpoint and starts the periodic ones.
+     *
+     * @return false when there was no checkpoint to load, e.g. on the first start
+     */
+    public boolean init() {
+        boolean loaded = load();
+        scheduler.scheduleWithFixedDelay(this::checkpointIfChanged,
+                CHECKPOINT_INTERVAL_SECONDS, CHECKPOINT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        return loaded;
+    }
+
+    public void increment(long guildId, Counter counter) {
+        add(guildId, counter, 1);
+    }
+
+    public void add(long guildId, Counter counter, long amount) {
+        if (amount == 0) {
+            return;
+        }
+        guilds.computeIfAbsent(guildId, id -> newCounters())[counter.ordinal()].add(amount);
+        updates.increment();
+    }
+
+    public Totals get(long guildId) {
+        LongAdder[] counters = guilds.get(guildId);
+        long[] values = new long[Counter.values().length];
+        if (counters != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = counters[i].sum();
+            }
+        }
+        return Totals.of(values);
+    }
+
+    /**
+     * @return the counters summed over every guild
+     */
+    public Totals total() {
+        long[] values = new long[Counter.values().length];
+        for (LongAdder[] counters : guilds.values()) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] += counters[i].sum();
+            }
+        }
+        return Totals.of(values);
+    }
+
+    /**
+     * @return number of guilds with at least one counter
+     */
+    public int guildCount() {
+        return guilds.size();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        checkpointIfChanged();
+    }
+
+    @Override
+    public String toString() {
+        return guilds.size() + " guilds, " + checkpoints.get() + " checkpoints, "
+                + (updates.sum() - checkpointedUpdates.get()) + " updates pending";
+    }
+
+    private synchronized void checkpointIfChanged() {
+        long seen = updates.sum();
+        if (seen == checkpointedUpdates.get()) {
+            return;
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                DataOutputStream body = new DataOutputStream(new CheckedOutputStream(out, crc));
+                Counter[] counters = Counter.values();
+                body.writeInt(MAGIC);
+                body.writeByte(VERSION);
+                body.writeByte(counters.length);
+                // Guilds seen after this point are written by the next checkpoint
+                Map<Long, LongAdder[]> snapshot = Map.copyOf(guilds);
+                body.writeInt(snapshot.size());
+                for (Map.Entry<Long, LongAdder[]> entry : snapshot.entrySet()) {
+                    body.writeLong(entry.getKey());
+                    for (LongAdder counter : entry.getValue()) {
+                        body.writeLong(counter.sum());
+                    }
+                }
+                body.flush();
+                out.writeLong(crc.getValue());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpointedUpdates.set(seen);
+            checkpoints.incrementAndGet();
+        } catch (IOException e) {
+            log.warn("Failed to save playback counters to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private boolean load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            DataInputStream body = new DataInputStream(new CheckedInputStream(in, crc));
+            if (body.readInt() != MAGIC || body.readUnsignedByte() != VERSION) {
+                log.warn("Ignoring {}: not a playback counter file", file);
+                return false;
+            }
+            int stored = body.readUnsignedByte();
+            int guildCount = body.readInt();
+            Map<Long, long[]> loaded = new ConcurrentHashMap<>();
+            for (int g = 0; g < guildCount; g++) {
+                long guildId = body.readLong();
+                long[] values = new long[Counter.values().length];
+                for (int c = 0; c < stored; c++) {
+                    long value = body.readLong();
+                    // Counters removed since the file was written are dropped
+                    if (c < values.length) {
+                        values[c] = value;
+                    }
+                }
+                loaded.put(guildId, values);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                log.warn("Ignoring {}: checksum mismatch", file);
+                return false;
+            }
+            loaded.forEach((guildId, values) -> {
+                LongAdder[] counters = guilds.computeIfAbsent(guildId, id -> newCounters());
+                for (int c = 0; c < values.length; c++) {
+                    counters[c].add(values[c]);
+                }
+            });
+            log.info("Loaded playback counters of {} guilds", loaded.size());
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.warn("Failed to load playback counters from {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[Counter.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.http;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-host admission control: a concurrency cap (semaphore) combined with a
+ * token bucket that smooths the request rate. Waiting is done by sleeping the
+ * caller, which is cheap because requests run on virtual threads.
+ */
+public class HostLimiter {
+    private final Semaphore permits;
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param maxConcurrent maximum number of in-flight requests for the host
+     * @param requestsPerSecond sustained request rate, {@code <= 0} disables the bucket
+     * @param burst number of requests that may be issued back-to-back
+     */
+    public HostLimiter(int maxConcurrent, double requestsPerSecond, int burst) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.tokensPerNano = requestsPerSecond <= 0 ? 0 : requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Blocks until a concurrency slot and a rate token are both available.
+     * Every successful call must be paired with {@link #release()}.
+     */
+    public void acquire() throws InterruptedException {
+        permits.acquire();
+        try {
+            long waitNanos;
+            while ((waitNanos = tryTakeToken()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is due
+     */
+    synchronized long tryTakeToken() {
+        if (tokensPerNano == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
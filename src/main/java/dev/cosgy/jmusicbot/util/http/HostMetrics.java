@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counters for a single remote host.
+ */
+public class HostMetrics {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    void recordResponse(int statusCode, long latencyNanos) {
+        requests.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        if (statusCode == 429) {
+            throttled.increment();
+        }
+        if (statusCode >= 500 || statusCode == 429) {
+            errors.increment();
+        }
+    }
+
+    void recordFailure(long latencyNanos) {
+        requests.increment();
+        errors.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    public long getAverageLatencyMillis() {
+        long count = requests.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.sum() / count);
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + getRequests()
+                + ", errors=" + getErrors()
+                + ", 429=" + getThrottled()
+                + ", avg=" + getAverageLatencyMillis() + "ms"
+                + ", max=" + getMaxLatencyMillis() + "ms";
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared outbound HTTP layer for the bot's own lookups (radio metadata, lyrics,
+ * Spotify, chapter scraping...). Every request goes through one pooled JDK
+ * {@link HttpClient} running on virtual threads, is admitted by a per-host
+ * {@link HostLimiter} and is timed into per-host {@link HostMetrics}.
+ * <p>
+ * Lavaplayer's source managers keep their own Apache HTTP interfaces and are not routed here.
+ */
+public final class HttpService {
+    private static final Logger log = LoggerFactory.getLogger(HttpService.class);
+    private static final HttpService INSTANCE = new HttpService();
+
+    public static final String BROWSER_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, HostMetrics> metrics = new ConcurrentHashMap<>();
+    private final Map<String, int[]> hostOverrides = new ConcurrentHashMap<>();
+    private volatile int maxConcurrentPerHost = 8;
+    private volatile double requestsPerSecond = 10;
+
+    private HttpService() {
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        // Hosts with known strict limits get tighter defaults
+        setHostLimit("api.spotify.com", 4, 5);
+        setHostLimit("accounts.spotify.com", 1, 1);
+        setHostLimit("gensokyoradio.net", 1, 1);
+        setHostLimit("api.lyrics.ovh", 2, 2);
+    }
+
+    public static HttpService get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Applies the configured defaults for hosts without a specific override.
+     * Existing limiters are dropped so the new values take effect immediately.
+     */
+    public void configure(int maxConcurrentPerHost, double requestsPerSecond) {
+        this.maxConcurrentPerHost = Math.max(1, maxConcurrentPerHost);
+        this.requestsPerSecond = requestsPerSecond;
+        limiters.keySet().removeIf(host -> !hostOverrides.containsKey(host));
+    }
+
+    public void setHostLimit(String host, int maxConcurrent, int requestsPerSecond) {
+        String key = host.toLowerCase(Locale.ROOT);
+        hostOverrides.put(key, new int[]{maxConcurrent, requestsPerSecond});
+        limiters.remove(key);
+    }
+
+    /**
+     * @return a GET request builder with the default timeout already applied
+     */
+    public HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Sends a request synchronously, waiting for the host's limiter first.
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        String host = hostOf(request.uri());
+        HostLimiter limiter = limiters.computeIfAbsent(host, this::createLimiter);
+        HostMetrics hostMetrics = metricsFor(host);
+        limiter.acquire();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = client.send(request, handler);
+            hostMetrics.recordResponse(response.statusCode(), System.nanoTime() - start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            hostMetrics.recordFailure(System.nanoTime() - start);
+            throw e;
+        } finally {
+            limiter.release();
+        }
+    }
+
+    /**
+     * Sends a request on a virtual thread; limiter waits never block the caller.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(request, handler);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Performs a GET and returns the body as UTF-8 text.
+     *
+     * @param headers alternating header names and values
+     * @throws HttpStatusException if the server answered with a non-2xx status
+     */
+    public String getString(String url, String... headers) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(DEFAULT_TIMEOUT).GET();
+        if (headers.length > 0) {
+            builder.headers(headers);
+        }
+        HttpResponse<String> response = send(builder.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() / 100 != 2) {
+            throw new HttpStatusException(uri, response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * @return a snapshot of the per-host metrics, sorted by host name
+     */
+    public Map<String, HostMetrics> getMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(metrics));
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stops the shared client for good, every request after this fails. Only the last
+     * step of the bot's shutdown calls this; calling it again does nothing.
+     */
+    public void shutdown() {
+        if (!executor.isShutdown()) {
+            executor.shutdownNow();
+        }
+    }
+
+    private HostMetrics metricsFor(String host) {
+        return metrics.computeIfAbsent(host, h -> new HostMetrics());
+    }
+
+    private HostLimiter createLimiter(String host) {
+        int[] override = hostOverrides.get(host);
+        if (override != null) {
+            return new HostLimiter(override[0], override[1], Math.max(1, override[1]));
+        }
+        double rate = requestsPerSecond;
+        int burst = rate <= 0 ? 1 : (int) Math.max(1, Math.ceil(rate * 2));
+        log.debug("Creating HTTP limiter for {} ({} concurrent, {}/s)", host, maxConcurrentPerHost, rate);
+        return new HostLimiter(maxConcurrentPerHost, rate, burst);
+    }
+
+    private static String hostOf(URI uri) {
+        String host = uri.getHost();
+        return host == null ? "unknown" : host.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Thrown by {@link #getString} when the response status is not 2xx.
+     */
+    public static class HttpStatusException extends IOException {
+        private final int statusCode;
+
+        public HttpStatusException(URI uri, int statusCode) {
+            super("HTTP " + statusCode + " from " + uri.getHost());
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
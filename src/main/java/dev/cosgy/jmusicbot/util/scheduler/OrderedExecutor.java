@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a delegate executor, one key at a time: tasks of the same key run one
+ * after the other in submission order, tasks of different keys run in parallel.
+ * <p>
+ * A key with queued tasks occupies one thread of the delegate until its queue is empty;
+ * idle keys hold no thread and no map entry. A key's queue is created and removed under
+ * the map's per-key lock, so a task submitted while its queue drains is either picked up
+ * by that drain or starts a new one.
+ */
+public class OrderedExecutor {
+    private static final Logger log = LoggerFactory.getLogger(OrderedExecutor.class);
+
+    private final Executor delegate;
+    private final Map<Object, Queue<Runnable>> queues = new ConcurrentHashMap<>();
+
+    public OrderedExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    public void execute(Object key, Runnable task) {
+        List<Queue<Runnable>> created = new ArrayList<>(1);
+        Queue<Runnable> queue = queues.compute(key, (k, existing) -> {
+            Queue<Runnable> tasks = existing;
+            if (tasks == null) {
+                tasks = new ConcurrentLinkedQueue<>();
+                created.add(tasks);
+            }
+            tasks.add(task);
+            return tasks;
+        });
+        if (created.isEmpty()) {
+            return;
+        }
+        try {
+            delegate.execute(() -> drain(key, queue));
+        } catch (RuntimeException e) {
+            queues.remove(key, queue);
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of keys with a task queued or running
+     */
+    public int activeKeys() {
+        return queues.size();
+    }
+
+    private void drain(Object key, Queue<Runnable> queue) {
+        while (true) {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    log.warn("Task for {} failed", key, t);
+                }
+            }
+            // Drop the queue only if nothing was added since the last poll
+            Queue<Runnable> remaining = queues.computeIfPresent(key, (k, tasks) -> tasks.isEmpty() ? null : tasks);
+            if (remaining == null) {
+                return;
+            }
+        }
+    }
+}
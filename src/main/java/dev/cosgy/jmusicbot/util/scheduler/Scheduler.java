@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the bot's background jobs on separate lanes, so a slow job only delays the
+ * jobs of its own lane.
+ * <p>
+ * Each lane has its own timer thread. Jobs of the {@link Lane#NETWORK} lane block on
+ * HTTP or disk, so the timer only dispatches them to a virtual thread; a periodic job
+ * still running when its next run is due skips that run instead of piling up. The
+ * other lanes run their jobs on the timer thread itself.
+ * <p>
+ * Every job is named. Run counts, timings and failures are kept per name, and a
+ * periodic job that takes longer than its period is reported as an overrun. Failures
+ * are logged and do not cancel a periodic job, unlike a bare executor.
+ */
+public class Scheduler {
+    private static final Logger log = LoggerFactory.getLogger(Scheduler.class);
+    private static final long OVERRUN_WARN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<Lane, ScheduledExecutorService> timers = new EnumMap<>(Lane.class);
+    private final ExecutorService virtualThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("scheduler-network-", 0).factory());
+    private final Map<String, TaskStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Groups of jobs that do not wait on each other.
+     */
+    public enum Lane {
+        /** Now playing messages, topics and other Discord refreshes */
+        UI(false),
+        /** Voice channel housekeeping: leaving empty channels, closing connections */
+        VOICE(false),
+        /** Network polling and disk I/O, run on virtual threads */
+        NETWORK(true);
+
+        private final boolean blocking;
+
+        Lane(boolean blocking) {
+            this.blocking = blocking;
+        }
+    }
+
+    public Scheduler() {
+        for (Lane lane : Lane.values()) {
+            String name = "scheduler-" + lane.name().toLowerCase(Locale.ROOT);
+            timers.put(lane, Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            }));
+        }
+    }
+
+    public void execute(Lane lane, String name, Runnable job) {
+        Runnable run = wrap(lane, name, job, 0, null);
+        if (lane.blocking) {
+            virtualThreads.execute(run);
+        } else {
+            timers.get(lane).execute(run);
+        }
+    }
+
+    public ScheduledFuture<?> schedule(Lane lane, String name, Runnable job, long delay, TimeUnit unit) {
+        return timers.get(lane).schedule(dispatch(lane, name, job, 0), delay, unit);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Lane lane, String name, Runnable job,
+                                                  long initialDelay, long period, TimeUnit unit) {
+        return timers.get(lane).scheduleAtFixedRate(dispatch(lane, name, job, unit.toNanos(period)),
+                initialDelay, period, unit);
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(Lane lane, String name, Runnable job,
+                                                     long initialDelay, long delay, TimeUnit unit) {
+        return timers.get(lane).scheduleWithFixedDelay(dispatch(lane, name, job, unit.toNanos(delay)),
+                initialDelay, delay, unit);
+    }
+
+    /**
+     * @return statistics of every job run so far, by name
+     */
+    public Map<String, TaskStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public void shutdown() {
+        timers.values().forEach(ScheduledExecutorService::shutdownNow);
+        virtualThreads.shutdownNow();
+    }
+
+    /**
+     * The runnable handed to the lane timer: the job itself, or for blocking lanes a
+     * hand-off to a virtual thread that skips the run while the previous one is going.
+     */
+    private Runnable dispatch(Lane lane, String name, Runnable job, long periodNanos) {
+        if (!lane.blocking) {
+            return wrap(lane, name, job, periodNanos, null);
+        }
+        AtomicBoolean running = new AtomicBoolean();
+        Runnable run = wrap(lane, name, job, periodNanos, running);
+        return () -> {
+            if (!running.compareAndSet(false, true)) {
+                stats(lane, name).skipped();
+                return;
+            }
+            try {
+                virtualThreads.execute(run);
+            } catch (RuntimeException e) {
+                running.set(false);
+                throw e;
+            }
+        };
+    }
+
+    private Runnable wrap(Lane lane, String name, Runnable job, long periodNanos, AtomicBoolean running) {
+        TaskStats taskStats = stats(lane, name);
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                job.run();
+            } catch (Throwable t) {
+                taskStats.failed();
+                log.warn("Scheduled job {} failed", name, t);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                taskStats.ran(elapsed);
+                if (periodNanos > 0 && elapsed > periodNanos) {
+                    if (taskStats.overran(start, OVERRUN_WARN_INTERVAL_NANOS)) {
+                        log.warn("Scheduled job {} took {} ms, longer than its {} ms period",
+                                name, elapsed / 1_000_000, periodNanos / 1_000_000);
+                    }
+                }
+                if (running != null) {
+                    running.set(false);
+                }
+            }
+        };
+    }
+
+    private TaskStats stats(Lane lane, String name) {
+        return stats.computeIfAbsent(name, k -> new TaskStats(lane));
+    }
+}
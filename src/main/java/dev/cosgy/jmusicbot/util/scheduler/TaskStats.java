@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run counters and timings for a single scheduled job.
+ */
+public class TaskStats {
+    private final Scheduler.Lane lane;
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong lastOverrunWarning = new AtomicLong(Long.MIN_VALUE);
+
+    TaskStats(Scheduler.Lane lane) {
+        this.lane = lane;
+    }
+
+    void ran(long nanos) {
+        runs.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    void skipped() {
+        skipped.increment();
+        overruns.increment();
+    }
+
+    /**
+     * Counts an overrun.
+     *
+     * @return whether it should be logged, at most once per {@code warnIntervalNanos}
+     */
+    boolean overran(long now, long warnIntervalNanos) {
+        overruns.increment();
+        long last = lastOverrunWarning.get();
+        return (last == Long.MIN_VALUE || now - last >= warnIntervalNanos)
+                && lastOverrunWarning.compareAndSet(last, now);
+    }
+
+    public Scheduler.Lane getLane() {
+        return lane;
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return runs that took longer than the period, plus runs skipped because the
+     *         previous one was still going
+     */
+    public long getOverruns() {
+        return overruns.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getAverageMillis() {
+        long count = runs.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count);
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "lane=" + lane.name().toLowerCase(Locale.ROOT)
+                + ", runs=" + getRuns()
+                + ", failures=" + getFailures()
+                + ", overruns=" + getOverruns()
+                + ", skipped=" + getSkipped()
+                + ", avg=" + getAverageMillis() + "ms"
+                + ", max=" + getMaxMillis() + "ms";
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel holding at most one deadline per key.
+ * <p>
+ * Time is cut into ticks and a deadline goes into the slot of its tick, modulo the
+ * number of slots. Arming and cancelling are O(1), and {@link #advance} only looks at
+ * the slots of the ticks that passed, so a tick costs nothing when no deadline falls
+ * on it, however many keys are armed. Deadlines are rounded up to the next tick: they
+ * never fire early, and at most one tick late.
+ * <p>
+ * Actions run on the thread calling {@link #advance}, outside the wheel's lock, so they
+ * may arm or cancel keys themselves.
+ *
+ * @param <K> key of a deadline, e.g. a guild ID
+ */
+public class TimingWheel<K> {
+    private final long tickNanos;
+    private final long originNanos;
+    private final Set<Entry<K>>[] slots;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private long currentTick;
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+        private final Runnable action;
+
+        private Entry(K key, long deadlineTick, Runnable action) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            this.action = action;
+        }
+    }
+
+    /**
+     * @param tick        length of a tick, the precision of the deadlines
+     * @param slotCount   number of slots; deadlines further than {@code slotCount} ticks
+     *                    away wait in their slot for the wheel to come around
+     * @param originNanos {@link System#nanoTime()} at which tick 0 starts
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tick, TimeUnit unit, int slotCount, long originNanos) {
+        if (tick <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("tick and slotCount must be positive");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.originNanos = originNanos;
+        this.slots = new Set[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new HashSet<>();
+        }
+    }
+
+    /**
+     * Runs {@code action} at {@code deadlineNanos}, replacing the deadline {@code key}
+     * had so far.
+     */
+    public synchronized void arm(K key, long deadlineNanos, Runnable action) {
+        cancel(key);
+        long elapsed = deadlineNanos - originNanos;
+        long tick = Math.max(currentTick + 1, Math.ceilDiv(elapsed, tickNanos));
+        Entry<K> entry = new Entry<>(key, tick, action);
+        slot(tick).add(entry);
+        entries.put(key, entry);
+    }
+
+    /**
+     * @return whether {@code key} had a deadline
+     */
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        slot(entry.deadlineTick).remove(entry);
+        return true;
+    }
+
+    public synchronized boolean isArmed(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the wheel to {@code nowNanos} and runs the actions whose deadline passed.
+     *
+     * @return number of actions run
+     */
+    public int advance(long nowNanos) {
+        List<Runnable> expired = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = Math.floorDiv(nowNanos - originNanos, tickNanos);
+            if (nowTick <= currentTick) {
+                return 0;
+            }
+            // After a long pause every slot is visited once, not once per missed tick
+            long from = Math.max(currentTick + 1, nowTick - slots.length + 1);
+            for (long tick = from; tick <= nowTick; tick++) {
+                Iterator<Entry<K>> it = slot(tick).iterator();
+                while (it.hasNext()) {
+                    Entry<K> entry = it.next();
+                    if (entry.deadlineTick <= nowTick) {
+                        it.remove();
+                        entries.remove(entry.key);
+                        expired.add(entry.action);
+                    }
+                }
+            }
+            currentTick = nowTick;
+        }
+        expired.forEach(Runnable::run);
+        return expired.size();
+    }
+
+    private Set<Entry<K>> slot(long tick) {
+        return slots[(int) Math.floorMod(tick, (long) slots.length)];
+    }
+}
@@ -7,6 +7,7 @@ const HistoryModule = (() => {
     // Private variables
     let historyData = [];
     let totalRecords = 0;
+    let nextCursor = null; // cursor of the next page, returned by /api/history
     let currentPage = 1;
     let recordsPerPage = 20;
     let searchQuery = '';
@@ -59,6 +60,7 @@ const HistoryModule = (() => {
         }
         historyData = [];
         totalRecords = 0;
+        nextCursor = null;
         currentPage = 1;
         hasMorePages = true;
         isLoadingHistory = false;
@@ -1325,7 +1327,7 @@ const HistoryModule = (() => {
         return params;
     };
 
-    const buildHistoryRequestConfig = (offset) => {
+    const buildHistoryRequestConfig = (offset, append) => {
         if (searchQuery) {
             const params = appendSharedHistoryParams(`?query=${encodeURIComponent(searchQuery)}&limit=${recordsPerPage}&offset=${offset}`);
             return {
@@ -1334,7 +1336,9 @@ const HistoryModule = (() => {
             };
         }
 
-        const params = appendSharedHistoryParams(`?limit=${recordsPerPage}&offset=${offset}`);
+        // Later pages continue from the cursor so the server does not count through earlier ones
+        const paging = append && nextCursor !== null ? `cursor=${nextCursor}` : `offset=${offset}`;
+        const params = appendSharedHistoryParams(`?limit=${recordsPerPage}&${paging}`);
         return {
             endpoint: '/api/history',
             params
@@ -1354,6 +1358,7 @@ const HistoryModule = (() => {
         // Reset state when not appending
         if (!append) {
             historyData = [];
+            nextCursor = null;
             hasMorePages = true;
             historyElements.historyList.innerHTML = '<div class="history-loading">Loading history...</div>';
         } else {
@@ -1377,7 +1382,7 @@ const HistoryModule = (() => {
         // Calculate offset
         const offset = (currentPage - 1) * recordsPerPage;
         
-        const { endpoint, params } = buildHistoryRequestConfig(offset);
+        const { endpoint, params } = buildHistoryRequestConfig(offset, append);
         
         // Fetch history data
         fetch(endpoint + params, { signal })
@@ -1388,6 +1393,7 @@ const HistoryModule = (() => {
                 if (data.success) {
                     const incomingRecords = data.history || [];
                     totalRecords = data.total || incomingRecords.length;
+                    nextCursor = data.nextCursor ?? null;
 
                     if (append) {
                         historyData = historyData.concat(incomingRecords);
@@ -1636,18 +1642,37 @@ const HistoryModule = (() => {
         });
     };
 
+    // Wraps the [start, end) ranges returned by the search endpoint in <mark>;
+    // text may be a prefix of the field the ranges were computed on
+    const highlightText = (text, ranges) => {
+        if (!text || !Array.isArray(ranges) || ranges.length === 0) return text;
+        let html = '';
+        let pos = 0;
+        ranges.forEach(([start, end]) => {
+            if (start < pos || start >= text.length) return;
+            end = Math.min(end, text.length);
+            html += text.substring(pos, start) + '<mark class="history-highlight">' + text.substring(start, end) + '</mark>';
+            pos = end;
+        });
+        return html + text.substring(pos);
+    };
+
     const buildHistoryItemHtml = (record, presentation) => {
         const additionalMetadataHtml = buildAdditionalMetadataHtml(presentation.additionalMetadata);
         const requesterHtml = buildRequesterHtml(record);
         const safeThumb = safeThumbnail(presentation.thumbnailSrc);
+        const titleHtml = presentation.title && record.title && record.title.startsWith(presentation.title)
+            ? highlightText(presentation.title, record.titleHighlights)
+            : presentation.title;
+        const artistHtml = highlightText(record.artist, record.artistHighlights);
 
         return `
             <div class="history-item-thumbnail">
                 <img src="${safeThumb}" alt="${presentation.title}" referrerpolicy="no-referrer" onerror="handleImageError(this)">
             </div>
             <div class="history-item-info">
-                <div class="history-item-title">${presentation.title || 'Unknown Title'}</div>
-                <div class="history-item-artist">${record.artist || 'Unknown Artist'}</div>
+                <div class="history-item-title">${titleHtml || 'Unknown Title'}</div>
+                <div class="history-item-artist">${artistHtml || 'Unknown Artist'}</div>
                 ${additionalMetadataHtml}
                 <div class="history-item-metadata">
                     ${(presentation.sourceType !== 'Radio' && presentation.sourceType !== 'Gensokyo Radio') ? `
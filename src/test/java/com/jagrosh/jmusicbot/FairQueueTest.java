@@ -20,6 +20,8 @@ import com.jagrosh.jmusicbot.queue.FairQueue;
 import com.jagrosh.jmusicbot.queue.Queueable;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -44,6 +46,19 @@ public class FairQueueTest {
         assertEquals(size, queue.size());
     }
 
+    @Test
+    public void upcomingIsACopyOfTheHead() {
+        FairQueue<Q> queue = new FairQueue<>();
+        for (int i = 0; i < 3; i++)
+            queue.add(new Q(i), true);
+        List<Q> upcoming = queue.getUpcoming(2);
+        assertEquals(2, upcoming.size());
+        assertEquals(0, upcoming.get(0).getIdentifier());
+        queue.clear();
+        assertEquals(2, upcoming.size());
+        assertEquals(0, queue.getUpcoming(2).size());
+    }
+
     private class Q implements Queueable {
         private final long identifier;
 
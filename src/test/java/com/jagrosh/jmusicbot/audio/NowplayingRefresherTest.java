@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package com.jagrosh.jmusicbot.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NowplayingRefresherTest {
+    private final AtomicLong now = new AtomicLong();
+    private final NowplayingRefresher refresher =
+            new NowplayingRefresher(10, 1, 60, TimeUnit.NANOSECONDS, now::get);
+
+    @Test
+    public void spreadsRefreshesOverTheInterval() {
+        for (long guild = 0; guild < 20; guild++) {
+            refresher.track(guild, 100 + guild, 1000 + guild);
+        }
+        now.set(10);
+        int refreshed = 0;
+        for (int tick = 0; tick < 10; tick++) {
+            List<NowplayingRefresher.Target> due = refresher.due();
+            assertEquals(2, due.size());
+            due.forEach(target -> refresher.edited(target, 1));
+            refreshed += due.size();
+            now.incrementAndGet();
+        }
+        assertEquals(20, refreshed);
+    }
+
+    @Test
+    public void skipsUnchangedMessages() {
+        refresher.track(1, 2, 3);
+        now.set(10);
+        NowplayingRefresher.Target target = refresher.due().get(0);
+        assertTrue(refresher.changed(target, 42));
+        refresher.edited(target, 42);
+
+        now.set(20);
+        target = refresher.due().get(0);
+        assertFalse(refresher.changed(target, 42));
+        now.set(30);
+        assertTrue(refresher.changed(refresher.due().get(0), 43));
+    }
+
+    @Test
+    public void backsOffRateLimitedChannels() {
+        refresher.track(1, 2, 3);
+        now.set(10);
+        refresher.failed(refresher.due().get(0), true);
+        now.set(19);
+        assertTrue(refresher.due().isEmpty());
+        now.set(20);
+        refresher.failed(refresher.due().get(0), true);
+        now.set(39);
+        assertTrue(refresher.due().isEmpty());
+        now.set(40);
+        refresher.edited(refresher.due().get(0), 1);
+        assertEquals(1, refresher.size());
+
+        now.set(50);
+        refresher.failed(refresher.due().get(0), false);
+        assertEquals(0, refresher.size());
+    }
+}
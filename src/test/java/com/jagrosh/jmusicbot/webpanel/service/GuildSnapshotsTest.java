@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package com.jagrosh.jmusicbot.webpanel.service;
+
+import com.jagrosh.jmusicbot.webpanel.service.GuildSnapshots.Part;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GuildSnapshotsTest {
+    @Test
+    public void keepsASnapshotUntilItsPartIsInvalidated() {
+        GuildSnapshots snapshots = new GuildSnapshots();
+        snapshots.setLive(true);
+        AtomicInteger builds = new AtomicInteger();
+        GuildSnapshots.Versioned<List<String>> first = snapshots.get(1L, Part.CHANNELS, 0L, GuildSnapshots.NO_EXPIRY,
+                () -> List.of("general", "build " + builds.incrementAndGet()));
+        GuildSnapshots.Versioned<List<String>> again = snapshots.get(1L, Part.CHANNELS, 0L, GuildSnapshots.NO_EXPIRY,
+                () -> List.of("general", "build " + builds.incrementAndGet()));
+        assertEquals(first.etag(), again.etag());
+        assertEquals(1, builds.get());
+
+        // Roles of the same guild and channels of another guild are left alone
+        snapshots.invalidate(1L, Part.ROLES);
+        snapshots.invalidate(2L, Part.CHANNELS);
+        assertEquals(first.etag(), snapshots.get(1L, Part.CHANNELS, 0L, GuildSnapshots.NO_EXPIRY,
+                () -> List.of("build " + builds.incrementAndGet())).etag());
+
+        snapshots.invalidate(1L, Part.CHANNELS);
+        GuildSnapshots.Versioned<List<String>> rebuilt = snapshots.get(1L, Part.CHANNELS, 0L,
+                GuildSnapshots.NO_EXPIRY, () -> List.of("build " + builds.incrementAndGet()));
+        assertNotEquals(first.etag(), rebuilt.etag());
+        assertEquals(List.of("build 2"), rebuilt.value());
+    }
+
+    @Test
+    public void dropsABuildAnEventCameInDuring() {
+        GuildSnapshots snapshots = new GuildSnapshots();
+        snapshots.setLive(true);
+        GuildSnapshots.Versioned<String> raced = snapshots.get(1L, Part.PROFILE, 5L, GuildSnapshots.NO_EXPIRY, () -> {
+            snapshots.invalidateMember(1L, 5L);
+            return "before the event";
+        });
+        assertEquals("before the event", raced.value());
+        assertEquals("after the event",
+                snapshots.get(1L, Part.PROFILE, 5L, GuildSnapshots.NO_EXPIRY, () -> "after the event").value());
+        assertNull(snapshots.get(1L, Part.ROLES, 0L, GuildSnapshots.NO_EXPIRY, () -> null));
+    }
+
+    @Test
+    public void invalidatesProfilesOfAUserInEveryGuild() {
+        GuildSnapshots snapshots = new GuildSnapshots();
+        snapshots.setLive(true);
+        // Events about a member before anyone looked at their profile
+        snapshots.invalidateMember(1L, 6L);
+        snapshots.invalidateUser(6L);
+        String first = snapshots.get(1L, Part.PROFILE, 5L, GuildSnapshots.NO_EXPIRY, () -> "guild 1").etag();
+        String second = snapshots.get(2L, Part.PROFILE, 5L, GuildSnapshots.NO_EXPIRY, () -> "guild 2").etag();
+        String other = snapshots.get(1L, Part.PROFILE, 6L, GuildSnapshots.NO_EXPIRY, () -> "other").etag();
+
+        snapshots.invalidateUser(5L);
+        assertNotEquals(first, snapshots.get(1L, Part.PROFILE, 5L, GuildSnapshots.NO_EXPIRY, () -> "guild 1").etag());
+        assertNotEquals(second, snapshots.get(2L, Part.PROFILE, 5L, GuildSnapshots.NO_EXPIRY, () -> "guild 2").etag());
+        assertEquals(other, snapshots.get(1L, Part.PROFILE, 6L, GuildSnapshots.NO_EXPIRY, () -> "other").etag());
+    }
+}
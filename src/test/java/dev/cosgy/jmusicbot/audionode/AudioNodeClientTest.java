@@ -0,0 +1,259 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AudioNodeClientTest {
+    @Test
+    public void streamsFramesOnCreditThenEndsTrack() throws Exception {
+        try (StandInNode node = new StandInNode("127.0.0.1:0", NodeStats.EMPTY, 10);
+             AudioNodeClient client = new AudioNodeClient(node.address(), "")) {
+            client.start();
+            awaitAvailable(client);
+            assertTrue(client.supports("youtube"));
+
+            Recorder session = new Recorder();
+            long id = client.play(session, 1, new byte[]{1, 2, 3}, 0, 100, "", 4);
+            assertTrue(id >= 0);
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i * 20L, (long) session.timecodes.poll(5, TimeUnit.SECONDS));
+            }
+            // No credit left: the node holds the rest of the track back
+            assertNull(session.timecodes.poll(200, TimeUnit.MILLISECONDS));
+
+            client.credit(id, 1, 6);
+            for (int i = 4; i < 10; i++) {
+                assertEquals(i * 20L, (long) session.timecodes.poll(5, TimeUnit.SECONDS));
+            }
+            assertTrue(session.ended.await(5, TimeUnit.SECONDS));
+            assertEquals(0, client.getSessionCount());
+        }
+    }
+
+    @Test
+    public void placesGuildsOnTheLeastLoadedNode() throws Exception {
+        try (StandInNode busy = new StandInNode("127.0.0.1:0", new NodeStats(8, 8, 0.5, 0), 10);
+             StandInNode idle = new StandInNode("127.0.0.1:0", new NodeStats(1, 1, 0.1, 0), 10);
+             AudioNodePool pool = new AudioNodePool(List.of(busy.address(), idle.address()), "")) {
+            pool.start();
+            for (AudioNodeClient client : pool.getNodes()) {
+                awaitAvailable(client);
+                awaitStats(client);
+            }
+            AudioNodeClient chosen = pool.select(1L, "youtube");
+            assertEquals(idle.address(), chosen.getAddress());
+            // A guild stays on its node
+            assertSame(chosen, pool.select(1L, "youtube"));
+            // No node decodes this source: the track plays in the bot
+            assertNull(pool.select(2L, "niconico"));
+        }
+    }
+
+    @Test
+    public void reportsLostSessionsAndReconnects() throws Exception {
+        try (StandInNode node = new StandInNode("127.0.0.1:0", NodeStats.EMPTY, 1000);
+             AudioNodeClient client = new AudioNodeClient(node.address(), "")) {
+            client.start();
+            awaitAvailable(client);
+            Recorder session = new Recorder();
+            client.play(session, 1, new byte[]{1}, 0, 100, "", 1);
+            assertEquals(0L, (long) session.timecodes.poll(5, TimeUnit.SECONDS));
+
+            node.dropConnections();
+            assertTrue(session.lost.await(5, TimeUnit.SECONDS));
+            awaitAvailable(client);
+            assertEquals(0, client.getSessionCount());
+        }
+    }
+
+    static void awaitAvailable(AudioNodeClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!client.isAvailable()) {
+            assertTrue(System.nanoTime() < deadline, "node did not connect");
+            Thread.sleep(20);
+        }
+    }
+
+    static void awaitStats(AudioNodeClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (client.getStats().players() == 0) {
+            assertTrue(System.nanoTime() < deadline, "node sent no stats");
+            Thread.sleep(20);
+        }
+    }
+
+    static final class Recorder implements AudioNodeClient.Session {
+        final BlockingQueue<Long> timecodes = new LinkedBlockingQueue<>();
+        final CountDownLatch ended = new CountDownLatch(1);
+        final CountDownLatch lost = new CountDownLatch(1);
+
+        @Override
+        public void onFrame(int epoch, long timecode, byte[] data) {
+            timecodes.add(timecode);
+        }
+
+        @Override
+        public void onTrackEvent(int epoch, byte type, long thresholdMs, String severity, String message) {
+            if (type == NodeProtocol.EVENT_END) {
+                ended.countDown();
+            }
+        }
+
+        @Override
+        public void onNodeLost(AudioNodeClient node) {
+            lost.countDown();
+        }
+    }
+
+    /**
+     * Loopback stand-in for an audio node: it speaks the protocol and plays a track of
+     * {@code trackFrames} frames, 20 ms apart, for one session at a time, without decoding.
+     * The plays, seeks and credits it gets are in {@link #received}.
+     */
+    static final class StandInNode implements AutoCloseable {
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        private final ServerSocketChannel server;
+        private final NodeStats stats;
+        private final int trackFrames;
+        private final Set<NodeConnection> connections = ConcurrentHashMap.newKeySet();
+
+        StandInNode(String address, NodeStats stats, int trackFrames) throws IOException {
+            this.server = NodeConnection.listen(address);
+            this.stats = stats;
+            this.trackFrames = trackFrames;
+            Thread.ofVirtual().start(this::acceptLoop);
+        }
+
+        String address() throws IOException {
+            return "127.0.0.1:" + ((InetSocketAddress) server.getLocalAddress()).getPort();
+        }
+
+        private void acceptLoop() {
+            while (server.isOpen()) {
+                try {
+                    NodeConnection conn = NodeConnection.accept(server);
+                    connections.add(conn);
+                    Thread.ofVirtual().start(() -> serve(conn));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(NodeConnection conn) {
+            long session = -1;
+            int epoch = 0;
+            int credits = 0;
+            int next = 0;
+            try {
+                DataInputStream hello = conn.read().body();
+                assertEquals(NodeProtocol.VERSION, hello.readInt());
+                assertEquals("", hello.readUTF());
+                conn.send(NodeProtocol.READY, out -> {
+                    out.writeInt(NodeProtocol.VERSION);
+                    out.writeInt(1);
+                    out.writeUTF("youtube");
+                });
+                conn.send(NodeProtocol.STATS, out -> NodeProtocol.writeStats(out, stats));
+                while (true) {
+                    NodeConnection.Message message = conn.read();
+                    DataInputStream in = message.body();
+                    switch (message.op()) {
+                        case NodeProtocol.PLAY -> {
+                            session = in.readLong();
+                            epoch = in.readInt();
+                            NodeProtocol.readBytes(in);
+                            long position = in.readLong();
+                            in.readInt();
+                            in.readUTF();
+                            credits = in.readInt();
+                            next = (int) (position / 20);
+                            received.add("PLAY " + epoch + " " + position);
+                        }
+                        case NodeProtocol.SEEK -> {
+                            in.readLong();
+                            epoch = in.readInt();
+                            long position = in.readLong();
+                            credits = in.readInt();
+                            next = (int) (position / 20);
+                            received.add("SEEK " + epoch + " " + position);
+                        }
+                        case NodeProtocol.CREDIT -> {
+                            in.readLong();
+                            int creditEpoch = in.readInt();
+                            int frames = in.readInt();
+                            if (creditEpoch == epoch) {
+                                credits += frames;
+                            }
+                            received.add("CREDIT " + creditEpoch + " " + frames);
+                        }
+                        case NodeProtocol.PING -> {
+                            long nanos = in.readLong();
+                            conn.send(NodeProtocol.PONG, out -> out.writeLong(nanos));
+                        }
+                        default -> {
+                        }
+                    }
+                    while (session >= 0 && credits > 0 && next < trackFrames) {
+                        long id = session;
+                        int frameEpoch = epoch;
+                        long timecode = next * 20L;
+                        conn.send(NodeProtocol.FRAME, out -> {
+                            out.writeLong(id);
+                            out.writeInt(frameEpoch);
+                            out.writeLong(timecode);
+                            NodeProtocol.writeBytes(out, new byte[]{(byte) timecode});
+                        });
+                        credits--;
+                        next++;
+                        if (next == trackFrames) {
+                            conn.send(NodeProtocol.TRACK_EVENT, out -> {
+                                out.writeLong(id);
+                                out.writeInt(frameEpoch);
+                                out.writeByte(NodeProtocol.EVENT_END);
+                                out.writeLong(0);
+                                out.writeUTF("");
+                                out.writeUTF("");
+                            });
+                            session = -1;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                connections.remove(conn);
+            }
+        }
+
+        void dropConnections() throws IOException {
+            for (NodeConnection conn : connections) {
+                conn.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            dropConnections();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.cosgy.jmusicbot.audionode.AudioNodeClientTest.Recorder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AudioNodeServerTest {
+    @Test
+    public void playsALocalFileOnCredit() throws Exception {
+        DefaultAudioPlayerManager manager = new DefaultAudioPlayerManager();
+        AudioSourceManagers.registerLocalSource(manager);
+        byte[] track = encode(manager, load(manager, writeWav(1)));
+        try (AudioNodeServer server = new AudioNodeServer(manager, "127.0.0.1:0", "")) {
+            server.start();
+            try (AudioNodeClient client = new AudioNodeClient(address(server), "")) {
+                client.start();
+                AudioNodeClientTest.awaitAvailable(client);
+                assertTrue(client.supports("local"));
+
+                Recorder session = new Recorder();
+                long id = client.play(session, 1, track, 0, 100, "", 10);
+                long last = -1;
+                for (int i = 0; i < 10; i++) {
+                    Long timecode = session.timecodes.poll(5, TimeUnit.SECONDS);
+                    assertTrue(timecode != null && timecode > last, "frames come in order");
+                    last = timecode;
+                }
+                assertNull(session.timecodes.poll(200, TimeUnit.MILLISECONDS));
+
+                // The rest of the second of audio, then the end of the track
+                client.credit(id, 1, 100);
+                assertTrue(session.ended.await(5, TimeUnit.SECONDS));
+                List<Long> rest = new ArrayList<>();
+                session.timecodes.drainTo(rest);
+                assertTrue(rest.get(rest.size() - 1) >= 900);
+                assertEquals(0, client.getSessionCount());
+            }
+        }
+    }
+
+    @Test
+    public void onlyServesBotsThatSendItsSecret() throws Exception {
+        try (AudioNodeServer server = new AudioNodeServer(new DefaultAudioPlayerManager(), "127.0.0.1:0", "s3cret")) {
+            server.start();
+            String address = address(server);
+            try (NodeConnection conn = NodeConnection.connect(address)) {
+                conn.send(NodeProtocol.HELLO, out -> {
+                    out.writeInt(NodeProtocol.VERSION);
+                    out.writeUTF("guess");
+                });
+                // Closed without a READY
+                assertThrows(IOException.class, conn::read);
+            }
+            try (AudioNodeClient client = new AudioNodeClient(address, "s3cret")) {
+                client.start();
+                AudioNodeClientTest.awaitAvailable(client);
+            }
+        }
+    }
+
+    @Test
+    public void onlyLoopbackAndUnixSocketsAreLocal() {
+        assertTrue(AudioNodeServer.isLocal("127.0.0.1:2334"));
+        assertTrue(AudioNodeServer.isLocal("[::1]:2334"));
+        assertTrue(AudioNodeServer.isLocal("unix:/tmp/audio-node.sock"));
+        assertFalse(AudioNodeServer.isLocal("0.0.0.0:2334"));
+        assertFalse(AudioNodeServer.isLocal("192.0.2.1:2334"));
+    }
+
+    /**
+     * Writes {@code seconds} of a 440 Hz tone as 16-bit mono PCM at 48 kHz.
+     */
+    private static Path writeWav(int seconds) throws IOException {
+        int rate = 48000;
+        int samples = rate * seconds;
+        ByteBuffer wav = ByteBuffer.allocate(44 + samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes()).putInt(36 + samples * 2).put("WAVE".getBytes());
+        wav.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(rate).putInt(rate * 2).putShort((short) 2).putShort((short) 16);
+        wav.put("data".getBytes()).putInt(samples * 2);
+        for (int i = 0; i < samples; i++) {
+            wav.putShort((short) (Math.sin(2 * Math.PI * 440 * i / rate) * 8000));
+        }
+        Path file = Files.createTempDirectory("audionode").resolve("tone.wav");
+        Files.write(file, wav.array());
+        return file;
+    }
+
+    private static AudioTrack load(DefaultAudioPlayerManager manager, Path file) throws Exception {
+        CompletableFuture<AudioTrack> loaded = new CompletableFuture<>();
+        manager.loadItem(file.toString(), new AudioLoadResultHandler() {
+            @Override
+            public void trackLoaded(AudioTrack track) {
+                loaded.complete(track);
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist playlist) {
+                loaded.completeExceptionally(new AssertionError("loaded a playlist"));
+            }
+
+            @Override
+            public void noMatches() {
+                loaded.completeExceptionally(new AssertionError("no track in " + file));
+            }
+
+            @Override
+            public void loadFailed(FriendlyException exception) {
+                loaded.completeExceptionally(exception);
+            }
+        });
+        return loaded.get(10, TimeUnit.SECONDS);
+    }
+
+    private static byte[] encode(DefaultAudioPlayerManager manager, AudioTrack track) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        manager.encodeTrack(new MessageOutput(bytes), track);
+        return bytes.toByteArray();
+    }
+
+    static String address(AudioNodeServer server) throws IOException {
+        return "127.0.0.1:" + ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.audionode;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerOptions;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.TrackStateListener;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import dev.cosgy.jmusicbot.audionode.AudioNodeClientTest.StandInNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RemoteTrackExecutorTest {
+    @Test
+    public void seeksThenMovesToAnotherNodeWhenItsNodeGoesAway() throws Exception {
+        try (StandInNode first = new StandInNode("127.0.0.1:0", new NodeStats(1, 1, 0.1, 0), 1000);
+             StandInNode second = new StandInNode("127.0.0.1:0", new NodeStats(8, 8, 0.5, 0), 1000);
+             AudioNodePool pool = new AudioNodePool(List.of(first.address(), second.address()), "")) {
+            pool.start();
+            for (AudioNodeClient client : pool.getNodes()) {
+                AudioNodeClientTest.awaitAvailable(client);
+                AudioNodeClientTest.awaitStats(client);
+            }
+            List<FriendlyException> exceptions = new CopyOnWriteArrayList<>();
+            RemoteTrackExecutor executor = new RemoteTrackExecutor(null, new byte[]{1}, "youtube", 1L, pool,
+                    StandardAudioDataFormats.DISCORD_OPUS, new AudioPlayerOptions());
+            executor.execute(new TrackStateListener() {
+                @Override
+                public void onTrackException(AudioTrack track, FriendlyException exception) {
+                    exceptions.add(exception);
+                }
+
+                @Override
+                public void onTrackStuck(AudioTrack track, long thresholdMs) {
+                }
+            });
+            assertEquals("PLAY 1 0", first.received.poll(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 30; i++) {
+                assertEquals(i * 20L, next(executor).getTimecode());
+            }
+            // Credits go back in batches, not one message per frame
+            assertEquals("CREDIT 1 25", first.received.poll(5, TimeUnit.SECONDS));
+            assertNull(first.received.poll(100, TimeUnit.MILLISECONDS));
+
+            // The seek starts a new epoch, nothing buffered before it is played
+            executor.setPosition(10000);
+            assertEquals("SEEK 2 10000", first.received.poll(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 5; i++) {
+                assertEquals(10000 + i * 20L, next(executor).getTimecode());
+            }
+
+            // The track resumes on the other node from the last frame played
+            first.dropConnections();
+            assertEquals("PLAY 3 10080", second.received.poll(5, TimeUnit.SECONDS));
+            assertEquals(10080L, next(executor).getTimecode());
+            assertEquals(10100L, next(executor).getTimecode());
+            assertTrue(exceptions.isEmpty());
+            executor.stop();
+        }
+    }
+
+    private static AudioFrame next(RemoteTrackExecutor executor) throws InterruptedException {
+        AudioFrame frame = executor.provide(5, TimeUnit.SECONDS);
+        assertTrue(frame != null && !frame.isTerminator(), "no frame from the node");
+        return frame;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.cosgy.jmusicbot.framework.jdautilities.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CooldownStoreTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final CooldownStore store = new CooldownStore(60_000, now::get);
+
+    @Test
+    public void expiresOnRead() {
+        store.apply("user", 10);
+        now.addAndGet(4_000);
+        assertEquals(6, store.getRemaining("user"));
+        now.addAndGet(6_000);
+        assertEquals(0, store.getRemaining("user"));
+        assertEquals(0, store.size());
+        assertEquals(1, store.getEvictions());
+    }
+
+    @Test
+    public void sweepsKeysThatAreNeverReadAgain() {
+        for (int i = 0; i < 1000; i++) {
+            store.apply("user" + i, 5);
+        }
+        store.apply("long", 3600);
+        assertEquals(1001, store.size());
+
+        now.addAndGet(60_000);
+        store.apply("next", 5);
+        assertEquals(2, store.size());
+        assertEquals(1000, store.getEvictions());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HistoryIndexTest {
+    private static HistoryIndex buildIndex(int count) {
+        HistoryIndex index = new HistoryIndex();
+        for (int i = 0; i < count; i++) {
+            PlayRecord record = new PlayRecord("title" + i, "artist", 1000, "url" + i, 60_000L * i,
+                    "id" + (i % 3), "user" + (i % 3), "guild", "g" + (i % 2));
+            if (i % 4 == 0) {
+                record.setYoutubeData("video" + i);
+            }
+            index.add(record);
+        }
+        return index;
+    }
+
+    @Test
+    public void cursorPagesCoverEveryMatchNewestFirst() {
+        HistoryIndex index = buildIndex(100);
+        List<String> titles = new ArrayList<>();
+        long cursor = -1;
+        do {
+            HistoryPage page = index.query(new HistoryQuery("g0", Set.of(), null, Long.MIN_VALUE, Long.MAX_VALUE, 7, 0, cursor));
+            assertEquals(50, page.total());
+            page.records().forEach(record -> titles.add(record.getTitle()));
+            cursor = page.nextCursor();
+        } while (cursor >= 0);
+
+        assertEquals(50, titles.size());
+        assertEquals("title98", titles.get(0));
+        assertEquals("title0", titles.get(49));
+    }
+
+    @Test
+    public void combinesFiltersAndTimeRange() {
+        HistoryIndex index = buildIndex(100);
+        // youtube records are every 4th, guild g0 every 2nd; played in minutes [10, 50)
+        HistoryPage page = index.query(new HistoryQuery("g0", Set.of("youtube"), null,
+                60_000L * 10, 60_000L * 50, 0, 0, -1));
+
+        assertEquals(10, page.total());
+        assertEquals("title48", page.records().get(0).getTitle());
+        assertEquals("title12", page.records().get(9).getTitle());
+    }
+
+    @Test
+    public void offsetSkipsMatches() {
+        HistoryIndex index = buildIndex(30);
+        HistoryPage page = index.query(new HistoryQuery(null, Set.of(), "user1", Long.MIN_VALUE, Long.MAX_VALUE, 2, 3, -1));
+
+        assertEquals(10, page.total());
+        assertEquals(List.of("title19", "title16"), page.records().stream().map(PlayRecord::getTitle).toList());
+    }
+
+    @Test
+    public void searchFoldsTextAndRanksTitleMatchesFirst() {
+        HistoryIndex index = new HistoryIndex();
+        index.add(new PlayRecord("Café del Mar", "Energy 52", 1000, "u1", 1, "id", "user", "guild", "g0"));
+        index.add(new PlayRecord("Sunset", "Cafe Tacvba", 1000, "u2", 2, "id", "user", "guild", "g0"));
+        index.add(new PlayRecord("ボカロ メドレー", "アーティスト", 1000, "u3", 3, "id", "user", "guild", "g1"));
+        // Not indexed yet, found by scanning
+        index.addAll(List.of(new PlayRecord("CAFÉ", "Someone", 1000, "u4", 4, "id", "user", "guild", "g0")));
+
+        HistorySearchPage page = index.search(HistoryQuery.forGuild("g0", 0), "cafe");
+        assertEquals(3, page.total());
+        assertEquals("CAFÉ", page.hits().get(0).record().getTitle());
+        assertEquals("Café del Mar", page.hits().get(1).record().getTitle());
+        assertEquals("Sunset", page.hits().get(2).record().getTitle());
+        assertEquals(0, page.hits().get(1).titleHighlights().get(0)[0]);
+        assertEquals(4, page.hits().get(1).titleHighlights().get(0)[1]);
+
+        // Katakana and hiragana match each other
+        page = index.search(HistoryQuery.forGuild(null, 0), "ぼかろ");
+        assertEquals(1, page.total());
+        assertEquals(3, page.hits().get(0).titleHighlights().get(0)[1]);
+        assertEquals(0, index.search(HistoryQuery.forGuild("g0", 0), "ぼかろ").total());
+    }
+}
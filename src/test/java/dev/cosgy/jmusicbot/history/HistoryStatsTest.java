@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HistoryStatsTest {
+    private static PlayRecord play(String title, String url, long daysAgo, String user, String guildId) {
+        long playedAt = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo);
+        return new PlayRecord(title, "artist", 60_000, url, playedAt, "1", user, "guild", guildId);
+    }
+
+    @Test
+    public void windowsOnlyCountRecentPlays() {
+        HistoryStats stats = new HistoryStats();
+        for (int i = 0; i < 3; i++) {
+            stats.add(play("old", "https://example.com/old", 40, "alice", "g0"));
+        }
+        stats.add(play("week", "https://example.com/week", 2, "bob", "g0"));
+        stats.add(play("week", "https://www.example.com/week/?utm_source=x", 2, "bob", "g1"));
+        stats.add(play("now", "https://example.com/now", 0, "alice", "g1"));
+
+        HistoryStats.Summary all = stats.summary(null, HistoryStats.Window.ALL, 10);
+        assertEquals(6, all.plays());
+        assertEquals(360_000, all.listenedMs());
+        assertEquals("old", all.topTracks().get(0).name());
+        assertEquals("alice", all.topRequesters().get(0).name());
+        assertEquals(4, all.topRequesters().get(0).plays());
+
+        HistoryStats.Summary week = stats.summary(null, HistoryStats.Window.WEEK, 10);
+        assertEquals(3, week.plays());
+        assertEquals("week", week.topTracks().get(0).name());
+        assertEquals(2, week.topTracks().get(0).plays());
+        assertEquals(2, week.topTracks().size());
+
+        HistoryStats.Summary day = stats.summary("g1", HistoryStats.Window.DAY, 10);
+        assertEquals(1, day.plays());
+        assertEquals("now", day.topTracks().get(0).name());
+
+        assertEquals("g0", stats.guilds(HistoryStats.Window.ALL).get(0).guildId());
+        assertEquals(1, stats.guilds(HistoryStats.Window.DAY).size());
+    }
+}
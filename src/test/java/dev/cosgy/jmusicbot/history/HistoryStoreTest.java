@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+package dev.cosgy.jmusicbot.history;
+
+import com.jagrosh.jmusicbot.audio.MusicHistory.PlayRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistoryStoreTest {
+    private static final int RECORDS = 3000;
+
+    @Test
+    public void pagesContinueFromMemoryIntoTheLog() throws Exception {
+        Path dir = Files.createTempDirectory("history");
+        HistoryRetention retention = new HistoryRetention(200, 0, 0, 0);
+        HistoryStore store = new HistoryStore(dir, retention);
+        store.open(dir.resolve("missing.json"));
+        for (int i = 0; i < RECORDS; i++) {
+            store.add(new PlayRecord("title" + i, "artist", 1000, "url" + i, 60_000L * i,
+                    "id", "user", "guild", "g" + (i % 3)));
+        }
+        store.close();
+
+        HistoryStore reopened = new HistoryStore(dir, retention);
+        reopened.open(dir.resolve("missing.json"));
+        assertEquals(200, reopened.recent().size());
+        List<String> replayed = new ArrayList<>();
+        reopened.replay(record -> replayed.add(record.getTitle()));
+        assertEquals(RECORDS, replayed.size());
+        assertEquals("title0", replayed.get(0));
+        assertEquals("title" + (RECORDS - 1), replayed.get(RECORDS - 1));
+
+        List<String> titles = new ArrayList<>();
+        long cursor = -1;
+        do {
+            HistoryPage page = reopened.query(new HistoryQuery("g0", Set.of(), null,
+                    Long.MIN_VALUE, Long.MAX_VALUE, 150, 0, cursor));
+            assertEquals(RECORDS / 3, page.total());
+            page.records().forEach(record -> titles.add(record.getTitle()));
+            cursor = page.nextCursor();
+        } while (cursor >= 0);
+
+        assertEquals(RECORDS / 3, titles.size());
+        for (int i = 0; i < titles.size(); i++) {
+            assertEquals("title" + (RECORDS - 3 - 3 * i), titles.get(i));
+        }
+
+        HistoryPage deep = reopened.query(new HistoryQuery(null, Set.of(), null,
+                Long.MIN_VALUE, Long.MAX_VALUE, 2, 2500, -1));
+        assertEquals("title499", deep.records().get(0).getTitle());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HistoryExport export = new HistoryExport(out, HistoryExport.Format.CSV)) {
+            assertEquals(RECORDS / 3, reopened.export(new HistoryQuery("g1", Set.of(), null,
+                    Long.MIN_VALUE, Long.MAX_VALUE, 0, 0, -1), export));
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(RECORDS / 3 + 1, lines.length);
+        assertTrue(lines[1].contains(",title" + (RECORDS - 2) + ","));
+        assertTrue(lines[lines.length - 1].contains(",title1,"));
+        reopened.close();
+
+        // The segments sealed by the last open are now known from their saved summaries
+        HistoryStore third = new HistoryStore(dir, retention);
+        third.open(dir.resolve("missing.json"));
+        assertEquals(200, third.recent().size());
+        assertEquals("title" + (RECORDS - 1), third.recent().get(0).getTitle());
+        assertEquals(RECORDS / 3, third.query(new HistoryQuery("g2", Set.of(), null,
+                Long.MIN_VALUE, Long.MAX_VALUE, 10, 0, -1)).total());
+        assertEquals("user", third.getRequesters("g2").keySet().iterator().next());
+        third.close();
+    }
+
+    @Test
+    public void searchFindsRecordsThatLeftMemory() throws Exception {
+        Path dir = Files.createTempDirectory("history");
+        HistoryRetention retention = new HistoryRetention(100, 0, 0, 0);
+        HistoryStore store = new HistoryStore(dir, retention);
+        store.open(dir.resolve("missing.json"));
+        for (int i = 0; i < 1000; i++) {
+            String title = i == 10 || i == 990 ? "Evicted Song " + i : "title" + i;
+            store.add(new PlayRecord(title, "artist", 1000, "url" + i, 60_000L * i,
+                    "id", "user", "guild", "g" + (i % 2)));
+        }
+        store.close();
+
+        HistoryStore reopened = new HistoryStore(dir, retention);
+        reopened.open(dir.resolve("missing.json"));
+        assertTrue(reopened.recent().stream().noneMatch(record -> record.getTitle().equals("Evicted Song 10")));
+        HistoryQuery all = new HistoryQuery(null, Set.of(), null, Long.MIN_VALUE, Long.MAX_VALUE, 10, 0, -1);
+        HistorySearchPage page = reopened.search(all, "evicted song");
+        assertEquals(2, page.total());
+        // Equal scores, the newer record first
+        assertEquals("Evicted Song 990", page.hits().get(0).record().getTitle());
+        assertEquals("Evicted Song 10", page.hits().get(1).record().getTitle());
+        assertEquals(0, page.hits().get(1).titleHighlights().get(0)[0]);
+
+        HistoryQuery second = new HistoryQuery("g0", Set.of(), null, Long.MIN_VALUE, Long.MAX_VALUE, 1, 1, -1);
+        HistorySearchPage offset = reopened.search(second, "evicted");
+        assertEquals(2, offset.total());
+        assertEquals("Evicted Song 10", offset.hits().get(0).record().getTitle());
+        reopened.close();
+    }
+
+    @Test
+    public void csvFieldsAreQuotedWhenNeeded() throws Exception {
+        PlayRecord record = new PlayRecord("a, \"b\"", "artist", 1000, "url", 0, "id", "user", "guild", "g");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HistoryExport export = new HistoryExport(out, HistoryExport.Format.CSV)) {
+            export.write(record);
+        }
+        String row = out.toString(StandardCharsets.UTF_8).split("\r\n")[1];
+        assertEquals("1970-01-01T00:00:00Z,\"a, \"\"b\"\"\",artist,1000,url,id,user,g,guild,", row);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.resume;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlayerSnapshotTest {
+    @Test
+    public void roundTripsEveryGuild() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("player_snapshot.bin");
+        PlayerSnapshot.Track playing = new PlayerSnapshot.Track(new byte[]{1, 2, 3}, 42L, "user", "0000",
+                "https://cdn/avatar.png", "spotify-id", null, null, null, null);
+        PlayerSnapshot.Track radio = new PlayerSnapshot.Track(new byte[]{4}, 0L, null, null, null, null,
+                "jp/station", "Station", null, "uuid");
+        PlayerSnapshot snapshot = new PlayerSnapshot(1234L, List.of(
+                new PlayerSnapshot.GuildPlayer(1L, 10L, playing, 65000L, true, 80, "{\"timescale\":{}}", "ALL",
+                        List.of(radio, playing)),
+                new PlayerSnapshot.GuildPlayer(2L, 20L, null, 0L, false, 100, "", "OFF", List.of(radio))));
+        snapshot.write(file);
+
+        PlayerSnapshot read = PlayerSnapshot.read(file);
+        assertEquals(1234L, read.takenAtMillis());
+        assertEquals(2, read.guilds().size());
+        PlayerSnapshot.GuildPlayer first = read.guilds().get(0);
+        assertEquals(65000L, first.position());
+        assertTrue(first.paused());
+        assertEquals("{\"timescale\":{}}", first.filters());
+        assertArrayEquals(new byte[]{1, 2, 3}, first.current().encoded());
+        assertEquals("spotify-id", first.current().spotifyTrackId());
+        assertEquals(2, first.queue().size());
+        assertEquals("Station", first.queue().get(0).radioName());
+        assertNull(first.queue().get(0).radioLogo());
+        assertNull(read.guilds().get(1).current());
+    }
+
+    @Test
+    public void rejectsATornFile() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("player_snapshot.bin");
+        new PlayerSnapshot(1L, List.of(new PlayerSnapshot.GuildPlayer(1L, 10L, null, 0L, false, 100, "", "OFF",
+                List.of()))).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> PlayerSnapshot.read(file));
+    }
+}
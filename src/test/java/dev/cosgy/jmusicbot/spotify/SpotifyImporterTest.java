@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.spotify;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SpotifyImporterTest {
+    @Test
+    public void appendsInOrderWhileLookupsFinishOutOfOrder() throws InterruptedException {
+        List<Integer> items = List.of(5, 1, 4, 2, 3, 0);
+        List<String> appended = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            SpotifyImporter.resolveInOrder(items, 3, item -> CompletableFuture.supplyAsync(() -> {
+                sleep(item * 10L);
+                return item == 4 ? null : "track " + item;
+            }, executor), (item, track) -> appended.add(item + "=" + track));
+        }
+        assertEquals(List.of("5=track 5", "1=track 1", "4=null", "2=track 2", "3=track 3", "0=track 0"), appended);
+    }
+
+    @Test
+    public void finishesWhenAppendingOrResolvingThrows() throws InterruptedException {
+        List<Integer> items = List.of(0, 1, 2, 3, 4, 5, 6, 7);
+        List<Integer> appended = new ArrayList<>();
+        SpotifyImporter.resolveInOrder(items, 2, item -> {
+            if (item == 5) {
+                throw new IllegalStateException("lookup failed");
+            }
+            return CompletableFuture.completedFuture(item);
+        }, (item, track) -> {
+            if (item == 2) {
+                throw new IllegalStateException("queue is full");
+            }
+            appended.add(track);
+        });
+        List<Integer> expected = new ArrayList<>(List.of(0, 1, 3, 4));
+        expected.add(null);
+        expected.addAll(List.of(6, 7));
+        assertEquals(expected, appended);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
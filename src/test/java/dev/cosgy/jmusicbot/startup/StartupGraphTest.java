@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.startup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupGraphTest {
+    @Test
+    public void runsIndependentStepsTogether() {
+        StartupGraph graph = new StartupGraph();
+        CountDownLatch both = new CountDownLatch(2);
+        // Each step only finishes once the other one has started
+        StartupGraph.Step<Boolean> first = graph.critical("first", () -> {
+            both.countDown();
+            return both.await(5, TimeUnit.SECONDS);
+        });
+        StartupGraph.Step<Boolean> second = graph.critical("second", () -> {
+            both.countDown();
+            return both.await(5, TimeUnit.SECONDS);
+        });
+        StartupGraph.Step<Integer> sum = graph.critical("sum", () -> (first.join() ? 1 : 0) + (second.join() ? 1 : 0),
+                first, second);
+        assertEquals(2, (int) sum.join());
+        graph.report().join();
+        assertTrue(graph.table().contains("sum"));
+    }
+
+    @Test
+    public void skipsTheDependentsOfAFailedStep() {
+        StartupGraph graph = new StartupGraph();
+        AtomicBoolean ran = new AtomicBoolean();
+        StartupGraph.Step<Void> broken = graph.background("broken", () -> {
+            throw new IllegalStateException("no tool");
+        });
+        StartupGraph.Step<Void> after = graph.background("after", () -> ran.set(true), broken);
+        assertThrows(IllegalStateException.class, broken::join);
+        assertThrows(RuntimeException.class, after::join);
+        assertFalse(ran.get());
+        graph.report().join();
+        assertTrue(graph.table().contains("skipped"));
+    }
+}
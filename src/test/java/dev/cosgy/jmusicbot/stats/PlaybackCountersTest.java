@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+package dev.cosgy.jmusicbot.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlaybackCountersTest {
+
+    @Test
+    public void countersSurviveACheckpoint() throws Exception {
+        Path file = Files.createTempDirectory("counters").resolve("playback_counters.bin");
+        PlaybackCounters counters = new PlaybackCounters(file);
+        assertFalse(counters.init());
+        counters.increment(1L, PlaybackCounters.Counter.PLAYS);
+        counters.increment(1L, PlaybackCounters.Counter.PLAYS);
+        counters.add(1L, PlaybackCounters.Counter.PLAY_TIME_MS, 180_000);
+        counters.increment(2L, PlaybackCounters.Counter.SKIPS);
+        counters.shutdown();
+
+        PlaybackCounters reloaded = new PlaybackCounters(file);
+        assertTrue(reloaded.init());
+        reloaded.shutdown();
+        assertEquals(new PlaybackCounters.Totals(2, 180_000, 0, 0, 0), reloaded.get(1L));
+        assertEquals(new PlaybackCounters.Totals(2, 180_000, 1, 0, 0), reloaded.total());
+        assertEquals(2, reloaded.guildCount());
+    }
+
+    @Test
+    public void corruptCheckpointIsIgnored() throws Exception {
+        Path file = Files.createTempDirectory("counters").resolve("playback_counters.bin");
+        PlaybackCounters counters = new PlaybackCounters(file);
+        counters.init();
+        counters.add(7L, PlaybackCounters.Counter.ERRORS, 3);
+        counters.shutdown();
+
+        byte[] data = Files.readAllBytes(file);
+        data[data.length - 9] ^= 1;
+        Files.write(file, data);
+
+        PlaybackCounters reloaded = new PlaybackCounters(file);
+        assertFalse(reloaded.init());
+        reloaded.shutdown();
+        assertEquals(0, reloaded.guildCount());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrderedExecutorTest {
+    @Test
+    public void runsTasksOfAKeyInOrder() throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        OrderedExecutor executor = new OrderedExecutor(threads);
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int key = 0; key < 4; key++) {
+            seen.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(4 * 500);
+        for (int i = 0; i < 500; i++) {
+            for (int key = 0; key < 4; key++) {
+                int value = i;
+                List<Integer> list = seen.get(key);
+                executor.execute(key, () -> {
+                    list.add(value);
+                    done.countDown();
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> list : seen) {
+            for (int i = 0; i < 500; i++) {
+                assertEquals(i, (int) list.get(i));
+            }
+        }
+        threads.shutdown();
+    }
+
+    @Test
+    public void keysDoNotWaitOnEachOther() throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        OrderedExecutor executor = new OrderedExecutor(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+        executor.execute("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute("fast", other::countDown);
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        threads.shutdown();
+    }
+
+    @Test
+    public void forgetsKeysOnceTheirQueueDrains() throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        OrderedExecutor executor = new OrderedExecutor(threads);
+        CountDownLatch done = new CountDownLatch(5000);
+        for (int i = 0; i < 5000; i++) {
+            executor.execute("channel:" + i, done::countDown);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        // The last drain of a key removes it right after its final task
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.activeKeys() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.activeKeys());
+
+        CountDownLatch again = new CountDownLatch(1);
+        executor.execute("channel:0", again::countDown);
+        assertTrue(again.await(5, TimeUnit.SECONDS));
+        threads.shutdown();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchedulerTest {
+
+    @Test
+    public void failingJobKeepsItsSchedule() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        CountDownLatch runs = new CountDownLatch(3);
+        scheduler.scheduleWithFixedDelay(Scheduler.Lane.UI, "failing", () -> {
+            runs.countDown();
+            throw new IllegalStateException("expected");
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        assertTrue(scheduler.getStats().get("failing").getFailures() >= 2);
+    }
+
+    @Test
+    public void slowNetworkJobSkipsRunsWithoutBlockingOtherLanes() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(Scheduler.Lane.NETWORK, "slow", () -> {
+            started.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        CountDownLatch ui = new CountDownLatch(5);
+        scheduler.scheduleAtFixedRate(Scheduler.Lane.UI, "fast", ui::countDown, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(ui.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        scheduler.shutdown();
+
+        assertEquals(1, started.get());
+        TaskStats slow = scheduler.getStats().get("slow");
+        assertTrue(slow.getSkipped() > 0);
+        assertEquals(Scheduler.Lane.NETWORK, slow.getLane());
+    }
+}
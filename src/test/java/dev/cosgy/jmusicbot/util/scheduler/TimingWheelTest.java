@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 THOMZY
+ */
+
+package dev.cosgy.jmusicbot.util.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+    @Test
+    public void firesAtTheDeadlineTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, TimeUnit.NANOSECONDS, 8, 0);
+        List<Long> fired = new ArrayList<>();
+        wheel.arm(1L, 25, () -> fired.add(1L));
+        // Further than one turn of the wheel away
+        wheel.arm(2L, 200, () -> fired.add(2L));
+
+        assertEquals(0, wheel.advance(29));
+        assertEquals(1, wheel.advance(30));
+        assertEquals(List.of(1L), fired);
+        assertEquals(0, wheel.advance(199));
+        assertEquals(1, wheel.advance(200));
+        assertEquals(List.of(1L, 2L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void rearmingAndCancellingReplaceTheDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, TimeUnit.NANOSECONDS, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.arm(1L, 20, () -> fired.add("first"));
+        wheel.arm(1L, 40, () -> fired.add("second"));
+        wheel.arm(2L, 20, () -> fired.add("cancelled"));
+        assertTrue(wheel.cancel(2L));
+        assertFalse(wheel.isArmed(2L));
+
+        wheel.advance(30);
+        assertTrue(fired.isEmpty());
+        wheel.advance(1000);
+        assertEquals(List.of("second"), fired);
+    }
+}
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compares the start time of JMusicBot with and without the AOT cache made by a training run.
+#
+# Every start is a training run: the bot boots without connecting to Discord, goes through
+# its hot paths (command parsing, filters, history, web panel) and exits, so the runs need
+# no token and do the same work each time. Needs JDK 25 or later.
+#
+# Usage: ./startup-benchmark.bash path/to/JMusicBot.jar [runs]
+
+set -euo pipefail
+
+if [ $# -lt 1 ]; then
+    echo "Usage: $0 path/to/JMusicBot.jar [runs]" >&2
+    exit 1
+fi
+JAR="$(cd "$(dirname "$1")" && pwd)/$(basename "$1")"
+RUNS="${2:-5}"
+WORK="$(mktemp -d)"
+trap 'rm -rf "$WORK"' EXIT
+JAVA_OPTS=(--enable-native-access=ALL-UNNAMED -Dnogui=true)
+
+# Runs one training run in an empty directory and prints how long it took in milliseconds
+timed_run() {
+    local dir
+    dir="$(mktemp -d "$WORK/run.XXXX")"
+    local start end
+    start=$(date +%s%N)
+    (cd "$dir" && java "${JAVA_OPTS[@]}" "$@" -jar "$JAR" --training-run > /dev/null 2>&1)
+    end=$(date +%s%N)
+    rm -rf "$dir"
+    echo $(( (end - start) / 1000000 ))
+}
+
+# Prints the minimum and median of the numbers on stdin
+summarize() {
+    sort -n | awk '{ v[NR] = $1 } END { printf "min %5d ms   median %5d ms\n", v[1], v[int((NR + 1) / 2)] }'
+}
+
+echo "Training the AOT cache..."
+timed_run "-XX:AOTCacheOutput=$WORK/jmusicbot.aot" > /dev/null
+if [ ! -f "$WORK/jmusicbot.aot" ]; then
+    echo "The training run did not produce an AOT cache" >&2
+    exit 1
+fi
+
+echo "Running $RUNS starts of each..."
+without=()
+with=()
+for _ in $(seq "$RUNS"); do
+    without+=("$(timed_run)")
+    with+=("$(timed_run "-XX:AOTCache=$WORK/jmusicbot.aot")")
+done
+
+printf "without AOT cache: "
+printf '%s\n' "${without[@]}" | summarize
+printf "with AOT cache:    "
+printf '%s\n' "${with[@]}" | summarize